@@ -0,0 +1,36 @@
+#!/bin/sh
+# Compare a JMH CSV result with the committed baseline.
+#   benchmarks/compare.sh result.csv [baseline.csv] [threshold-percent]
+# A benchmark is flagged SLOWER/FASTER when its score moved by more than the
+# threshold (default 10%) and by more than both error bars together. Lower is
+# better for every benchmark here (avgt and ss).
+result=${1:?usage: compare.sh result.csv [baseline.csv] [threshold-percent]}
+baseline=${2:-$(dirname "$0")/baseline.csv}
+threshold=${3:-10}
+
+awk -F, -v threshold="$threshold" '
+    function key(   k, i) {
+        k = $1
+        for (i = 8; i <= NF; i++) k = k "," $i
+        gsub(/"/, "", k)
+        # Runs of fewer classes have fewer parameter columns
+        sub(/,*\r?$/, "", k)
+        return k
+    }
+    FNR == 1 { next }
+    NR == FNR { score[key()] = $5; error[key()] = $6; next }
+    {
+        k = key()
+        unit = $7
+        gsub(/["\r]/, "", unit)
+        if (!(k in score)) { printf "%-70s %12.3f  (new)\n", k, $5; next }
+        change = ($5 - score[k]) / score[k] * 100
+        verdict = ""
+        if ((change > threshold || change < -threshold) && ($5 - score[k] > error[k] + $6 || score[k] - $5 > error[k] + $6)) {
+            verdict = change > 0 ? "SLOWER" : "FASTER"
+            if (change > 0) slower++
+        }
+        printf "%-70s %12.3f -> %12.3f %s %+7.1f%%  %s\n", k, score[k], $5, unit, change, verdict
+    }
+    END { if (slower) { printf "%d benchmark(s) slower than the baseline\n", slower; exit 1 } }
+' "$baseline" "$result"
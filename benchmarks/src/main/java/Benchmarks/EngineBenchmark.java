@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import Engine.FormulaEngine;
+import Engine.Solver;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One solve per call (what the calculator's Calculate button does) and a
+// whole column at a time (CSV batch, /batch). The parameters are one formula
+// of each kind: a plain closed form, one with trig and a default input, one
+// with a square root, and one only the numeric root finder can solve.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final int ROWS = 4096;
+
+    @Param({"Velocity|v", "Work|W", "Kinetic Energy|v", "Second Equation of Motion|t"})
+    public String formula;
+
+    private String name;
+    private String target;
+    private Solver solver;
+    private double[] inputs;
+    private double[][] columns;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        String[] parts = formula.split("\\|");
+        name = parts[0];
+        target = parts[1];
+        solver = FormulaEngine.compile(name, target);
+        if (solver == null) {
+            throw new IllegalStateException("No solver for " + formula);
+        }
+        // Positive inputs in [1, 10) keep every formula here on its real branch
+        SplittableRandom random = new SplittableRandom(17);
+        inputs = new double[solver.getArity()];
+        columns = new double[solver.getArity()][ROWS];
+        for (int slot = 0; slot < inputs.length; slot++) {
+            inputs[slot] = 1 + random.nextDouble() * 9;
+            for (int row = 0; row < ROWS; row++) {
+                columns[slot][row] = 1 + random.nextDouble() * 9;
+            }
+        }
+        out = new double[ROWS];
+    }
+
+    @Benchmark
+    public double solve() {
+        return solver.solve(inputs);
+    }
+
+    // Reported per row
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] solveColumns() {
+        solver.solveColumns(columns, out);
+        return out;
+    }
+
+    // Lookup of an already compiled solver, paid on every calculator click
+    @Benchmark
+    public Solver compile() {
+        return FormulaEngine.compile(name, target);
+    }
+}
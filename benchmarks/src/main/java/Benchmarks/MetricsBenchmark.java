@@ -0,0 +1,59 @@
+package Benchmarks;
+
+import Metrics.CalculationMetrics;
+import Metrics.FormulaMetrics;
+import Units.Quantity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// What recording costs a calculation, which should stay under 20 ns an event:
+// one solve, one 4096-row block (reported per row) and a conversion count.
+// The nanoTime() calls around a solve are not included.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private static final int ROWS = 4096;
+
+    private FormulaMetrics metrics;
+    private double[] results;
+    private long nanos = 1234;
+    private double result = 9.81;
+
+    @Setup
+    public void setUp() {
+        metrics = CalculationMetrics.of("Velocity");
+        results = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            results[i] = i * 0.5;
+        }
+    }
+
+    @Benchmark
+    public void recordSolve() {
+        metrics.record(nanos, result);
+    }
+
+    // Four threads recording into the same formula
+    @Benchmark
+    @Threads(4)
+    public void recordSolveShared() {
+        metrics.record(nanos, result);
+    }
+
+    // Reported per row
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void recordBlock() {
+        metrics.record(nanos * ROWS, results, 0, ROWS);
+    }
+
+    @Benchmark
+    public void recordConversion() {
+        CalculationMetrics.recordConversions(Quantity.VELOCITY, 1);
+    }
+}
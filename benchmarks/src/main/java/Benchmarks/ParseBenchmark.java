@@ -0,0 +1,77 @@
+package Benchmarks;
+
+import Engine.CsvBatch;
+import Engine.DecimalParser;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Turning text into numbers: one field (what the calculator does with each
+// text box), and a whole CSV through CsvBatch by both of its paths, the
+// Reader one (stdin) and the mapped one (--in <file>).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private String field = "9.80665";
+    private ByteBuffer fieldBytes;
+    private String csv;
+    private Path csvFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        fieldBytes = ByteBuffer.wrap(field.getBytes(StandardCharsets.US_ASCII));
+        SplittableRandom random = new SplittableRandom(17);
+        StringBuilder text = new StringBuilder("m,a\n");
+        for (int row = 0; row < ROWS; row++) {
+            text.append(String.format(Locale.ROOT, "%.6f,%.4f%n", random.nextDouble() * 1000, random.nextDouble() * 50));
+        }
+        csv = text.toString();
+        csvFile = Files.createTempFile("physiquist-bench", ".csv");
+        Files.writeString(csvFile, csv);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return Double.parseDouble(field);
+    }
+
+    @Benchmark
+    public double decimalParser() {
+        return DecimalParser.parse(fieldBytes, 0, fieldBytes.limit());
+    }
+
+    // Reported per row
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long csvReader() throws IOException {
+        return new CsvBatch("Force", "F").run(new StringReader(csv), Writer.nullWriter());
+    }
+
+    // Reported per row
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long csvMapped() throws IOException {
+        return new CsvBatch("Force", "F").run(csvFile, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import Engine.FormulaIndex;
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// One keystroke of the formula search box, over the catalog repeated to about
+// 5000 entries (what imported formula packs are expected to reach): a
+// one-letter prefix (the longest posting lists), a word being typed, a typo,
+// and two words. build is the index of that list, made once per registry
+// snapshot.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int ENTRIES = 5000;
+    private static final int RESULTS = 50;
+
+    private List<FormulaInfo> formulas;
+    private FormulaIndex index;
+
+    @Setup
+    public void setUp() {
+        List<FormulaInfo> catalog = FormulaRegistry.get().getFormulas();
+        formulas = new ArrayList<>(ENTRIES);
+        while (formulas.size() < ENTRIES) {
+            formulas.addAll(catalog.subList(0, Math.min(catalog.size(), ENTRIES - formulas.size())));
+        }
+        index = new FormulaIndex(formulas);
+    }
+
+    @Benchmark
+    public List<FormulaInfo> searchLetter() {
+        return index.search("v", RESULTS);
+    }
+
+    @Benchmark
+    public List<FormulaInfo> searchWord() {
+        return index.search("veloc", RESULTS);
+    }
+
+    @Benchmark
+    public List<FormulaInfo> searchTypo() {
+        return index.search("momentm", RESULTS);
+    }
+
+    @Benchmark
+    public List<FormulaInfo> searchWords() {
+        return index.search("kinetic energy", RESULTS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public FormulaIndex build() {
+        return new FormulaIndex(formulas);
+    }
+}
@@ -0,0 +1,44 @@
+package Benchmarks;
+
+import Ui.CategoryPanel;
+import Ui.WelcomePanel;
+import java.awt.CardLayout;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JPanel;
+import org.openjdk.jmh.annotations.*;
+
+// Cold start to the first frame: one shot per fresh JVM, so class loading,
+// the formula catalog and the static tables are all part of the time. It
+// builds what MainWindow builds (welcome and category cards), lays it out at
+// the window's size and paints the welcome card into an image, headless. The
+// JVM's own boot and the native window are outside the measurement; the
+// background image source is empty so no disk or network is involved.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StartupBenchmark {
+
+    @Benchmark
+    public BufferedImage firstFrame() {
+        CardLayout cards = new CardLayout();
+        JPanel main = new JPanel(cards);
+        main.add(new WelcomePanel(null, () -> null), "WelcomePanel");
+        main.add(new CategoryPanel(null), "CategoryPanel");
+        main.setSize(1000, 700);
+        main.validate();
+
+        BufferedImage frame = new BufferedImage(1000, 700, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        try {
+            main.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return frame;
+    }
+}
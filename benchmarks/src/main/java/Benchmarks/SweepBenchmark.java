@@ -0,0 +1,65 @@
+package Benchmarks;
+
+import Engine.Decimator;
+import Engine.FormulaEngine;
+import Engine.Solver;
+import Engine.Sweep;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// A log sweep of "Photon Energy" over a million frequencies, and what plotting
+// it costs: evaluate fills the outputs, pyramid builds the Decimator once per
+// sweep, and decimateFull/decimateZoomed are one 800-column frame of the
+// plot, the whole sweep and a 1000-point window of it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweepBenchmark {
+
+    private static final int POINTS = 1_000_000;
+    private static final int COLUMNS = 800;
+
+    private Sweep sweep;
+    private double[] ys;
+    private Decimator decimator;
+    private final double[] min = new double[COLUMNS];
+    private final double[] max = new double[COLUMNS];
+
+    @Setup
+    public void setUp() {
+        Solver solver = FormulaEngine.compile("Photon Energy", "E");
+        sweep = new Sweep(solver, solver.newInputs(), solver.slotOf("f"), 5e13, 5e15, POINTS, true);
+        ys = sweep.newOutputs();
+        sweep.evaluate(ys, 0, POINTS);
+        decimator = new Decimator(ys);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double[] evaluate() {
+        sweep.evaluate(ys, 0, POINTS, ForkJoinPool.commonPool());
+        return ys;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Decimator pyramid() {
+        return new Decimator(ys);
+    }
+
+    @Benchmark
+    public double[] decimateFull() {
+        decimator.decimate(0, POINTS, COLUMNS, min, max);
+        return max;
+    }
+
+    @Benchmark
+    public double[] decimateZoomed() {
+        decimator.decimate(POINTS / 2, POINTS / 2 + 1000, COLUMNS, min, max);
+        return max;
+    }
+}
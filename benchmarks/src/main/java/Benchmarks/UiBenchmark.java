@@ -0,0 +1,43 @@
+package Benchmarks;
+
+import Ui.FormulaListPanel;
+import Ui.InputOutputPanel;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JPanel;
+import org.openjdk.jmh.annotations.*;
+
+// Building the panels a click opens, headless (no window, no peers). The
+// constructors never touch the MainWindow they are given, only the button
+// actions do, so null stands in for it. This is the cost PanelCache saves on
+// a revisit; measured on this thread, not the EDT, as nothing is shown.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class UiBenchmark {
+
+    @State(Scope.Thread)
+    public static class Category {
+        // The largest category and a small one
+        @Param({"Mechanics", "Vector"})
+        public String category;
+    }
+
+    @State(Scope.Thread)
+    public static class Formula {
+        // A plain formula, and one with an optional angle
+        @Param({"Force", "Work"})
+        public String formula;
+    }
+
+    @Benchmark
+    public JPanel formulaListPanel(Category state) {
+        return new FormulaListPanel(null, state.category);
+    }
+
+    @Benchmark
+    public JPanel inputOutputPanel(Formula state) {
+        return new InputOutputPanel(null, state.formula);
+    }
+}
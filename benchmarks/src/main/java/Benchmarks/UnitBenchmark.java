@@ -0,0 +1,51 @@
+package Benchmarks;
+
+import Units.Quantity;
+import Units.Unit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Unit conversion as the calculator does it: every input to the stored base
+// unit before the solve, the result back to the unit picked for it. Celsius
+// covers the affine (offset) case, km/h the plain scale.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitBenchmark {
+
+    private double value = 72.5;
+    private int kilometrePerHour;
+    private int celsius;
+    private int fahrenheit;
+
+    @Setup
+    public void setUp() {
+        kilometrePerHour = Unit.byName("km/h");
+        celsius = Unit.byName("°C");
+        fahrenheit = Unit.byName("°F");
+    }
+
+    @Benchmark
+    public double toBase() {
+        return Quantity.VELOCITY.toBase(value, kilometrePerHour);
+    }
+
+    @Benchmark
+    public double fromBase() {
+        return Quantity.VELOCITY.fromBase(value, kilometrePerHour);
+    }
+
+    @Benchmark
+    public double convertTemperature() {
+        return Unit.convert(value, celsius, fahrenheit);
+    }
+
+    // Header and --unit symbols are looked up once per column
+    @Benchmark
+    public int byName() {
+        return Unit.byName("km/h");
+    }
+}
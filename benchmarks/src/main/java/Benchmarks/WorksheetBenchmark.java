@@ -0,0 +1,57 @@
+package Benchmarks;
+
+import Engine.Worksheet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// An edit and the recalculation it causes, on a sheet of one "Orbital
+// Velocity" step feeding 256 "Kinetic Energy" steps, each feeding a "Power"
+// step. editLeaf changes one Power input, so one step is solved; editRoot
+// changes the orbit, so all 513 are, in three levels.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorksheetBenchmark {
+
+    private static final int BRANCHES = 256;
+
+    private Worksheet worksheet;
+    private int orbit;
+    private int power;
+    private double radius = 6.771e6;
+    private double time = 3600;
+
+    @Setup
+    public void setUp() {
+        worksheet = new Worksheet();
+        orbit = worksheet.add("Orbital Velocity", "v");
+        worksheet.setValue(orbit, worksheet.getSolver(orbit).slotOf("M"), 5.972e24);
+        worksheet.setValue(orbit, worksheet.getSolver(orbit).slotOf("r"), radius);
+        for (int i = 0; i < BRANCHES; i++) {
+            int energy = worksheet.add("Kinetic Energy", "KE");
+            worksheet.setValue(energy, worksheet.getSolver(energy).slotOf("m"), 1000 + i);
+            worksheet.link(energy, worksheet.getSolver(energy).slotOf("v"), orbit);
+            power = worksheet.add("Power", "P");
+            worksheet.link(power, worksheet.getSolver(power).slotOf("W"), energy);
+            worksheet.setValue(power, worksheet.getSolver(power).slotOf("t"), time);
+        }
+        worksheet.recalculate();
+    }
+
+    @Benchmark
+    public int[] editLeaf() {
+        time = time == 3600 ? 7200 : 3600;
+        worksheet.setValue(power, 1, time);
+        return worksheet.recalculate();
+    }
+
+    @Benchmark
+    public int[] editRoot() {
+        radius = radius == 6.771e6 ? 4.2164e7 : 6.771e6;
+        worksheet.setValue(orbit, 1, radius);
+        return worksheet.recalculate();
+    }
+}
@@ -0,0 +1,184 @@
+package Engine;
+
+import Units.Quantity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Read side of the binary catalog written by CatalogWriter. The file is mapped,
+// not read: opening it touches only the header, and a formula's record (and
+// the strings it uses) is decoded the first time that formula is asked for.
+// All reads are absolute, so one buffer is shared by every thread.
+final class Catalog {
+
+    private static final Quantity[] QUANTITIES = Quantity.values();
+
+    private final ByteBuffer buffer;
+    private final int stringIndex;
+    private final int categoryCount;
+    private final int categoryIndex;
+    private final int formulaCount;
+    private final int formulaIndex;
+    private final int hashSize;
+    private final int hashIndex;
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicReferenceArray<FormulaInfo> formulas;
+
+    private Catalog(ByteBuffer buffer) {
+        if (buffer.capacity() < CatalogWriter.HEADER_SIZE || buffer.getInt(0) != CatalogWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a formula catalog");
+        }
+        if (buffer.getInt(4) != CatalogWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported catalog version " + buffer.getInt(4));
+        }
+        if (buffer.getLong(40) != CatalogWriter.fingerprint()) {
+            throw new IllegalArgumentException("Catalog was written from other formula sources or quantities");
+        }
+        this.buffer = buffer;
+        this.strings = new AtomicReferenceArray<>(buffer.getInt(8));
+        this.stringIndex = buffer.getInt(12);
+        this.categoryCount = buffer.getInt(16);
+        this.categoryIndex = buffer.getInt(20);
+        this.formulaCount = buffer.getInt(24);
+        this.formulaIndex = buffer.getInt(28);
+        this.hashSize = buffer.getInt(32);
+        this.hashIndex = buffer.getInt(36);
+        this.formulas = new AtomicReferenceArray<>(formulaCount);
+    }
+
+    // The catalog in order of preference: -Dphysiquist.catalog=<file>, the
+    // catalog.bin resource next to this class, else one generated in memory
+    // from CatalogSource (slower, but a missing or stale build step never
+    // breaks the app)
+    static Catalog open() {
+        String path = System.getProperty("physiquist.catalog");
+        try {
+            if (path != null) {
+                return map(Paths.get(path));
+            }
+            URL resource = Catalog.class.getResource("catalog.bin");
+            if (resource != null) {
+                if ("file".equals(resource.getProtocol())) {
+                    return map(Paths.get(resource.toURI()));
+                }
+                try (InputStream in = resource.openStream()) {
+                    return wrap(ByteBuffer.wrap(in.readAllBytes()));
+                }
+            }
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            System.err.println("Formula catalog unusable, rebuilding it in memory: " + e.getMessage());
+        }
+        return wrap(ByteBuffer.wrap(CatalogWriter.write()));
+    }
+
+    static Catalog map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static Catalog wrap(ByteBuffer buffer) {
+        return new Catalog(buffer);
+    }
+
+    int size() {
+        return formulaCount;
+    }
+
+    int getCategoryCount() {
+        return categoryCount;
+    }
+
+    String getCategory(int category) {
+        return string(buffer.getInt(categoryIndex + 12 * category));
+    }
+
+    int getFirstFormula(int category) {
+        return buffer.getInt(categoryIndex + 12 * category + 4);
+    }
+
+    int getFormulaCount(int category) {
+        return buffer.getInt(categoryIndex + 12 * category + 8);
+    }
+
+    // Id of the formula with this name, or -1
+    int indexOf(String name) {
+        int mask = hashSize - 1;
+        for (int slot = name.hashCode() & mask; ; slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(hashIndex + 4 * slot);
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            if (string(buffer.getInt(record(id))).equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    FormulaInfo get(int id) {
+        FormulaInfo info = formulas.get(id);
+        if (info == null) {
+            info = decode(id);
+            if (!formulas.compareAndSet(id, null, info)) {
+                info = formulas.get(id);
+            }
+        }
+        return info;
+    }
+
+    private FormulaInfo decode(int id) {
+        int at = record(id);
+        String name = string(buffer.getInt(at));
+        String display = string(buffer.getInt(at + 4));
+        String category = getCategory(buffer.getShort(at + 8) & 0xFFFF);
+        int variableCount = buffer.get(at + 10) & 0xFF;
+        at += 11;
+        String[] variables = new String[variableCount];
+        Quantity[] quantities = new Quantity[variableCount];
+        String[][] inputs = new String[variableCount][];
+        Quantity[][] inputQuantities = new Quantity[variableCount][];
+        for (int v = 0; v < variableCount; v++) {
+            variables[v] = string(buffer.getInt(at));
+            quantities[v] = QUANTITIES[buffer.get(at + 4) & 0xFF];
+            int inputCount = buffer.get(at + 5) & 0xFF;
+            at += 6;
+            if (inputCount == CatalogWriter.UNSOLVABLE) {
+                continue;
+            }
+            inputs[v] = new String[inputCount];
+            inputQuantities[v] = new Quantity[inputCount];
+            for (int i = 0; i < inputCount; i++) {
+                inputs[v][i] = string(buffer.getInt(at));
+                inputQuantities[v][i] = QUANTITIES[buffer.get(at + 4) & 0xFF];
+                at += 5;
+            }
+        }
+        return new FormulaInfo(id, name, category, display, false, variables, quantities, inputs, inputQuantities);
+    }
+
+    private int record(int id) {
+        return buffer.getInt(formulaIndex + 4 * id);
+    }
+
+    private String string(int index) {
+        String s = strings.get(index);
+        if (s == null) {
+            int at = buffer.getInt(stringIndex + 4 * index);
+            byte[] bytes = new byte[buffer.getShort(at) & 0xFFFF];
+            buffer.get(at + 2, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings.lazySet(index, s);
+        }
+        return s;
+    }
+}
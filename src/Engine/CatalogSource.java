@@ -0,0 +1,185 @@
+package Engine;
+
+import java.util.*;
+
+// Source definitions of the built-in catalog: categories in display order, the
+// display text and the order variables are offered in. CatalogWriter turns
+// these into the binary catalog; at run time they are only read when no
+// catalog file is available.
+final class CatalogSource {
+
+    private static final Map<String, String[]> CATEGORIES = new LinkedHashMap<>();
+    private static final Map<String, String> DISPLAY = new HashMap<>();
+    private static final Map<String, String[]> VARIABLES = new HashMap<>();
+
+    static {
+        // ========== MECHANICS ==========
+        category("Mechanics",
+            "Velocity", "Acceleration", "Time", "Force", "Mass", "Work", "Power", "Momentum", "Impulse",
+            "Kinetic Energy", "Potential Energy", "Mechanical Energy", "Centripetal Force",
+            "Centripetal Acceleration", "Torque", "Angular Momentum", "Angular Velocity",
+            "Angular Acceleration", "Rotational Kinetic Energy", "First Equation of Motion",
+            "Second Equation of Motion", "Third Equation of Motion", "Maximum Height", "Time of Flight",
+            "Tension", "Friction", "Viscosity", "Collision");
+        display("Velocity", "v = d / t");
+        display("Acceleration", "a = (v - u) / t");
+        display("Time", "t = (v - u) / a");
+        display("Force", "F = m × a");
+        display("Mass", "m = F / a");
+        display("Work", "W = F × d × cos(θ)");
+        display("Power", "P = W / t");
+        display("Momentum", "p = m × v");
+        display("Impulse", "J = F × t = Δp");
+        display("Kinetic Energy", "KE = ½ × m × v²");
+        display("Potential Energy", "PE = m × g × h");
+        display("Mechanical Energy", "E = KE + PE");
+        display("Centripetal Force", "Fc = (m × v²) / r");
+        display("Centripetal Acceleration", "ac = v² / r");
+        display("Torque", "τ = r × F × sin(θ)");
+        display("Angular Momentum", "L = I × ω");
+        display("Angular Velocity", "ω = θ / t");
+        display("Angular Acceleration", "α = (ω - ω₀) / t");
+        display("Rotational Kinetic Energy", "KE(rot) = ½ × I × ω²");
+        display("First Equation of Motion", "v = u + a × t");
+        display("Second Equation of Motion", "s = u × t + ½ × a × t²");
+        display("Third Equation of Motion", "v² = u² + 2 × a × s");
+        display("Maximum Height", "H = (u² × sin²θ) / (2 × g)");
+        display("Time of Flight", "T = (2 × u × sinθ) / g");
+        display("Tension", "T = m × (g ± a)");
+        display("Friction", "f = μ × N");
+        display("Viscosity", "F = η × A × (dv/dy)");
+        display("Collision", "m₁u₁ + m₂u₂ = m₁v₁ + m₂v₂");
+        variables("Velocity", "v", "d", "t");
+        variables("Acceleration", "a", "v", "u", "t");
+        variables("Time", "t", "v", "u", "a");
+        variables("Force", "F", "m", "a");
+        variables("Mass", "m", "F", "a");
+        variables("Work", "W", "F", "d", "θ");
+        variables("Power", "P", "W", "t");
+        variables("Momentum", "p", "m", "v");
+        variables("Impulse", "J", "F", "t");
+        variables("Kinetic Energy", "KE", "m", "v");
+        variables("Potential Energy", "PE", "m", "g", "h");
+        variables("Mechanical Energy", "E", "KE", "PE");
+        variables("Centripetal Force", "Fc", "m", "v", "r");
+        variables("Centripetal Acceleration", "ac", "v", "r");
+        variables("Torque", "τ", "r", "F", "θ");
+        variables("Angular Momentum", "L", "I", "ω");
+        variables("Angular Velocity", "ω", "θ", "t");
+        variables("Angular Acceleration", "α", "ω", "ω₀", "t");
+        variables("Rotational Kinetic Energy", "KE(rot)", "I", "ω");
+        variables("First Equation of Motion", "v", "u", "a", "t");
+        variables("Second Equation of Motion", "s", "u", "a", "t");
+        variables("Third Equation of Motion", "v", "u", "a", "s");
+        variables("Maximum Height", "H", "u", "θ", "g");
+        variables("Time of Flight", "T", "u", "θ", "g");
+        variables("Tension", "T", "m", "g", "a");
+        variables("Friction", "f", "μ", "N");
+        variables("Viscosity", "F", "η", "A", "dv", "dy");
+        variables("Collision", "v₁", "v₂", "m₁", "m₂", "u₁", "u₂");
+
+        // ========== GRAVITATION ==========
+        category("Gravitation",
+            "Gravitational Force", "Acceleration due to Gravity", "Gravitational Potential Energy",
+            "Orbital Velocity", "Kepler's Laws", "Distance-Time Relation", "Velocity-Time Relation",
+            "Moment of Inertia");
+        display("Gravitational Force", "F = G × m₁ × m₂ / r²");
+        display("Acceleration due to Gravity", "g = G × M / r²");
+        display("Gravitational Potential Energy", "U = -G × M × m / r");
+        display("Orbital Velocity", "v = √(G × M / r)");
+        display("Kepler's Laws", "T² ∝ r³ or T²/r³ = constant");
+        display("Distance-Time Relation", "s = u × t + ½ × a × t²");
+        display("Velocity-Time Relation", "v = u + a × t");
+        display("Moment of Inertia", "I = m × r²");
+        variables("Gravitational Force", "F", "m1", "m2", "r");
+        variables("Acceleration due to Gravity", "g", "M", "r");
+        variables("Gravitational Potential Energy", "U", "M", "m", "r");
+        variables("Orbital Velocity", "v", "M", "r");
+        variables("Kepler's Laws", "T", "r", "constant");
+        variables("Distance-Time Relation", "s", "u", "a", "t");
+        variables("Velocity-Time Relation", "v", "u", "a", "t");
+        variables("Moment of Inertia", "I", "m", "r");
+
+        // ========== FLUID MECHANICS ==========
+        category("Fluid Mechanics",
+            "Pressure", "Density", "Bernoulli's Principle", "Elasticity", "Pressure in gases",
+            "Fluid Pressure", "Atmospheric Pressure", "Pascal's Law", "Pressure due to Depth",
+            "Boyle's Law", "Charles's Law", "Gay-Lussac's Law", "Avogadro's Law", "Combined Gas Law",
+            "Ideal Gas Law", "Dalton's Law");
+        display("Pressure", "P = F / A");
+        display("Density", "ρ = m / V");
+        display("Bernoulli's Principle", "P + ½ρv² + ρgh = constant");
+        display("Elasticity", "Y = (F/A) / (ΔL/L)");
+        display("Pressure in gases", "P = ⅓ × ρ × v²");
+        display("Fluid Pressure", "P = ρ × g × h");
+        display("Atmospheric Pressure", "P = h × ρ × g");
+        display("Pascal's Law", "F₁/A₁ = F₂/A₂");
+        display("Pressure due to Depth", "P = P₀ + ρ × g × h");
+        display("Boyle's Law", "P₁ × V₁ = P₂ × V₂");
+        display("Charles's Law", "V₁/T₁ = V₂/T₂");
+        display("Gay-Lussac's Law", "P₁/T₁ = P₂/T₂");
+        display("Avogadro's Law", "V₁/n₁ = V₂/n₂");
+        display("Combined Gas Law", "P₁ × V₁ / T₁ = P₂ × V₂ / T₂");
+        display("Ideal Gas Law", "P × V = n × R × T");
+        display("Dalton's Law", "P_total = P₁ + P₂ + P₃ + ...");
+
+        // ========== THERMODYNAMICS ==========
+        category("Thermodynamics",
+            "Temperature Conversion", "First Law of Thermodynamics", "Efficiency of Heat Engine",
+            "Carnot Efficiency", "Entropy");
+
+        // ========== WAVES AND OSCILLATIONS ==========
+        category("Waves and Oscillations",
+            "Wave Speed", "Period", "Hooke's Law", "Energy in Simple Harmonic Oscillator",
+            "Resonance Frequency", "Doppler Effect", "Sound Intensity", "Decibel Formula");
+
+        // ========== OPTICS ==========
+        category("Optics",
+            "Lens Formula", "Mirror Formula", "Magnification", "Snell's Law", "Critical Angle",
+            "Total Internal Reflection");
+
+        // ========== ELECTRICITY AND MAGNETISM ==========
+        category("Electricity and Magnetism",
+            "Electric Potential", "Electric Field", "Coulomb's Law", "Ohm's Law", "Electric Power",
+            "Series Resistance", "Parallel Resistance", "Magnetic Field", "Charge", "Inductance",
+            "Conductivity", "Faraday's Law");
+
+        // ========== VECTOR ==========
+        category("Vector",
+            "Displacement Vector", "Velocity Vector", "Acceleration Vector");
+
+        // ========== MODERN PHYSICS ==========
+        category("Modern Physics",
+            "Mass-Energy Equivalence", "Photon Energy", "de Broglie Wavelength", "Photoelectric Effect",
+            "Half-Life Formula", "Radioactive Decay Law", "Electromagnetic Wave");
+    }
+
+    private CatalogSource() {
+    }
+
+    static Map<String, String[]> getCategories() {
+        return Collections.unmodifiableMap(CATEGORIES);
+    }
+
+    // null where the formula has no hand-written display text
+    static String getDisplay(String formula) {
+        return DISPLAY.get(formula);
+    }
+
+    // null where the variables are simply whatever the engine can solve for
+    static String[] getVariables(String formula) {
+        return VARIABLES.get(formula);
+    }
+
+    private static void category(String category, String... formulas) {
+        CATEGORIES.put(category, formulas);
+    }
+
+    private static void display(String formula, String text) {
+        DISPLAY.put(formula, text);
+    }
+
+    private static void variables(String formula, String... variables) {
+        VARIABLES.put(formula, variables);
+    }
+}
@@ -0,0 +1,211 @@
+package Engine;
+
+import Units.Quantity;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Build step: resolves every built-in formula (variables, inputs per target,
+// quantities) from CatalogSource and the engine and writes the binary catalog
+// Catalog maps at run time. Every canonical equation is parsed here, so a
+// broken definition fails the build instead of the first user to open it.
+//
+//     java Engine.CatalogWriter [output]    (default bin/Engine/catalog.bin)
+//
+// Layout, big-endian, offsets absolute:
+//     header    magic, version, string count/offset, category count/offset,
+//               formula count/offset, hash size/offset, source fingerprint
+//     strings   int offset per string; each string is u16 length + UTF-8
+//     categories  name string, first formula, formula count (formulas are
+//               stored grouped by category)
+//     formulas  int record offset per formula
+//     hash      open-addressed formula ids + 1 by String.hashCode of the name
+//     records   name, display, category (u16), variable count (u8), then per
+//               variable: name, quantity (u8), input count (u8, 0xFF when it
+//               cannot be solved for), and per input: name, quantity (u8)
+//
+// Quantities are stored by ordinal, so a file is only good for the
+// CatalogSource and the Quantity enum it was written from. The fingerprint
+// (a hash of both) lets Catalog tell a stale file, say one an IDE build left
+// in bin/ before CatalogSource was edited, from a current one.
+public final class CatalogWriter {
+
+    static final int MAGIC = 0x50485943; // "PHYC"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    static final int UNSOLVABLE = 0xFF;
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private CatalogWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "bin/Engine/catalog.bin");
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        byte[] catalog = write();
+        Files.write(out, catalog);
+        System.out.println("Wrote " + out + " (" + catalog.length + " bytes)");
+    }
+
+    // The built-in catalog in binary form
+    public static byte[] write() {
+        try {
+            return new CatalogWriter().build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] build() throws IOException {
+        List<String> categoryNames = new ArrayList<>(CatalogSource.getCategories().keySet());
+        List<int[]> categoryRanges = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        List<Integer> recordOffsets = new ArrayList<>();
+
+        for (int c = 0; c < categoryNames.size(); c++) {
+            String category = categoryNames.get(c);
+            String[] formulas = CatalogSource.getCategories().get(category);
+            categoryRanges.add(new int[]{intern(category), names.size(), formulas.length});
+            for (String name : formulas) {
+                FormulaInfo info = FormulaInfo.describe(names.size(), name, category, false);
+                recordOffsets.add(records.size());
+                names.add(name);
+                writeRecord(records, info, c);
+            }
+        }
+
+        int hashSize = Integer.highestOneBit(Math.max(names.size(), 1) * 2) << 1;
+        int[] hash = new int[hashSize];
+        for (int id = 0; id < names.size(); id++) {
+            int slot = names.get(id).hashCode() & (hashSize - 1);
+            while (hash[slot] != 0) {
+                slot = (slot + 1) & (hashSize - 1);
+            }
+            hash[slot] = id + 1;
+        }
+
+        // Layout: header, string index, string data, categories, formula index, hash, records
+        List<byte[]> encoded = new ArrayList<>();
+        int stringDataSize = 0;
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for catalog: " + s);
+            }
+            encoded.add(bytes);
+            stringDataSize += 2 + bytes.length;
+        }
+        int stringIndex = HEADER_SIZE;
+        int stringData = stringIndex + 4 * encoded.size();
+        int categoryIndex = stringData + stringDataSize;
+        int formulaIndex = categoryIndex + 12 * categoryRanges.size();
+        int hashIndex = formulaIndex + 4 * names.size();
+        int recordBase = hashIndex + 4 * hashSize;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(recordBase + records.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(encoded.size());
+        out.writeInt(stringIndex);
+        out.writeInt(categoryRanges.size());
+        out.writeInt(categoryIndex);
+        out.writeInt(names.size());
+        out.writeInt(formulaIndex);
+        out.writeInt(hashSize);
+        out.writeInt(hashIndex);
+        out.writeLong(fingerprint());
+
+        int offset = stringData;
+        for (byte[] s : encoded) {
+            out.writeInt(offset);
+            offset += 2 + s.length;
+        }
+        for (byte[] s : encoded) {
+            out.writeShort(s.length);
+            out.write(s);
+        }
+        for (int[] range : categoryRanges) {
+            out.writeInt(range[0]);
+            out.writeInt(range[1]);
+            out.writeInt(range[2]);
+        }
+        for (int recordOffset : recordOffsets) {
+            out.writeInt(recordBase + recordOffset);
+        }
+        for (int id : hash) {
+            out.writeInt(id);
+        }
+        records.flush();
+        recordBytes.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // 64-bit FNV-1a over the catalog's sources: every category and its
+    // formulas in order, each formula's display text and variables, and the
+    // Quantity names in ordinal order
+    static long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<String, String[]> category : CatalogSource.getCategories().entrySet()) {
+            hash = fingerprint(hash, category.getKey());
+            for (String formula : category.getValue()) {
+                hash = fingerprint(hash, formula);
+                hash = fingerprint(hash, CatalogSource.getDisplay(formula));
+                String[] variables = CatalogSource.getVariables(formula);
+                hash = fingerprint(hash, variables == null ? null : String.join("\u0000", variables));
+            }
+        }
+        for (Quantity quantity : Quantity.values()) {
+            hash = fingerprint(hash, quantity.name());
+        }
+        return hash;
+    }
+
+    // The text, then a separator no text contains; null hashes as the separator alone
+    private static long fingerprint(long hash, String text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return (hash ^ 0xFFFF) * 0x100000001b3L;
+    }
+
+    private void writeRecord(DataOutputStream out, FormulaInfo info, int category) throws IOException {
+        out.writeInt(intern(info.getName()));
+        out.writeInt(intern(info.getDisplay()));
+        out.writeShort(category);
+        out.writeByte(info.getVariableCount());
+        for (int v = 0; v < info.getVariableCount(); v++) {
+            String variable = info.getVariable(v);
+            out.writeInt(intern(variable));
+            out.writeByte(info.getQuantity(v).ordinal());
+            String[] inputs = info.getInputs(variable);
+            if (inputs == null) {
+                out.writeByte(UNSOLVABLE);
+                continue;
+            }
+            Quantity[] quantities = info.getInputQuantities(variable);
+            out.writeByte(inputs.length);
+            for (int i = 0; i < inputs.length; i++) {
+                out.writeInt(intern(inputs[i]));
+                out.writeByte(quantities[i].ordinal());
+            }
+        }
+    }
+
+    private int intern(String s) {
+        return strings.computeIfAbsent(s, key -> strings.size());
+    }
+}
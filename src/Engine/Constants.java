@@ -0,0 +1,16 @@
+package Engine;
+
+// Physical constants shared by every formula (SI units)
+public final class Constants {
+
+    public static final double G = 6.67430e-11; // Gravitational constant
+    public static final double k = 8.9875517873681764e9; // Coulomb's constant
+    public static final double h = 6.62607015e-34; // Planck's constant
+    public static final double c = 299792458.0; // Speed of light
+    public static final double R = 8.314462618; // Gas constant
+    public static final double MU0 = 4 * Math.PI * 1e-7; // Vacuum permeability
+    public static final double LN2 = Math.log(2);
+
+    private Constants() {
+    }
+}
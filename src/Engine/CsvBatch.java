@@ -0,0 +1,552 @@
+package Engine;
+
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import Units.Quantities;
+import Units.Quantity;
+import Units.Unit;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Streams a CSV file through one solver. The first line is a header naming the
+// columns; a column whose name is one of the solver's inputs feeds that input,
+// every other column is passed through untouched. Each output line is the
+// input line plus one column holding the result. Rows are read, solved and
+// written a block at a time, so memory stays the same whatever the file size.
+//
+// Units come from the header ("V [kV]") or setInputUnit(), else the first unit
+// the UI offers for the quantity (the same default as the calculator). An
+// input with a default may be left out of the file, and an empty cell reads
+// as that default (NaN for the row if there is none); a cell that is not a
+// number stops the run with its line number.
+//
+// A file can instead be given as a Path: it is then mapped and parsed from
+// the raw bytes in parallel segments (see MAPPED INGEST below). Either way each
+// block's solve time, bad results and conversions go to CalculationMetrics.
+public final class CsvBatch {
+
+    public static final int DEFAULT_BLOCK_SIZE = 8192;
+    public static final int SEGMENT_SIZE = 1 << 20;
+
+    private final Solver solver;
+    private final Quantity[] quantities;
+    private final Quantity outputQuantity;
+    private final int[] inputUnits;
+    private int outputUnit;
+    private final int blockSize;
+    private final FormulaMetrics metrics;
+
+    public CsvBatch(String formula, String target) {
+        this(FormulaEngine.compile(formula, target), DEFAULT_BLOCK_SIZE);
+    }
+
+    public CsvBatch(Solver solver, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.solver = solver;
+        this.blockSize = blockSize;
+        this.quantities = Quantities.of(solver.getFormula(), solver.getInputs());
+        this.outputQuantity = Quantities.of(solver.getFormula(), solver.getTarget());
+        this.inputUnits = new int[quantities.length];
+        for (int slot = 0; slot < quantities.length; slot++) {
+            inputUnits[slot] = -1;
+        }
+        this.outputUnit = outputQuantity.getUnit(0);
+        this.metrics = CalculationMetrics.of(solver.getFormula());
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    // Unit of an input column, overriding any unit given in the header
+    public CsvBatch setInputUnit(String variable, String symbol) {
+        int slot = solver.slotOf(variable);
+        if (slot < 0) {
+            throw new IllegalArgumentException(solver + " has no input " + variable);
+        }
+        inputUnits[slot] = unit(symbol, quantities[slot], variable);
+        return this;
+    }
+
+    public CsvBatch setOutputUnit(String symbol) {
+        outputUnit = unit(symbol, outputQuantity, solver.getTarget());
+        return this;
+    }
+
+    // Returns the number of data rows written
+    public long run(Reader input, Writer output) throws IOException {
+        BufferedReader in = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input, 1 << 16);
+        String header = in.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty; expected a header line");
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        int arity = solver.getArity();
+        int[] columnOf = new int[arity];
+        int[] units = resolveHeader(header, columnOf);
+        int lastColumn = -1;
+        for (int column : columnOf) {
+            lastColumn = Math.max(lastColumn, column);
+        }
+
+        output.write(header);
+        output.write(',');
+        output.write(resultColumn());
+        output.write('\n');
+
+        String[] lines = new String[blockSize];
+        double[][] columns = new double[arity][blockSize];
+        double[] out = new double[blockSize];
+        int[] starts = new int[lastColumn + 1];
+        int[] ends = new int[lastColumn + 1];
+        StringBuilder text = new StringBuilder(blockSize * 32);
+        long lineNumber = 1;
+        long rows = 0;
+        while (true) {
+            int count = 0;
+            String line;
+            while (count < blockSize && (line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (lastColumn >= 0 && split(line, starts, ends) <= lastColumn) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected at least "
+                        + (lastColumn + 1) + " columns");
+                }
+                for (int slot = 0; slot < arity; slot++) {
+                    int column = columnOf[slot];
+                    columns[slot][count] = column < 0 ? solver.getDefault(slot)
+                        : read(line, starts[column], ends[column], slot, units[slot], lineNumber);
+                }
+                lines[count++] = line;
+            }
+            if (count == 0) {
+                break;
+            }
+            long start = System.nanoTime();
+            solver.solveColumns(columns, out, 0, count);
+            metrics.record(System.nanoTime() - start, out, 0, count);
+            recordConversions(columnOf, count);
+            text.setLength(0);
+            for (int i = 0; i < count; i++) {
+                text.append(lines[i]).append(',').append(outputQuantity.fromBase(out[i], outputUnit)).append('\n');
+                lines[i] = null;
+            }
+            output.append(text);
+            rows += count;
+        }
+        output.flush();
+        return rows;
+    }
+
+    // ========== MAPPED INGEST ==========
+
+    // Same output as run(Reader, Writer) for a file, without a String per line
+    // or per number. The file is mapped in segments of about SEGMENT_SIZE cut
+    // at line ends; each segment is scanned for delimiters in the mapped bytes,
+    // parsed by DecimalParser into primitive columns, solved and formatted on
+    // the common pool. Segments are written in file order and only about one
+    // per core is in flight, so memory still does not depend on the file size.
+    public long run(Path input, OutputStream output) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long headerEnd = lineEnd(channel, 0);
+            if (headerEnd == 0) {
+                throw new IllegalArgumentException("CSV input is empty; expected a header line");
+            }
+            ByteBuffer headerBytes = ByteBuffer.allocate(Math.toIntExact(headerEnd));
+            while (headerBytes.hasRemaining() && channel.read(headerBytes, headerBytes.position()) >= 0) {
+                // read the whole header line
+            }
+            String header = new String(headerBytes.array(), 0, headerBytes.position(), StandardCharsets.UTF_8);
+            header = header.replaceFirst("^\uFEFF", "").replaceFirst("\r?\n$", "");
+            int[] columnOf = new int[solver.getArity()];
+            int[] units = resolveHeader(header, columnOf);
+            output.write((header + ',' + resultColumn() + '\n').getBytes(StandardCharsets.UTF_8));
+
+            // One segment per worker plus the one being written, but never so
+            // many that their columns and output (a few times the segment
+            // size each) crowd the heap
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            long affordable = Runtime.getRuntime().maxMemory() / (8L * SEGMENT_SIZE);
+            int window = (int) Math.max(1, Math.min(pool.getParallelism() + 1, affordable));
+            ArrayDeque<Future<Segment>> pending = new ArrayDeque<>();
+            long rows = 0;
+            long at = headerEnd;
+            try {
+                while (at < size || !pending.isEmpty()) {
+                    while (at < size && pending.size() < window) {
+                        long end = size - at <= SEGMENT_SIZE ? size : lineEnd(channel, at + SEGMENT_SIZE - 1);
+                        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, at, end - at);
+                        long offset = at;
+                        pending.add(pool.submit(() -> parseSegment(bytes, offset, columnOf, units)));
+                        at = end;
+                    }
+                    Segment segment = await(pending.poll(), channel);
+                    output.write(segment.bytes, 0, segment.length);
+                    rows += segment.rows;
+                }
+            } finally {
+                for (Future<Segment> future : pending) {
+                    future.cancel(true);
+                }
+            }
+            output.flush();
+            return rows;
+        }
+    }
+
+    // A segment's output lines, ready to write
+    private static final class Segment {
+        byte[] bytes;
+        int length;
+        int rows;
+    }
+
+    // A bad row, found on a worker that only knows its byte offset
+    private static final class RowError extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        final long offset;
+
+        RowError(long offset, String message) {
+            super(message);
+            this.offset = offset;
+        }
+    }
+
+    private Segment parseSegment(ByteBuffer buffer, long offset, int[] columnOf, int[] units) {
+        int arity = columnOf.length;
+        int lastColumn = -1;
+        for (int column : columnOf) {
+            lastColumn = Math.max(lastColumn, column);
+        }
+        int[] starts = new int[lastColumn + 1];
+        int[] ends = new int[lastColumn + 1];
+        int capacity = 1024;
+        double[][] columns = new double[arity][capacity];
+        int[] lineStarts = new int[capacity];
+        int[] lineEnds = new int[capacity];
+        int rows = 0;
+
+        int limit = buffer.limit();
+        int at = 0;
+        while (at < limit) {
+            int lineStart = at;
+            int field = 0;
+            int fieldStart = at;
+            boolean quoted = false;
+            for (; at < limit; at++) {
+                byte c = buffer.get(at);
+                if (c == '\n') {
+                    break;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ',' && !quoted) {
+                    if (field <= lastColumn) {
+                        starts[field] = fieldStart;
+                        ends[field] = at;
+                    }
+                    field++;
+                    fieldStart = at + 1;
+                }
+            }
+            int lineEnd = at++;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd == lineStart) {
+                continue;
+            }
+            if (field <= lastColumn) {
+                starts[field] = fieldStart;
+                ends[field] = lineEnd;
+            }
+            if (field < lastColumn) {
+                throw new RowError(offset + lineStart, "expected at least " + (lastColumn + 1) + " columns");
+            }
+            if (rows == capacity) {
+                capacity *= 2;
+                for (int slot = 0; slot < arity; slot++) {
+                    columns[slot] = Arrays.copyOf(columns[slot], capacity);
+                }
+                lineStarts = Arrays.copyOf(lineStarts, capacity);
+                lineEnds = Arrays.copyOf(lineEnds, capacity);
+            }
+            for (int slot = 0; slot < arity; slot++) {
+                int column = columnOf[slot];
+                columns[slot][rows] = column < 0 ? solver.getDefault(slot)
+                    : read(buffer, starts[column], ends[column], slot, units[slot], offset + lineStart);
+            }
+            lineStarts[rows] = lineStart;
+            lineEnds[rows] = lineEnd;
+            rows++;
+        }
+
+        double[] out = new double[rows];
+        long start = System.nanoTime();
+        solver.solveColumns(columns, out, 0, rows);
+        metrics.record(System.nanoTime() - start, out, 0, rows);
+        recordConversions(columnOf, rows);
+
+        // Output: each input line as it was, then the result
+        byte[] bytes = new byte[limit + rows * 26];
+        int length = 0;
+        for (int i = 0; i < rows; i++) {
+            String result = Double.toString(outputQuantity.fromBase(out[i], outputUnit));
+            int lineLength = lineEnds[i] - lineStarts[i];
+            int needed = length + lineLength + result.length() + 2;
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+            }
+            buffer.get(lineStarts[i], bytes, length, lineLength);
+            length += lineLength;
+            bytes[length++] = ',';
+            for (int c = 0; c < result.length(); c++) {
+                bytes[length++] = (byte) result.charAt(c);
+            }
+            bytes[length++] = '\n';
+        }
+        Segment segment = new Segment();
+        segment.bytes = bytes;
+        segment.length = length;
+        segment.rows = rows;
+        return segment;
+    }
+
+    private double read(ByteBuffer buffer, int start, int end, int slot, int unit, long lineOffset) {
+        if (DecimalParser.isBlank(buffer, start, end)) {
+            return solver.isOptional(slot) ? solver.getDefault(slot) : Double.NaN;
+        }
+        try {
+            return quantities[slot].toBase(DecimalParser.parse(buffer, start, end), unit);
+        } catch (NumberFormatException e) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            byte[] cell = new byte[end - start];
+            buffer.get(start, cell);
+            throw new RowError(lineOffset, solver.getInput(slot) + " is not a number: "
+                + new String(cell, StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    private Segment await(Future<Segment> future, FileChannel channel) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("CSV batch interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RowError) {
+                throw new IllegalArgumentException("Line " + lineNumber(channel, ((RowError) cause).offset)
+                    + ": " + cause.getMessage());
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Position just past the first newline at or after from (size if none)
+    private static long lineEnd(FileChannel channel, long from) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        for (long at = from; ; at += chunk.limit()) {
+            chunk.clear();
+            if (channel.read(chunk, at) <= 0) {
+                return channel.size();
+            }
+            chunk.flip();
+            for (int i = 0; i < chunk.limit(); i++) {
+                if (chunk.get(i) == '\n') {
+                    return at + i + 1;
+                }
+            }
+        }
+    }
+
+    // 1-based line number of a byte offset; only used to report an error
+    private static long lineNumber(FileChannel channel, long offset) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        long line = 1;
+        for (long at = 0; at < offset; at += chunk.limit()) {
+            chunk.clear();
+            if (offset - at < chunk.capacity()) {
+                chunk.limit((int) (offset - at));
+            }
+            if (channel.read(chunk, at) <= 0) {
+                break;
+            }
+            chunk.flip();
+            for (int i = 0; i < chunk.limit(); i++) {
+                if (chunk.get(i) == '\n') {
+                    line++;
+                }
+            }
+        }
+        return line;
+    }
+
+    // Every input read from a column and every result went through a unit
+    private void recordConversions(int[] columnOf, int rows) {
+        for (int slot = 0; slot < columnOf.length; slot++) {
+            if (columnOf[slot] >= 0) {
+                CalculationMetrics.recordConversions(quantities[slot], rows);
+            }
+        }
+        CalculationMetrics.recordConversions(outputQuantity, rows);
+    }
+
+    // ========== HEADER ==========
+
+    private String resultColumn() {
+        String symbol = Unit.getSymbol(outputUnit);
+        return symbol.isEmpty() ? solver.getTarget() : solver.getTarget() + " [" + symbol + "]";
+    }
+
+    // Column index of every input (into columnOf, -1 for an optional input
+    // with no column) and the unit of each
+    private int[] resolveHeader(String header, int[] columnOf) {
+        int fields = split(header, null, null);
+        int[] starts = new int[fields];
+        int[] ends = new int[fields];
+        split(header, starts, ends);
+        Map<String, Integer> byName = new HashMap<>();
+        Map<String, String> headerUnits = new HashMap<>();
+        for (int column = 0; column < fields; column++) {
+            String name = unquote(header, starts[column], ends[column]).trim();
+            String unit = null;
+            int bracket = name.lastIndexOf('[');
+            if (bracket > 0 && name.endsWith("]")) {
+                unit = name.substring(bracket + 1, name.length() - 1).trim();
+                name = name.substring(0, bracket).trim();
+            }
+            if (byName.putIfAbsent(name, column) != null && solver.slotOf(name) >= 0) {
+                throw new IllegalArgumentException("Column " + name + " appears twice in the header");
+            }
+            if (unit != null) {
+                headerUnits.put(name, unit);
+            }
+        }
+        int[] units = new int[columnOf.length];
+        for (int slot = 0; slot < columnOf.length; slot++) {
+            String variable = solver.getInput(slot);
+            Integer column = byName.get(variable);
+            if (column == null && !solver.isOptional(slot)) {
+                metrics.recordError(ErrorKind.MISSING_INPUT);
+                throw new IllegalArgumentException("No column for input " + variable + " of " + solver);
+            }
+            columnOf[slot] = column == null ? -1 : column;
+            if (inputUnits[slot] >= 0) {
+                units[slot] = inputUnits[slot];
+            } else if (headerUnits.containsKey(variable)) {
+                units[slot] = unit(headerUnits.get(variable), quantities[slot], variable);
+            } else {
+                units[slot] = quantities[slot].getUnit(0);
+            }
+        }
+        return units;
+    }
+
+    private double read(String line, int start, int end, int slot, int unit, long lineNumber) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && line.charAt(start) == '"') {
+            start++;
+            end--;
+        }
+        if (start == end) {
+            return solver.isOptional(slot) ? solver.getDefault(slot) : Double.NaN;
+        }
+        String cell = line.substring(start, end);
+        try {
+            return quantities[slot].toBase(Double.parseDouble(cell), unit);
+        } catch (NumberFormatException e) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + solver.getInput(slot)
+                + " is not a number: " + cell);
+        }
+    }
+
+    // Field boundaries of one CSV line; commas inside double quotes do not
+    // split. Fills starts/ends as far as they reach and returns the field count.
+    static int split(String line, int[] starts, int[] ends) {
+        int capacity = starts == null ? 0 : starts.length;
+        int field = 0;
+        int start = 0;
+        boolean quoted = false;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                if (field < capacity) {
+                    starts[field] = start;
+                    ends[field] = i;
+                }
+                field++;
+                start = i + 1;
+                if (field >= capacity && starts != null) {
+                    return field;
+                }
+            }
+        }
+        if (field < capacity) {
+            starts[field] = start;
+            ends[field] = length;
+        }
+        return field + 1;
+    }
+
+    private static String unquote(String line, int start, int end) {
+        String field = line.substring(start, end).trim();
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+            field = field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        }
+        return field;
+    }
+
+    private int unit(String symbol, Quantity quantity, String variable) {
+        int unit = Unit.byName(symbol);
+        if (unit < 0) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new IllegalArgumentException("Unknown unit " + symbol + " for " + variable);
+        }
+        if (!Unit.isCompatible(unit, quantity.getBaseUnit())) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new IllegalArgumentException(variable + " is " + quantity.name().toLowerCase().replace('_', ' ')
+                + " and cannot be given in " + symbol);
+        }
+        return unit;
+    }
+}
@@ -0,0 +1,168 @@
+package Engine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Parses a decimal number straight out of bytes (ASCII/UTF-8 text in a mapped
+// file) or out of characters, without building a String. Plain and scientific
+// notation whose significant digits are below 2^53 and whose power of ten is
+// within ±22 take the exact fast path: both the mantissa and 10^e are exact
+// doubles, and one multiply or divide rounds once, so the result is
+// bit-identical to Double.parseDouble. Anything else (more digits, huge
+// exponents, NaN, Infinity, hex) falls back to Double.parseDouble on a copy.
+public final class DecimalParser {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private DecimalParser() {
+    }
+
+    // True if buffer[from, to) holds nothing but whitespace and/or ""
+    public static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return from == to || to - from == 2 && buffer.get(from) == '"' && buffer.get(from + 1) == '"';
+    }
+
+    // The number in buffer[from, to) (absolute positions), surrounding
+    // whitespace and one pair of double quotes ignored. Throws
+    // NumberFormatException if that is not a number (or is blank).
+    public static double parse(ByteBuffer buffer, int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        if (to - from >= 2 && buffer.get(from) == '"' && buffer.get(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        if (from == to) {
+            throw new NumberFormatException("empty String");
+        }
+
+        double value = scan(buffer, from, to);
+        return Double.isNaN(value) ? slow(buffer, from, to) : value;
+    }
+
+    // The number in text[from, to), as Double.parseDouble reads it (surrounding
+    // whitespace ignored, no quotes), for text that is not a String yet: a
+    // Swing document's Segment. The same fast path as the bytes above.
+    public static double parse(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            throw new NumberFormatException("empty String");
+        }
+
+        double value = scan(text, from, to);
+        return Double.isNaN(value) ? slow(text, from, to) : value;
+    }
+
+    // Character at an absolute position of a ByteBuffer or a CharSequence. The
+    // text is passed along rather than captured in a lambda, which would cost
+    // an allocation per number
+    private static int charAt(Object text, int index) {
+        return text instanceof ByteBuffer
+            ? ((ByteBuffer) text).get(index) & 0xFF
+            : ((CharSequence) text).charAt(index);
+    }
+
+    // The fast path over the trimmed, non-empty text[from, to); NaN when the
+    // number is not exact there (or not a number), for slow() to decide
+    private static double scan(Object text, int from, int to) {
+        int at = from;
+        boolean negative = false;
+        int c = charAt(text, at);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            at++;
+        }
+        long mantissa = 0;
+        int digits = 0;       // significant digits so far; 18 cannot overflow
+        int scale = 0;        // power of ten the mantissa is off by
+        boolean anyDigit = false;
+        boolean dot = false;
+        for (; at < to; at++) {
+            c = charAt(text, at);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    if (dot) {
+                        scale--;
+                    }
+                    continue;
+                }
+                if (digits == 18) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    scale--;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return Double.NaN;
+        }
+        if (at < to) {
+            if (c != 'e' && c != 'E' || ++at == to) {
+                return Double.NaN;
+            }
+            boolean negativeExponent = false;
+            c = charAt(text, at);
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                if (++at == to) {
+                    return Double.NaN;
+                }
+            }
+            int exponent = 0;
+            for (; at < to; at++) {
+                c = charAt(text, at);
+                if (c < '0' || c > '9' || exponent > 100_000) {
+                    return Double.NaN;
+                }
+                exponent = exponent * 10 + (c - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || scale < -22 || scale > 22) {
+            return Double.NaN;
+        }
+        double value = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+        return negative ? -value : value;
+    }
+
+    private static double slow(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static double slow(CharSequence text, int from, int to) {
+        return Double.parseDouble(text.subSequence(from, to).toString());
+    }
+}
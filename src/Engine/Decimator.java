@@ -0,0 +1,101 @@
+package Engine;
+
+// The min/max envelope of a long series at any zoom, for plotting millions of
+// points into a few hundred pixel columns. Levels above the data hold the min
+// and max of 8, 64, 512... points, built once; a column then reads at most a
+// few buckets of the coarsest level that still resolves it, so a redraw costs
+// about the same for 10^7 points as for 10^3, and every peak stays visible
+// (a point-picking downsampler such as LTTB can drop a one-point spike).
+// Non-finite values (NaN, an infinite result) are skipped; a column with no
+// finite value gets NaN, which a plot draws as a gap.
+public final class Decimator {
+
+    private static final int SHIFT = 3;
+
+    private final double[] values;
+    // mins[k - 1], maxs[k - 1]: buckets of 8^k points
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    public Decimator(double[] values) {
+        this.values = values;
+        int levels = 0;
+        for (long size = values.length; size > 1; size = (size + 7) >> SHIFT) {
+            levels++;
+        }
+        mins = new double[levels][];
+        maxs = new double[levels][];
+        for (int k = 0; k < levels; k++) {
+            int below = k == 0 ? values.length : mins[k - 1].length;
+            int size = (below + 7) >> SHIFT;
+            double[] min = new double[size];
+            double[] max = new double[size];
+            for (int b = 0; b < size; b++) {
+                double lo = Double.POSITIVE_INFINITY;
+                double hi = Double.NEGATIVE_INFINITY;
+                int end = Math.min(below, (b + 1) << SHIFT);
+                for (int i = b << SHIFT; i < end; i++) {
+                    double vlo = k == 0 ? values[i] : mins[k - 1][i];
+                    double vhi = k == 0 ? values[i] : maxs[k - 1][i];
+                    // Empty buckets below hold +inf/-inf, which never win here
+                    if (Double.isFinite(vlo) && vlo < lo) {
+                        lo = vlo;
+                    }
+                    if (Double.isFinite(vhi) && vhi > hi) {
+                        hi = vhi;
+                    }
+                }
+                min[b] = lo;
+                max[b] = hi;
+            }
+            mins[k] = min;
+            maxs[k] = max;
+        }
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double get(int i) {
+        return values[i];
+    }
+
+    // min[c] and max[c] of the points in column c, for columns splitting the
+    // (fractional) point range [from, to) evenly; NaN where a column has none.
+    // Buckets are whole, so a column may take in up to half a column of its
+    // neighbours' points, which no plot can show anyway
+    public void decimate(double from, double to, int columns, double[] min, double[] max) {
+        double width = (to - from) / columns;
+        // The coarsest level with at least two buckets to a column
+        int level = 0;
+        while (level < mins.length && (double) (1L << (SHIFT * (level + 1))) * 2 <= width) {
+            level++;
+        }
+        int shift = SHIFT * level;
+        for (int c = 0; c < columns; c++) {
+            long first = (long) Math.floor(from + c * width);
+            long last = Math.max(first, (long) Math.ceil(from + (c + 1) * width) - 1);
+            first = Math.max(0, first);
+            last = Math.min(values.length - 1, last);
+            double lo = Double.POSITIVE_INFINITY;
+            double hi = Double.NEGATIVE_INFINITY;
+            if (first <= last) {
+                int a = (int) (first >> shift);
+                int b = (int) (last >> shift);
+                for (int i = a; i <= b; i++) {
+                    double vlo = level == 0 ? values[i] : mins[level - 1][i];
+                    double vhi = level == 0 ? values[i] : maxs[level - 1][i];
+                    if (Double.isFinite(vlo) && vlo < lo) {
+                        lo = vlo;
+                    }
+                    if (Double.isFinite(vhi) && vhi > hi) {
+                        hi = vhi;
+                    }
+                }
+            }
+            min[c] = lo <= hi ? lo : Double.NaN;
+            max[c] = lo <= hi ? hi : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package Engine;
+
+import java.util.*;
+
+// A parsed "left = right" formula, the canonical form the symbolic layer
+// derives solvers from
+public final class Equation {
+
+    private final String source;
+    private final Expr left;
+    private final Expr right;
+    private final Set<String> variables;
+
+    Equation(String source, Expr left, Expr right) {
+        this.source = source;
+        this.left = left;
+        this.right = right;
+        Set<String> names = new LinkedHashSet<>(left.variables());
+        names.addAll(right.variables());
+        this.variables = Collections.unmodifiableSet(names);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Expr getLeft() {
+        return left;
+    }
+
+    public Expr getRight() {
+        return right;
+    }
+
+    // Variables in order of first appearance
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    public int count(String variable) {
+        return left.count(variable) + right.count(variable);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,371 @@
+package Engine;
+
+import java.util.*;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToIntFunction;
+
+// Immutable expression tree for the symbolic layer. Trees are only walked when
+// a solver is derived; compile() turns them into closures bound to slot indexes
+// so evaluation does no name lookups.
+public abstract class Expr {
+
+    // Compiled form of an expression: reads inputs by slot index
+    @FunctionalInterface
+    public interface Node {
+        double eval(double[] in);
+    }
+
+    Expr() {
+    }
+
+    public abstract Node compile(ToIntFunction<String> slotOf);
+
+    // Number of occurrences of a variable in this tree
+    public abstract int count(String variable);
+
+    abstract void collectVariables(Set<String> into);
+
+    public final boolean contains(String variable) {
+        return count(variable) > 0;
+    }
+
+    // Variables in order of first appearance
+    public final Set<String> variables() {
+        Set<String> names = new LinkedHashSet<>();
+        collectVariables(names);
+        return names;
+    }
+
+    public final boolean isConstant() {
+        return this instanceof Const;
+    }
+
+    // ========== FACTORIES (fold constants as the tree is built) ==========
+
+    public static Expr constant(double value) {
+        return new Const(value);
+    }
+
+    public static Expr variable(String name) {
+        return new Var(name);
+    }
+
+    public static Expr negate(Expr a) {
+        if (a instanceof Const) {
+            return new Const(-((Const) a).value);
+        }
+        if (a instanceof Unary && ((Unary) a).fn == Fn.NEG) {
+            return ((Unary) a).arg;
+        }
+        return new Unary(Fn.NEG, a);
+    }
+
+    public static Expr add(Expr a, Expr b) {
+        return Binary.of(Op.ADD, a, b);
+    }
+
+    public static Expr subtract(Expr a, Expr b) {
+        return Binary.of(Op.SUB, a, b);
+    }
+
+    public static Expr multiply(Expr a, Expr b) {
+        return Binary.of(Op.MUL, a, b);
+    }
+
+    public static Expr divide(Expr a, Expr b) {
+        return Binary.of(Op.DIV, a, b);
+    }
+
+    public static Expr power(Expr a, Expr b) {
+        return Binary.of(Op.POW, a, b);
+    }
+
+    public static Expr call(Fn fn, Expr arg) {
+        if (arg instanceof Const) {
+            return new Const(fn.apply(((Const) arg).value));
+        }
+        return new Unary(fn, arg);
+    }
+
+    // ========== NODE TYPES ==========
+
+    public enum Op {
+        ADD("+"), SUB("-"), MUL("*"), DIV("/"), POW("^");
+
+        final String symbol;
+
+        Op(String symbol) {
+            this.symbol = symbol;
+        }
+
+        double apply(double a, double b) {
+            switch (this) {
+                case ADD: return a + b;
+                case SUB: return a - b;
+                case MUL: return a * b;
+                case DIV: return a / b;
+                default: return pow(a, b);
+            }
+        }
+    }
+
+    // Built-in functions. The *d variants work in degrees, like the
+    // hand-written solvers; inverse() is null where there is no single inverse.
+    public enum Fn {
+        NEG("-", x -> -x),
+        SQRT("sqrt", Math::sqrt),
+        CBRT("cbrt", Math::cbrt),
+        EXP("exp", Math::exp),
+        LN("ln", Math::log),
+        LOG10("log10", Math::log10),
+        SIN("sin", Math::sin),
+        COS("cos", Math::cos),
+        TAN("tan", Math::tan),
+        ASIN("asin", Math::asin),
+        ACOS("acos", Math::acos),
+        ATAN("atan", Math::atan),
+        SIND("sind", x -> Math.sin(Math.toRadians(x))),
+        COSD("cosd", x -> Math.cos(Math.toRadians(x))),
+        TAND("tand", x -> Math.tan(Math.toRadians(x))),
+        ASIND("asind", x -> Math.toDegrees(Math.asin(x))),
+        ACOSD("acosd", x -> Math.toDegrees(Math.acos(x))),
+        ATAND("atand", x -> Math.toDegrees(Math.atan(x))),
+        ABS("abs", Math::abs);
+
+        final String name;
+        final DoubleUnaryOperator op;
+
+        Fn(String name, DoubleUnaryOperator op) {
+            this.name = name;
+            this.op = op;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double apply(double x) {
+            return op.applyAsDouble(x);
+        }
+
+        public static Fn byName(String name) {
+            for (Fn fn : values()) {
+                if (fn != NEG && fn.name.equals(name)) {
+                    return fn;
+                }
+            }
+            return null;
+        }
+
+        // f⁻¹, or null when f is not invertible on its whole range (abs)
+        Fn inverse() {
+            switch (this) {
+                case NEG: return NEG;
+                case EXP: return LN;
+                case LN: return EXP;
+                case SIN: return ASIN;
+                case COS: return ACOS;
+                case TAN: return ATAN;
+                case ASIN: return SIN;
+                case ACOS: return COS;
+                case ATAN: return TAN;
+                case SIND: return ASIND;
+                case COSD: return ACOSD;
+                case TAND: return ATAND;
+                case ASIND: return SIND;
+                case ACOSD: return COSD;
+                case ATAND: return TAND;
+                case CBRT: return null; // handled as x^3
+                case SQRT: return null; // handled as x^2
+                case LOG10: return null; // handled as 10^x
+                default: return null;
+            }
+        }
+    }
+
+    // x^2 and x^3 are by far the common powers; keep them off Math.pow
+    static double pow(double a, double b) {
+        if (b == 2) {
+            return a * a;
+        }
+        if (b == 3) {
+            return a * a * a;
+        }
+        if (b == 0.5) {
+            return Math.sqrt(a);
+        }
+        return Math.pow(a, b);
+    }
+
+    static final class Const extends Expr {
+        final double value;
+
+        Const(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public Node compile(ToIntFunction<String> slotOf) {
+            double v = value;
+            return in -> v;
+        }
+
+        @Override
+        public int count(String variable) {
+            return 0;
+        }
+
+        @Override
+        void collectVariables(Set<String> into) {
+        }
+
+        @Override
+        public String toString() {
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return Long.toString((long) value);
+            }
+            return Double.toString(value);
+        }
+    }
+
+    static final class Var extends Expr {
+        final String name;
+
+        Var(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Node compile(ToIntFunction<String> slotOf) {
+            int slot = slotOf.applyAsInt(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("No input slot for " + name);
+            }
+            return in -> in[slot];
+        }
+
+        @Override
+        public int count(String variable) {
+            return name.equals(variable) ? 1 : 0;
+        }
+
+        @Override
+        void collectVariables(Set<String> into) {
+            into.add(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final class Unary extends Expr {
+        final Fn fn;
+        final Expr arg;
+
+        Unary(Fn fn, Expr arg) {
+            this.fn = fn;
+            this.arg = arg;
+        }
+
+        @Override
+        public Node compile(ToIntFunction<String> slotOf) {
+            Node a = arg.compile(slotOf);
+            switch (fn) {
+                case NEG: return in -> -a.eval(in);
+                case SQRT: return in -> Math.sqrt(a.eval(in));
+                case EXP: return in -> Math.exp(a.eval(in));
+                case LN: return in -> Math.log(a.eval(in));
+                case SIN: return in -> Math.sin(a.eval(in));
+                case COS: return in -> Math.cos(a.eval(in));
+                default:
+                    DoubleUnaryOperator op = fn.op;
+                    return in -> op.applyAsDouble(a.eval(in));
+            }
+        }
+
+        @Override
+        public int count(String variable) {
+            return arg.count(variable);
+        }
+
+        @Override
+        void collectVariables(Set<String> into) {
+            arg.collectVariables(into);
+        }
+
+        @Override
+        public String toString() {
+            return fn == Fn.NEG ? "-(" + arg + ")" : fn.name + "(" + arg + ")";
+        }
+    }
+
+    static final class Binary extends Expr {
+        final Op op;
+        final Expr left;
+        final Expr right;
+
+        private Binary(Op op, Expr left, Expr right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        static Expr of(Op op, Expr a, Expr b) {
+            if (a instanceof Const && b instanceof Const) {
+                return new Const(op.apply(((Const) a).value, ((Const) b).value));
+            }
+            if (op == Op.POW && b instanceof Const && ((Const) b).value == 1) {
+                return a;
+            }
+            return new Binary(op, a, b);
+        }
+
+        @Override
+        public Node compile(ToIntFunction<String> slotOf) {
+            Node a = left.compile(slotOf);
+            if (right instanceof Const) {
+                double k = ((Const) right).value;
+                switch (op) {
+                    case ADD: return in -> a.eval(in) + k;
+                    case SUB: return in -> a.eval(in) - k;
+                    case MUL: return in -> a.eval(in) * k;
+                    case DIV: return in -> a.eval(in) / k;
+                    default:
+                        if (k == 2) {
+                            return in -> {
+                                double x = a.eval(in);
+                                return x * x;
+                            };
+                        }
+                        return in -> pow(a.eval(in), k);
+                }
+            }
+            Node b = right.compile(slotOf);
+            switch (op) {
+                case ADD: return in -> a.eval(in) + b.eval(in);
+                case SUB: return in -> a.eval(in) - b.eval(in);
+                case MUL: return in -> a.eval(in) * b.eval(in);
+                case DIV: return in -> a.eval(in) / b.eval(in);
+                default: return in -> pow(a.eval(in), b.eval(in));
+            }
+        }
+
+        @Override
+        public int count(String variable) {
+            return left.count(variable) + right.count(variable);
+        }
+
+        @Override
+        void collectVariables(Set<String> into) {
+            left.collectVariables(into);
+            right.collectVariables(into);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + op.symbol + " " + right + ")";
+        }
+    }
+}
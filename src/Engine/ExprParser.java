@@ -0,0 +1,220 @@
+package Engine;
+
+import java.util.*;
+
+// Recursive-descent parser for formula text such as "KE = 0.5 * m * v^2".
+//
+//   equation := expr '=' expr
+//   expr     := term (('+' | '-') term)*
+//   term     := unary (('*' | '×' | '/') unary)*
+//   unary    := '-' unary | power
+//   power    := primary ('²' | '³' | '^' unary)?
+//   primary  := number | name | function '(' expr ')' | '(' expr ')' | '[' any text ']'
+//
+// Names may contain Greek letters, subscript digits, ½ and primes (ω₀, T½, f').
+// Names that are not plain identifiers, like KE(rot) or ΔL/L, go in brackets.
+// Names listed in the constants map become numbers; so do pi and π.
+public final class ExprParser {
+
+    private final String text;
+    private final Map<String, Double> constants;
+    private int pos;
+
+    private ExprParser(String text, Map<String, Double> constants) {
+        this.text = text;
+        this.constants = constants;
+    }
+
+    public static Equation parseEquation(String text, Map<String, Double> constants) {
+        ExprParser parser = new ExprParser(text, constants);
+        Expr left = parser.expression();
+        parser.expect('=');
+        Expr right = parser.expression();
+        parser.expectEnd();
+        return new Equation(text, left, right);
+    }
+
+    public static Expr parseExpression(String text, Map<String, Double> constants) {
+        ExprParser parser = new ExprParser(text, constants);
+        Expr expr = parser.expression();
+        parser.expectEnd();
+        return expr;
+    }
+
+    private Expr expression() {
+        Expr expr = term();
+        while (true) {
+            if (accept('+')) {
+                expr = Expr.add(expr, term());
+            } else if (accept('-')) {
+                expr = Expr.subtract(expr, term());
+            } else {
+                return expr;
+            }
+        }
+    }
+
+    private Expr term() {
+        Expr expr = unary();
+        while (true) {
+            if (accept('*') || accept('×') || accept('·')) {
+                expr = Expr.multiply(expr, unary());
+            } else if (accept('/')) {
+                expr = Expr.divide(expr, unary());
+            } else {
+                return expr;
+            }
+        }
+    }
+
+    private Expr unary() {
+        if (accept('-')) {
+            return Expr.negate(unary());
+        }
+        if (accept('+')) {
+            return unary();
+        }
+        return power();
+    }
+
+    private Expr power() {
+        Expr base = primary();
+        if (accept('²')) {
+            return Expr.power(base, Expr.constant(2));
+        }
+        if (accept('³')) {
+            return Expr.power(base, Expr.constant(3));
+        }
+        if (accept('^')) {
+            return Expr.power(base, unary());
+        }
+        return base;
+    }
+
+    private Expr primary() {
+        skipSpaces();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of formula");
+        }
+        char ch = text.charAt(pos);
+        if (ch == '(') {
+            pos++;
+            Expr inner = expression();
+            expect(')');
+            return inner;
+        }
+        if (ch == '[') {
+            int close = text.indexOf(']', pos);
+            if (close < 0) {
+                throw error("Missing ]");
+            }
+            String name = text.substring(pos + 1, close).trim();
+            pos = close + 1;
+            return name(name);
+        }
+        if (Character.isDigit(ch) || ch == '.') {
+            return number();
+        }
+        if (isNameStart(ch)) {
+            int start = pos;
+            while (pos < text.length() && isNamePart(text.charAt(pos))) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            Expr.Fn fn = Expr.Fn.byName(name);
+            if (fn != null && peek('(')) {
+                expect('(');
+                Expr arg = expression();
+                expect(')');
+                return Expr.call(fn, arg);
+            }
+            return name(name);
+        }
+        throw error("Unexpected '" + ch + "'");
+    }
+
+    private Expr name(String name) {
+        Double value = constants.get(name);
+        if (value != null) {
+            return Expr.constant(value);
+        }
+        if (name.equals("pi") || name.equals("π")) {
+            return Expr.constant(Math.PI);
+        }
+        if (name.isEmpty()) {
+            throw error("Empty variable name");
+        }
+        return Expr.variable(name);
+    }
+
+    private Expr number() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int mark = pos;
+            pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                pos = mark; // "2e" is 2 followed by a name, not an exponent
+            }
+        }
+        try {
+            return Expr.constant(Double.parseDouble(text.substring(start, pos)));
+        } catch (NumberFormatException e) {
+            throw error("Bad number '" + text.substring(start, pos) + "'");
+        }
+    }
+
+    static boolean isNameStart(char ch) {
+        return Character.isLetter(ch) || ch == '_' || ch == '°';
+    }
+
+    static boolean isNamePart(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '\'' || ch == '½' || ch == '°'
+            || (ch >= '₀' && ch <= '₉');
+    }
+
+    private boolean peek(char ch) {
+        skipSpaces();
+        return pos < text.length() && text.charAt(pos) == ch;
+    }
+
+    private boolean accept(char ch) {
+        if (peek(ch)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char ch) {
+        if (!accept(ch)) {
+            throw error("Expected '" + ch + "'");
+        }
+    }
+
+    private void expectEnd() {
+        skipSpaces();
+        if (pos < text.length()) {
+            throw error("Unexpected '" + text.charAt(pos) + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in \"" + text + "\"");
+    }
+}
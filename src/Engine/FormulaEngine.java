@@ -0,0 +1,750 @@
+package Engine;
+
+import static Engine.Constants.G;
+import static Engine.Constants.LN2;
+import static Engine.Constants.MU0;
+import static Engine.Constants.R;
+import static Engine.Constants.c;
+import static Engine.Constants.h;
+import static Engine.Constants.k;
+
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import VectorMath.Vec3Array;
+import VectorMath.Vec3Math;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Headless formula engine. Every formula/target pair is resolved once into a
+// Solver; callers keep the Solver and feed it slot arrays. Hand-written solvers
+// are registered when this class loads, canonical equations are parsed the
+// first time their formula is used.
+// Angles (θ, i, r in optics) are taken and returned in degrees.
+// Safe for concurrent callers: the built-in tables are filled while the class
+// loads and only read afterwards, lazily built entries go through concurrent
+// maps, and a Solver keeps no per-call state, so one Solver may be shared by
+// any number of threads.
+public final class FormulaEngine {
+
+    private static final Map<String, Map<String, Solver>> SOLVERS = new LinkedHashMap<>();
+    // Canonical equation text (and constants) per formula; parsed on first use
+    private static final Map<String, String[]> EQUATION_SOURCES = new HashMap<>();
+    private static final Map<String, Equation> EQUATIONS = new ConcurrentHashMap<>();
+    // Derived solvers per formula, then per target, so redefining drops them in one step
+    private static final Map<String, Map<String, Solver>> DERIVED = new ConcurrentHashMap<>();
+    private static final Set<String> USER_DEFINED = Collections.synchronizedSet(new LinkedHashSet<>());
+    private static final Map<String, Double> CONSTANTS = Map.of(
+        "G", G, "k", k, "h", h, "c", c, "R", R, "μ0", MU0
+    );
+
+    static {
+        // ========== MECHANICS ==========
+        put(Solver.of("Velocity", "v", vars("d", "t"), (d, t) -> d / t));
+        put(Solver.of("Velocity", "d", vars("v", "t"), (v, t) -> v * t));
+        put(Solver.of("Velocity", "t", vars("d", "v"), (d, v) -> d / v));
+
+        put(Solver.of("Acceleration", "a", vars("v", "u", "t"), (v, u, t) -> (v - u) / t));
+        put(Solver.of("Acceleration", "v", vars("u", "a", "t"), (u, a, t) -> u + a * t));
+        put(Solver.of("Acceleration", "u", vars("v", "a", "t"), (v, a, t) -> v - a * t));
+        put(Solver.of("Acceleration", "t", vars("v", "u", "a"), (v, u, a) -> (v - u) / a));
+
+        put(Solver.of("Time", "t", vars("v", "u", "a"), (v, u, a) -> (v - u) / a));
+
+        put(Solver.of("Force", "F", vars("m", "a"), (m, a) -> m * a));
+        put(Solver.of("Force", "m", vars("F", "a"), (F, a) -> F / a));
+        put(Solver.of("Force", "a", vars("F", "m"), (F, m) -> F / m));
+
+        put(Solver.of("Mass", "m", vars("F", "a"), (F, a) -> F / a));
+
+        put(Solver.of("Work", "W", vars("F", "d", "θ"),
+            (F, d, th) -> F * d * Math.cos(Math.toRadians(th))).withDefault("θ", 0.0));
+        put(Solver.of("Work", "F", vars("W", "d", "θ"),
+            (W, d, th) -> W / (d * Math.cos(Math.toRadians(th)))).withDefault("θ", 0.0));
+        put(Solver.of("Work", "d", vars("W", "F", "θ"),
+            (W, F, th) -> W / (F * Math.cos(Math.toRadians(th)))).withDefault("θ", 0.0));
+
+        put(Solver.of("Power", "P", vars("W", "t"), (W, t) -> W / t));
+        put(Solver.of("Power", "W", vars("P", "t"), (P, t) -> P * t));
+        put(Solver.of("Power", "t", vars("W", "P"), (W, P) -> W / P));
+
+        put(Solver.of("Momentum", "p", vars("m", "v"), (m, v) -> m * v));
+        put(Solver.of("Momentum", "m", vars("p", "v"), (p, v) -> p / v));
+        put(Solver.of("Momentum", "v", vars("p", "m"), (p, m) -> p / m));
+
+        put(Solver.of("Impulse", "J", vars("F", "t"), (F, t) -> F * t));
+        put(Solver.of("Impulse", "F", vars("J", "t"), (J, t) -> J / t));
+        put(Solver.of("Impulse", "t", vars("J", "F"), (J, F) -> J / F));
+
+        put(Solver.of("Kinetic Energy", "KE", vars("m", "v"), (m, v) -> 0.5 * m * v * v));
+        put(Solver.of("Kinetic Energy", "m", vars("KE", "v"), (KE, v) -> (2 * KE) / (v * v)));
+        put(Solver.of("Kinetic Energy", "v", vars("KE", "m"), (KE, m) -> Math.sqrt((2 * KE) / m)));
+
+        put(Solver.of("Potential Energy", "PE", vars("m", "g", "h"), (m, g, hh) -> m * g * hh));
+        put(Solver.of("Potential Energy", "m", vars("PE", "g", "h"), (PE, g, hh) -> PE / (g * hh)));
+        put(Solver.of("Potential Energy", "h", vars("PE", "m", "g"), (PE, m, g) -> PE / (m * g)));
+        put(Solver.of("Potential Energy", "g", vars("PE", "m", "h"), (PE, m, hh) -> PE / (m * hh)));
+
+        put(Solver.of("Mechanical Energy", "E", vars("KE", "PE"), (KE, PE) -> KE + PE));
+
+        put(Solver.of("Centripetal Force", "Fc", vars("m", "v", "r"), (m, v, r) -> (m * v * v) / r));
+        put(Solver.of("Centripetal Force", "m", vars("Fc", "v", "r"), (Fc, v, r) -> (Fc * r) / (v * v)));
+        put(Solver.of("Centripetal Force", "v", vars("Fc", "r", "m"), (Fc, r, m) -> Math.sqrt((Fc * r) / m)));
+        put(Solver.of("Centripetal Force", "r", vars("m", "v", "Fc"), (m, v, Fc) -> (m * v * v) / Fc));
+
+        put(Solver.of("Centripetal Acceleration", "ac", vars("v", "r"), (v, r) -> (v * v) / r));
+        put(Solver.of("Centripetal Acceleration", "v", vars("ac", "r"), (ac, r) -> Math.sqrt(ac * r)));
+        put(Solver.of("Centripetal Acceleration", "r", vars("v", "ac"), (v, ac) -> (v * v) / ac));
+
+        put(Solver.of("Torque", "τ", vars("r", "F", "θ"),
+            (r, F, th) -> r * F * Math.sin(Math.toRadians(th))).withDefault("θ", 90.0));
+        put(Solver.of("Torque", "F", vars("τ", "r", "θ"),
+            (tau, r, th) -> tau / (r * Math.sin(Math.toRadians(th)))).withDefault("θ", 90.0));
+        put(Solver.of("Torque", "r", vars("τ", "F", "θ"),
+            (tau, F, th) -> tau / (F * Math.sin(Math.toRadians(th)))).withDefault("θ", 90.0));
+
+        put(Solver.of("Angular Momentum", "L", vars("I", "ω"), (I, w) -> I * w));
+        put(Solver.of("Angular Momentum", "I", vars("L", "ω"), (L, w) -> L / w));
+        put(Solver.of("Angular Momentum", "ω", vars("L", "I"), (L, I) -> L / I));
+
+        put(Solver.of("Angular Velocity", "ω", vars("θ", "t"), (th, t) -> th / t));
+        put(Solver.of("Angular Velocity", "θ", vars("ω", "t"), (w, t) -> w * t));
+        put(Solver.of("Angular Velocity", "t", vars("θ", "ω"), (th, w) -> th / w));
+
+        put(Solver.of("Angular Acceleration", "α", vars("ω", "ω₀", "t"), (w, w0, t) -> (w - w0) / t));
+        put(Solver.of("Angular Acceleration", "ω", vars("ω₀", "α", "t"), (w0, al, t) -> w0 + al * t));
+        put(Solver.of("Angular Acceleration", "t", vars("ω", "ω₀", "α"), (w, w0, al) -> (w - w0) / al));
+
+        put(Solver.of("Rotational Kinetic Energy", "KE(rot)", vars("I", "ω"), (I, w) -> 0.5 * I * w * w));
+        put(Solver.of("Rotational Kinetic Energy", "I", vars("KE(rot)", "ω"), (KE, w) -> (2 * KE) / (w * w)));
+        put(Solver.of("Rotational Kinetic Energy", "ω", vars("KE(rot)", "I"), (KE, I) -> Math.sqrt((2 * KE) / I)));
+
+        put(Solver.of("First Equation of Motion", "v", vars("u", "a", "t"), (u, a, t) -> u + a * t));
+        put(Solver.of("First Equation of Motion", "u", vars("v", "a", "t"), (v, a, t) -> v - a * t));
+        put(Solver.of("First Equation of Motion", "a", vars("v", "u", "t"), (v, u, t) -> (v - u) / t));
+        put(Solver.of("First Equation of Motion", "t", vars("v", "u", "a"), (v, u, a) -> (v - u) / a));
+
+        put(Solver.of("Second Equation of Motion", "s", vars("u", "t", "a"), (u, t, a) -> u * t + 0.5 * a * t * t));
+
+        put(Solver.of("Third Equation of Motion", "v", vars("u", "a", "s"), (u, a, s) -> Math.sqrt(u * u + 2 * a * s)));
+        put(Solver.of("Third Equation of Motion", "u", vars("v", "a", "s"), (v, a, s) -> Math.sqrt(v * v - 2 * a * s)));
+        put(Solver.of("Third Equation of Motion", "a", vars("v", "u", "s"), (v, u, s) -> (v * v - u * u) / (2 * s)));
+        put(Solver.of("Third Equation of Motion", "s", vars("v", "u", "a"), (v, u, a) -> (v * v - u * u) / (2 * a)));
+
+        put(Solver.of("Maximum Height", "H", vars("u", "θ", "g"), (u, th, g) -> {
+            double sin = Math.sin(Math.toRadians(th));
+            return (u * u * sin * sin) / (2 * g);
+        }));
+        put(Solver.of("Maximum Height", "u", vars("H", "g", "θ"), (H, g, th) -> {
+            double sin = Math.sin(Math.toRadians(th));
+            return Math.sqrt((2 * H * g) / (sin * sin));
+        }));
+        put(Solver.of("Maximum Height", "θ", vars("H", "g", "u"),
+            (H, g, u) -> Math.toDegrees(Math.asin(Math.sqrt((2 * H * g) / (u * u))))));
+
+        put(Solver.of("Time of Flight", "T", vars("u", "θ", "g"), (u, th, g) -> (2 * u * Math.sin(Math.toRadians(th))) / g));
+        put(Solver.of("Time of Flight", "u", vars("T", "g", "θ"), (T, g, th) -> (T * g) / (2 * Math.sin(Math.toRadians(th)))));
+        put(Solver.of("Time of Flight", "θ", vars("T", "g", "u"), (T, g, u) -> Math.toDegrees(Math.asin((T * g) / (2 * u)))));
+
+        put(Solver.of("Tension", "T", vars("m", "g", "a"), (m, g, a) -> m * (g + a)));
+
+        put(Solver.of("Friction", "f", vars("μ", "N"), (mu, N) -> mu * N));
+        put(Solver.of("Friction", "μ", vars("f", "N"), (f, N) -> f / N));
+        put(Solver.of("Friction", "N", vars("f", "μ"), (f, mu) -> f / mu));
+
+        put(Solver.of("Viscosity", "F", vars("η", "A", "dv", "dy"), (eta, A, dv, dy) -> eta * A * (dv / dy)));
+
+        put(Solver.of("Collision", "v₁", vars("m₁", "u₁", "m₂", "u₂", "v₂"),
+            (m1, u1, m2, u2, v2) -> (m1 * u1 + m2 * u2 - m2 * v2) / m1));
+        put(Solver.of("Collision", "v₂", vars("m₁", "u₁", "m₂", "u₂", "v₁"),
+            (m1, u1, m2, u2, v1) -> (m1 * u1 + m2 * u2 - m1 * v1) / m2));
+
+        // ========== GRAVITATION ==========
+        put(Solver.of("Gravitational Force", "F", vars("m1", "m2", "r"), (m1, m2, r) -> (G * m1 * m2) / (r * r)));
+        put(Solver.of("Gravitational Force", "m1", vars("F", "r", "m2"), (F, r, m2) -> (F * r * r) / (G * m2)));
+        put(Solver.of("Gravitational Force", "m2", vars("F", "r", "m1"), (F, r, m1) -> (F * r * r) / (G * m1)));
+        put(Solver.of("Gravitational Force", "r", vars("m1", "m2", "F"), (m1, m2, F) -> Math.sqrt((G * m1 * m2) / F)));
+
+        put(Solver.of("Acceleration due to Gravity", "g", vars("M", "r"), (M, r) -> (G * M) / (r * r)));
+        put(Solver.of("Acceleration due to Gravity", "M", vars("g", "r"), (g, r) -> (g * r * r) / G));
+        put(Solver.of("Acceleration due to Gravity", "r", vars("M", "g"), (M, g) -> Math.sqrt((G * M) / g)));
+
+        put(Solver.of("Gravitational Potential Energy", "U", vars("M", "m", "r"), (M, m, r) -> -(G * M * m) / r));
+        put(Solver.of("Gravitational Potential Energy", "M", vars("U", "r", "m"), (U, r, m) -> -(U * r) / (G * m)));
+        put(Solver.of("Gravitational Potential Energy", "r", vars("M", "m", "U"), (M, m, U) -> -(G * M * m) / U));
+
+        put(Solver.of("Orbital Velocity", "v", vars("M", "r"), (M, r) -> Math.sqrt(G * M / r)));
+        put(Solver.of("Orbital Velocity", "M", vars("v", "r"), (v, r) -> (v * v * r) / G));
+        put(Solver.of("Orbital Velocity", "r", vars("M", "v"), (M, v) -> (G * M) / (v * v)));
+
+        put(Solver.of("Kepler's Laws", "T", vars("constant", "r"), (K, r) -> Math.sqrt(K * r * r * r)));
+        put(Solver.of("Kepler's Laws", "r", vars("T", "constant"), (T, K) -> Math.cbrt((T * T) / K)));
+        put(Solver.of("Kepler's Laws", "constant", vars("T", "r"), (T, r) -> (T * T) / (r * r * r)));
+
+        put(Solver.of("Distance-Time Relation", "s", vars("u", "t", "a"), (u, t, a) -> u * t + 0.5 * a * t * t));
+        put(Solver.of("Velocity-Time Relation", "v", vars("u", "a", "t"), (u, a, t) -> u + a * t));
+        put(Solver.of("Moment of Inertia", "I", vars("m", "r"), (m, r) -> m * r * r));
+
+        // ========== FLUID MECHANICS ==========
+        put(Solver.of("Pressure", "P", vars("F", "A"), (F, A) -> F / A));
+        put(Solver.of("Pressure", "F", vars("P", "A"), (P, A) -> P * A));
+        put(Solver.of("Pressure", "A", vars("F", "P"), (F, P) -> F / P));
+
+        put(Solver.of("Density", "ρ", vars("m", "V"), (m, V) -> m / V));
+        put(Solver.of("Density", "m", vars("ρ", "V"), (rho, V) -> rho * V));
+        put(Solver.of("Density", "V", vars("m", "ρ"), (m, rho) -> m / rho));
+
+        // P + ½ρv² + ρgh = constant
+        put(Solver.of("Bernoulli's Principle", "constant", vars("P", "ρ", "v", "g", "h"),
+            (P, rho, v, g, hh) -> P + 0.5 * rho * v * v + rho * g * hh));
+
+        // Stress/Strain = Y = (F/A)/(ΔL/L)
+        put(Solver.of("Elasticity", "Y", vars("F", "A", "ΔL", "L"), (F, A, dL, L) -> (F / A) / (dL / L)));
+        put(Solver.of("Elasticity", "F", vars("Y", "A", "ΔL", "L"), (Y, A, dL, L) -> Y * A * (dL / L)));
+        put(Solver.of("Elasticity", "ΔL/L", vars("F", "A", "Y"), (F, A, Y) -> (F / A) / Y));
+
+        put(Solver.of("Pressure in gases", "P", vars("ρ", "v"), (rho, v) -> (1.0 / 3.0) * rho * v * v));
+
+        put(Solver.of("Fluid Pressure", "P", vars("ρ", "g", "h"), (rho, g, hh) -> rho * g * hh));
+        put(Solver.of("Fluid Pressure", "ρ", vars("P", "g", "h"), (P, g, hh) -> P / (g * hh)));
+        put(Solver.of("Fluid Pressure", "h", vars("P", "ρ", "g"), (P, rho, g) -> P / (rho * g)));
+        put(Solver.of("Fluid Pressure", "g", vars("P", "ρ", "h"), (P, rho, hh) -> P / (rho * hh)));
+
+        put(Solver.of("Atmospheric Pressure", "P", vars("h", "ρ", "g"), (hh, rho, g) -> hh * rho * g));
+
+        put(Solver.of("Pascal's Law", "F1", vars("F2", "A1", "A2"), (F2, A1, A2) -> (F2 * A1) / A2));
+        put(Solver.of("Pascal's Law", "F2", vars("F1", "A2", "A1"), (F1, A2, A1) -> (F1 * A2) / A1));
+        put(Solver.of("Pascal's Law", "A1", vars("F1", "A2", "F2"), (F1, A2, F2) -> (F1 * A2) / F2));
+        put(Solver.of("Pascal's Law", "A2", vars("F2", "A1", "F1"), (F2, A1, F1) -> (F2 * A1) / F1));
+
+        put(Solver.of("Pressure due to Depth", "P", vars("P0", "ρ", "g", "h"), (P0, rho, g, hh) -> P0 + rho * g * hh));
+
+        put(Solver.of("Boyle's Law", "P1", vars("P2", "V2", "V1"), (P2, V2, V1) -> (P2 * V2) / V1));
+        put(Solver.of("Boyle's Law", "V1", vars("P2", "V2", "P1"), (P2, V2, P1) -> (P2 * V2) / P1));
+        put(Solver.of("Boyle's Law", "P2", vars("P1", "V1", "V2"), (P1, V1, V2) -> (P1 * V1) / V2));
+
+        put(Solver.of("Charles's Law", "V1", vars("V2", "T1", "T2"), (V2, T1, T2) -> (V2 * T1) / T2));
+        put(Solver.of("Charles's Law", "T1", vars("V1", "T2", "V2"), (V1, T2, V2) -> (V1 * T2) / V2));
+        put(Solver.of("Charles's Law", "V2", vars("V1", "T2", "T1"), (V1, T2, T1) -> (V1 * T2) / T1));
+
+        put(Solver.of("Gay-Lussac's Law", "P1", vars("P2", "T1", "T2"), (P2, T1, T2) -> (P2 * T1) / T2));
+        put(Solver.of("Gay-Lussac's Law", "T1", vars("P1", "T2", "P2"), (P1, T2, P2) -> (P1 * T2) / P2));
+        put(Solver.of("Gay-Lussac's Law", "P2", vars("P1", "T2", "T1"), (P1, T2, T1) -> (P1 * T2) / T1));
+
+        put(Solver.of("Avogadro's Law", "V1", vars("V2", "n1", "n2"), (V2, n1, n2) -> (V2 * n1) / n2));
+        put(Solver.of("Avogadro's Law", "n1", vars("V1", "n2", "V2"), (V1, n2, V2) -> (V1 * n2) / V2));
+        put(Solver.of("Avogadro's Law", "V2", vars("V1", "n2", "n1"), (V1, n2, n1) -> (V1 * n2) / n1));
+
+        put(Solver.of("Combined Gas Law", "P1", vars("P2", "V2", "T1", "V1", "T2"),
+            (P2, V2, T1, V1, T2) -> (P2 * V2 * T1) / (V1 * T2)));
+        put(Solver.of("Combined Gas Law", "V1", vars("P2", "V2", "T1", "P1", "T2"),
+            (P2, V2, T1, P1, T2) -> (P2 * V2 * T1) / (P1 * T2)));
+        put(Solver.of("Combined Gas Law", "T1", vars("P1", "V1", "T2", "P2", "V2"),
+            (P1, V1, T2, P2, V2) -> (P1 * V1 * T2) / (P2 * V2)));
+
+        put(Solver.of("Ideal Gas Law", "P", vars("n", "T", "V"), (n, T, V) -> (n * R * T) / V));
+        put(Solver.of("Ideal Gas Law", "V", vars("n", "T", "P"), (n, T, P) -> (n * R * T) / P));
+        put(Solver.of("Ideal Gas Law", "n", vars("P", "V", "T"), (P, V, T) -> (P * V) / (R * T)));
+        put(Solver.of("Ideal Gas Law", "T", vars("P", "V", "n"), (P, V, n) -> (P * V) / (n * R)));
+
+        put(Solver.of("Dalton's Law", "P_total", vars("P1", "P2", "P3"), (P1, P2, P3) -> P1 + P2 + P3));
+
+        // ========== THERMODYNAMICS ==========
+        // Either source scale may be given; the first one present wins
+        put(Solver.of("Temperature Conversion", "°C", vars("°F", "K"),
+            (F, K) -> !Double.isNaN(F) ? (5.0 / 9.0) * (F - 32) : K - 273.15)
+            .withDefault("°F", Double.NaN).withDefault("K", Double.NaN));
+        put(Solver.of("Temperature Conversion", "°F", vars("°C", "K"),
+            (C, K) -> !Double.isNaN(C) ? (9.0 / 5.0) * C + 32 : (9.0 / 5.0) * (K - 273.15) + 32)
+            .withDefault("°C", Double.NaN).withDefault("K", Double.NaN));
+        put(Solver.of("Temperature Conversion", "K", vars("°C", "°F"),
+            (C, F) -> !Double.isNaN(C) ? C + 273.15 : (5.0 / 9.0) * (F - 32) + 273.15)
+            .withDefault("°C", Double.NaN).withDefault("°F", Double.NaN));
+
+        put(Solver.of("First Law of Thermodynamics", "ΔQ", vars("ΔU", "W"), (dU, W) -> dU + W));
+        put(Solver.of("First Law of Thermodynamics", "ΔU", vars("ΔQ", "W"), (dQ, W) -> dQ - W));
+        put(Solver.of("First Law of Thermodynamics", "W", vars("ΔQ", "ΔU"), (dQ, dU) -> dQ - dU));
+
+        put(Solver.of("Efficiency of Heat Engine", "η", vars("W", "Qh"), (W, Qh) -> W / Qh));
+        put(Solver.of("Efficiency of Heat Engine", "W", vars("η", "Qh"), (eta, Qh) -> eta * Qh));
+        put(Solver.of("Efficiency of Heat Engine", "Qh", vars("W", "η"), (W, eta) -> W / eta));
+
+        put(Solver.of("Carnot Efficiency", "η", vars("Tc", "Th"), (Tc, Th) -> 1 - (Tc / Th)));
+        put(Solver.of("Carnot Efficiency", "Tc", vars("Th", "η"), (Th, eta) -> Th * (1 - eta)));
+        put(Solver.of("Carnot Efficiency", "Th", vars("Tc", "η"), (Tc, eta) -> Tc / (1 - eta)));
+
+        put(Solver.of("Entropy", "ΔS", vars("ΔQ", "T"), (dQ, T) -> dQ / T));
+
+        // ========== WAVES AND OSCILLATIONS ==========
+        put(Solver.of("Wave Speed", "v", vars("f", "λ"), (f, lam) -> f * lam));
+        put(Solver.of("Wave Speed", "f", vars("v", "λ"), (v, lam) -> v / lam));
+        put(Solver.of("Wave Speed", "λ", vars("v", "f"), (v, f) -> v / f));
+
+        put(Solver.of("Period", "T", vars("f"), f -> 1.0 / f));
+        put(Solver.of("Period", "f", vars("T"), T -> 1.0 / T));
+
+        put(Solver.of("Hooke's Law", "F", vars("k", "x"), (kk, x) -> kk * x));
+        put(Solver.of("Hooke's Law", "k", vars("F", "x"), (F, x) -> F / x));
+        put(Solver.of("Hooke's Law", "x", vars("F", "k"), (F, kk) -> F / kk));
+
+        put(Solver.of("Energy in Simple Harmonic Oscillator", "E", vars("k", "A"), (kk, A) -> 0.5 * kk * A * A));
+        put(Solver.of("Energy in Simple Harmonic Oscillator", "k", vars("E", "A"), (E, A) -> (2 * E) / (A * A)));
+        put(Solver.of("Energy in Simple Harmonic Oscillator", "A", vars("E", "k"), (E, kk) -> Math.sqrt((2 * E) / kk)));
+
+        put(Solver.of("Resonance Frequency", "f", vars("k", "m"), (kk, m) -> (1.0 / (2 * Math.PI)) * Math.sqrt(kk / m)));
+
+        // f' = f * (v ± vo) / (v ∓ vs), using the upper signs (toward each other)
+        put(Solver.of("Doppler Effect", "f'", vars("f", "v", "vo", "vs"), (f, v, vo, vs) -> f * (v + vo) / (v - vs))
+            .withDefault("vo", 0.0).withDefault("vs", 0.0));
+
+        put(Solver.of("Sound Intensity", "I", vars("P", "A"), (P, A) -> P / A));
+        put(Solver.of("Sound Intensity", "P", vars("I", "A"), (I, A) -> I * A));
+        put(Solver.of("Sound Intensity", "A", vars("P", "I"), (P, I) -> P / I));
+
+        put(Solver.of("Decibel Formula", "β", vars("I", "I0"), (I, I0) -> 10 * Math.log10(I / I0)));
+
+        // ========== OPTICS ==========
+        put(Solver.of("Lens Formula", "f", vars("v", "u"), (v, u) -> 1.0 / ((1.0 / v) - (1.0 / u))));
+        put(Solver.of("Lens Formula", "v", vars("f", "u"), (f, u) -> 1.0 / ((1.0 / f) + (1.0 / u))));
+
+        put(Solver.of("Mirror Formula", "f", vars("u", "v"), (u, v) -> 1.0 / ((1.0 / u) + (1.0 / v))));
+        put(Solver.of("Mirror Formula", "v", vars("f", "u"), (f, u) -> 1.0 / ((1.0 / f) - (1.0 / u))));
+        put(Solver.of("Mirror Formula", "u", vars("f", "v"), (f, v) -> 1.0 / ((1.0 / f) - (1.0 / v))));
+
+        put(Solver.of("Magnification", "m", vars("v", "u"), (v, u) -> -v / u));
+        put(Solver.of("Magnification", "v", vars("m", "u"), (m, u) -> -m * u));
+        put(Solver.of("Magnification", "u", vars("v", "m"), (v, m) -> -v / m));
+
+        put(Solver.of("Snell's Law", "n1", vars("n2", "r", "i"),
+            (n2, r, i) -> n2 * Math.sin(Math.toRadians(r)) / Math.sin(Math.toRadians(i))));
+        put(Solver.of("Snell's Law", "n2", vars("n1", "i", "r"),
+            (n1, i, r) -> n1 * Math.sin(Math.toRadians(i)) / Math.sin(Math.toRadians(r))));
+        put(Solver.of("Snell's Law", "i", vars("n2", "r", "n1"),
+            (n2, r, n1) -> Math.toDegrees(Math.asin(n2 * Math.sin(Math.toRadians(r)) / n1))));
+        put(Solver.of("Snell's Law", "r", vars("n1", "i", "n2"),
+            (n1, i, n2) -> Math.toDegrees(Math.asin(n1 * Math.sin(Math.toRadians(i)) / n2))));
+
+        put(Solver.of("Critical Angle", "θc", vars("n2", "n1"), (n2, n1) -> Math.toDegrees(Math.asin(n2 / n1))));
+
+        // Returns 1 if TIR occurs, 0 otherwise
+        put(Solver.of("Total Internal Reflection", "TIR", vars("n2", "n1", "i"),
+            (n2, n1, i) -> (i > Math.toDegrees(Math.asin(n2 / n1))) ? 1 : 0));
+
+        // ========== ELECTRICITY AND MAGNETISM ==========
+        put(Solver.of("Electric Potential", "V", vars("Q", "r"), (Q, r) -> k * Q / r));
+        put(Solver.of("Electric Potential", "Q", vars("V", "r"), (V, r) -> V * r / k));
+        put(Solver.of("Electric Potential", "r", vars("Q", "V"), (Q, V) -> k * Q / V));
+
+        put(Solver.of("Electric Field", "E", vars("Q", "r"), (Q, r) -> k * Q / (r * r)));
+        put(Solver.of("Electric Field", "Q", vars("E", "r"), (E, r) -> E * r * r / k));
+        put(Solver.of("Electric Field", "r", vars("Q", "E"), (Q, E) -> Math.sqrt(k * Q / E)));
+
+        put(Solver.of("Coulomb's Law", "F", vars("q1", "q2", "r"), (q1, q2, r) -> k * q1 * q2 / (r * r)));
+        put(Solver.of("Coulomb's Law", "q1", vars("F", "r", "q2"), (F, r, q2) -> F * r * r / (k * q2)));
+        put(Solver.of("Coulomb's Law", "r", vars("q1", "q2", "F"), (q1, q2, F) -> Math.sqrt(k * q1 * q2 / F)));
+
+        put(Solver.of("Ohm's Law", "V", vars("I", "R"), (I, Rr) -> I * Rr));
+        put(Solver.of("Ohm's Law", "I", vars("V", "R"), (V, Rr) -> V / Rr));
+        put(Solver.of("Ohm's Law", "R", vars("V", "I"), (V, I) -> V / I));
+
+        put(Solver.of("Electric Power", "P", vars("V", "I"), (V, I) -> V * I));
+        put(Solver.of("Electric Power", "V", vars("P", "I"), (P, I) -> P / I));
+        put(Solver.of("Electric Power", "I", vars("P", "V"), (P, V) -> P / V));
+
+        put(Solver.of("Series Resistance", "R", vars("R1", "R2", "R3"), (R1, R2, R3) -> R1 + R2 + R3));
+        put(Solver.of("Parallel Resistance", "R", vars("R1", "R2", "R3"),
+            (R1, R2, R3) -> 1.0 / ((1.0 / R1) + (1.0 / R2) + (1.0 / R3))));
+
+        put(Solver.of("Magnetic Field", "B", vars("I", "r"), (I, r) -> (MU0 * I) / (2 * Math.PI * r)));
+
+        put(Solver.of("Charge", "Q", vars("I", "t"), (I, t) -> I * t));
+        put(Solver.of("Charge", "I", vars("Q", "t"), (Q, t) -> Q / t));
+        put(Solver.of("Charge", "t", vars("Q", "I"), (Q, I) -> Q / I));
+
+        put(Solver.of("Inductance", "ε", vars("L", "dI", "dt"), (L, dI, dt) -> L * (dI / dt)));
+        put(Solver.of("Conductivity", "σ", vars("ρ"), rho -> 1.0 / rho));
+        put(Solver.of("Faraday's Law", "ε", vars("dΦ", "dt"), (dPhi, dt) -> -dPhi / dt));
+
+        // ========== MODERN PHYSICS ==========
+        put(Solver.of("Mass-Energy Equivalence", "E", vars("m"), m -> m * (c * c)));
+        put(Solver.of("Mass-Energy Equivalence", "m", vars("E"), E -> E / (c * c)));
+
+        put(Solver.of("Photon Energy", "E", vars("f"), f -> h * f));
+        put(Solver.of("Photon Energy", "f", vars("E"), E -> E / h));
+        put(Solver.of("Photon Energy", "h", vars("E", "f"), (E, f) -> E / f));
+
+        put(Solver.of("de Broglie Wavelength", "λ", vars("p"), p -> h / p));
+        put(Solver.of("de Broglie Wavelength", "p", vars("λ"), lam -> h / lam));
+
+        put(Solver.of("Photoelectric Effect", "KE", vars("f", "φ"), (f, phi) -> h * f - phi));
+
+        put(Solver.of("Half-Life Formula", "T½", vars("λ"), lam -> LN2 / lam));
+        put(Solver.of("Half-Life Formula", "λ", vars("T½"), half -> LN2 / half));
+
+        put(Solver.of("Radioactive Decay Law", "N", vars("N0", "λ", "t"), (N0, lam, t) -> N0 * Math.exp(-lam * t)));
+        put(Solver.of("Radioactive Decay Law", "N0", vars("N", "λ", "t"), (N, lam, t) -> N / Math.exp(-lam * t)));
+        put(Solver.of("Radioactive Decay Law", "λ", vars("N", "N0", "t"), (N, N0, t) -> -Math.log(N / N0) / t));
+        put(Solver.of("Radioactive Decay Law", "t", vars("N", "N0", "λ"), (N, N0, lam) -> -Math.log(N / N0) / lam));
+
+        put(Solver.of("Electromagnetic Wave", "c", vars("λ", "f"), (lam, f) -> lam * f));
+        put(Solver.of("Electromagnetic Wave", "λ", vars("f"), f -> c / f));
+        put(Solver.of("Electromagnetic Wave", "f", vars("λ"), lam -> c / lam));
+
+        // ========== VECTOR ==========
+        // Vector formulas return the magnitude
+        put(Solver.of("Displacement Vector", "|d|", vars("xi", "xf", "yi", "yf", "zi", "zf"),
+            (xi, xf, yi, yf, zi, zf) -> {
+                double dx = xf - xi;
+                double dy = yf - yi;
+                double dz = zf - zi;
+                return Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }));
+        // Columns are already x/y/z component arrays, so batches go straight to the SIMD kernels
+        put(Solver.of("Velocity Vector", "|v|", vars("vx", "vy", "vz"),
+            (vx, vy, vz) -> Math.sqrt(vx * vx + vy * vy + vz * vz), FormulaEngine::magnitudes));
+        put(Solver.of("Acceleration Vector", "|a|", vars("ax", "ay", "az"),
+            (ax, ay, az) -> Math.sqrt(ax * ax + ay * ay + az * az), FormulaEngine::magnitudes));
+
+        for (Map.Entry<String, Map<String, Solver>> entry : SOLVERS.entrySet()) {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+
+        // ========== CANONICAL EQUATIONS ==========
+        // One equation per formula. Targets without a hand-written solver above
+        // are derived from these on first use (see Inverter). Physical constants
+        // are listed per equation because h, k, c and R are also variable names.
+        equation("Velocity", "v = d / t");
+        equation("Acceleration", "a = (v - u) / t");
+        equation("Time", "t = (v - u) / a");
+        equation("Force", "F = m * a");
+        equation("Mass", "m = F / a");
+        equation("Work", "W = F * d * cosd(θ)");
+        equation("Power", "P = W / t");
+        equation("Momentum", "p = m * v");
+        equation("Impulse", "J = F * t");
+        equation("Kinetic Energy", "KE = 0.5 * m * v^2");
+        equation("Potential Energy", "PE = m * g * h");
+        equation("Mechanical Energy", "E = KE + PE");
+        equation("Centripetal Force", "Fc = m * v^2 / r");
+        equation("Centripetal Acceleration", "ac = v^2 / r");
+        equation("Torque", "τ = r * F * sind(θ)");
+        equation("Angular Momentum", "L = I * ω");
+        equation("Angular Velocity", "ω = θ / t");
+        equation("Angular Acceleration", "α = (ω - ω₀) / t");
+        equation("Rotational Kinetic Energy", "[KE(rot)] = 0.5 * I * ω^2");
+        equation("First Equation of Motion", "v = u + a * t");
+        equation("Second Equation of Motion", "s = u * t + 0.5 * a * t^2");
+        equation("Third Equation of Motion", "v^2 = u^2 + 2 * a * s");
+        equation("Maximum Height", "H = u^2 * sind(θ)^2 / (2 * g)");
+        equation("Time of Flight", "T = 2 * u * sind(θ) / g");
+        equation("Tension", "T = m * (g + a)");
+        equation("Friction", "f = μ * N");
+        equation("Viscosity", "F = η * A * (dv / dy)");
+        equation("Collision", "m₁ * u₁ + m₂ * u₂ = m₁ * v₁ + m₂ * v₂");
+
+        equation("Gravitational Force", "F = G * m1 * m2 / r^2", "G");
+        equation("Acceleration due to Gravity", "g = G * M / r^2", "G");
+        equation("Gravitational Potential Energy", "U = -G * M * m / r", "G");
+        equation("Orbital Velocity", "v = sqrt(G * M / r)", "G");
+        equation("Kepler's Laws", "T^2 = constant * r^3");
+        equation("Distance-Time Relation", "s = u * t + 0.5 * a * t^2");
+        equation("Velocity-Time Relation", "v = u + a * t");
+        equation("Moment of Inertia", "I = m * r^2");
+
+        equation("Pressure", "P = F / A");
+        equation("Density", "ρ = m / V");
+        equation("Bernoulli's Principle", "constant = P + 0.5 * ρ * v^2 + ρ * g * h");
+        equation("Elasticity", "Y = (F / A) / (ΔL / L)");
+        equation("Pressure in gases", "P = ρ * v^2 / 3");
+        equation("Fluid Pressure", "P = ρ * g * h");
+        equation("Atmospheric Pressure", "P = h * ρ * g");
+        equation("Pascal's Law", "F1 / A1 = F2 / A2");
+        equation("Pressure due to Depth", "P = P0 + ρ * g * h");
+        equation("Boyle's Law", "P1 * V1 = P2 * V2");
+        equation("Charles's Law", "V1 / T1 = V2 / T2");
+        equation("Gay-Lussac's Law", "P1 / T1 = P2 / T2");
+        equation("Avogadro's Law", "V1 / n1 = V2 / n2");
+        equation("Combined Gas Law", "P1 * V1 / T1 = P2 * V2 / T2");
+        equation("Ideal Gas Law", "P * V = n * R * T", "R");
+        equation("Dalton's Law", "P_total = P1 + P2 + P3");
+
+        equation("First Law of Thermodynamics", "ΔQ = ΔU + W");
+        equation("Efficiency of Heat Engine", "η = W / Qh");
+        equation("Carnot Efficiency", "η = 1 - Tc / Th");
+        equation("Entropy", "ΔS = ΔQ / T");
+
+        equation("Wave Speed", "v = f * λ");
+        equation("Period", "T = 1 / f");
+        equation("Hooke's Law", "F = k * x");
+        equation("Energy in Simple Harmonic Oscillator", "E = 0.5 * k * A^2");
+        equation("Resonance Frequency", "f = sqrt(k / m) / (2 * pi)");
+        equation("Doppler Effect", "f' = f * (v + vo) / (v - vs)");
+        equation("Sound Intensity", "I = P / A");
+        equation("Decibel Formula", "β = 10 * log10(I / I0)");
+
+        equation("Lens Formula", "1 / f = 1 / v - 1 / u");
+        equation("Mirror Formula", "1 / f = 1 / u + 1 / v");
+        equation("Magnification", "m = -v / u");
+        equation("Snell's Law", "n1 * sind(i) = n2 * sind(r)");
+        equation("Critical Angle", "θc = asind(n2 / n1)");
+
+        equation("Electric Potential", "V = k * Q / r", "k");
+        equation("Electric Field", "E = k * Q / r^2", "k");
+        equation("Coulomb's Law", "F = k * q1 * q2 / r^2", "k");
+        equation("Ohm's Law", "V = I * R");
+        equation("Electric Power", "P = V * I");
+        equation("Series Resistance", "R = R1 + R2 + R3");
+        equation("Parallel Resistance", "1 / R = 1 / R1 + 1 / R2 + 1 / R3");
+        equation("Magnetic Field", "B = μ0 * I / (2 * pi * r)", "μ0");
+        equation("Charge", "Q = I * t");
+        equation("Inductance", "ε = L * dI / dt");
+        equation("Conductivity", "σ = 1 / ρ");
+        equation("Faraday's Law", "ε = -dΦ / dt");
+
+        equation("Mass-Energy Equivalence", "E = m * c^2", "c");
+        equation("Photon Energy", "E = h * f", "h");
+        equation("de Broglie Wavelength", "λ = h / p", "h");
+        equation("Photoelectric Effect", "KE = h * f - φ", "h");
+        equation("Half-Life Formula", "T½ = ln(2) / λ");
+        equation("Radioactive Decay Law", "N = N0 * exp(-λ * t)");
+        equation("Electromagnetic Wave", "c = λ * f");
+
+        equation("Displacement Vector", "[|d|] = sqrt((xf - xi)^2 + (yf - yi)^2 + (zf - zi)^2)");
+        equation("Velocity Vector", "[|v|] = sqrt(vx^2 + vy^2 + vz^2)");
+        equation("Acceleration Vector", "[|a|] = sqrt(ax^2 + ay^2 + az^2)");
+    }
+
+    private FormulaEngine() {
+    }
+
+    // Resolve a formula/target pair. Do this once and keep the Solver around;
+    // this is the only place a formula name is ever looked up. Hand-written
+    // solvers win; any other variable of the canonical equation is derived on
+    // first request and cached.
+    public static Solver compile(String formula, String target) {
+        Map<String, Solver> targets = SOLVERS.get(formula);
+        Equation equation = equationOf(formula);
+        if (targets == null && equation == null) {
+            throw new IllegalArgumentException("Formula not implemented: " + formula);
+        }
+        Solver solver = targets == null ? null : targets.get(target);
+        if (solver != null) {
+            return solver;
+        }
+        if (equation == null || equation.count(target) == 0) {
+            throw new IllegalArgumentException(formula + " cannot be solved for " + target);
+        }
+        Map<String, Solver> derivedTargets = DERIVED.computeIfAbsent(formula, f -> new ConcurrentHashMap<>());
+        Solver derived = derivedTargets.computeIfAbsent(target, t -> Inverter.derive(formula, equation, target));
+        if (EQUATIONS.get(formula) != equation) {
+            // Redefined or removed by another thread meanwhile; never cache a
+            // solver for an equation that is gone
+            derivedTargets.remove(target, derived);
+            return compile(formula, target);
+        }
+        return derived;
+    }
+
+    public static boolean isImplemented(String formula) {
+        return SOLVERS.containsKey(formula) || EQUATION_SOURCES.containsKey(formula) || EQUATIONS.containsKey(formula);
+    }
+
+    public static boolean canSolve(String formula, String target) {
+        Map<String, Solver> targets = SOLVERS.get(formula);
+        if (targets != null && targets.containsKey(target)) {
+            return true;
+        }
+        Equation equation = equationOf(formula);
+        return equation != null && equation.count(target) > 0;
+    }
+
+    public static Set<String> getFormulas() {
+        return Collections.unmodifiableSet(SOLVERS.keySet());
+    }
+
+    // Every variable the formula can be solved for: the canonical equation's
+    // variables in order, then any extra hand-written targets
+    public static Set<String> getTargets(String formula) {
+        Set<String> targets = new LinkedHashSet<>();
+        Equation equation = equationOf(formula);
+        if (equation != null) {
+            targets.addAll(equation.getVariables());
+        }
+        Map<String, Solver> handWritten = SOLVERS.get(formula);
+        if (handWritten != null) {
+            targets.addAll(handWritten.keySet());
+        }
+        return Collections.unmodifiableSet(targets);
+    }
+
+    // Input names of the solver compile(formula, target) returns, in slot order,
+    // without compiling it; null if the target cannot be solved for
+    public static String[] getInputs(String formula, String target) {
+        Map<String, Solver> targets = SOLVERS.get(formula);
+        if (targets != null && targets.containsKey(target)) {
+            return targets.get(target).getInputs();
+        }
+        Equation equation = equationOf(formula);
+        if (equation == null || equation.count(target) == 0) {
+            return null;
+        }
+        List<String> names = new ArrayList<>(equation.getVariables());
+        names.remove(target);
+        return names.toArray(new String[0]);
+    }
+
+    // Canonical equation of a formula, or null if it only has hand-written solvers
+    public static Equation getEquation(String formula) {
+        return equationOf(formula);
+    }
+
+    // ========== USER-DEFINED FORMULAS ==========
+
+    // Register (or replace) a formula from its equation text, e.g.
+    // define("Gravity", "F = G*m1*m2/r^2", "G"). Names listed in constants are
+    // the physical constants G, k, h, c, R and μ0; every other name is a
+    // variable. All targets are compiled here, once per definition, so errors
+    // surface immediately and solving never compiles on the hot path.
+    public static Equation define(String formula, String text, String... constants) {
+        Equation equation = defineUnpublished(formula, text, constants);
+        // Outside the lock: the registry may still be initialising on another thread
+        FormulaRegistry.refresh();
+        return equation;
+    }
+
+    // define() without publishing a registry snapshot, for loading many
+    // formulas at once; the caller calls FormulaRegistry.refresh() after the
+    // last one, so a file of n formulas is described once, not n times
+    static Equation defineUnpublished(String formula, String text, String... constants) {
+        synchronized (USER_DEFINED) {
+            return register(formula, text, constants);
+        }
+    }
+
+    private static Equation register(String formula, String text, String... constants) {
+        if (formula == null || formula.trim().isEmpty()) {
+            throw new IllegalArgumentException("Formula name is empty");
+        }
+        if (SOLVERS.containsKey(formula) || EQUATION_SOURCES.containsKey(formula)) {
+            throw new IllegalArgumentException(formula + " is a built-in formula");
+        }
+        Map<String, Double> values = new HashMap<>();
+        for (String name : constants) {
+            Double value = CONSTANTS.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown constant: " + name);
+            }
+            values.put(name, value);
+        }
+        Equation equation = ExprParser.parseEquation(text, values);
+        if (equation.getVariables().isEmpty()) {
+            throw new IllegalArgumentException(formula + " has no variables");
+        }
+        Map<String, Solver> solvers = new ConcurrentHashMap<>();
+        for (String target : equation.getVariables()) {
+            solvers.put(target, Inverter.derive(formula, equation, target));
+        }
+        DERIVED.put(formula, solvers);
+        EQUATIONS.put(formula, equation);
+        USER_DEFINED.add(formula);
+        return equation;
+    }
+
+    public static boolean undefine(String formula) {
+        synchronized (USER_DEFINED) {
+            if (!USER_DEFINED.remove(formula)) {
+                return false;
+            }
+            EQUATIONS.remove(formula);
+            forget(formula);
+        }
+        FormulaRegistry.refresh();
+        return true;
+    }
+
+    public static boolean isUserDefined(String formula) {
+        return USER_DEFINED.contains(formula);
+    }
+
+    // Snapshot, in definition order
+    public static List<String> getUserFormulas() {
+        synchronized (USER_DEFINED) {
+            return new ArrayList<>(USER_DEFINED);
+        }
+    }
+
+    // Drop the compiled solvers of a formula; their hidden classes unload with them
+    private static void forget(String formula) {
+        DERIVED.remove(formula);
+    }
+
+    // Convenience for one-off calls; hot loops should use compile() + solve()
+    public static double evaluate(String formula, String target, Map<String, Double> values) {
+        Solver solver = compile(formula, target);
+        FormulaMetrics metrics = CalculationMetrics.of(solver.getFormula());
+        double[] in = solver.newInputs();
+        for (int slot = 0; slot < in.length; slot++) {
+            Double value = values.get(solver.getInput(slot));
+            if (value != null) {
+                in[slot] = value;
+            } else if (!solver.isOptional(slot)) {
+                metrics.recordError(ErrorKind.MISSING_INPUT);
+                throw new IllegalArgumentException("Missing value for " + solver.getInput(slot));
+            }
+        }
+        long start = System.nanoTime();
+        double result = solver.solve(in);
+        metrics.record(System.nanoTime() - start, result);
+        return result;
+    }
+
+    // Columnar form of evaluate(): one double[] per input name in, one double[] out.
+    // Optional inputs may be left out of the map.
+    public static double[] evaluateColumns(String formula, String target, Map<String, double[]> columns) {
+        Solver solver = compile(formula, target);
+        double[][] ordered = new double[solver.getArity()][];
+        for (int slot = 0; slot < ordered.length; slot++) {
+            ordered[slot] = columns.get(solver.getInput(slot));
+        }
+        long start = System.nanoTime();
+        double[] out = solver.solveColumns(ordered);
+        CalculationMetrics.of(solver.getFormula()).record(System.nanoTime() - start, out, 0, out.length);
+        return out;
+    }
+
+    private static void magnitudes(double[][] columns, double[] out, int from, int to) {
+        Vec3Math.kernels().magnitude(Vec3Array.wrap(columns[0], columns[1], columns[2]), out, from, to);
+    }
+
+    private static void put(Solver solver) {
+        SOLVERS.computeIfAbsent(solver.getFormula(), f -> new LinkedHashMap<>()).put(solver.getTarget(), solver);
+    }
+
+    private static void equation(String formula, String text, String... constants) {
+        String[] source = Arrays.copyOf(constants, constants.length + 1);
+        source[constants.length] = text;
+        EQUATION_SOURCES.put(formula, source);
+    }
+
+    private static Equation equationOf(String formula) {
+        Equation equation = EQUATIONS.get(formula);
+        if (equation != null) {
+            return equation;
+        }
+        String[] source = EQUATION_SOURCES.get(formula);
+        if (source == null) {
+            return null;
+        }
+        return EQUATIONS.computeIfAbsent(formula, f -> {
+            Map<String, Double> values = new HashMap<>();
+            for (int i = 0; i < source.length - 1; i++) {
+                values.put(source[i], CONSTANTS.get(source[i]));
+            }
+            return ExprParser.parseEquation(source[source.length - 1], values);
+        });
+    }
+
+    private static String[] vars(String... names) {
+        return names;
+    }
+}
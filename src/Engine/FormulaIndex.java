@@ -0,0 +1,205 @@
+package Engine;
+
+import java.text.Normalizer;
+import java.util.*;
+
+// Typeahead over a registry snapshot. Every word of a formula's name, its
+// variables, its category and its display text is cut into trigrams (padded
+// in front, so "vel" also yields "  v" and " ve" and a one-letter query is a
+// prefix match). Each trigram maps to the formulas that contain it. A query is
+// cut the same way, and only the formulas on its trigrams' lists are ever
+// looked at, so a keystroke costs the length of a few posting lists, not a
+// scan of the catalog.
+//
+// A formula matches when it shares at least MIN_SIMILARITY of the query's
+// trigrams, so a typo or a missing letter still finds it. Matches are ranked
+// by where their trigrams were found (name, then variables, then category and
+// display text), with a bonus when the name starts with or contains the
+// query. Immutable, so one index serves any number of threads; the score
+// arrays a search adds up in are per thread and reused, and only the entries
+// it touched are cleared afterwards, so a keystroke allocates nothing the
+// size of the catalog.
+public final class FormulaIndex {
+
+    private static final int NAME = 0;
+    private static final int VARIABLE = 1;
+    private static final int CATEGORY = 2;
+    private static final int DISPLAY = 3;
+    private static final float[] WEIGHTS = {3f, 2f, 1f, 1f};
+
+    private static final float MIN_SIMILARITY = 0.6f;
+
+    private final FormulaInfo[] formulas;
+    private final String[] names;
+    private final Map<Long, int[]> postings;
+    private final ThreadLocal<Scratch> scratch;
+
+    public FormulaIndex(List<FormulaInfo> formulas) {
+        this.formulas = formulas.toArray(new FormulaInfo[0]);
+        this.names = new String[this.formulas.length];
+        Map<Long, Postings> building = new HashMap<>();
+        for (int i = 0; i < this.formulas.length; i++) {
+            FormulaInfo info = this.formulas[i];
+            names[i] = normalize(info.getName());
+            // Best field first: a trigram is recorded once per formula, in
+            // the first field that has it
+            add(building, i, NAME, names[i]);
+            for (int v = 0; v < info.getVariableCount(); v++) {
+                add(building, i, VARIABLE, normalize(info.getVariable(v)));
+            }
+            add(building, i, CATEGORY, normalize(info.getCategory()));
+            add(building, i, DISPLAY, normalize(info.getDisplay()));
+        }
+        postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, Postings> entry : building.entrySet()) {
+            postings.put(entry.getKey(), Arrays.copyOf(entry.getValue().entries, entry.getValue().size));
+        }
+        int size = this.formulas.length;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(size));
+    }
+
+    public int size() {
+        return formulas.length;
+    }
+
+    // The best matches for query, best first, at most limit of them
+    public List<FormulaInfo> search(String query, int limit) {
+        String text = normalize(query);
+        long[] grams = trigrams(text);
+        if (grams.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Scratch work = scratch.get();
+        float[] scores = work.scores;
+        int[] hits = work.hits;
+        int touchedCount = 0;
+        try {
+            // Accumulate over the posting lists; touched holds the formulas seen
+            for (long gram : grams) {
+                int[] list = postings.get(gram);
+                if (list == null) {
+                    continue;
+                }
+                for (int entry : list) {
+                    int id = entry >>> 2;
+                    if (hits[id]++ == 0) {
+                        if (touchedCount == work.touched.length) {
+                            work.touched = Arrays.copyOf(work.touched, touchedCount * 2);
+                        }
+                        work.touched[touchedCount++] = id;
+                    }
+                    scores[id] += WEIGHTS[entry & 3];
+                }
+            }
+
+            int needed = Math.max(1, (int) Math.ceil(grams.length * MIN_SIMILARITY));
+            String phrase = text.trim();
+            Integer[] matches = new Integer[touchedCount];
+            int count = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int id = work.touched[t];
+                if (hits[id] < needed) {
+                    continue;
+                }
+                if (names[id].startsWith(phrase)) {
+                    scores[id] += grams.length * WEIGHTS[NAME];
+                } else if (names[id].contains(phrase)) {
+                    scores[id] += grams.length;
+                }
+                matches[count++] = id;
+            }
+
+            // Best score, then the shorter (closer) name, then catalog order
+            Arrays.sort(matches, 0, count, (a, b) -> {
+                int byScore = Float.compare(scores[b], scores[a]);
+                if (byScore != 0) {
+                    return byScore;
+                }
+                int byLength = Integer.compare(names[a].length(), names[b].length());
+                return byLength != 0 ? byLength : Integer.compare(a, b);
+            });
+            List<FormulaInfo> results = new ArrayList<>(Math.min(limit, count));
+            for (int i = 0; i < count && i < limit; i++) {
+                results.add(formulas[matches[i]]);
+            }
+            return results;
+        } finally {
+            for (int t = 0; t < touchedCount; t++) {
+                int id = work.touched[t];
+                hits[id] = 0;
+                scores[id] = 0;
+            }
+        }
+    }
+
+    // A thread's score arrays, all zero between searches
+    private static final class Scratch {
+        final float[] scores;
+        final int[] hits;
+        int[] touched = new int[16];
+
+        Scratch(int size) {
+            scores = new float[size];
+            hits = new int[size];
+        }
+    }
+
+    // ========== TRIGRAMS ==========
+
+    private static final class Postings {
+        int[] entries = new int[4];
+        int size;
+    }
+
+    // Entries are id << 2 | field, ids ascending, so a repeat is always last
+    private static void add(Map<Long, Postings> building, int id, int field, String text) {
+        for (long gram : trigrams(text)) {
+            Postings list = building.computeIfAbsent(gram, g -> new Postings());
+            if (list.size > 0 && list.entries[list.size - 1] >>> 2 == id) {
+                continue;
+            }
+            if (list.size == list.entries.length) {
+                list.entries = Arrays.copyOf(list.entries, list.size * 2);
+            }
+            list.entries[list.size++] = id << 2 | field;
+        }
+    }
+
+    // Distinct trigrams of each word, the word padded with two spaces in front
+    private static long[] trigrams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                char a = ' ';
+                char b = ' ';
+                for (int j = start; j < i; j++) {
+                    char c = text.charAt(j);
+                    grams.add((long) a << 32 | (long) b << 16 | c);
+                    a = b;
+                    b = c;
+                }
+            }
+        }
+        long[] result = new long[grams.size()];
+        int n = 0;
+        for (long gram : grams) {
+            result[n++] = gram;
+        }
+        return result;
+    }
+
+    // Case and width folded, so "V₁" is found by "v1"
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+}
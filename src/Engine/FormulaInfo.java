@@ -0,0 +1,133 @@
+package Engine;
+
+import Units.Quantities;
+import Units.Quantity;
+
+// Everything static about one formula: how it is shown, which variables it can
+// be solved for, the inputs (and their quantities) each target needs. Built
+// once by FormulaRegistry and never changed.
+public final class FormulaInfo {
+
+    private final int id;
+    private final String name;
+    private final String category;
+    private final String display;
+    private final boolean userDefined;
+    private final String[] variables;
+    private final Quantity[] quantities;
+    // Per variable index; null where the variable cannot be solved for
+    private final String[][] inputs;
+    private final Quantity[][] inputQuantities;
+
+    FormulaInfo(int id, String name, String category, String display, boolean userDefined,
+                String[] variables, Quantity[] quantities, String[][] inputs, Quantity[][] inputQuantities) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.display = display;
+        this.userDefined = userDefined;
+        this.variables = variables;
+        this.quantities = quantities;
+        this.inputs = inputs;
+        this.inputQuantities = inputQuantities;
+    }
+
+    // Resolve a formula against the engine: display text, variables (the
+    // catalog's order if it has one) and inputs/quantities per target
+    static FormulaInfo describe(int id, String name, String category, boolean userDefined) {
+        String display = CatalogSource.getDisplay(name);
+        if (display == null) {
+            Equation equation = FormulaEngine.getEquation(name);
+            display = userDefined && equation != null ? equation.getSource() : "Formula: " + name;
+        }
+        String[] variables = userDefined ? null : CatalogSource.getVariables(name);
+        if (variables == null) {
+            variables = FormulaEngine.isImplemented(name)
+                ? FormulaEngine.getTargets(name).toArray(new String[0]) : new String[0];
+        }
+        Quantity[] quantities = Quantities.of(name, variables);
+        String[][] inputs = new String[variables.length][];
+        Quantity[][] inputQuantities = new Quantity[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            inputs[i] = FormulaEngine.isImplemented(name) ? FormulaEngine.getInputs(name, variables[i]) : null;
+            if (inputs[i] != null) {
+                inputQuantities[i] = Quantities.of(name, inputs[i]);
+            }
+        }
+        return new FormulaInfo(id, name, category, display, userDefined,
+            variables, quantities, inputs, inputQuantities);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getDisplay() {
+        return display;
+    }
+
+    public boolean isUserDefined() {
+        return userDefined;
+    }
+
+    // Variables offered as targets, in display order
+    public String[] getVariables() {
+        return variables.clone();
+    }
+
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    public String getVariable(int index) {
+        return variables[index];
+    }
+
+    // Formulas have a handful of variables, so a scan beats hashing
+    public int indexOf(String variable) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(variable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Quantity getQuantity(int index) {
+        return quantities[index];
+    }
+
+    public Quantity getQuantity(String variable) {
+        int index = indexOf(variable);
+        return index < 0 ? Quantities.of(name, variable) : quantities[index];
+    }
+
+    public boolean canSolve(String target) {
+        int index = indexOf(target);
+        return index >= 0 && inputs[index] != null;
+    }
+
+    // Inputs the solver for target takes, in slot order; null if unsolvable
+    public String[] getInputs(String target) {
+        int index = indexOf(target);
+        return index < 0 || inputs[index] == null ? null : inputs[index].clone();
+    }
+
+    public Quantity[] getInputQuantities(String target) {
+        int index = indexOf(target);
+        return index < 0 || inputQuantities[index] == null ? null : inputQuantities[index].clone();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,131 @@
+package Engine;
+
+import java.util.*;
+
+// The formula catalog: categories, display text, variables, and the inputs and
+// units each target needs. Built-in formulas come from the binary Catalog and
+// are decoded on first access; user formulas are resolved when defined. A
+// snapshot never changes and is shared by the UI and headless callers; lookups
+// are by id (array index) or name (one hash probe). Defining or removing a
+// user formula publishes a new snapshot instead of mutating the current one.
+public final class FormulaRegistry {
+
+    private static final Catalog CATALOG = Catalog.open();
+    private static final Map<String, Integer> CATALOG_CATEGORIES = new HashMap<>();
+    private static volatile FormulaRegistry current;
+
+    static {
+        for (int c = 0; c < CATALOG.getCategoryCount(); c++) {
+            CATALOG_CATEGORIES.put(CATALOG.getCategory(c), c);
+        }
+        current = new FormulaRegistry(Collections.emptyList());
+        UserFormulas.load();
+    }
+
+    private final FormulaInfo[] userFormulas;
+    private final Map<String, FormulaInfo> userByName;
+    private final List<String> categories;
+    private final Map<String, List<FormulaInfo>> userByCategory;
+    private volatile FormulaIndex index;
+
+    private FormulaRegistry(List<FormulaInfo> userFormulas) {
+        this.userFormulas = userFormulas.toArray(new FormulaInfo[0]);
+        Map<String, FormulaInfo> names = new HashMap<>();
+        Map<String, List<FormulaInfo>> grouped = new HashMap<>();
+        Set<String> allCategories = new LinkedHashSet<>();
+        for (int c = 0; c < CATALOG.getCategoryCount(); c++) {
+            allCategories.add(CATALOG.getCategory(c));
+        }
+        for (FormulaInfo info : userFormulas) {
+            names.put(info.getName(), info);
+            grouped.computeIfAbsent(info.getCategory(), c -> new ArrayList<>()).add(info);
+            allCategories.add(info.getCategory());
+        }
+        this.userByName = names;
+        this.userByCategory = grouped;
+        this.categories = Collections.unmodifiableList(new ArrayList<>(allCategories));
+    }
+
+    // The current snapshot; hold on to it for a consistent view
+    public static FormulaRegistry get() {
+        return current;
+    }
+
+    // Rebuild after user formulas change. Cheap: built-ins are shared, and no
+    // solver is compiled here.
+    static synchronized void refresh() {
+        List<FormulaInfo> formulas = new ArrayList<>();
+        for (String name : FormulaEngine.getUserFormulas()) {
+            formulas.add(FormulaInfo.describe(CATALOG.size() + formulas.size(), name,
+                UserFormulas.getCategory(name), true));
+        }
+        current = new FormulaRegistry(formulas);
+    }
+
+    public int size() {
+        return CATALOG.size() + userFormulas.length;
+    }
+
+    public FormulaInfo get(int id) {
+        return id < CATALOG.size() ? CATALOG.get(id) : userFormulas[id - CATALOG.size()];
+    }
+
+    // null if there is no such formula
+    public FormulaInfo byName(String name) {
+        int id = CATALOG.indexOf(name);
+        return id >= 0 ? CATALOG.get(id) : userByName.get(name);
+    }
+
+    // Every formula; built-ins are decoded as the list is walked
+    public List<FormulaInfo> getFormulas() {
+        return new AbstractList<FormulaInfo>() {
+            @Override
+            public FormulaInfo get(int index) {
+                return FormulaRegistry.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return FormulaRegistry.this.size();
+            }
+        };
+    }
+
+    // The search index of this snapshot, built on first use (it decodes every
+    // built-in, so call it off the EDT)
+    public FormulaIndex getIndex() {
+        FormulaIndex built = index;
+        if (built == null) {
+            synchronized (this) {
+                built = index;
+                if (built == null) {
+                    index = built = new FormulaIndex(getFormulas());
+                }
+            }
+        }
+        return built;
+    }
+
+    // Built-in categories in catalog order, then categories of user formulas
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<FormulaInfo> getFormulas(String category) {
+        Integer c = CATALOG_CATEGORIES.get(category);
+        int start = c == null ? 0 : CATALOG.getFirstFormula(c);
+        int builtIn = c == null ? 0 : CATALOG.getFormulaCount(c);
+        List<FormulaInfo> user = userByCategory.getOrDefault(category, Collections.emptyList());
+        return new AbstractList<FormulaInfo>() {
+            @Override
+            public FormulaInfo get(int index) {
+                return index < builtIn ? CATALOG.get(start + index) : user.get(index - builtIn);
+            }
+
+            @Override
+            public int size() {
+                return builtIn + user.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package Engine;
+
+import java.util.*;
+import java.util.function.DoubleUnaryOperator;
+
+// Derives a Solver for any variable of a canonical equation. When the target
+// occurs once, the equation is rearranged step by step (undo +, -, *, /, ^ and
+// invertible functions) into a closed form. Otherwise the solver finds a root
+// of left - right numerically. Every solve starts from the same guess and
+// prefers a non-negative root, so an answer depends only on the inputs, never
+// on what was solved before or on which thread.
+public final class Inverter {
+
+    private Inverter() {
+    }
+
+    public static Solver derive(String formula, Equation equation, String target) {
+        int occurrences = equation.count(target);
+        if (occurrences == 0) {
+            throw new IllegalArgumentException(formula + " has no variable " + target);
+        }
+        List<String> names = new ArrayList<>(equation.getVariables());
+        names.remove(target);
+        String[] inputs = names.toArray(new String[0]);
+
+        if (occurrences == 1) {
+            Expr closedForm = isolate(equation, target);
+            if (closedForm != null) {
+                return new ClosedForm(formula, target, inputs, closedForm);
+            }
+        }
+        return new Numeric(formula, target, inputs, equation);
+    }
+
+    // Rearrange the equation to "target = result"; null if some step on the way
+    // has no unique inverse
+    public static Expr isolate(Equation equation, String target) {
+        Expr side = equation.getLeft();
+        Expr other = equation.getRight();
+        if (!side.contains(target)) {
+            side = equation.getRight();
+            other = equation.getLeft();
+        }
+        while (!(side instanceof Expr.Var)) {
+            if (side instanceof Expr.Unary) {
+                Expr.Unary unary = (Expr.Unary) side;
+                switch (unary.fn) {
+                    case SQRT:
+                        other = Expr.power(other, Expr.constant(2));
+                        break;
+                    case CBRT:
+                        other = Expr.power(other, Expr.constant(3));
+                        break;
+                    case LOG10:
+                        other = Expr.power(Expr.constant(10), other);
+                        break;
+                    case NEG:
+                        other = Expr.negate(other);
+                        break;
+                    default:
+                        Expr.Fn inverse = unary.fn.inverse();
+                        if (inverse == null) {
+                            return null;
+                        }
+                        other = Expr.call(inverse, other);
+                }
+                side = unary.arg;
+            } else if (side instanceof Expr.Binary) {
+                Expr.Binary binary = (Expr.Binary) side;
+                boolean inLeft = binary.left.contains(target);
+                Expr known = inLeft ? binary.right : binary.left;
+                switch (binary.op) {
+                    case ADD:
+                        other = Expr.subtract(other, known);
+                        break;
+                    case SUB:
+                        other = inLeft ? Expr.add(other, known) : Expr.subtract(known, other);
+                        break;
+                    case MUL:
+                        other = Expr.divide(other, known);
+                        break;
+                    case DIV:
+                        other = inLeft ? Expr.multiply(other, known) : Expr.divide(known, other);
+                        break;
+                    default:
+                        if (inLeft) {
+                            other = root(other, known);
+                        } else {
+                            // b^x = y  ->  x = ln(y) / ln(b)
+                            other = Expr.divide(Expr.call(Expr.Fn.LN, other), Expr.call(Expr.Fn.LN, known));
+                        }
+                }
+                side = inLeft ? binary.left : binary.right;
+            } else {
+                return null;
+            }
+        }
+        return other;
+    }
+
+    // x^n = y  ->  x = y^(1/n), using the principal (non-negative) root
+    private static Expr root(Expr value, Expr exponent) {
+        if (exponent.isConstant()) {
+            double n = ((Expr.Const) exponent).value;
+            if (n == 2) {
+                return Expr.call(Expr.Fn.SQRT, value);
+            }
+            if (n == 3) {
+                return Expr.call(Expr.Fn.CBRT, value);
+            }
+        }
+        return Expr.power(value, Expr.divide(Expr.constant(1), exponent));
+    }
+
+    static Expr.Node compile(Expr expr, String[] slots) {
+        return expr.compile(name -> {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    // ========== DERIVED SOLVERS ==========
+
+    static final class ClosedForm extends Solver {
+
+        private final Expr expression;
+        private final Kernel kernel;
+
+        ClosedForm(String formula, String target, String[] inputs, Expr expression) {
+            super(formula, target, inputs);
+            this.expression = expression;
+            this.kernel = KernelCompiler.compile(expression, inputs);
+        }
+
+        Expr getExpression() {
+            return expression;
+        }
+
+        @Override
+        public double solve(double[] in) {
+            return kernel.eval(in);
+        }
+
+        @Override
+        void solveRange(double[][] columns, double[] out, int from, int to) {
+            kernel.evalColumns(columns, out, from, to);
+        }
+    }
+
+    static final class Numeric extends Solver {
+
+        private static final double GUESS = 1.0;
+
+        private final Kernel residual;
+        private final int targetSlot;
+
+        Numeric(String formula, String target, String[] inputs, Equation equation) {
+            super(formula, target, inputs);
+            String[] slots = Arrays.copyOf(inputs, inputs.length + 1);
+            slots[inputs.length] = target;
+            this.targetSlot = inputs.length;
+            this.residual = KernelCompiler.compile(Expr.subtract(equation.getLeft(), equation.getRight()), slots);
+        }
+
+        @Override
+        public boolean isIterative() {
+            return true;
+        }
+
+        @Override
+        public double solve(double[] in) {
+            double[] work = Arrays.copyOf(in, targetSlot + 1);
+            return solveWith(work);
+        }
+
+        // A negative root is kept only when there is no root at or above
+        // zero: a time, distance or mass comes out positive (t = 20.5 s, not
+        // -0.49 s, for s = 10 m, u = -20 m/s, a = 2 m/s²)
+        private double solveWith(double[] work) {
+            DoubleUnaryOperator f = x -> {
+                work[targetSlot] = x;
+                return residual.eval(work);
+            };
+            double root = RootFinder.solve(f, GUESS);
+            if (root < 0) {
+                double nonNegative = RootFinder.nonNegativeRoot(f);
+                if (!Double.isNaN(nonNegative)) {
+                    return nonNegative;
+                }
+            }
+            return root;
+        }
+
+        // Row by row, each from the same guess, so a batch split any way
+        // gives the same results as solve()
+        @Override
+        void solveRange(double[][] columns, double[] out, int from, int to) {
+            double[] work = new double[targetSlot + 1];
+            for (int i = from; i < to; i++) {
+                for (int slot = 0; slot < targetSlot; slot++) {
+                    work[slot] = columns[slot][i];
+                }
+                out[i] = solveWith(work);
+            }
+        }
+    }
+}
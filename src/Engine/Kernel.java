@@ -0,0 +1,12 @@
+package Engine;
+
+// A compiled expression. KernelCompiler emits one hidden class per expression,
+// so both methods are straight-line code with the inputs baked in as slot
+// indexes, exactly like a hand-written solver.
+public interface Kernel {
+
+    double eval(double[] in);
+
+    // out[i] = eval(columns[0][i], columns[1][i], ...) for from <= i < to
+    void evalColumns(double[][] columns, double[] out, int from, int to);
+}
@@ -0,0 +1,393 @@
+package Engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+// Compiles an expression tree to bytecode and loads it as a hidden class
+// implementing Kernel. The class is written by hand (no ASM) and targets class
+// file version 49, which needs no stack map frames, so the column loop can be
+// emitted without a frame computation pass. Hidden classes are unloaded once
+// the kernel is unreachable, so redefining user formulas does not leak.
+//
+// If the class cannot be defined (or -Dphysiquist.kernel.interpret=true), the
+// expression falls back to the closure tree from Expr.compile(). A class the
+// JVM rejects is a bug here, so the first rejection is reported on stderr.
+public final class KernelCompiler {
+
+    private static final boolean INTERPRET = Boolean.getBoolean("physiquist.kernel.interpret");
+    private static final int MAX_SLOTS = 200;
+    private static volatile boolean warned;
+
+    private KernelCompiler() {
+    }
+
+    public static Kernel compile(Expr expr, String[] slots) {
+        if (!INTERPRET && slots.length <= MAX_SLOTS) {
+            try {
+                byte[] bytes = new ClassEmitter(expr, slots).emit();
+                MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+                return (Kernel) lookup.lookupClass().getConstructor().newInstance();
+            } catch (IOException | ReflectiveOperationException | LinkageError e) {
+                if (!warned) {
+                    warned = true;
+                    System.err.println("Formula kernel not compiled, interpreting it instead: " + e);
+                }
+            }
+        }
+        return interpret(expr, slots);
+    }
+
+    // Closure-tree kernel; also the reference the bytecode must agree with
+    public static Kernel interpret(Expr expr, String[] slots) {
+        Expr.Node node = Inverter.compile(expr, slots);
+        return new Kernel() {
+            @Override
+            public double eval(double[] in) {
+                return node.eval(in);
+            }
+
+            @Override
+            public void evalColumns(double[][] columns, double[] out, int from, int to) {
+                double[] row = new double[columns.length];
+                for (int i = from; i < to; i++) {
+                    for (int slot = 0; slot < row.length; slot++) {
+                        row[slot] = columns[slot][i];
+                    }
+                    out[i] = node.eval(row);
+                }
+            }
+        };
+    }
+
+    // ========== CLASS FILE WRITER ==========
+
+    private static final class ClassEmitter {
+
+        private static final String CLASS_NAME = "Engine/CompiledKernel";
+        private static final String MATH = "java/lang/Math";
+
+        // Locals of evalColumns: this, columns, out, from, to, i, then one per column
+        private static final int COLUMNS = 1;
+        private static final int OUT = 2;
+        private static final int FROM = 3;
+        private static final int TO = 4;
+        private static final int ROW = 5;
+        private static final int FIRST_COLUMN = 6;
+
+        private final Expr expr;
+        private final String[] slots;
+        private final ConstantPool pool = new ConstantPool();
+
+        ClassEmitter(Expr expr, String[] slots) {
+            this.expr = expr;
+            this.slots = slots;
+        }
+
+        byte[] emit() throws IOException {
+            int thisClass = pool.classRef(CLASS_NAME);
+            int superClass = pool.classRef("java/lang/Object");
+            int kernel = pool.classRef("Engine/Kernel");
+            byte[] init = method("<init>", "()V", constructor(), 1, 1);
+            Code eval = evalCode();
+            byte[] evalMethod = method("eval", "([D)D", eval, eval.maxStack, 2);
+            Code columns = columnsCode();
+            byte[] columnsMethod = method("evalColumns", "([[D[DII)V", columns,
+                columns.maxStack, FIRST_COLUMN + slots.length);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            pool.writeTo(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(kernel);
+            out.writeShort(0); // fields
+            out.writeShort(3);
+            out.write(init);
+            out.write(evalMethod);
+            out.write(columnsMethod);
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        }
+
+        private Code constructor() {
+            Code code = new Code();
+            code.op(0x2a, 1); // aload_0
+            code.op(0xb7, -1); // invokespecial
+            code.u2(pool.methodRef("java/lang/Object", "<init>", "()V"));
+            code.op(0xb1, 0); // return
+            return code;
+        }
+
+        private Code evalCode() {
+            Code code = new Code();
+            expression(code, expr, false);
+            code.op(0xaf, -2); // dreturn
+            return code;
+        }
+
+        private Code columnsCode() {
+            Code code = new Code();
+            for (int slot = 0; slot < slots.length; slot++) {
+                code.op(0x19, 1).u1(COLUMNS); // aload columns
+                pushInt(code, slot);
+                code.op(0x32, -1); // aaload
+                code.op(0x3a, -1).u1(FIRST_COLUMN + slot); // astore
+            }
+            code.op(0x15, 1).u1(FROM); // iload from
+            code.op(0x36, -1).u1(ROW); // istore i
+            int loop = code.length;
+            code.op(0x15, 1).u1(ROW);
+            code.op(0x15, 1).u1(TO);
+            int exitJump = code.length;
+            code.op(0xa2, -2).u2(0); // if_icmpge -> exit, patched below
+            code.op(0x19, 1).u1(OUT); // aload out
+            code.op(0x15, 1).u1(ROW); // iload i
+            expression(code, expr, true);
+            code.op(0x52, -4); // dastore
+            code.op(0x84, 0).u1(ROW).u1(1); // iinc i, 1
+            int back = code.length;
+            code.op(0xa7, 0).u2(loop - back); // goto loop
+            code.patch2(exitJump + 1, code.length - exitJump);
+            code.op(0xb1, 0); // return
+            return code;
+        }
+
+        private void expression(Code code, Expr e, boolean columns) {
+            if (e instanceof Expr.Const) {
+                double value = ((Expr.Const) e).value;
+                if (Double.doubleToRawLongBits(value) == 0L) {
+                    code.op(0x0e, 2); // dconst_0
+                } else if (value == 1.0) {
+                    code.op(0x0f, 2); // dconst_1
+                } else {
+                    code.op(0x14, 2).u2(pool.doubleConst(value)); // ldc2_w
+                }
+            } else if (e instanceof Expr.Var) {
+                int slot = slotOf(((Expr.Var) e).name);
+                if (columns) {
+                    code.op(0x19, 1).u1(FIRST_COLUMN + slot); // aload column
+                    code.op(0x15, 1).u1(ROW); // iload i
+                } else {
+                    code.op(0x2b, 1); // aload_1
+                    pushInt(code, slot);
+                }
+                code.op(0x31, 0); // daload: pops ref+int (2), pushes double (2)
+            } else if (e instanceof Expr.Unary) {
+                Expr.Unary unary = (Expr.Unary) e;
+                expression(code, unary.arg, columns);
+                function(code, unary.fn);
+            } else {
+                Expr.Binary binary = (Expr.Binary) e;
+                expression(code, binary.left, columns);
+                if (binary.op == Expr.Op.POW && binary.right instanceof Expr.Const) {
+                    double n = ((Expr.Const) binary.right).value;
+                    if (n == 2) {
+                        code.op(0x5c, 2); // dup2
+                        code.op(0x6b, -2); // dmul
+                        return;
+                    }
+                    if (n == 3) {
+                        code.op(0x5c, 2);
+                        code.op(0x5c, 2);
+                        code.op(0x6b, -2);
+                        code.op(0x6b, -2);
+                        return;
+                    }
+                    if (n == 0.5) {
+                        invokeStatic(code, MATH, "sqrt", "(D)D", 0);
+                        return;
+                    }
+                }
+                expression(code, binary.right, columns);
+                switch (binary.op) {
+                    case ADD: code.op(0x63, -2); break; // dadd
+                    case SUB: code.op(0x67, -2); break; // dsub
+                    case MUL: code.op(0x6b, -2); break; // dmul
+                    case DIV: code.op(0x6f, -2); break; // ddiv
+                    default: invokeStatic(code, "Engine/Expr", "pow", "(DD)D", -2);
+                }
+            }
+        }
+
+        private void function(Code code, Expr.Fn fn) {
+            switch (fn) {
+                case NEG:
+                    code.op(0x77, 0); // dneg
+                    return;
+                case SIND:
+                case COSD:
+                case TAND:
+                    math(code, "toRadians");
+                    math(code, fn.getName().substring(0, 3));
+                    return;
+                case ASIND:
+                case ACOSD:
+                case ATAND:
+                    math(code, fn.getName().substring(0, 4));
+                    math(code, "toDegrees");
+                    return;
+                case LN:
+                    math(code, "log");
+                    return;
+                default:
+                    math(code, fn.getName());
+            }
+        }
+
+        private void math(Code code, String name) {
+            invokeStatic(code, MATH, name, "(D)D", 0);
+        }
+
+        private void invokeStatic(Code code, String owner, String name, String descriptor, int stackDelta) {
+            code.op(0xb8, stackDelta).u2(pool.methodRef(owner, name, descriptor));
+        }
+
+        private void pushInt(Code code, int value) {
+            if (value <= 5) {
+                code.op(0x03 + value, 1); // iconst_n
+            } else if (value <= Byte.MAX_VALUE) {
+                code.op(0x10, 1).u1(value); // bipush
+            } else {
+                code.op(0x11, 1).u2(value); // sipush
+            }
+        }
+
+        private int slotOf(String name) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].equals(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("No input slot for " + name);
+        }
+
+        private byte[] method(String name, String descriptor, Code code, int maxStack, int maxLocals)
+                throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(0x0001); // public
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(pool.utf8("Code"));
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code.bytes, 0, code.length);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        }
+    }
+
+    // Growable bytecode buffer that tracks the operand stack depth
+    private static final class Code {
+        byte[] bytes = new byte[64];
+        int length;
+        int depth;
+        int maxStack;
+
+        Code op(int opcode, int stackDelta) {
+            depth += stackDelta;
+            maxStack = Math.max(maxStack, depth);
+            return u1(opcode);
+        }
+
+        Code u1(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        Code u2(int value) {
+            u1(value >> 8);
+            return u1(value);
+        }
+
+        void patch2(int at, int value) {
+            bytes[at] = (byte) (value >> 8);
+            bytes[at + 1] = (byte) value;
+        }
+    }
+
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int next = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, 1, () -> out.writeUTF(value));
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, 1, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerRef = classRef(owner);
+            int nameRef = utf8(name);
+            int descriptorRef = utf8(descriptor);
+            int nameAndType = entry("N" + name + descriptor, 1, () -> {
+                out.writeByte(12);
+                out.writeShort(nameRef);
+                out.writeShort(descriptorRef);
+            });
+            return entry("M" + owner + "." + name + descriptor, 1, () -> {
+                out.writeByte(10);
+                out.writeShort(ownerRef);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int doubleConst(double value) {
+            return entry("D" + Double.doubleToRawLongBits(value), 2, () -> {
+                out.writeByte(6);
+                out.writeDouble(value);
+            });
+        }
+
+        private int entry(String key, int size, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                if (key.charAt(0) == 'U') {
+                    out.writeByte(1);
+                }
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            int assigned = next;
+            next += size;
+            entries.put(key, assigned);
+            return assigned;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            target.writeShort(next);
+            target.write(bytes.toByteArray());
+        }
+
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel form of Solver.solveColumns(). The row range is split in halves
+// until a piece is at most chunkSize rows, and the pieces are evaluated on a
+// ForkJoinPool. Every row writes only its own out[i], so results are identical
+// to the sequential path and in the same order, whatever the split.
+public final class ParallelBatch {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelBatch() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelBatch(int chunkSize) {
+        this(ForkJoinPool.commonPool(), chunkSize);
+    }
+
+    public ParallelBatch(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void solveColumns(Solver solver, double[][] columns, double[] out, int from, int to) {
+        if (from < 0 || from > to || to > out.length) {
+            throw new IndexOutOfBoundsException("Rows " + from + ".." + to + " outside output of " + out.length);
+        }
+        double[][] checked = solver.checkColumns(columns, to);
+        if (to - from <= chunkSize) {
+            solver.solveRange(checked, out, from, to);
+            return;
+        }
+        pool.invoke(new Chunk(solver, checked, out, from, to, chunkSize));
+    }
+
+    public void solveColumns(Solver solver, double[][] columns, double[] out) {
+        solveColumns(solver, columns, out, 0, out.length);
+    }
+
+    public double[] solveColumns(Solver solver, double[][] columns) {
+        double[] out = new double[solver.rowCount(columns)];
+        solveColumns(solver, columns, out, 0, out.length);
+        return out;
+    }
+
+    private static final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Solver solver;
+        private final double[][] columns;
+        private final double[] out;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Chunk(Solver solver, double[][] columns, double[] out, int from, int to, int chunkSize) {
+            this.solver = solver;
+            this.columns = columns;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                solver.solveRange(columns, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(solver, columns, out, from, mid, chunkSize),
+                      new Chunk(solver, columns, out, mid, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package Engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Optional memo of solve() results, for callers that ask the same question
+// again and again (dashboards polling the same bodies). The key is the Solver
+// itself (one per formula/target pair) plus the exact bit patterns of the
+// inputs, so -0.0 and 0.0, or two NaNs with different payloads, are different
+// keys. Only iterative solvers are cached: a closed form evaluates in a few
+// nanoseconds, less than hashing the inputs, and is passed straight through.
+//
+// Bounded by entry count, evicting by CLOCK (second chance): a hit only sets a
+// bit, so lookups never reorder anything. The table is split into segments,
+// each behind its own lock, by the key's hash.
+public final class ResultCache implements ResultCacheMXBean {
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    public ResultCache(int maxEntries) {
+        this(maxEntries, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ResultCache(int maxEntries, int concurrency) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        }
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxEntries)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the total is exactly maxEntries
+            segments[i] = new Segment(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    // solver.solve(in), from the cache when the same inputs were seen before
+    public double solve(Solver solver, double[] in) {
+        if (!solver.isIterative()) {
+            bypassed.increment();
+            return solver.solve(in);
+        }
+        int hash = hash(solver, in);
+        Segment segment = segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+        synchronized (segment) {
+            int slot = segment.find(hash, solver, in);
+            if (slot >= 0) {
+                segment.referenced[slot] = true;
+                hits.increment();
+                return segment.results[slot];
+            }
+        }
+        misses.increment();
+        // Solve outside the lock; two threads missing together both solve,
+        // and the second insert finds the first
+        double result = solver.solve(in);
+        synchronized (segment) {
+            if (segment.find(hash, solver, in) < 0 && segment.insert(hash, solver, in, result)) {
+                evictions.increment();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Calls passed straight to a closed-form solver
+    @Override
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        int capacity = 0;
+        for (Segment segment : segments) {
+            capacity += segment.capacity;
+        }
+        return capacity;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache[" + getSize() + "/" + getCapacity() + ", hits=" + getHits() + ", misses=" + getMisses()
+            + ", evictions=" + getEvictions() + ", bypassed=" + getBypassed() + "]";
+    }
+
+    private static int hash(Solver solver, double[] in) {
+        long h = System.identityHashCode(solver);
+        for (double value : in) {
+            h = h * 0x9E3779B97F4A7C15L + Double.doubleToRawLongBits(value);
+        }
+        // murmur3 finalizer, so both the segment (high bits) and the slot
+        // (low bits) see every input bit
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    // Entries live in parallel arrays indexed by slot; an open-addressed
+    // index (slot + 1, 0 for empty) finds them by hash. The clock hand walks
+    // the slots, clearing reference bits until it finds one already clear.
+    private static final class Segment {
+
+        final int capacity;
+        final int[] index;
+        final int mask;
+        final int[] hashes;
+        final Solver[] solvers;
+        final long[][] keys;
+        final double[] results;
+        final boolean[] referenced;
+        int size;
+        int hand;
+
+        Segment(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.index = new int[Integer.highestOneBit(this.capacity * 2 - 1) << 1];
+            this.mask = index.length - 1;
+            this.hashes = new int[this.capacity];
+            this.solvers = new Solver[this.capacity];
+            this.keys = new long[this.capacity][];
+            this.results = new double[this.capacity];
+            this.referenced = new boolean[this.capacity];
+        }
+
+        int find(int hash, Solver solver, double[] in) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int entry = index[i];
+                if (entry == 0) {
+                    return -1;
+                }
+                int slot = entry - 1;
+                if (hashes[slot] == hash && solvers[slot] == solver && matches(keys[slot], in)) {
+                    return slot;
+                }
+            }
+        }
+
+        // Returns true if an entry was evicted to make room
+        boolean insert(int hash, Solver solver, double[] in, double result) {
+            boolean evicted = false;
+            int slot;
+            if (size < capacity) {
+                slot = size++;
+            } else {
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % capacity;
+                }
+                slot = hand;
+                hand = (hand + 1) % capacity;
+                unlink(slot);
+                evicted = true;
+            }
+            long[] key = new long[in.length];
+            for (int i = 0; i < in.length; i++) {
+                key[i] = Double.doubleToRawLongBits(in[i]);
+            }
+            hashes[slot] = hash;
+            solvers[slot] = solver;
+            keys[slot] = key;
+            results[slot] = result;
+            referenced[slot] = false;
+            int i = hash & mask;
+            while (index[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            index[i] = slot + 1;
+            return evicted;
+        }
+
+        // Remove slot from the index, shifting later entries of its probe run
+        // back so no lookup stops early at the hole
+        private void unlink(int slot) {
+            int hole = hashes[slot] & mask;
+            while (index[hole] != slot + 1) {
+                hole = (hole + 1) & mask;
+            }
+            for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+                int home = hashes[index[i] - 1] & mask;
+                // Move it if its home is not cyclically within (hole, i]
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    index[hole] = index[i];
+                    hole = i;
+                }
+            }
+            index[hole] = 0;
+        }
+
+        void clear() {
+            Arrays.fill(index, 0);
+            Arrays.fill(solvers, null);
+            Arrays.fill(keys, null);
+            Arrays.fill(referenced, false);
+            size = 0;
+            hand = 0;
+        }
+
+        private static boolean matches(long[] key, double[] in) {
+            if (key.length != in.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != Double.doubleToRawLongBits(in[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package Engine;
+
+// ResultCache as seen over JMX (physiquist:type=ResultCache)
+public interface ResultCacheMXBean {
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    long getBypassed();
+
+    int getSize();
+
+    int getCapacity();
+
+    void clear();
+}
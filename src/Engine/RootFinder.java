@@ -0,0 +1,280 @@
+package Engine;
+
+import java.util.function.DoubleUnaryOperator;
+
+// One-dimensional root finding for targets with no closed form. Damped Newton
+// from the guess converges in a few steps for the smooth formulas in the
+// catalog; if it stalls, a bracket is grown around the guess and Brent's method
+// finishes the job. Returns NaN when no root can be found, after at most
+// MAX_EVALUATIONS evaluations of f: a row with no root (x² + x + 1 = 0) must
+// not cost a thousand times one that has one, in a sweep or a batch.
+public final class RootFinder {
+
+    private static final double EPS = Math.ulp(1.0);
+    private static final int NEWTON_STEPS = 60;
+    private static final int DAMPING_STEPS = 30;
+    private static final int BRACKET_STEPS = 120;
+    private static final int RESTARTS = 60;
+    private static final int BRENT_STEPS = 200;
+    // A root found by Newton takes a few dozen; a full bracket scan with a
+    // Brent run or two, a few hundred
+    private static final int MAX_EVALUATIONS = 2000;
+    // nonNegativeRoot() samples 0 and 2^-128 .. 2^128
+    private static final int MIN_SCALE = -128;
+    private static final int MAX_SCALE = 128;
+
+    private RootFinder() {
+    }
+
+    public static double solve(DoubleUnaryOperator f, double guess) {
+        if (!Double.isFinite(guess)) {
+            guess = 1.0;
+        }
+        Budget budget = new Budget(f, MAX_EVALUATIONS);
+        double root = newton(budget, guess);
+        if (!Double.isNaN(root)) {
+            return root;
+        }
+        root = bracketAndBrent(budget, guess);
+        if (!Double.isNaN(root) || !budget.irregular) {
+            // Found, or the scan over the whole width range saw no sign
+            // change and nothing that could hide one: nothing for Newton
+            // restarts to find
+            return root;
+        }
+        // Last resort: Newton from points spreading out from the guess, for
+        // roots hidden behind a hole in the domain or next to a pole
+        double width = initialWidth(guess);
+        for (int i = 0; i < RESTARTS && !budget.isSpent(); i++, width *= 2) {
+            root = newton(budget, guess + width);
+            if (!Double.isNaN(root)) {
+                return root;
+            }
+            root = newton(budget, guess - width);
+            if (!Double.isNaN(root)) {
+                return root;
+            }
+        }
+        return Double.NaN;
+    }
+
+    // f, answering NaN once it has been evaluated limit times. Every method
+    // here takes NaN to mean "no root this way", so a spent budget ends the
+    // search. The bracket scan also notes here whether it met anything that
+    // might hide a root from it (see bracketAndBrent).
+    private static final class Budget implements DoubleUnaryOperator {
+        private final DoubleUnaryOperator f;
+        private int left;
+        boolean irregular;
+
+        Budget(DoubleUnaryOperator f, int limit) {
+            this.f = f;
+            this.left = limit;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            if (left <= 0) {
+                return Double.NaN;
+            }
+            left--;
+            return f.applyAsDouble(x);
+        }
+
+        boolean isSpent() {
+            return left <= 0;
+        }
+    }
+
+    static double newton(DoubleUnaryOperator f, double x) {
+        for (int i = 0; i < NEWTON_STEPS; i++) {
+            double fx = f.applyAsDouble(x);
+            if (fx == 0) {
+                return x;
+            }
+            if (!Double.isFinite(fx)) {
+                return Double.NaN;
+            }
+            double step = x != 0 ? Math.abs(x) * 1e-7 : 1e-7;
+            double slope = (f.applyAsDouble(x + step) - f.applyAsDouble(x - step)) / (2 * step);
+            if (slope == 0 || !Double.isFinite(slope)) {
+                return Double.NaN;
+            }
+            // Damped step: halve it until |f| actually shrinks, so a step that
+            // jumps over a pole or out of the domain is pulled back
+            double delta = fx / slope;
+            double next = x - delta;
+            double fNext = f.applyAsDouble(next);
+            for (int halving = 0; halving < DAMPING_STEPS && !(Math.abs(fNext) < Math.abs(fx)); halving++) {
+                delta *= 0.5;
+                next = x - delta;
+                fNext = f.applyAsDouble(next);
+            }
+            if (!Double.isFinite(next) || !Double.isFinite(fNext)) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - x) <= 4 * EPS * Math.abs(next)) {
+                return next;
+            }
+            x = next;
+        }
+        return Double.NaN;
+    }
+
+    // Step outwards on both sides of the guess, doubling the distance each time,
+    // and run Brent on the first pair of neighbouring samples that change sign.
+    // A sign change can also be a pole (e.g. 1/(v - vs)); those are recognised
+    // by |f| growing instead of vanishing at the result, and skipped.
+    //
+    // With no root found, the scan is irregular unless every sample was finite
+    // and |f| along them had one valley and no peak: a peak is where a pole
+    // (or a root and a pole) can sit between two samples unseen
+    private static double bracketAndBrent(Budget f, double guess) {
+        double width = initialWidth(guess);
+        double left = guess;
+        double fLeft = f.applyAsDouble(guess);
+        double right = guess;
+        double fRight = fLeft;
+        // |f| has grown on that side since the guess; falling after is a peak
+        boolean leftRose = false;
+        boolean rightRose = false;
+        f.irregular = !Double.isFinite(fLeft);
+        for (int i = 0; i < BRACKET_STEPS && !f.isSpent(); i++, width *= 2) {
+            double a = guess - width;
+            double fa = f.applyAsDouble(a);
+            double root = tryBracket(f, a, left, fa, fLeft);
+            if (!Double.isNaN(root)) {
+                return root;
+            }
+            boolean leftFell = Math.abs(fa) < Math.abs(fLeft);
+            f.irregular |= !Double.isFinite(fa) || changesSign(fa, fLeft) || leftRose && leftFell;
+            leftRose |= Math.abs(fa) > Math.abs(fLeft);
+            left = a;
+            fLeft = fa;
+
+            double b = guess + width;
+            double fb = f.applyAsDouble(b);
+            root = tryBracket(f, right, b, fRight, fb);
+            if (!Double.isNaN(root)) {
+                return root;
+            }
+            boolean rightFell = Math.abs(fb) < Math.abs(fRight);
+            // Falling away on both sides of the guess: a peak at the guess
+            f.irregular |= !Double.isFinite(fb) || changesSign(fRight, fb) || rightRose && rightFell
+                || i == 0 && leftFell && rightFell;
+            rightRose |= Math.abs(fb) > Math.abs(fRight);
+            right = b;
+            fRight = fb;
+        }
+        return Double.NaN;
+    }
+
+    // The smallest root at or above zero that a sign change between
+    // neighbouring samples of 0, 2^-128, 2^-127 ... 2^128 reveals; NaN if none
+    static double nonNegativeRoot(DoubleUnaryOperator f) {
+        double a = 0;
+        double fa = f.applyAsDouble(a);
+        if (fa == 0) {
+            return a;
+        }
+        for (int scale = MIN_SCALE; scale <= MAX_SCALE; scale++) {
+            double b = Math.scalb(1.0, scale);
+            double fb = f.applyAsDouble(b);
+            double root = tryBracket(f, a, b, fa, fb);
+            if (!Double.isNaN(root)) {
+                return root;
+            }
+            a = b;
+            fa = fb;
+        }
+        return Double.NaN;
+    }
+
+    private static double tryBracket(DoubleUnaryOperator f, double a, double b, double fa, double fb) {
+        if (!Double.isFinite(fa) || !Double.isFinite(fb) || !changesSign(fa, fb)) {
+            return Double.NaN;
+        }
+        if (fa == 0) {
+            return a;
+        }
+        if (fb == 0) {
+            return b;
+        }
+        double root = brent(f, a, b, fa, fb);
+        double fr = Math.abs(f.applyAsDouble(root));
+        return fr <= Math.min(Math.abs(fa), Math.abs(fb)) ? root : Double.NaN;
+    }
+
+    private static boolean changesSign(double fa, double fb) {
+        return (fa <= 0) != (fb <= 0);
+    }
+
+    private static double initialWidth(double guess) {
+        return guess != 0 ? Math.abs(guess) * 0.1 : 0.1;
+    }
+
+    // Brent's method on a bracket with f(a) and f(b) of opposite sign
+    static double brent(DoubleUnaryOperator f, double a, double b, double fa, double fb) {
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int i = 0; i < BRENT_STEPS; i++) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tol = 2 * EPS * Math.abs(b) + Double.MIN_NORMAL;
+            double mid = 0.5 * (c - b);
+            if (Math.abs(mid) <= tol || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * mid * s;
+                    q = 1 - s;
+                } else {
+                    double qa = fa / fc;
+                    double r = fb / fc;
+                    p = s * (2 * mid * qa * (qa - r) - (b - a) * (r - 1));
+                    q = (qa - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                }
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * mid * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = mid;
+                    e = d;
+                }
+            } else {
+                d = mid;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, mid);
+            fb = f.applyAsDouble(b);
+            if (Double.isNaN(fb)) {
+                return b; // out of the domain, or out of budget; the caller checks f there
+            }
+        }
+        return b;
+    }
+}
@@ -0,0 +1,313 @@
+package Engine;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+// A formula solved for one target variable. The inputs are read from a plain
+// double[] in the order of getInputs(), so evaluating never touches a map,
+// a string or a boxed Double. solveColumns() runs the same kernel down whole
+// input columns in one tight loop.
+public abstract class Solver {
+
+    private final String formula;
+    private final String target;
+    private final String[] inputs;
+    private final double[] defaults;
+    private final boolean[] optional;
+
+    Solver(String formula, String target, String[] inputs) {
+        this.formula = formula;
+        this.target = target;
+        this.inputs = inputs;
+        this.defaults = new double[inputs.length];
+        this.optional = new boolean[inputs.length];
+        Arrays.fill(defaults, Double.NaN);
+    }
+
+    // Evaluate with in[i] holding the SI value of getInputs()[i]
+    public abstract double solve(double[] in);
+
+    // True when solve() searches for a root rather than evaluating a closed
+    // form; only such solvers cost more than a ResultCache lookup
+    public boolean isIterative() {
+        return false;
+    }
+
+    // out[i] = solve(columns[0][i], columns[1][i], ...) for from <= i < to
+    abstract void solveRange(double[][] columns, double[] out, int from, int to);
+
+    // Evaluate rows [from, to) of column-major inputs into out. columns[slot]
+    // holds every row of getInputs()[slot]; a null column for an optional
+    // input is read as its default.
+    public void solveColumns(double[][] columns, double[] out, int from, int to) {
+        if (from < 0 || from > to || to > out.length) {
+            throw new IndexOutOfBoundsException("Rows " + from + ".." + to + " outside output of " + out.length);
+        }
+        solveRange(checkColumns(columns, to), out, from, to);
+    }
+
+    public void solveColumns(double[][] columns, double[] out) {
+        solveColumns(columns, out, 0, out.length);
+    }
+
+    public double[] solveColumns(double[][] columns) {
+        double[] out = new double[rowCount(columns)];
+        solveColumns(columns, out, 0, out.length);
+        return out;
+    }
+
+    // Number of rows in a set of columns (the shortest non-null column)
+    public int rowCount(double[][] columns) {
+        int rows = Integer.MAX_VALUE;
+        for (double[] column : columns) {
+            if (column != null) {
+                rows = Math.min(rows, column.length);
+            }
+        }
+        return rows == Integer.MAX_VALUE ? 0 : rows;
+    }
+
+    double[][] checkColumns(double[][] columns, int rows) {
+        if (columns.length != inputs.length) {
+            throw new IllegalArgumentException(this + " expects " + inputs.length
+                + " columns but got " + columns.length);
+        }
+        double[][] checked = columns;
+        for (int slot = 0; slot < columns.length; slot++) {
+            double[] column = columns[slot];
+            if (column == null) {
+                if (!optional[slot]) {
+                    throw new IllegalArgumentException("Missing column for " + inputs[slot]);
+                }
+                if (checked == columns) {
+                    checked = columns.clone();
+                }
+                column = new double[rows];
+                Arrays.fill(column, defaults[slot]);
+                checked[slot] = column;
+            } else if (column.length < rows) {
+                throw new IllegalArgumentException("Column " + inputs[slot] + " has "
+                    + column.length + " rows, need " + rows);
+            }
+        }
+        return checked;
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String[] getInputs() {
+        return inputs.clone();
+    }
+
+    public int getArity() {
+        return inputs.length;
+    }
+
+    public String getInput(int slot) {
+        return inputs[slot];
+    }
+
+    // Slot index of an input variable, or -1 if this solver does not read it
+    public int slotOf(String variable) {
+        for (int i = 0; i < inputs.length; i++) {
+            if (inputs[i].equals(variable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isOptional(int slot) {
+        return optional[slot];
+    }
+
+    public double getDefault(int slot) {
+        return defaults[slot];
+    }
+
+    // Fresh slot array pre-filled with the defaults of optional inputs
+    public double[] newInputs() {
+        return defaults.clone();
+    }
+
+    Solver withDefault(String variable, double value) {
+        int slot = slotOf(variable);
+        if (slot < 0) {
+            throw new IllegalArgumentException(formula + " (" + target + ") has no input " + variable);
+        }
+        defaults[slot] = value;
+        optional[slot] = true;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return formula + " -> " + target + Arrays.toString(inputs);
+    }
+
+    // ========== KERNEL SHAPES ==========
+
+    @FunctionalInterface
+    public interface Fn3 {
+        double apply(double a, double b, double c);
+    }
+
+    @FunctionalInterface
+    public interface Fn4 {
+        double apply(double a, double b, double c, double d);
+    }
+
+    @FunctionalInterface
+    public interface Fn5 {
+        double apply(double a, double b, double c, double d, double e);
+    }
+
+    @FunctionalInterface
+    public interface Fn6 {
+        double apply(double a, double b, double c, double d, double e, double f);
+    }
+
+    // Hand-written column loop, for kernels with a faster bulk form than
+    // calling the scalar function row by row
+    @FunctionalInterface
+    interface ColumnFn {
+        void apply(double[][] columns, double[] out, int from, int to);
+    }
+
+    static Solver of(String formula, String target, String[] inputs, DoubleUnaryOperator fn) {
+        checkArity(formula, target, inputs, 1);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.applyAsDouble(in[0]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.applyAsDouble(a[i]);
+                }
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, DoubleBinaryOperator fn) {
+        checkArity(formula, target, inputs, 2);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.applyAsDouble(in[0], in[1]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0], b = columns[1];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.applyAsDouble(a[i], b[i]);
+                }
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, Fn3 fn) {
+        checkArity(formula, target, inputs, 3);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.apply(in[0], in[1], in[2]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0], b = columns[1], c = columns[2];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.apply(a[i], b[i], c[i]);
+                }
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, Fn3 fn, ColumnFn columnFn) {
+        checkArity(formula, target, inputs, 3);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.apply(in[0], in[1], in[2]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                columnFn.apply(columns, out, from, to);
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, Fn4 fn) {
+        checkArity(formula, target, inputs, 4);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.apply(in[0], in[1], in[2], in[3]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0], b = columns[1], c = columns[2], d = columns[3];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.apply(a[i], b[i], c[i], d[i]);
+                }
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, Fn5 fn) {
+        checkArity(formula, target, inputs, 5);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.apply(in[0], in[1], in[2], in[3], in[4]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0], b = columns[1], c = columns[2], d = columns[3], e = columns[4];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.apply(a[i], b[i], c[i], d[i], e[i]);
+                }
+            }
+        };
+    }
+
+    static Solver of(String formula, String target, String[] inputs, Fn6 fn) {
+        checkArity(formula, target, inputs, 6);
+        return new Solver(formula, target, inputs) {
+            @Override
+            public double solve(double[] in) {
+                return fn.apply(in[0], in[1], in[2], in[3], in[4], in[5]);
+            }
+
+            @Override
+            void solveRange(double[][] columns, double[] out, int from, int to) {
+                double[] a = columns[0], b = columns[1], c = columns[2], d = columns[3], e = columns[4], f = columns[5];
+                for (int i = from; i < to; i++) {
+                    out[i] = fn.apply(a[i], b[i], c[i], d[i], e[i], f[i]);
+                }
+            }
+        };
+    }
+
+    private static void checkArity(String formula, String target, String[] inputs, int arity) {
+        if (inputs.length != arity) {
+            throw new IllegalArgumentException(formula + " (" + target + ") expects "
+                + arity + " inputs but lists " + inputs.length);
+        }
+    }
+}
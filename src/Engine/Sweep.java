@@ -0,0 +1,154 @@
+package Engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// One input of a solver swept over a range, every other input held at a
+// value: "Decibel Formula" against intensity, "Photon Energy" against
+// wavelength. The points are spaced evenly, or evenly in log for a log
+// sweep, so point i's input is computed from i and only the outputs are
+// stored (80 MB at MAX_POINTS).
+//
+// Outputs are evaluated a chunk at a time through solveColumns(), the held
+// inputs as constant columns of one chunk's length, so no column is ever
+// as long as the sweep. Disjoint ranges can be evaluated concurrently, and
+// evaluate() with a pool splits the range as ParallelBatch does.
+public final class Sweep {
+
+    public static final int MAX_POINTS = 10_000_000;
+    private static final int CHUNK = 1 << 14;
+
+    private final Solver solver;
+    private final double[] inputs;
+    private final int slot;
+    private final double from;
+    private final double to;
+    private final int points;
+    private final boolean log;
+    private final double start;
+    private final double step;
+
+    // inputs are in engine units, one per slot; the swept slot's is ignored
+    public Sweep(Solver solver, double[] inputs, int slot, double from, double to, int points, boolean log) {
+        if (inputs.length != solver.getArity()) {
+            throw new IllegalArgumentException(solver + " expects " + solver.getArity()
+                + " inputs but got " + inputs.length);
+        }
+        if (slot < 0 || slot >= inputs.length) {
+            throw new IllegalArgumentException(solver + " has no input " + slot);
+        }
+        if (points < 2 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("A sweep takes 2 to " + MAX_POINTS + " points, not " + points);
+        }
+        if (!Double.isFinite(from) || !Double.isFinite(to) || from == to) {
+            throw new IllegalArgumentException("Sweep range " + from + " to " + to + " is empty or not finite");
+        }
+        if (log && (from <= 0 || to <= 0)) {
+            throw new IllegalArgumentException("A log sweep needs a positive range, not " + from + " to " + to);
+        }
+        this.solver = solver;
+        this.inputs = inputs.clone();
+        this.slot = slot;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+        this.log = log;
+        this.start = log ? Math.log(from) : from;
+        this.step = ((log ? Math.log(to) : to) - start) / (points - 1);
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public boolean isLog() {
+        return log;
+    }
+
+    // The swept input at point i, in engine units; exact at both ends
+    public double getX(int i) {
+        if (i == points - 1) {
+            return to;
+        }
+        double x = start + i * step;
+        return i == 0 ? from : log ? Math.exp(x) : x;
+    }
+
+    // The swept input at a fractional point, for axis ticks between points
+    public double getX(double i) {
+        double x = start + i * step;
+        return log ? Math.exp(x) : x;
+    }
+
+    public double[] newOutputs() {
+        return new double[points];
+    }
+
+    // ys[i] = output at point i for fromPoint <= i < toPoint
+    public void evaluate(double[] ys, int fromPoint, int toPoint) {
+        if (fromPoint < 0 || fromPoint > toPoint || toPoint > points || ys.length < toPoint) {
+            throw new IndexOutOfBoundsException("Points " + fromPoint + ".." + toPoint + " outside sweep of " + points);
+        }
+        int length = Math.min(CHUNK, toPoint - fromPoint);
+        double[][] columns = new double[inputs.length][];
+        for (int s = 0; s < inputs.length; s++) {
+            columns[s] = new double[length];
+            if (s != slot) {
+                Arrays.fill(columns[s], inputs[s]);
+            }
+        }
+        double[] xs = columns[slot];
+        double[] out = new double[length];
+        for (int at = fromPoint; at < toPoint; at += length) {
+            int n = Math.min(length, toPoint - at);
+            for (int i = 0; i < n; i++) {
+                xs[i] = getX(at + i);
+            }
+            solver.solveColumns(columns, out, 0, n);
+            System.arraycopy(out, 0, ys, at, n);
+        }
+    }
+
+    // The same, with the range split across pool
+    public void evaluate(double[] ys, int fromPoint, int toPoint, ForkJoinPool pool) {
+        if (toPoint - fromPoint <= CHUNK) {
+            evaluate(ys, fromPoint, toPoint);
+            return;
+        }
+        pool.invoke(new Chunk(ys, fromPoint, toPoint));
+    }
+
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] ys;
+        private final int from;
+        private final int to;
+
+        Chunk(double[] ys, int from, int to) {
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                evaluate(ys, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(ys, from, mid), new Chunk(ys, mid, to));
+        }
+    }
+}
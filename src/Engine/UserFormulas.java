@@ -0,0 +1,132 @@
+package Engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// User-defined formulas, loaded from a plain text file so new equations can be
+// added without rebuilding the app. One definition per line:
+//
+//     Category | Name | equation [| constant, constant...]
+//     Gravitation | Newton's Gravitation | F = G*m1*m2/r^2 | G
+//
+// Blank lines and lines starting with # are ignored. The file is
+// -Dphysiquist.formulas=<path>, or ~/.physiquist/formulas.txt by default.
+// FormulaRegistry loads it when it is first used. No lock here is held while
+// calling into FormulaEngine, which publishes registry snapshots.
+public final class UserFormulas {
+
+    public static final String DEFAULT_CATEGORY = "User Defined";
+
+    private static final Map<String, String> CATEGORIES = new ConcurrentHashMap<>();
+    private static final List<String> ERRORS = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicBoolean LOADED = new AtomicBoolean();
+
+    private UserFormulas() {
+    }
+
+    public static Path getFile() {
+        String path = System.getProperty("physiquist.formulas");
+        if (path != null) {
+            return Paths.get(path);
+        }
+        return Paths.get(System.getProperty("user.home"), ".physiquist", "formulas.txt");
+    }
+
+    // Load the definitions file once; bad lines are skipped, kept in getErrors()
+    // and reported on stderr, so a formula that is missing says why
+    public static void load() {
+        if (!LOADED.compareAndSet(false, true)) {
+            return;
+        }
+        Path file = getFile();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        // Every line is defined first and one registry snapshot published at
+        // the end; a snapshot per line made loading quadratic in the file
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    parseLine(line);
+                } catch (IllegalArgumentException e) {
+                    ERRORS.add(file.getFileName() + ":" + number + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            ERRORS.add(file + ": " + e.getMessage());
+        } finally {
+            FormulaRegistry.refresh();
+            List<String> errors = getErrors();
+            if (!errors.isEmpty()) {
+                System.err.println("User formulas: " + errors.size() + " problem(s) in " + file + ":");
+                for (String error : errors) {
+                    System.err.println("  " + error);
+                }
+            }
+        }
+    }
+
+    private static void parseLine(String line) {
+        String[] parts = line.split("\\|");
+        if (parts.length < 3 || parts.length > 4) {
+            throw new IllegalArgumentException("Expected: Category | Name | equation [| constants]");
+        }
+        String[] constants = new String[0];
+        if (parts.length == 4 && !parts[3].trim().isEmpty()) {
+            constants = parts[3].trim().split("\\s*,\\s*");
+        }
+        define(parts[0].trim(), parts[1].trim(), parts[2].trim(), false, constants);
+    }
+
+    public static Equation define(String category, String formula, String text, String... constants) {
+        return define(category, formula, text, true, constants);
+    }
+
+    private static Equation define(String category, String formula, String text, boolean publish,
+                                   String... constants) {
+        String previous = CATEGORIES.put(formula, category.isEmpty() ? DEFAULT_CATEGORY : category);
+        try {
+            return publish ? FormulaEngine.define(formula, text, constants)
+                : FormulaEngine.defineUnpublished(formula, text, constants);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                CATEGORIES.remove(formula);
+            } else {
+                CATEGORIES.put(formula, previous);
+            }
+            throw e;
+        }
+    }
+
+    public static boolean undefine(String formula) {
+        boolean removed = FormulaEngine.undefine(formula);
+        CATEGORIES.remove(formula);
+        return removed;
+    }
+
+    // Category a user formula is filed under; formulas defined straight through
+    // FormulaEngine.define() land in DEFAULT_CATEGORY
+    public static String getCategory(String formula) {
+        return CATEGORIES.getOrDefault(formula, DEFAULT_CATEGORY);
+    }
+
+    public static List<String> getErrors() {
+        synchronized (ERRORS) {
+            return new ArrayList<>(ERRORS);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package Engine;
+
+import Metrics.CalculationMetrics;
+import Units.Quantity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Formulas chained into a dependency graph. A step is one formula solved for
+// one target, and each of its inputs is either a value (in engine units, SI)
+// or the result of another step, so "Orbital Velocity" can feed "Kinetic
+// Energy", which feeds "Power". Links that would close a cycle are refused,
+// so the steps always form a DAG.
+//
+// Editing a value or a link marks that step and everything downstream of it;
+// recalculate() then solves only those. They are solved in levels: a level
+// holds the steps whose sources are all clean or in earlier levels, so the
+// steps of one level are independent. A level whose steps took long enough
+// last time (PARALLEL_NANOS in total) is split across the pool; cheap ones,
+// which is most closed forms, run on the calling thread, where a task
+// hand-off would cost more than the solves.
+//
+// Step ids are stable: removing a step leaves a hole, and its dependents lose
+// that input. Not thread-safe; use a worksheet from one thread (the EDT), and
+// recalculate() does its own fan-out.
+public final class Worksheet {
+
+    public static final long PARALLEL_NANOS = 50_000;
+
+    private final ForkJoinPool pool;
+    private final List<Step> steps = new ArrayList<>();
+    private int dirtyCount;
+
+    private static final class Step {
+        final int id;
+        final Solver solver;
+        final FormulaInfo info;
+        final double[] in;
+        // Per slot: the step it reads (-1 for a value), and whether a value is set
+        final int[] source;
+        final boolean[] given;
+        final List<Step> dependents = new ArrayList<>();
+        double result = Double.NaN;
+        boolean ready;
+        boolean dirty = true;
+        long nanos;
+        int level;
+
+        Step(int id, Solver solver, FormulaInfo info) {
+            this.id = id;
+            this.solver = solver;
+            this.info = info;
+            this.in = solver.newInputs();
+            this.source = new int[in.length];
+            this.given = new boolean[in.length];
+            Arrays.fill(source, -1);
+        }
+    }
+
+    public Worksheet() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public Worksheet(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // ========== STEPS ==========
+
+    // A new step solving formula for target, with no inputs yet; its id
+    public int add(String formula, String target) {
+        FormulaInfo info = FormulaRegistry.get().byName(formula);
+        if (info == null || !info.canSolve(target)) {
+            throw new IllegalArgumentException(formula + " cannot be solved for " + target);
+        }
+        Step step = new Step(steps.size(), FormulaEngine.compile(formula, target), info);
+        steps.add(step);
+        dirtyCount++;
+        return step.id;
+    }
+
+    // Drop a step; inputs linked to it become missing
+    public void remove(int id) {
+        Step step = step(id);
+        for (int slot = 0; slot < step.source.length; slot++) {
+            if (step.source[slot] >= 0) {
+                steps.get(step.source[slot]).dependents.remove(step);
+            }
+        }
+        for (Step dependent : new ArrayList<>(step.dependents)) {
+            for (int slot = 0; slot < dependent.source.length; slot++) {
+                if (dependent.source[slot] == id) {
+                    dependent.source[slot] = -1;
+                    dependent.given[slot] = false;
+                }
+            }
+            markDirty(dependent);
+        }
+        if (step.dirty) {
+            dirtyCount--;
+        }
+        steps.set(id, null);
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < steps.size() && steps.get(id) != null;
+    }
+
+    // Ids of the steps there are, in the order they were added
+    public int[] getSteps() {
+        int[] ids = new int[steps.size()];
+        int count = 0;
+        for (Step step : steps) {
+            if (step != null) {
+                ids[count++] = step.id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    public Solver getSolver(int id) {
+        return step(id).solver;
+    }
+
+    public Quantity getResultQuantity(int id) {
+        Step step = step(id);
+        return step.info.getQuantity(step.solver.getTarget());
+    }
+
+    public Quantity getInputQuantity(int id, int slot) {
+        Step step = step(id);
+        return step.info.getQuantity(step.solver.getInput(slot));
+    }
+
+    // ========== INPUTS ==========
+
+    // Set an input to a value in engine units, replacing any link
+    public void setValue(int id, int slot, double value) {
+        Step step = step(id);
+        checkSlot(step, slot);
+        unlinkSlot(step, slot);
+        if (step.given[slot] && Double.doubleToLongBits(step.in[slot]) == Double.doubleToLongBits(value)) {
+            return;
+        }
+        step.in[slot] = value;
+        step.given[slot] = true;
+        markDirty(step);
+    }
+
+    // Leave an input without a value (an optional one takes its default)
+    public void clear(int id, int slot) {
+        Step step = step(id);
+        checkSlot(step, slot);
+        if (step.source[slot] < 0 && !step.given[slot]) {
+            return;
+        }
+        unlinkSlot(step, slot);
+        step.given[slot] = false;
+        markDirty(step);
+    }
+
+    // Feed the result of step from into an input of step id. Refused if from
+    // depends on id (a cycle) or if the two quantities cannot be the same
+    public void link(int id, int slot, int from) {
+        Step step = step(id);
+        Step source = step(from);
+        checkSlot(step, slot);
+        if (step.source[slot] == from) {
+            return;
+        }
+        if (dependsOn(source, step)) {
+            throw new IllegalArgumentException("Linking step " + from + " into step " + id + " would form a cycle");
+        }
+        Quantity produced = getResultQuantity(from);
+        Quantity expected = getInputQuantity(id, slot);
+        if (produced != Quantity.NONE && expected != Quantity.NONE
+                && produced.getDimension() != expected.getDimension()) {
+            throw new IllegalArgumentException(source.solver.getTarget() + " of " + source.info.getName()
+                + " is " + produced + ", but " + step.solver.getInput(slot) + " needs " + expected);
+        }
+        unlinkSlot(step, slot);
+        step.source[slot] = from;
+        step.given[slot] = false;
+        source.dependents.add(step);
+        markDirty(step);
+    }
+
+    // The step an input reads, or -1 if it takes a value
+    public int getSource(int id, int slot) {
+        return step(id).source[slot];
+    }
+
+    // The value set on an input, or NaN if it has none or is linked
+    public double getValue(int id, int slot) {
+        Step step = step(id);
+        return step.given[slot] ? step.in[slot] : Double.NaN;
+    }
+
+    // ========== RESULTS ==========
+
+    // True once the step has been solved with every input it needs
+    public boolean isReady(int id) {
+        return step(id).ready;
+    }
+
+    // The last result in engine units; NaN until ready
+    public double getResult(int id) {
+        Step step = step(id);
+        return step.ready ? step.result : Double.NaN;
+    }
+
+    public boolean isDirty(int id) {
+        return step(id).dirty;
+    }
+
+    // Solve every step that changed or is downstream of a change; the ids
+    // solved, in the order their levels ran
+    public int[] recalculate() {
+        if (dirtyCount == 0) {
+            return new int[0];
+        }
+        List<Step> dirty = new ArrayList<>(dirtyCount);
+        int levels = 0;
+        for (Step step : steps) {
+            if (step != null && step.dirty) {
+                step.level = -1;
+                dirty.add(step);
+            }
+        }
+        for (Step step : dirty) {
+            levels = Math.max(levels, levelOf(step) + 1);
+        }
+
+        // Bucket by level, keeping id order within a level
+        Step[][] byLevel = new Step[levels][];
+        int[] counts = new int[levels];
+        for (Step step : dirty) {
+            counts[step.level]++;
+        }
+        for (int level = 0; level < levels; level++) {
+            byLevel[level] = new Step[counts[level]];
+            counts[level] = 0;
+        }
+        for (Step step : dirty) {
+            byLevel[step.level][counts[step.level]++] = step;
+        }
+
+        int[] solved = new int[dirty.size()];
+        int count = 0;
+        for (Step[] level : byLevel) {
+            long cost = 0;
+            for (Step step : level) {
+                cost += step.nanos;
+            }
+            if (level.length > 1 && cost >= PARALLEL_NANOS) {
+                pool.invoke(new Solve(level, 0, level.length));
+            } else {
+                for (Step step : level) {
+                    solve(step);
+                }
+            }
+            for (Step step : level) {
+                step.dirty = false;
+                solved[count++] = step.id;
+            }
+        }
+        dirtyCount = 0;
+        return solved;
+    }
+
+    // Sources are read from steps of earlier levels (or clean ones), which
+    // are never written while this level runs
+    private void solve(Step step) {
+        step.ready = true;
+        for (int slot = 0; slot < step.in.length; slot++) {
+            int from = step.source[slot];
+            if (from >= 0) {
+                Step source = steps.get(from);
+                step.in[slot] = source.result;
+                step.ready &= source.ready;
+            } else if (!step.given[slot]) {
+                if (step.solver.isOptional(slot)) {
+                    step.in[slot] = step.solver.getDefault(slot);
+                } else {
+                    step.ready = false;
+                }
+            }
+        }
+        if (!step.ready) {
+            step.result = Double.NaN;
+            return;
+        }
+        long start = System.nanoTime();
+        step.result = step.solver.solve(step.in);
+        step.nanos = System.nanoTime() - start;
+        CalculationMetrics.of(step.info.getName()).record(step.nanos, step.result);
+    }
+
+    private final class Solve extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Step[] level;
+        private final int from;
+        private final int to;
+
+        Solve(Step[] level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                solve(level[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Solve(level, from, mid), new Solve(level, mid, to));
+        }
+    }
+
+    // ========== GRAPH ==========
+
+    private Step step(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("No step " + id);
+        }
+        return steps.get(id);
+    }
+
+    private static void checkSlot(Step step, int slot) {
+        if (slot < 0 || slot >= step.in.length) {
+            throw new IllegalArgumentException(step.info.getName() + " for " + step.solver.getTarget()
+                + " has no input " + slot);
+        }
+    }
+
+    private void unlinkSlot(Step step, int slot) {
+        int from = step.source[slot];
+        if (from >= 0) {
+            step.source[slot] = -1;
+            steps.get(from).dependents.remove(step);
+        }
+    }
+
+    // A step and everything downstream. A dirty step's dependents are dirty
+    // already, so the walk stops there.
+    private void markDirty(Step step) {
+        if (step.dirty) {
+            return;
+        }
+        step.dirty = true;
+        dirtyCount++;
+        for (Step dependent : step.dependents) {
+            markDirty(dependent);
+        }
+    }
+
+    // True if step reads target's result, directly or further up
+    private boolean dependsOn(Step step, Step target) {
+        return dependsOn(step, target, new boolean[steps.size()]);
+    }
+
+    private boolean dependsOn(Step step, Step target, boolean[] visited) {
+        if (step == target) {
+            return true;
+        }
+        visited[step.id] = true;
+        for (int from : step.source) {
+            if (from >= 0 && !visited[from] && dependsOn(steps.get(from), target, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 0 for a dirty step with no dirty source, else one past its deepest one
+    private int levelOf(Step step) {
+        if (step.level >= 0) {
+            return step.level;
+        }
+        int level = 0;
+        for (int from : step.source) {
+            if (from >= 0) {
+                Step source = steps.get(from);
+                if (source.dirty) {
+                    level = Math.max(level, levelOf(source) + 1);
+                }
+            }
+        }
+        step.level = level;
+        return level;
+    }
+}
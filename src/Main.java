@@ -1,7 +1,150 @@
+import Engine.CsvBatch;
+import Server.CalculationServer;
 import Ui.MainWindow;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 
 public class Main {
+
+    private static final String USAGE =
+        "Usage: java Main                       (start the calculator window)\n"
+      + "       java Main --batch <formula> --solve <variable> [options]\n"
+      + "       java Main --serve [port]         (HTTP calculation service on loopback,\n"
+      + "                                         default port " + CalculationServer.DEFAULT_PORT + ")\n"
+      + "\n"
+      + "Batch options:\n"
+      + "  --in <file>            CSV with a header naming the inputs (default: stdin)\n"
+      + "  --out <file>           CSV of the input rows plus the result (default: stdout)\n"
+      + "  --unit <var>=<unit>    unit of an input column, e.g. --unit V=kV\n"
+      + "                         (a header such as \"V [kV]\" works too)\n"
+      + "  --out-unit <unit>      unit of the result column\n";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            System.exit(runServer(args));
+        }
+        if (args.length > 0) {
+            System.exit(runBatch(args));
+        }
         javax.swing.SwingUtilities.invokeLater(() -> new MainWindow());
     }
+
+    // Headless: no AWT class is loaded on this path
+    private static int runBatch(String[] args) {
+        String formula = null;
+        String target = null;
+        String inFile = "-";
+        String outFile = "-";
+        String outUnit = null;
+        java.util.List<String> units = new java.util.ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--help") || option.equals("-h")) {
+                    System.out.print(USAGE);
+                    return 0;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--batch": formula = value; break;
+                    case "--solve": target = value; break;
+                    case "--in": inFile = value; break;
+                    case "--out": outFile = value; break;
+                    case "--unit": units.add(value); break;
+                    case "--out-unit": outUnit = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            if (formula == null || target == null) {
+                throw new IllegalArgumentException("--batch and --solve are both required");
+            }
+
+            CsvBatch batch = new CsvBatch(formula, target);
+            for (String unit : units) {
+                int eq = unit.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected --unit <var>=<unit>, got " + unit);
+                }
+                batch.setInputUnit(unit.substring(0, eq), unit.substring(eq + 1));
+            }
+            if (outUnit != null) {
+                batch.setOutputUnit(outUnit);
+            }
+
+            long start = System.nanoTime();
+            long rows;
+            if (inFile.equals("-")) {
+                try (Reader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16);
+                     Writer out = new BufferedWriter(new OutputStreamWriter(create(outFile), StandardCharsets.UTF_8), 1 << 16)) {
+                    rows = batch.run(in, out);
+                }
+            } else {
+                // A file is mapped and parsed from its bytes in parallel
+                try (OutputStream out = create(outFile)) {
+                    rows = batch.run(Paths.get(inFile), out);
+                }
+            }
+            System.err.printf("%s: %d rows in %.2f s%n", batch.getSolver(), rows, (System.nanoTime() - start) / 1e9);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println();
+            System.err.print(USAGE);
+            return 2;
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // Headless: runs until the process is stopped
+    private static int runServer(String[] args) {
+        int port = CalculationServer.DEFAULT_PORT;
+        try {
+            if (args.length > 2) {
+                throw new IllegalArgumentException("Expected --serve [port]");
+            }
+            if (args.length == 2) {
+                port = Integer.parseInt(args[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println();
+            System.err.print(USAGE);
+            return 2;
+        }
+        try {
+            CalculationServer server = new CalculationServer(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            server.start();
+            System.err.println("Serving formula calculations on http://" + server.getAddress().getHostString()
+                + ":" + server.getAddress().getPort() + "/");
+            Thread.currentThread().join();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Cannot start server: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            return 0;
+        }
+    }
+
+    private static OutputStream create(String file) throws IOException {
+        OutputStream out = file.equals("-") ? new FilterOutputStream(System.out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush(); // leave System.out open
+            }
+        } : new FileOutputStream(file);
+        return new BufferedOutputStream(out, 1 << 16);
+    }
 }
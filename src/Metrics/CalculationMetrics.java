@@ -0,0 +1,160 @@
+package Metrics;
+
+import Units.Quantity;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Where every calculation path (the calculator window, CSV batch, the HTTP
+// service, FormulaEngine.evaluate) records what it did, and the JMX view of
+// it under the "physiquist" domain:
+//   physiquist:type=Calculations               totals, errors, unit conversions
+//   physiquist:type=Formula,name="<formula>"   one per formula that was used
+//   physiquist:type=ResultCache                the service's cache, if any
+//
+// Beans are registered on a background thread, so the first calculation of a
+// formula never waits for the platform MBean server to start. Metrics cost a
+// few nanoseconds per event; -Dphysiquist.metrics=false turns recording and
+// registration off altogether.
+public final class CalculationMetrics implements CalculationMetricsMXBean {
+
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("physiquist.metrics"));
+
+    private static final String DOMAIN = "physiquist";
+    private static final Quantity[] QUANTITIES = Quantity.values();
+    private static final Map<String, FormulaMetrics> FORMULAS = new ConcurrentHashMap<>();
+    private static final LongAdder[] CONVERSIONS = new LongAdder[QUANTITIES.length];
+    private static final CalculationMetrics INSTANCE = new CalculationMetrics();
+
+    // One daemon thread, started on demand and gone when idle
+    private static final ThreadPoolExecutor REGISTRAR = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "physiquist-jmx");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        for (int i = 0; i < CONVERSIONS.length; i++) {
+            CONVERSIONS[i] = new LongAdder();
+        }
+        register("Calculations", null, INSTANCE);
+    }
+
+    private CalculationMetrics() {
+    }
+
+    // The metrics of a formula, created (and registered) on first use
+    public static FormulaMetrics of(String formula) {
+        FormulaMetrics metrics = FORMULAS.get(formula);
+        if (metrics != null) {
+            return metrics;
+        }
+        return FORMULAS.computeIfAbsent(formula, name -> {
+            FormulaMetrics created = new FormulaMetrics(name);
+            register("Formula", name, created);
+            return created;
+        });
+    }
+
+    // count values of quantity converted to or from some unit
+    public static void recordConversions(Quantity quantity, long count) {
+        if (ENABLED && count > 0) {
+            CONVERSIONS[quantity.ordinal()].add(count);
+        }
+    }
+
+    public static CalculationMetrics get() {
+        return INSTANCE;
+    }
+
+    // Publish an MXBean as physiquist:type=<type>[,name="<name>"], replacing
+    // any earlier bean of that name
+    public static void register(String type, String name, Object bean) {
+        if (!ENABLED) {
+            return;
+        }
+        REGISTRAR.execute(() -> {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type
+                    + (name != null ? ",name=" + ObjectName.quote(name) : ""));
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+                server.registerMBean(bean, objectName);
+            } catch (Exception | LinkageError e) {
+                // No JMX (a trimmed runtime) only costs the remote view
+                System.err.println("Metrics " + type + " not published over JMX: " + e);
+            }
+        });
+    }
+
+    // ========== MXBEAN ==========
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getCalls() {
+        long calls = 0;
+        for (FormulaMetrics metrics : FORMULAS.values()) {
+            calls += metrics.getCalls();
+        }
+        return calls;
+    }
+
+    @Override
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ErrorKind kind : ErrorKind.values()) {
+            long count = 0;
+            for (FormulaMetrics metrics : FORMULAS.values()) {
+                count += metrics.getErrors(kind);
+            }
+            counts.put(kind.name(), count);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getConversions() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Quantity quantity : QUANTITIES) {
+            long count = CONVERSIONS[quantity.ordinal()].sum();
+            if (count > 0) {
+                counts.put(quantity.name(), count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<String> getFormulas() {
+        List<String> formulas = new ArrayList<>(FORMULAS.keySet());
+        Collections.sort(formulas);
+        return formulas;
+    }
+
+    @Override
+    public void reset() {
+        for (FormulaMetrics metrics : FORMULAS.values()) {
+            metrics.reset();
+        }
+        for (LongAdder count : CONVERSIONS) {
+            count.reset();
+        }
+    }
+}
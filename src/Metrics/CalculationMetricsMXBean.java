@@ -0,0 +1,23 @@
+package Metrics;
+
+import java.util.List;
+import java.util.Map;
+
+// All formulas together, as physiquist:type=Calculations
+public interface CalculationMetricsMXBean {
+
+    boolean isEnabled();
+
+    long getCalls();
+
+    // Error counts by ErrorKind name
+    Map<String, Long> getErrors();
+
+    // Values converted to or from a unit, by Quantity name
+    Map<String, Long> getConversions();
+
+    // Formulas with metrics so far, each also its own physiquist:type=Formula bean
+    List<String> getFormulas();
+
+    void reset();
+}
@@ -0,0 +1,16 @@
+package Metrics;
+
+// Why a calculation gave no usable number
+public enum ErrorKind {
+
+    // An infinite result; in these formulas that is a division by zero
+    DIVISION_BY_ZERO,
+    // A NaN result, e.g. the square root or arcsine of an out-of-range value
+    NAN,
+    // A required input left empty, or a required column absent
+    MISSING_INPUT,
+    // An input that is not a number, or a unit that does not exist
+    INVALID_INPUT,
+    // The solver threw
+    FAILURE
+}
@@ -0,0 +1,135 @@
+package Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Calls, latency and errors of one formula, whichever target it is solved
+// for. Get it from CalculationMetrics.of() and keep it where the same formula
+// is solved repeatedly; recording allocates nothing and takes no lock.
+public final class FormulaMetrics implements FormulaMetricsMXBean {
+
+    private static final ErrorKind[] KINDS = ErrorKind.values();
+
+    private final String formula;
+    private final Histogram latency = new Histogram();
+    private final LongAdder[] errors = new LongAdder[KINDS.length];
+
+    FormulaMetrics(String formula) {
+        this.formula = formula;
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+
+    // One solve that took nanos and gave result
+    public void record(long nanos, double result) {
+        if (!CalculationMetrics.ENABLED) {
+            return;
+        }
+        latency.record(nanos);
+        if (result - result != 0) {
+            recordError(Double.isNaN(result) ? ErrorKind.NAN : ErrorKind.DIVISION_BY_ZERO);
+        }
+    }
+
+    // One solveColumns() over results[from, to) that took nanos in all
+    public void record(long nanos, double[] results, int from, int to) {
+        int rows = to - from;
+        if (!CalculationMetrics.ENABLED || rows <= 0) {
+            return;
+        }
+        latency.record(nanos / rows, rows);
+        int nan = 0;
+        int infinite = 0;
+        for (int i = from; i < to; i++) {
+            double result = results[i];
+            if (result - result != 0) {
+                if (Double.isNaN(result)) {
+                    nan++;
+                } else {
+                    infinite++;
+                }
+            }
+        }
+        if (nan > 0) {
+            errors[ErrorKind.NAN.ordinal()].add(nan);
+        }
+        if (infinite > 0) {
+            errors[ErrorKind.DIVISION_BY_ZERO.ordinal()].add(infinite);
+        }
+    }
+
+    public void recordError(ErrorKind kind) {
+        if (CalculationMetrics.ENABLED) {
+            errors[kind.ordinal()].increment();
+        }
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getErrors(ErrorKind kind) {
+        return errors[kind.ordinal()].sum();
+    }
+
+    // ========== MXBEAN ==========
+
+    @Override
+    public String getFormula() {
+        return formula;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ErrorKind kind : KINDS) {
+            counts.put(kind.name(), getErrors(kind));
+        }
+        return counts;
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return latency.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latency.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.getMax();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        for (LongAdder count : errors) {
+            count.reset();
+        }
+    }
+}
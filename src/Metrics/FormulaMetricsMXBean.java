@@ -0,0 +1,30 @@
+package Metrics;
+
+import java.util.Map;
+
+// One formula, as seen in a JMX console under physiquist:type=Formula.
+// Latencies are per solve, in nanoseconds; a batch counts each of its rows as
+// a solve taking the batch's average.
+public interface FormulaMetricsMXBean {
+
+    String getFormula();
+
+    long getCalls();
+
+    // Error counts by ErrorKind name
+    Map<String, Long> getErrors();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    void reset();
+}
@@ -0,0 +1,433 @@
+package Server;
+
+import Engine.FormulaEngine;
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
+import Engine.ResultCache;
+import Engine.Solver;
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import Units.Quantities;
+import Units.Quantity;
+import Units.Unit;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Formula calculations over HTTP for other tools, on the JDK's built-in
+// server. Bound to loopback by default. All bodies are JSON.
+//
+//   GET  /formulas   every formula with its category and variables
+//   POST /calculate  {"formula": "Ohm's Law", "target": "I", "unit": "mA",
+//                     "inputs": {"V": 5, "R": {"value": 2, "unit": "kΩ"}}}
+//                    -> {"formula": ..., "target": "I", "value": 2.5, "unit": "mA"}
+//                    A JSON array of such requests gets an array of results
+//                    (a failed element becomes {"error": ...}).
+//   POST /batch      {"formula": ..., "target": ..., "units": {"V": "kV"},
+//                     "columns": {"V": [...], "R": [...]}}
+//                    -> {"formula": ..., "target": ..., "unit": ..., "values": [...]}
+//
+// A number without a unit is in the quantity's default unit (the first one
+// the calculator offers), and so is a result unless "unit" says otherwise.
+// Arrays and batches are streamed (chunked) as they are computed. Requests run
+// one per virtual thread where the JDK has them (21+), else on a pool.
+// Single calculations go through a ResultCache of -Dphysiquist.resultCache
+// entries (default 65536, 0 turns it off); columnar batches do not. Calls,
+// latencies and errors are recorded in CalculationMetrics, and the cache is
+// published next to them over JMX. A request body over
+// -Dphysiquist.maxRequestBytes (default 64 MiB) gets a 413 without being
+// parsed; JSON nested too deep for the parser gets a 400.
+public final class CalculationServer {
+
+    public static final int DEFAULT_PORT = 8765;
+
+    private static final int BATCH_BLOCK = 4096;
+    private static final int MAX_BODY = Math.min(Integer.getInteger("physiquist.maxRequestBytes", 64 << 20),
+        Integer.MAX_VALUE - 8);
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on,
+        // delayed ACKs add ~40 ms to every keep-alive response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResultCache cache;
+
+    public CalculationServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public CalculationServer(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 1024);
+        this.executor = newExecutor();
+        int cacheSize = Integer.getInteger("physiquist.resultCache", 65536);
+        this.cache = cacheSize > 0 ? new ResultCache(cacheSize) : null;
+        if (cache != null) {
+            CalculationMetrics.register("ResultCache", null, cache);
+        }
+        server.setExecutor(executor);
+        server.createContext("/formulas", handler("GET", this::formulas));
+        server.createContext("/calculate", handler("POST", this::calculate));
+        server.createContext("/batch", handler("POST", this::batch));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stop accepting, give running requests up to delaySeconds to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    // null when started with -Dphysiquist.resultCache=0
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when the runtime has it;
+    // looked up reflectively so the code still builds and runs on JDK 17
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+            AtomicInteger count = new AtomicInteger();
+            return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "physiquist-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ========== HANDLERS ==========
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange, Object request) throws IOException;
+    }
+
+    private static HttpHandler handler(String method, Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    sendError(exchange, 405, "Use " + method);
+                    return;
+                }
+                Object request = null;
+                if (method.equals("POST")) {
+                    byte[] body = readBody(exchange);
+                    if (body == null) {
+                        sendError(exchange, 413, "Request body over " + MAX_BODY + " bytes");
+                        return;
+                    }
+                    request = Json.parse(new String(body, StandardCharsets.UTF_8));
+                }
+                endpoint.handle(exchange, request);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, e.toString());
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    // The request body, or null if it is over MAX_BODY; a declared length
+    // that is too big is refused before anything is read
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (length != null && Long.parseLong(length.trim()) > MAX_BODY) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad Content-Length " + length);
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY + 1);
+        return body.length > MAX_BODY ? null : body;
+    }
+
+    private void formulas(HttpExchange exchange, Object request) throws IOException {
+        try (Writer out = stream(exchange)) {
+            out.write('[');
+            List<FormulaInfo> formulas = FormulaRegistry.get().getFormulas();
+            for (int i = 0; i < formulas.size(); i++) {
+                FormulaInfo info = formulas.get(i);
+                out.write(i == 0 ? "\n{\"name\":" : ",\n{\"name\":");
+                Json.writeString(out, info.getName());
+                out.write(",\"category\":");
+                Json.writeString(out, info.getCategory());
+                out.write(",\"variables\":[");
+                for (int v = 0; v < info.getVariableCount(); v++) {
+                    if (v > 0) {
+                        out.write(',');
+                    }
+                    Json.writeString(out, info.getVariable(v));
+                }
+                out.write("]}");
+            }
+            out.write("\n]\n");
+        }
+    }
+
+    private void calculate(HttpExchange exchange, Object request) throws IOException {
+        if (request instanceof Map) {
+            // Work it out first, so a bad request still gets a 400
+            StringBuilder result = new StringBuilder();
+            writeResult(result, (Map<?, ?>) request);
+            send(exchange, result.append('\n').toString());
+            return;
+        }
+        if (request instanceof double[] && ((double[]) request).length == 0) {
+            request = List.of();
+        }
+        if (!(request instanceof List)) {
+            throw new IllegalArgumentException("Expected a calculation object or an array of them");
+        }
+        try (Writer out = stream(exchange)) {
+            out.write('[');
+            boolean first = true;
+            for (Object element : (List<?>) request) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                StringBuilder result = new StringBuilder();
+                try {
+                    if (!(element instanceof Map)) {
+                        throw new IllegalArgumentException("Expected a calculation object");
+                    }
+                    writeResult(result, (Map<?, ?>) element);
+                } catch (IllegalArgumentException e) {
+                    result.setLength(0);
+                    result.append("{\"error\":");
+                    Json.writeString(result, String.valueOf(e.getMessage()));
+                    result.append('}');
+                }
+                out.append(result);
+            }
+            out.write("\n]\n");
+        }
+    }
+
+    private void writeResult(StringBuilder out, Map<?, ?> request) throws IOException {
+        Solver solver = solver(request);
+        String formula = solver.getFormula();
+        FormulaMetrics metrics = CalculationMetrics.of(formula);
+        Map<?, ?> inputs = member(request, "inputs", Map.class, false);
+        double[] in = solver.newInputs();
+        for (int slot = 0; slot < in.length; slot++) {
+            String variable = solver.getInput(slot);
+            Object value = inputs == null ? null : inputs.get(variable);
+            if (value == null) {
+                if (!solver.isOptional(slot)) {
+                    metrics.recordError(ErrorKind.MISSING_INPUT);
+                    throw new IllegalArgumentException("Missing input " + variable);
+                }
+                continue;
+            }
+            Quantity quantity = Quantities.of(formula, variable);
+            String unit = null;
+            if (value instanceof Map) {
+                unit = member((Map<?, ?>) value, "unit", String.class, false);
+                value = member((Map<?, ?>) value, "value", Double.class, true);
+            }
+            if (!(value instanceof Double)) {
+                metrics.recordError(ErrorKind.INVALID_INPUT);
+                throw new IllegalArgumentException("Input " + variable + " must be a number or {\"value\", \"unit\"}");
+            }
+            in[slot] = quantity.toBase((Double) value, unit(unit, quantity, variable, metrics));
+            CalculationMetrics.recordConversions(quantity, 1);
+        }
+        Quantity quantity = Quantities.of(formula, solver.getTarget());
+        int unit = unit(member(request, "unit", String.class, false), quantity, solver.getTarget(), metrics);
+        long start = System.nanoTime();
+        double result = cache != null ? cache.solve(solver, in) : solver.solve(in);
+        metrics.record(System.nanoTime() - start, result);
+        double value = quantity.fromBase(result, unit);
+        CalculationMetrics.recordConversions(quantity, 1);
+
+        out.append("{\"formula\":");
+        Json.writeString(out, formula);
+        out.append(",\"target\":");
+        Json.writeString(out, solver.getTarget());
+        out.append(",\"value\":");
+        Json.writeNumber(out, value);
+        out.append(",\"unit\":");
+        Json.writeString(out, Unit.getSymbol(unit));
+        out.append('}');
+    }
+
+    private void batch(HttpExchange exchange, Object request) throws IOException {
+        if (!(request instanceof Map)) {
+            throw new IllegalArgumentException("Expected a batch object");
+        }
+        Map<?, ?> batch = (Map<?, ?>) request;
+        Solver solver = solver(batch);
+        String formula = solver.getFormula();
+        FormulaMetrics metrics = CalculationMetrics.of(formula);
+        Map<?, ?> columns = member(batch, "columns", Map.class, true);
+        Map<?, ?> units = member(batch, "units", Map.class, false);
+
+        // Everything is checked and converted before the first byte is sent
+        double[][] in = new double[solver.getArity()][];
+        for (int slot = 0; slot < in.length; slot++) {
+            String variable = solver.getInput(slot);
+            Object column = columns.get(variable);
+            if (column == null) {
+                if (!solver.isOptional(slot)) {
+                    metrics.recordError(ErrorKind.MISSING_INPUT);
+                    throw new IllegalArgumentException("Missing column " + variable);
+                }
+                continue;
+            }
+            if (!(column instanceof double[])) {
+                metrics.recordError(ErrorKind.INVALID_INPUT);
+                throw new IllegalArgumentException("Column " + variable + " must be an array of numbers");
+            }
+            Quantity quantity = Quantities.of(formula, variable);
+            Object unitName = units == null ? null : units.get(variable);
+            if (unitName != null && !(unitName instanceof String)) {
+                metrics.recordError(ErrorKind.INVALID_INPUT);
+                throw new IllegalArgumentException("Unit of " + variable + " must be a string");
+            }
+            int unit = unit((String) unitName, quantity, variable, metrics);
+            double[] values = ((double[]) column).clone();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = quantity.toBase(values[i], unit);
+            }
+            CalculationMetrics.recordConversions(quantity, values.length);
+            in[slot] = values;
+        }
+        int rows = solver.rowCount(in);
+        for (int slot = 0; slot < in.length; slot++) {
+            if (in[slot] == null) {
+                in[slot] = new double[rows];
+                Arrays.fill(in[slot], solver.getDefault(slot));
+            }
+        }
+        Quantity quantity = Quantities.of(formula, solver.getTarget());
+        int unit = unit(member(batch, "unit", String.class, false), quantity, solver.getTarget(), metrics);
+
+        try (Writer out = stream(exchange)) {
+            out.write("{\"formula\":");
+            Json.writeString(out, formula);
+            out.write(",\"target\":");
+            Json.writeString(out, solver.getTarget());
+            out.write(",\"unit\":");
+            Json.writeString(out, Unit.getSymbol(unit));
+            out.write(",\"values\":[");
+            double[] values = new double[rows];
+            for (int from = 0; from < rows; from += BATCH_BLOCK) {
+                int to = Math.min(rows, from + BATCH_BLOCK);
+                long start = System.nanoTime();
+                solver.solveColumns(in, values, from, to);
+                metrics.record(System.nanoTime() - start, values, from, to);
+                for (int i = from; i < to; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    Json.writeNumber(out, quantity.fromBase(values[i], unit));
+                }
+                CalculationMetrics.recordConversions(quantity, to - from);
+                out.flush();
+            }
+            out.write("]}\n");
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private static Solver solver(Map<?, ?> request) {
+        String formula = member(request, "formula", String.class, true);
+        String target = member(request, "target", String.class, true);
+        return FormulaEngine.compile(formula, target);
+    }
+
+    private static <T> T member(Map<?, ?> object, String name, Class<T> type, boolean required) {
+        Object value = object.get(name);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Missing \"" + name + "\"");
+            }
+            return null;
+        }
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("\"" + name + "\" has the wrong type");
+        }
+        return type.cast(value);
+    }
+
+    // The named unit, checked against the quantity; its default unit if null
+    private static int unit(String symbol, Quantity quantity, String variable, FormulaMetrics metrics) {
+        if (symbol == null) {
+            return quantity.getUnit(0);
+        }
+        int unit = Unit.byName(symbol);
+        if (unit < 0) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new IllegalArgumentException("Unknown unit " + symbol + " for " + variable);
+        }
+        if (!Unit.isCompatible(unit, quantity.getBaseUnit())) {
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new IllegalArgumentException(variable + " cannot be given in " + symbol);
+        }
+        return unit;
+    }
+
+    private static void send(HttpExchange exchange, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // 200 with a chunked JSON body
+    private static Writer stream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 14);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder("{\"error\":");
+        Json.writeString(body, String.valueOf(message));
+        body.append("}\n");
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException e) {
+            // Headers already sent (failure mid-stream) or client gone
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package Server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for the calculation service, with no dependency. Objects
+// parse to Map<String, Object>, strings to String, numbers to Double, true/
+// false to Boolean, null to null. An array of nothing but numbers parses to a
+// double[] (no boxing, for large input columns); any other array to a List.
+// Writing is the other way round: NaN and infinities become null. Arrays and
+// objects nest at most MAX_DEPTH deep, so hostile input gets an
+// IllegalArgumentException rather than a StackOverflowError.
+final class Json {
+
+    static final int MAX_DEPTH = 256;
+
+    private final String text;
+    private int at;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text) {
+        Json json = new Json(text);
+        json.skipSpace();
+        Object value = json.value();
+        json.skipSpace();
+        if (json.at < text.length()) {
+            throw json.error("Unexpected text after the JSON value");
+        }
+        return value;
+    }
+
+    // ========== READING ==========
+
+    private Object value() {
+        if (at >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        char c = text.charAt(at);
+        switch (c) {
+            case '{':
+                return nested(true);
+            case '[':
+                return nested(false);
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return number();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Object nested(boolean object) {
+        if (++depth > MAX_DEPTH) {
+            throw error("JSON nested deeper than " + MAX_DEPTH);
+        }
+        Object value = object ? object() : array();
+        depth--;
+        return value;
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        at++;
+        skipSpace();
+        if (peek() == '}') {
+            at++;
+            return object;
+        }
+        while (true) {
+            skipSpace();
+            if (peek() != '"') {
+                throw error("Expected a member name");
+            }
+            String name = string();
+            skipSpace();
+            expect(':');
+            skipSpace();
+            object.put(name, value());
+            skipSpace();
+            if (peek() == ',') {
+                at++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private Object array() {
+        at++;
+        skipSpace();
+        double[] numbers = new double[16];
+        int count = 0;
+        List<Object> values = null;
+        if (peek() == ']') {
+            at++;
+            return new double[0];
+        }
+        while (true) {
+            skipSpace();
+            Object value = value();
+            if (values == null && value instanceof Double) {
+                if (count == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, count * 2);
+                }
+                numbers[count++] = (Double) value;
+            } else {
+                if (values == null) {
+                    values = new ArrayList<>(count + 1);
+                    for (int i = 0; i < count; i++) {
+                        values.add(numbers[i]);
+                    }
+                }
+                values.add(value);
+            }
+            skipSpace();
+            if (peek() == ',') {
+                at++;
+            } else {
+                expect(']');
+                return values != null ? values : Arrays.copyOf(numbers, count);
+            }
+        }
+    }
+
+    private String string() {
+        at++;
+        StringBuilder out = null;
+        int start = at;
+        while (true) {
+            if (at >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(at);
+            if (c == '"') {
+                String s = out == null ? text.substring(start, at) : out.append(text, start, at).toString();
+                at++;
+                return s;
+            }
+            if (c == '\\') {
+                if (out == null) {
+                    out = new StringBuilder();
+                }
+                out.append(text, start, at);
+                if (++at >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char e = text.charAt(at++);
+                switch (e) {
+                    case '"': case '\\': case '/': out.append(e); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    case 'u':
+                        if (at + 4 > text.length()) {
+                            throw error("Bad \\u escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(at, at + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Bad \\u escape");
+                        }
+                        at += 4;
+                        break;
+                    default:
+                        throw error("Bad escape \\" + e);
+                }
+                start = at;
+            } else {
+                at++;
+            }
+        }
+    }
+
+    private Double number() {
+        int start = at;
+        while (at < text.length()) {
+            char c = text.charAt(at);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                at++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.parseDouble(text.substring(start, at));
+        } catch (NumberFormatException e) {
+            throw error("Bad number " + text.substring(start, at));
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, at)) {
+            throw error("Unexpected character '" + text.charAt(at) + "'");
+        }
+        at += word.length();
+        return value;
+    }
+
+    private void skipSpace() {
+        while (at < text.length() && text.charAt(at) <= ' ') {
+            at++;
+        }
+    }
+
+    private char peek() {
+        return at < text.length() ? text.charAt(at) : '\0';
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        at++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + at);
+    }
+
+    // ========== WRITING ==========
+
+    static void writeString(Appendable out, String s) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\' || c < ' ') {
+                out.append(s, start, i);
+                switch (c) {
+                    case '"': out.append("\\\""); break;
+                    case '\\': out.append("\\\\"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\t': out.append("\\t"); break;
+                    default: out.append(String.format("\\u%04x", (int) c));
+                }
+                start = i + 1;
+            }
+        }
+        out.append(s, start, s.length()).append('"');
+    }
+
+    static void writeNumber(Appendable out, double value) throws IOException {
+        out.append(Double.isFinite(value) ? Double.toString(value) : "null");
+    }
+}
@@ -0,0 +1,67 @@
+package Ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+// An image that loads on a background thread. Until it arrives (or if it never
+// does) getScaled() returns null and the caller paints its fallback; when it
+// arrives, onLoaded runs on the EDT. The decoded image is scaled once per size
+// and the scaled copy is reused by every paint at that size.
+public class AsyncImage {
+
+    private final ImageSource source;
+    private final Runnable onLoaded;
+    private BufferedImage image;
+    private BufferedImage scaled;
+
+    public AsyncImage(ImageSource source, Runnable onLoaded) {
+        this.source = source;
+        this.onLoaded = onLoaded;
+    }
+
+    public void load() {
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() throws Exception {
+                return source.load();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    image = get();
+                } catch (Exception e) {
+                    System.out.println("Background image load failed. Using fallback color.");
+                    image = null;
+                }
+                scaled = null;
+                if (image != null) {
+                    onLoaded.run();
+                }
+            }
+        }.execute();
+    }
+
+    public boolean isLoaded() {
+        return image != null;
+    }
+
+    // EDT only
+    public BufferedImage getScaled(int width, int height) {
+        if (image == null || width <= 0 || height <= 0) {
+            return null;
+        }
+        if (scaled == null || scaled.getWidth() != width || scaled.getHeight() != height) {
+            long start = EdtMonitor.start();
+            scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = scaled.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2.drawImage(image, 0, 0, width, height, null);
+            g2.dispose();
+            EdtMonitor.end("image scaling", start);
+        }
+        return scaled;
+    }
+}
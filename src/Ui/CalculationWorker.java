@@ -0,0 +1,98 @@
+package Ui;
+
+import Engine.Solver;
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
+
+// Runs a solver off the EDT over column-major inputs (one row for a single
+// calculation, many for a sweep or batch). Rows are solved in chunks so the
+// job reports progress and notices cancel() between chunks; a cancelled job
+// never reports a result. The inputs are the caller's snapshot: nothing here
+// reads Swing state, and the listener is only ever called on the EDT. Each
+// chunk's solve time is recorded in the formula's metrics.
+class CalculationWorker extends SwingWorker<double[], Void> {
+
+    private static final int MAX_CHUNK = 4096;
+
+    interface Listener {
+        void progress(int percent);
+
+        void finished(double[] results);
+
+        void failed(Throwable error);
+
+        default void cancelled() {
+        }
+    }
+
+    private final Solver solver;
+    private final double[][] columns;
+    private final Listener listener;
+
+    CalculationWorker(Solver solver, double[][] columns, Listener listener) {
+        this.solver = solver;
+        this.columns = columns;
+        this.listener = listener;
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                listener.progress((Integer) e.getNewValue());
+            }
+        });
+    }
+
+    // A single calculation: one value per input slot
+    CalculationWorker(Solver solver, double[] inputs, Listener listener) {
+        this(solver, singleRow(inputs), listener);
+    }
+
+    private static double[][] singleRow(double[] inputs) {
+        double[][] columns = new double[inputs.length][];
+        for (int slot = 0; slot < inputs.length; slot++) {
+            columns[slot] = new double[]{inputs[slot]};
+        }
+        return columns;
+    }
+
+    @Override
+    protected double[] doInBackground() {
+        FormulaMetrics metrics = CalculationMetrics.of(solver.getFormula());
+        try {
+            int rows = solver.rowCount(columns);
+            double[] out = new double[rows];
+            int chunk = Math.max(1, Math.min(MAX_CHUNK, rows / 100));
+            for (int from = 0; from < rows && !isCancelled(); from += chunk) {
+                int to = Math.min(rows, from + chunk);
+                long start = System.nanoTime();
+                solver.solveColumns(columns, out, from, to);
+                metrics.record(System.nanoTime() - start, out, from, to);
+                setProgress((int) (100L * to / rows));
+            }
+            return out;
+        } catch (RuntimeException e) {
+            metrics.recordError(ErrorKind.FAILURE);
+            throw e;
+        }
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            listener.cancelled();
+            return;
+        }
+        try {
+            listener.finished(get());
+        } catch (CancellationException e) {
+            listener.cancelled();
+        } catch (ExecutionException e) {
+            listener.failed(e.getCause());
+        } catch (InterruptedException e) {
+            // done() runs on the EDT once the result is in; get() cannot block here
+            Thread.currentThread().interrupt();
+        }
+    }
+}
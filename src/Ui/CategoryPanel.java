@@ -1,16 +1,11 @@
 package Ui;
 
+import Engine.FormulaRegistry;
 import java.awt.*;
 import javax.swing.*;
 
 public class CategoryPanel extends JPanel {
 
-    private static final String[] CATEGORIES = {
-        "Mechanics", "Gravitation", "Fluid Mechanics", "Thermodynamics",
-        "Waves and Oscillations", "Optics", "Electricity and Magnetism",
-        "Vector", "Modern Physics"
-    };
-
     public CategoryPanel(MainWindow mainWindow) {
         setLayout(new BorderLayout());
         setBackground(new Color(245, 245, 245));
@@ -22,7 +17,8 @@ public class CategoryPanel extends JPanel {
 
         JPanel gridPanel = new JPanel(new GridLayout(0, 3, 15, 15));
         gridPanel.setBackground(Color.WHITE);
-        for (String category : CATEGORIES) {
+        // Built-in categories, then any new ones from the user formula file
+        for (String category : FormulaRegistry.get().getCategories()) {
             JButton btn = new JButton(category);
             btn.setFont(new Font("Segoe UI", Font.PLAIN, 18));
             btn.setFocusPainted(false);
@@ -33,6 +29,19 @@ public class CategoryPanel extends JPanel {
 
         JScrollPane scrollPane = new JScrollPane(gridPanel);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        add(scrollPane, BorderLayout.CENTER);
+        // Search box on top; its matches take the grid's place while it has text
+        add(new FormulaSearchPanel(mainWindow, scrollPane), BorderLayout.CENTER);
+
+        // Chained calculations
+        JButton worksheetBtn = new JButton("Worksheet");
+        worksheetBtn.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        worksheetBtn.setBackground(new Color(230, 240, 255));
+        worksheetBtn.setFocusPainted(false);
+        worksheetBtn.setToolTipText("Chain formulas: feed one result into another's input");
+        worksheetBtn.addActionListener(e -> mainWindow.showWorksheet());
+        JPanel bottomPanel = new JPanel(new FlowLayout());
+        bottomPanel.setBackground(new Color(245, 245, 245));
+        bottomPanel.add(worksheetBtn);
+        add(bottomPanel, BorderLayout.SOUTH);
     }
 }
@@ -0,0 +1,464 @@
+package Ui;
+
+import Metrics.CalculationMetrics;
+import Metrics.Histogram;
+import java.awt.*;
+import java.awt.event.InvocationEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.PaintEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.swing.*;
+
+// Diagnostic mode for sluggishness reports, off unless started with
+// -Dphysiquist.diagnostics=true. It watches the Event Dispatch Thread:
+//
+// - Every event is timed by an EventQueue pushed in front of the system one.
+//   While an event runs longer than -Dphysiquist.diagnostics.stallMs (default
+//   50), a watchdog thread samples the EDT's stack; the event is then kept as a
+//   stall and blamed on image scaling, calculation, layout or paint, by which
+//   of them the samples were inside.
+// - Sections are timed: every layout and paint pass (through a RepaintManager),
+//   each component that pass repaints (by class, so the report ranks them),
+//   each custom paintComponent, image scaling. Components time their own
+//   sections with start()/end(); with diagnostics off that is one branch.
+//
+// The report (worst stalls with their hottest stack, then the sections by
+// total time) is printed to stderr at exit, written to
+// -Dphysiquist.diagnostics.report=<file> if given, and readable over JMX as
+// physiquist:type=EventDispatch.
+public final class EdtMonitor implements EdtMonitorMXBean {
+
+    private static final boolean ENABLED = Boolean.getBoolean("physiquist.diagnostics");
+    private static final long STALL_NANOS = Long.getLong("physiquist.diagnostics.stallMs", 50) * 1_000_000;
+    private static final int WORST_STALLS = 20;
+    private static final int SAMPLES_PER_STALL = 64;
+    private static final int STACK_DEPTH = 12;
+
+    private static EdtMonitor instance;
+
+    // Section name -> time per occurrence, in nanoseconds
+    private final Map<String, Histogram> sections = new ConcurrentHashMap<>();
+    private final Map<String, Integer> stallsByCause = new TreeMap<>();
+    private final PriorityQueue<Stall> worst = new PriorityQueue<>(Comparator.comparingLong(s -> s.nanos));
+    private final List<StackTraceElement[]> samples = new ArrayList<>();
+    private final LocalDateTime since = LocalDateTime.now();
+    private volatile Thread edt;
+    // Event in progress: its sequence number and start; 0 start when idle
+    private volatile long eventSequence;
+    private volatile long eventStart;
+    private long sampledSequence;
+    // EDT only: dispatches in progress, and whether the innermost one has run
+    // a nested event loop (a modal dialog), so its time is mostly waiting
+    private int depth;
+    private boolean nestedLoop;
+
+    private EdtMonitor() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Starts the monitor if diagnostics are on; safe to call more than once
+    public static synchronized void install() {
+        if (!ENABLED || instance != null) {
+            return;
+        }
+        EdtMonitor monitor = new EdtMonitor();
+        instance = monitor;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor.new TimingQueue());
+        SwingUtilities.invokeLater(() -> RepaintManager.setCurrentManager(monitor.new TimingRepaintManager()));
+
+        Thread watchdog = new Thread(monitor::watch, "physiquist-edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::printReport, "physiquist-edt-report"));
+        CalculationMetrics.register("EventDispatch", null, monitor);
+        System.err.println("EDT diagnostics on: stalls over " + STALL_NANOS / 1_000_000 + " ms are sampled");
+    }
+
+    // Start of a timed section; 0 when diagnostics are off
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void end(String section, long start) {
+        if (ENABLED && start != 0 && instance != null) {
+            instance.section(section).record(System.nanoTime() - start);
+        }
+    }
+
+    private Histogram section(String name) {
+        Histogram histogram = sections.get(name);
+        return histogram != null ? histogram : sections.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // ========== EVENTS ==========
+
+    private final class TimingQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Thread current = Thread.currentThread();
+            if (edt != current) {
+                edt = current;
+            }
+            boolean enclosing = nestedLoop || depth > 0;
+            nestedLoop = false;
+            depth++;
+            long sequence = eventSequence + 1;
+            eventSequence = sequence;
+            long start = System.nanoTime();
+            eventStart = start;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                eventStart = 0;
+                long nanos = System.nanoTime() - start;
+                boolean waited = nestedLoop;
+                nestedLoop = enclosing;
+                depth--;
+                if (!waited) {
+                    section("event " + eventKind(event)).record(nanos);
+                    if (nanos >= STALL_NANOS) {
+                        stall(sequence, nanos, event);
+                    }
+                }
+            }
+        }
+    }
+
+    private void watch() {
+        long interval = Math.max(5, STALL_NANOS / 5_000_000);
+        while (true) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Thread thread = edt;
+            long sequence = eventSequence;
+            long start = eventStart;
+            if (thread == null || start == 0 || System.nanoTime() - start < STALL_NANOS) {
+                continue;
+            }
+            StackTraceElement[] stack = thread.getStackTrace();
+            if (eventSequence != sequence || eventStart != start) {
+                continue; // that event ended while we sampled
+            }
+            synchronized (samples) {
+                if (sampledSequence != sequence) {
+                    samples.clear();
+                    sampledSequence = sequence;
+                }
+                if (samples.size() < SAMPLES_PER_STALL) {
+                    samples.add(stack);
+                }
+            }
+        }
+    }
+
+    private void stall(long sequence, long nanos, AWTEvent event) {
+        Stall stall = new Stall();
+        stall.nanos = nanos;
+        stall.time = LocalDateTime.now();
+        stall.event = describe(event);
+        synchronized (samples) {
+            if (sampledSequence == sequence) {
+                stall.sampleCount = samples.size();
+                summarize(stall, samples);
+                samples.clear();
+            }
+        }
+        synchronized (this) {
+            stallsByCause.merge(stall.cause, 1, Integer::sum);
+            worst.add(stall);
+            if (worst.size() > WORST_STALLS) {
+                worst.poll();
+            }
+        }
+    }
+
+    // Blame the cause most samples were in. Samples are grouped by the
+    // innermost frame of our own code they were under (the JDK frames above
+    // it vary from sample to sample); the biggest group's stack is kept.
+    private static void summarize(Stall stall, List<StackTraceElement[]> samples) {
+        Map<String, Integer> causes = new HashMap<>();
+        Map<StackTraceElement, Integer> hotSpots = new HashMap<>();
+        Map<StackTraceElement, StackTraceElement[]> stacks = new HashMap<>();
+        for (StackTraceElement[] sample : samples) {
+            causes.merge(cause(sample), 1, Integer::sum);
+            int own = ownFrame(sample);
+            StackTraceElement spot = own >= 0 ? sample[own] : sample.length > 0 ? sample[0] : null;
+            if (spot != null) {
+                hotSpots.merge(spot, 1, Integer::sum);
+                stacks.putIfAbsent(spot, sample);
+            }
+        }
+        causes.entrySet().stream().max(Map.Entry.comparingByValue()).ifPresent(e -> stall.cause = e.getKey());
+        hotSpots.entrySet().stream().max(Map.Entry.comparingByValue()).ifPresent(e -> {
+            stall.stack = abridge(stacks.get(e.getKey()));
+            stall.stackCount = e.getValue();
+        });
+    }
+
+    private static int ownFrame(StackTraceElement[] stack) {
+        for (int i = 0; i < stack.length; i++) {
+            String type = stack[i].getClassName();
+            if (type.startsWith("Ui.") || type.startsWith("Engine.") || type.startsWith("Units.")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // The innermost few frames, then our own code and what called it
+    private static List<String> abridge(StackTraceElement[] stack) {
+        List<String> lines = new ArrayList<>();
+        int own = ownFrame(stack);
+        int head = own < 0 ? Math.min(STACK_DEPTH, stack.length) : Math.min(own, STACK_DEPTH / 2);
+        for (int i = 0; i < head; i++) {
+            lines.add("at " + stack[i]);
+        }
+        if (own >= 0) {
+            if (own > head) {
+                lines.add("... " + (own - head) + " more");
+            }
+            for (int i = own; i < Math.min(stack.length, own + STACK_DEPTH / 2); i++) {
+                lines.add("at " + stack[i]);
+            }
+        }
+        return lines;
+    }
+
+    // The innermost frame that belongs to one of the suspects decides
+    private static String cause(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String type = frame.getClassName();
+            String method = frame.getMethodName();
+            if (type.equals("Ui.AsyncImage") && method.equals("getScaled") || method.startsWith("scaleImage")
+                || method.equals("getScaledInstance")) {
+                return "image scaling";
+            }
+            if (type.startsWith("Engine.") || type.startsWith("Units.")) {
+                return "calculation";
+            }
+            if (method.equals("doLayout") || method.equals("layoutContainer") || method.equals("validateTree")
+                || method.equals("preferredLayoutSize") || method.equals("validateInvalidComponents")) {
+                return "layout";
+            }
+            if (method.startsWith("paint") || type.startsWith("sun.java2d.")) {
+                return "paint";
+            }
+        }
+        return "other";
+    }
+
+    private static String eventKind(AWTEvent event) {
+        if (event instanceof InvocationEvent) {
+            return "invocation";
+        }
+        if (event instanceof MouseEvent) {
+            return "mouse";
+        }
+        if (event instanceof KeyEvent) {
+            return "key";
+        }
+        if (event instanceof PaintEvent) {
+            return "paint";
+        }
+        return "other";
+    }
+
+    private static String describe(AWTEvent event) {
+        String text = event.getClass().getSimpleName();
+        Object source = event.getSource();
+        if (source instanceof AbstractButton) {
+            return text + " on " + source.getClass().getSimpleName() + " \"" + ((AbstractButton) source).getText() + "\"";
+        }
+        if (source instanceof Component) {
+            return text + " on " + source.getClass().getSimpleName();
+        }
+        return text;
+    }
+
+    private static final class Stall {
+        long nanos;
+        LocalDateTime time;
+        String event;
+        String cause = "other";
+        int sampleCount;
+        List<String> stack = List.of();
+        int stackCount;
+    }
+
+    // ========== LAYOUT AND PAINT ==========
+
+    // Every dirty component is painted on its own and timed as "repaint
+    // <class>", children included, so the report ranks what is costly to
+    // redraw. A dirty component inside another one is folded into it, as
+    // RepaintManager does; whatever is left (windows, repaints asked for
+    // while painting) goes to the usual pass
+    private final class TimingRepaintManager extends RepaintManager {
+        private final Set<JComponent> dirty = new LinkedHashSet<>();
+
+        @Override
+        public void addDirtyRegion(JComponent component, int x, int y, int w, int h) {
+            super.addDirtyRegion(component, x, y, w, h);
+            synchronized (dirty) {
+                dirty.add(component);
+            }
+        }
+
+        @Override
+        public void validateInvalidComponents() {
+            long start = System.nanoTime();
+            super.validateInvalidComponents();
+            section("layout (all)").record(System.nanoTime() - start);
+        }
+
+        @Override
+        public void paintDirtyRegions() {
+            long start = System.nanoTime();
+            List<JComponent> components;
+            synchronized (dirty) {
+                components = new ArrayList<>(dirty);
+                dirty.clear();
+            }
+            Map<JComponent, Rectangle> regions = new LinkedHashMap<>();
+            for (JComponent component : components) {
+                Rectangle region = getDirtyRegion(component);
+                if (!region.isEmpty() && component.isShowing()) {
+                    regions.put(component, region);
+                }
+            }
+            for (JComponent component : components) {
+                Rectangle region = regions.get(component);
+                JComponent root = region == null ? null : outermostDirtyAncestor(component, regions);
+                if (root != null) {
+                    regions.get(root).add(SwingUtilities.convertRectangle(component, region, root));
+                    regions.remove(component);
+                    markCompletelyClean(component);
+                }
+            }
+            for (Map.Entry<JComponent, Rectangle> entry : regions.entrySet()) {
+                JComponent component = entry.getKey();
+                markCompletelyClean(component);
+                long paintStart = System.nanoTime();
+                component.paintImmediately(entry.getValue());
+                section("repaint " + name(component)).record(System.nanoTime() - paintStart);
+            }
+            super.paintDirtyRegions();
+            section("paint (all)").record(System.nanoTime() - start);
+        }
+    }
+
+    private static JComponent outermostDirtyAncestor(Component component, Map<JComponent, Rectangle> regions) {
+        JComponent found = null;
+        for (Container parent = component.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof JComponent && regions.containsKey(parent)) {
+                found = (JComponent) parent;
+            }
+        }
+        return found;
+    }
+
+    // Anonymous classes by their binary name, which at least says where they are
+    private static String name(Component component) {
+        Class<?> type = component.getClass();
+        return type.isAnonymousClass() ? type.getName() : type.getSimpleName();
+    }
+
+    // ========== REPORT ==========
+
+    @Override
+    public synchronized String getReport() {
+        StringBuilder out = new StringBuilder();
+        out.append("EDT diagnostics since ").append(since.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .append(", stall threshold ").append(STALL_NANOS / 1_000_000).append(" ms\n");
+        out.append("Stalls: ").append(getStallCount());
+        String separator = " (";
+        for (Map.Entry<String, Integer> cause : stallsByCause.entrySet()) {
+            out.append(separator).append(cause.getKey()).append(' ').append(cause.getValue());
+            separator = ", ";
+        }
+        out.append(stallsByCause.isEmpty() ? "\n\n" : ")\n\n");
+
+        List<Stall> stalls = new ArrayList<>(worst);
+        stalls.sort(Comparator.comparingLong((Stall s) -> s.nanos).reversed());
+        if (!stalls.isEmpty()) {
+            out.append("Worst stalls\n");
+            for (Stall stall : stalls) {
+                out.append(String.format(Locale.ROOT, "%8.1f ms  %-13s %s at %s%n", stall.nanos / 1e6, stall.cause,
+                    stall.event, stall.time.format(DateTimeFormatter.ISO_LOCAL_TIME)));
+                if (stall.sampleCount > 0) {
+                    out.append(String.format("              %d of %d samples here:%n",
+                        stall.stackCount, stall.sampleCount));
+                }
+                for (String line : stall.stack) {
+                    out.append("                ").append(line).append('\n');
+                }
+            }
+            out.append('\n');
+        }
+
+        out.append("Time on the EDT by section (sections nest: a repaint is part of paint (all), image scaling of a repaint)\n");
+        out.append(String.format("  %-32s %8s %10s %9s %9s %9s%n", "section", "count", "total ms", "mean ms", "p99 ms", "max ms"));
+        List<Map.Entry<String, Histogram>> rows = new ArrayList<>(sections.entrySet());
+        rows.sort(Comparator.comparingDouble((Map.Entry<String, Histogram> e) ->
+            e.getValue().getMean() * e.getValue().getCount()).reversed());
+        for (Map.Entry<String, Histogram> row : rows) {
+            Histogram h = row.getValue();
+            long count = h.getCount();
+            out.append(String.format(Locale.ROOT, "  %-32s %8d %10.1f %9.3f %9.3f %9.3f%n", row.getKey(), count,
+                h.getMean() * count / 1e6, h.getMean() / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMax() / 1e6));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public synchronized int getStallCount() {
+        int count = 0;
+        for (int n : stallsByCause.values()) {
+            count += n;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized double getWorstStallMillis() {
+        long nanos = 0;
+        for (Stall stall : worst) {
+            nanos = Math.max(nanos, stall.nanos);
+        }
+        return nanos / 1e6;
+    }
+
+    @Override
+    public synchronized void reset() {
+        sections.clear();
+        stallsByCause.clear();
+        worst.clear();
+    }
+
+    private void printReport() {
+        String report = getReport();
+        System.err.print(report);
+        String file = System.getProperty("physiquist.diagnostics.report");
+        if (file != null) {
+            try {
+                Files.write(Paths.get(file), report.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Could not write the diagnostics report to " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package Ui;
+
+// EdtMonitor over JMX (physiquist:type=EventDispatch)
+public interface EdtMonitorMXBean {
+
+    String getReport();
+
+    int getStallCount();
+
+    double getWorstStallMillis();
+
+    void reset();
+}
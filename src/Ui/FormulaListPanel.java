@@ -1,77 +1,23 @@
 package Ui;
 
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
 import java.awt.*;
-import java.util.*;
 import javax.swing.*;
 
 public class FormulaListPanel extends JPanel {
 
-    private final Map<String, String[]> formulas = new LinkedHashMap<>();
+    private static final int ROW_WIDTH = 600;
+    private static final int ROW_HEIGHT = 37;
+    private static final int ROW_GAP = 8;
+    private static final Color ROW_COLOR = new Color(230, 240, 255);
+    private static final Color ROW_HOVER_COLOR = new Color(200, 220, 255);
+    private static final Color ROW_BORDER_COLOR = new Color(180, 200, 255);
 
     public FormulaListPanel(MainWindow mainWindow, String category) {
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
 
-        // ========== ALL FORMULAS ==========
-
-        formulas.put("Mechanics", new String[]{
-            "Velocity", "Acceleration", "Time",
-            "Force", "Mass", "Work", "Power", "Momentum", "Impulse", "Kinetic Energy",
-            "Potential Energy", "Mechanical Energy", "Centripetal Force",
-            "Centripetal Acceleration", "Torque", "Angular Momentum",
-            "Angular Velocity", "Angular Acceleration", "Rotational Kinetic Energy",
-            "First Equation of Motion", "Second Equation of Motion",
-            "Third Equation of Motion", "Maximum Height", "Time of Flight",
-            "Tension", "Friction", "Viscosity", "Collision"
-        });
-
-        formulas.put("Gravitation", new String[]{
-            "Gravitational Force", "Acceleration due to Gravity",
-            "Gravitational Potential Energy", "Orbital Velocity",
-            "Kepler's Laws", "Distance-Time Relation",
-            "Velocity-Time Relation", "Moment of Inertia"
-        });
-
-        formulas.put("Fluid Mechanics", new String[]{
-            "Pressure", "Density", "Bernoulli's Principle", "Elasticity", "Pressure in gases",
-            "Fluid Pressure", "Atmospheric Pressure", "Pascal's Law",
-            "Pressure due to Depth", "Boyle's Law", "Charles's Law",
-            "Gay-Lussac's Law", "Avogadro's Law", "Combined Gas Law", "Ideal Gas Law",
-            "Dalton's Law"
-        });
-
-        formulas.put("Thermodynamics", new String[]{
-            "Temperature Conversion", "First Law of Thermodynamics",
-            "Efficiency of Heat Engine", "Carnot Efficiency", "Entropy"
-        });
-
-        formulas.put("Waves and Oscillations", new String[]{
-            "Wave Speed", "Period", "Hooke's Law",
-            "Energy in Simple Harmonic Oscillator", "Resonance Frequency",
-            "Doppler Effect", "Sound Intensity", "Decibel Formula"
-        });
-
-        formulas.put("Optics", new String[]{
-            "Lens Formula", "Mirror Formula", "Magnification",
-            "Snell's Law", "Critical Angle", "Total Internal Reflection"
-        });
-
-        formulas.put("Electricity and Magnetism", new String[]{
-            "Electric Potential", "Electric Field", "Coulomb's Law", "Ohm's Law",
-            "Electric Power", "Series Resistance", "Parallel Resistance",
-            "Magnetic Field", "Charge", "Inductance", "Conductivity", "Faraday's Law"
-        });
-
-        formulas.put("Modern Physics", new String[]{
-            "Mass-Energy Equivalence", "Photon Energy", "de Broglie Wavelength",
-            "Photoelectric Effect", "Half-Life Formula", "Radioactive Decay Law", 
-            "Electromagnetic Wave"
-        });
-
-        formulas.put("Vector", new String[]{
-            "Displacement Vector", "Velocity Vector", "Acceleration Vector"
-        });
-
         // ========== UI ==========
         JLabel title = new JLabel(category + " Formulas", SwingConstants.CENTER);
         title.setFont(new Font("Segoe UI", Font.BOLD, 22));
@@ -79,54 +25,69 @@ public class FormulaListPanel extends JPanel {
         title.setForeground(new Color(0, 0, 128)); // Navy blue color
         add(title, BorderLayout.NORTH);
 
-        JPanel listPanel = new JPanel();
-        listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
-        listPanel.setBackground(Color.WHITE);
-
-        String[] selected = formulas.get(category);
-        if (selected != null) {
-            for (String f : selected) {
-                JButton btn = new JButton(f);
-                btn.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-                btn.setAlignmentX(Component.CENTER_ALIGNMENT);
-                btn.setBackground(new Color(230, 240, 255));
-                btn.setForeground(Color.BLACK);
-                btn.setFocusPainted(false);
-                btn.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(new Color(180, 200, 255), 1),
-                    BorderFactory.createEmptyBorder(8, 15, 8, 15)
-                ));
-                
-                // Add hover effect
-                btn.addMouseListener(new java.awt.event.MouseAdapter() {
-                    public void mouseEntered(java.awt.event.MouseEvent evt) {
-                        btn.setBackground(new Color(200, 220, 255));
+        // One row per formula, drawn by a single shared renderer: only the
+        // rows in view are ever laid out or painted, and a category's list is
+        // read from the registry as rows scroll in, so a category of
+        // thousands opens as fast as one of five
+        java.util.List<FormulaInfo> selected = FormulaRegistry.get().getFormulas(category);
+        if (!selected.isEmpty()) {
+            JList<FormulaInfo> list = new JList<FormulaInfo>(new FormulaListModel(selected)) {
+                // Rows shrink with the window instead of scrolling sideways
+                @Override
+                public boolean getScrollableTracksViewportWidth() {
+                    return true;
+                }
+            };
+            list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            // Fixed cell sizes, so JList never measures every row
+            list.setFixedCellHeight(ROW_HEIGHT + ROW_GAP);
+            list.setFixedCellWidth(ROW_WIDTH);
+            list.setBackground(Color.WHITE);
+            FormulaRowRenderer renderer = new FormulaRowRenderer();
+            list.setCellRenderer(renderer);
+
+            // Add hover effect
+            java.awt.event.MouseAdapter mouse = new java.awt.event.MouseAdapter() {
+                public void mouseMoved(java.awt.event.MouseEvent evt) {
+                    setHover(list, renderer, rowAt(list, evt.getPoint()));
+                }
+                public void mouseExited(java.awt.event.MouseEvent evt) {
+                    setHover(list, renderer, -1);
+                }
+                public void mouseClicked(java.awt.event.MouseEvent evt) {
+                    int row = rowAt(list, evt.getPoint());
+                    if (row >= 0) {
+                        mainWindow.showInputOutputPanel(list.getModel().getElementAt(row).getName());
                     }
-                    public void mouseExited(java.awt.event.MouseEvent evt) {
-                        btn.setBackground(new Color(230, 240, 255));
+                }
+            };
+            list.addMouseListener(mouse);
+            list.addMouseMotionListener(mouse);
+            list.getInputMap().put(KeyStroke.getKeyStroke("ENTER"), "open");
+            list.getActionMap().put("open", new AbstractAction() {
+                public void actionPerformed(java.awt.event.ActionEvent e) {
+                    FormulaInfo info = list.getSelectedValue();
+                    if (info != null) {
+                        mainWindow.showInputOutputPanel(info.getName());
                     }
-                });
-                
-                btn.addActionListener(e -> mainWindow.showInputOutputPanel(f));
-                btn.setMaximumSize(new Dimension(600, 45));
-                listPanel.add(btn);
-                listPanel.add(Box.createRigidArea(new Dimension(0, 8)));
-            }
+                }
+            });
+
+            JScrollPane scrollPane = new JScrollPane(list);
+            scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+            scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+            scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 30));
+            scrollPane.getViewport().setBackground(Color.WHITE);
+            scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smooth scrolling
+            add(scrollPane, BorderLayout.CENTER);
         } else {
             // If category not found, show message
             JLabel noFormulasLabel = new JLabel("No formulas found for " + category, SwingConstants.CENTER);
             noFormulasLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
             noFormulasLabel.setForeground(Color.RED);
-            listPanel.add(noFormulasLabel);
+            add(noFormulasLabel, BorderLayout.CENTER);
         }
 
-        JScrollPane scrollPane = new JScrollPane(listPanel);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 30));
-        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smooth scrolling
-        add(scrollPane, BorderLayout.CENTER);
-
         // Back button
         JButton backBtn = new JButton("← Back to Categories");
         backBtn.setFont(new Font("Segoe UI", Font.PLAIN, 16));
@@ -151,6 +112,109 @@ public class FormulaListPanel extends JPanel {
         add(bottomPanel, BorderLayout.SOUTH);
     }
 
+    // The row under point, or -1 if it is in the gap below the last row
+    private static int rowAt(JList<?> list, Point point) {
+        int row = list.locationToIndex(point);
+        return row >= 0 && list.getCellBounds(row, row).contains(point) ? row : -1;
+    }
+
+    private static void setHover(JList<?> list, FormulaRowRenderer renderer, int row) {
+        if (row == renderer.hoverRow) {
+            return;
+        }
+        repaintRow(list, renderer.hoverRow);
+        renderer.hoverRow = row;
+        repaintRow(list, row);
+    }
+
+    private static void repaintRow(JList<?> list, int row) {
+        Rectangle bounds = row >= 0 ? list.getCellBounds(row, row) : null;
+        if (bounds != null) {
+            list.repaint(bounds);
+        }
+    }
+
+    // The category's formulas as they are, read one row at a time
+    private static final class FormulaListModel extends AbstractListModel<FormulaInfo> {
+
+        private final java.util.List<FormulaInfo> formulas;
+
+        FormulaListModel(java.util.List<FormulaInfo> formulas) {
+            this.formulas = formulas;
+        }
+
+        @Override
+        public int getSize() {
+            return formulas.size();
+        }
+
+        @Override
+        public FormulaInfo getElementAt(int index) {
+            return formulas.get(index);
+        }
+    }
+
+    // Every row, drawn like the buttons this list used to be made of: a light
+    // blue box, at most ROW_WIDTH wide and centered, darker under the mouse or
+    // when selected from the keyboard
+    private static final class FormulaRowRenderer extends JLabel implements ListCellRenderer<FormulaInfo> {
+
+        int hoverRow = -1;
+        private Color fill = ROW_COLOR;
+
+        FormulaRowRenderer() {
+            setFont(new Font("Segoe UI", Font.PLAIN, 16));
+            setForeground(Color.BLACK);
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setBorder(BorderFactory.createEmptyBorder(0, 15, ROW_GAP, 15));
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends FormulaInfo> list, FormulaInfo value,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            setText(value.getName());
+            fill = index == hoverRow || (isSelected && list.hasFocus()) ? ROW_HOVER_COLOR : ROW_COLOR;
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = Math.min(ROW_WIDTH, getWidth());
+            int x = (getWidth() - width) / 2;
+            g.setColor(fill);
+            g.fillRect(x, 0, width, ROW_HEIGHT);
+            g.setColor(ROW_BORDER_COLOR);
+            g.drawRect(x, 0, width - 1, ROW_HEIGHT - 1);
+            super.paintComponent(g);
+        }
+
+        // A renderer is stamped, never shown, so the usual JLabel
+        // bookkeeping is skipped (as in DefaultListCellRenderer)
+        @Override
+        public void validate() {
+        }
+
+        @Override
+        public void invalidate() {
+        }
+
+        @Override
+        public void revalidate() {
+        }
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+        }
+
+        @Override
+        public void repaint(Rectangle r) {
+        }
+
+        @Override
+        protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+        }
+    }
+
     // Helper method to get all available categories
     public static String[] getAvailableCategories() {
         return new String[]{
@@ -0,0 +1,187 @@
+package Ui;
+
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+// A search box over every formula, above whatever the panel browses (the
+// category grid). Each keystroke searches the current registry's FormulaIndex
+// on a worker, and the matches replace the browsed view until the box is
+// cleared. A search that a newer keystroke overtook is dropped. Enter or a
+// click opens the selected match; Escape clears the box.
+class FormulaSearchPanel extends JPanel {
+
+    private static final int MAX_RESULTS = 50;
+    private static final String BROWSE = "browse";
+    private static final String RESULTS = "results";
+
+    private final MainWindow mainWindow;
+    private final JTextField field = new JTextField();
+    private final DefaultListModel<FormulaInfo> results = new DefaultListModel<>();
+    private final JList<FormulaInfo> resultList = new JList<>(results);
+    private final JLabel noResults = new JLabel("", SwingConstants.CENTER);
+    private final CardLayout cards = new CardLayout();
+    private final JPanel body = new JPanel(cards);
+    private SwingWorker<List<FormulaInfo>, Void> pending;
+
+    FormulaSearchPanel(MainWindow mainWindow, JComponent browse) {
+        this.mainWindow = mainWindow;
+        setLayout(new BorderLayout());
+        setOpaque(false);
+
+        // ========== UI ==========
+        field.setFont(new Font("Segoe UI", Font.PLAIN, 18));
+        field.setToolTipText("Search formulas by name, variable or category");
+        field.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createEmptyBorder(0, 20, 10, 20),
+            BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(180, 200, 255), 1),
+                BorderFactory.createEmptyBorder(6, 10, 6, 10))));
+        add(field, BorderLayout.NORTH);
+
+        resultList.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                FormulaInfo info = (FormulaInfo) value;
+                super.getListCellRendererComponent(list, info.getName() + "   (" + info.getCategory() + ")",
+                    index, isSelected, cellHasFocus);
+                setBorder(BorderFactory.createEmptyBorder(6, 12, 6, 12));
+                return this;
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                int index = resultList.locationToIndex(evt.getPoint());
+                if (index >= 0 && resultList.getCellBounds(index, index).contains(evt.getPoint())) {
+                    open(results.get(index));
+                }
+            }
+        });
+
+        noResults.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        noResults.setForeground(Color.GRAY);
+        noResults.setVisible(false);
+        JPanel resultPanel = new JPanel(new BorderLayout());
+        resultPanel.setBackground(Color.WHITE);
+        JScrollPane scrollPane = new JScrollPane(resultList);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 20, 20, 20));
+        scrollPane.getViewport().setBackground(Color.WHITE);
+        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(noResults, BorderLayout.NORTH);
+
+        body.add(browse, BROWSE);
+        body.add(resultPanel, RESULTS);
+        add(body, BorderLayout.CENTER);
+
+        // ========== EVENTS ==========
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search(field.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search(field.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        field.addActionListener(e -> {
+            FormulaInfo selected = resultList.getSelectedValue();
+            if (selected != null) {
+                open(selected);
+            }
+        });
+        bindKey(KeyEvent.VK_DOWN, "next", () -> moveSelection(1));
+        bindKey(KeyEvent.VK_UP, "previous", () -> moveSelection(-1));
+        bindKey(KeyEvent.VK_ESCAPE, "clear", () -> field.setText(""));
+    }
+
+    private void bindKey(int keyCode, String name, Runnable action) {
+        field.getInputMap().put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        field.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private void search(String query) {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (query.isBlank()) {
+            results.clear();
+            cards.show(body, BROWSE);
+            return;
+        }
+        // The index is built by the first search of a registry snapshot, so
+        // a formula defined meanwhile is found too
+        pending = new SwingWorker<List<FormulaInfo>, Void>() {
+            @Override
+            protected List<FormulaInfo> doInBackground() {
+                return FormulaRegistry.get().getIndex().search(query, MAX_RESULTS);
+            }
+
+            @Override
+            protected void done() {
+                if (pending != this || isCancelled()) {
+                    return;
+                }
+                pending = null;
+                try {
+                    show(query, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.out.println("Formula search failed: " + e.getCause());
+                }
+            }
+        };
+        pending.execute();
+    }
+
+    private void show(String query, List<FormulaInfo> matches) {
+        long start = EdtMonitor.start();
+        results.clear();
+        results.addAll(matches);
+        if (!matches.isEmpty()) {
+            resultList.setSelectedIndex(0);
+            resultList.ensureIndexIsVisible(0);
+        }
+        noResults.setText(matches.isEmpty() ? "No formulas match \"" + query.trim() + "\"" : "");
+        noResults.setVisible(matches.isEmpty());
+        cards.show(body, RESULTS);
+        EdtMonitor.end("show search results", start);
+    }
+
+    private void moveSelection(int delta) {
+        int size = results.getSize();
+        if (size == 0) {
+            return;
+        }
+        int index = Math.max(0, Math.min(size - 1, resultList.getSelectedIndex() + delta));
+        resultList.setSelectedIndex(index);
+        resultList.ensureIndexIsVisible(index);
+    }
+
+    private void open(FormulaInfo info) {
+        mainWindow.showFormula(info.getCategory(), info.getName());
+    }
+}
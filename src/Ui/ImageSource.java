@@ -0,0 +1,99 @@
+package Ui;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import javax.imageio.ImageIO;
+
+// Where an image comes from. load() may block (disk, network), so it is only
+// ever called off the EDT; it returns null when the image is simply not there.
+public interface ImageSource {
+
+    BufferedImage load() throws IOException;
+
+    static ImageSource resource(String path) {
+        return () -> {
+            URL url = ImageSource.class.getResource(path);
+            return url == null ? null : ImageIO.read(url);
+        };
+    }
+
+    static ImageSource file(Path file) {
+        return () -> Files.isRegularFile(file) ? ImageIO.read(file.toFile()) : null;
+    }
+
+    static ImageSource url(String url, int timeoutMillis) {
+        return () -> {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            try (InputStream in = connection.getInputStream()) {
+                return ImageIO.read(in);
+            }
+        };
+    }
+
+    // Serve from cacheFile; on a miss load from the source and keep a PNG copy
+    static ImageSource cached(Path cacheFile, ImageSource source) {
+        return () -> {
+            BufferedImage image = file(cacheFile).load();
+            if (image != null) {
+                return image;
+            }
+            image = source.load();
+            if (image != null) {
+                Path temp = null;
+                try {
+                    Files.createDirectories(cacheFile.getParent());
+                    temp = Files.createTempFile(cacheFile.getParent(), "image", ".tmp");
+                    if (!ImageIO.write(image, "png", temp.toFile())) {
+                        throw new IOException("No PNG writer");
+                    }
+                    Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    // A read-only home directory only costs us the cache, but a
+                    // full disk or a failed move must not leave the temp behind
+                    deleteQuietly(temp);
+                }
+            }
+            return image;
+        };
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Nothing more we can do; the next miss makes a fresh temp
+        }
+    }
+
+    // The first source that has the image; failures fall through to the next
+    static ImageSource firstOf(ImageSource... sources) {
+        return () -> {
+            IOException failure = null;
+            for (ImageSource source : sources) {
+                try {
+                    BufferedImage image = source.load();
+                    if (image != null) {
+                        return image;
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        };
+    }
+}
@@ -1,13 +1,38 @@
 package Ui;
 
+import Engine.DecimalParser;
+import Engine.FormulaEngine;
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
+import Engine.Solver;
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import Units.Quantity;
+import Units.Unit;
 import java.awt.*;
 import java.util.*;
 import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
 
 public class InputOutputPanel extends JPanel {
 
+    // Live mode evaluates at most once a frame, however fast the typing
+    private static final int FRAME_MS = 16;
+    private static final byte VALID = 0;
+    private static final byte EMPTY = 1;
+    private static final byte INVALID = 2;
+    // Result shown in different unit systems; MKS units are the SI ones
+    private static final String[] UNIT_SYSTEMS = {"SI", "MKS", "FPS"};
+
     private MainWindow mainWindow;
     private String formulaName;
+    private FormulaInfo info;
     private JLabel formulaLabel;
     private JPanel inputPanel;
     private JPanel outputPanel;
@@ -15,67 +40,35 @@ public class InputOutputPanel extends JPanel {
     private Map<String, JTextField> inputFields;
     private Map<String, JComboBox<String>> unitComboBoxes;
     private String selectedVariable;
-    
-    // Unit conversion factors to SI units
-    private final Map<String, Double> lengthUnits = Map.of(
-        "m", 1.0, "cm", 0.01, "mm", 0.001, "km", 1000.0,
-        "ft", 0.3048, "in", 0.0254, "mi", 1609.34
-    );
-    
-    private final Map<String, Double> timeUnits = Map.of(
-        "s", 1.0, "min", 60.0, "h", 3600.0, "ms", 0.001
-    );
-    
-    private final Map<String, Double> massUnits = Map.of(
-        "kg", 1.0, "g", 0.001, "lb", 0.453592
-    );
-    
-    private final Map<String, Double> forceUnits = Map.of(
-        "N", 1.0, "dyne", 1e-5, "lbf", 4.44822
-    );
-    
-    private final Map<String, Double> energyUnits = Map.of(
-        "J", 1.0, "erg", 1e-7, "eV", 1.602e-19, "cal", 4.184
-    );
-    
-    private final Map<String, Double> powerUnits = Map.of(
-        "W", 1.0, "kW", 1000.0, "hp", 745.7
-    );
-    
-    private final Map<String, Double> pressureUnits = Map.of(
-        "Pa", 1.0, "kPa", 1000.0, "MPa", 1e6, "bar", 1e5, "atm", 101325.0, "psi", 6894.76
-    );
-    
-    private final Map<String, Double> temperatureUnits = Map.of(
-        "K", 1.0, "°C", 1.0, "°F", 5.0/9.0
-    );
-    
-    private final Map<String, Double> angleUnits = Map.of(
-        "rad", 1.0, "deg", Math.PI/180.0
-    );
-    
-    private final Map<String, Double> chargeUnits = Map.of(
-        "C", 1.0, "μC", 1e-6, "nC", 1e-9
-    );
-    
-    private final Map<String, Double> voltageUnits = Map.of(
-        "V", 1.0, "kV", 1000.0, "mV", 0.001
-    );
-    
-    private final Map<String, Double> resistanceUnits = Map.of(
-        "Ω", 1.0, "kΩ", 1000.0, "MΩ", 1e6
-    );
-
-    // Physical constants
-    private final double G = 6.67430e-11; // Gravitational constant
-    private final double k = 8.9875517873681764e9; // Coulomb's constant
-    private final double h = 6.62607015e-34; // Planck's constant
-    private final double c = 299792458.0; // Speed of light
-    private final double R = 8.314462618; // Gas constant
+    private Solver solver;
+    private double[] slots;
+    private Quantity[] quantities;
+    private JButton calculateButton;
+    private JButton cancelButton;
+    private JProgressBar progressBar;
+    private JLabel staleLabel;
+    private Timer progressDelay;
+    private CalculationWorker running;
+    private int inputVersion;
+    private int resultVersion;
+    // Per input slot: its field and unit box, whether it was edited since it
+    // was last read, and what reading it gave. slots keeps the SI value of
+    // every VALID slot, so an edit re-converts only its own field.
+    private JTextField[] slotFields;
+    private JComboBox<?>[] slotUnits;
+    private boolean[] dirty;
+    private byte[] slotState;
+    private final Segment segment = new Segment();
+    private FormulaMetrics metrics;
+    private JCheckBox liveCheckBox;
+    private Timer liveTimer;
+    private boolean livePending;
+    private JLabel[] resultLabels;
 
     public InputOutputPanel(MainWindow mainWindow, String formulaName) {
         this.mainWindow = mainWindow;
         this.formulaName = formulaName;
+        this.info = FormulaRegistry.get().byName(formulaName);
         this.inputFields = new HashMap<>();
         this.unitComboBoxes = new HashMap<>();
         
@@ -98,7 +91,8 @@ public class InputOutputPanel extends JPanel {
         contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 30));
 
         // Formula display
-        formulaLabel = new JLabel(getFormulaDisplay(formulaName), SwingConstants.CENTER);
+        String display = info != null ? info.getDisplay() : "Formula: " + formulaName;
+        formulaLabel = new JLabel(display, SwingConstants.CENTER);
         formulaLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         formulaLabel.setForeground(new Color(0, 0, 128));
         contentPanel.add(formulaLabel, BorderLayout.NORTH);
@@ -128,7 +122,7 @@ public class InputOutputPanel extends JPanel {
         
         JButton backBtn = new JButton("← Back to Formula List");
         backBtn.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-        backBtn.addActionListener(e -> mainWindow.backToCategory());
+        backBtn.addActionListener(e -> mainWindow.backToFormulaList());
 
         bottomPanel.add(backBtn);
         bottomPanel.add(refreshButton);
@@ -137,11 +131,15 @@ public class InputOutputPanel extends JPanel {
 
     private void createInputPanel() {
         inputPanel = new JPanel();
-        inputPanel.setLayout(new BoxLayout(inputPanel, BoxLayout.Y_AXIS));
         inputPanel.setBackground(Color.WHITE);
+        showVariableButtons();
+    }
+
+    private void showVariableButtons() {
+        inputPanel.setLayout(new BoxLayout(inputPanel, BoxLayout.Y_AXIS));
         inputPanel.setBorder(BorderFactory.createTitledBorder("Select Variable to Calculate"));
 
-        String[] variables = getVariablesForFormula(formulaName);
+        String[] variables = info != null ? info.getVariables() : null;
         if (variables != null) {
             for (String variable : variables) {
                 JButton varButton = new JButton(variable);
@@ -162,6 +160,22 @@ public class InputOutputPanel extends JPanel {
 
     private void showInputFields(String variable) {
         this.selectedVariable = variable;
+        if (info != null && info.canSolve(variable)) {
+            this.solver = FormulaEngine.compile(formulaName, variable);
+            this.slots = solver.newInputs();
+            this.quantities = info.getInputQuantities(variable);
+            this.slotFields = new JTextField[slots.length];
+            this.slotUnits = new JComboBox<?>[slots.length];
+            this.dirty = new boolean[slots.length];
+            this.slotState = new byte[slots.length];
+            this.metrics = CalculationMetrics.of(formulaName);
+            Arrays.fill(dirty, true);
+        } else {
+            this.solver = null;
+            this.slots = null;
+            this.quantities = null;
+        }
+        resultLabels = null;
         
         // Remove existing input fields
         inputPanel.removeAll();
@@ -171,9 +185,11 @@ public class InputOutputPanel extends JPanel {
         JPanel fieldsPanel = new JPanel(new GridLayout(0, 2, 10, 10));
         fieldsPanel.setBackground(Color.WHITE);
         
-        String[] requiredVariables = getRequiredVariables(formulaName, variable);
+        String[] requiredVariables = solver != null ? info.getInputs(variable) : null;
         if (requiredVariables != null) {
-            for (String reqVar : requiredVariables) {
+            for (int i = 0; i < requiredVariables.length; i++) {
+                int slot = i;
+                String reqVar = requiredVariables[i];
                 JLabel label = new JLabel(reqVar + ":");
                 label.setFont(new Font("Segoe UI", Font.PLAIN, 16));
                 
@@ -182,11 +198,15 @@ public class InputOutputPanel extends JPanel {
                 
                 JTextField textField = new JTextField();
                 textField.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+                textField.getDocument().addDocumentListener(new SlotListener(slot));
                 inputFields.put(reqVar, textField);
+                slotFields[slot] = textField;
                 
-                JComboBox<String> unitComboBox = new JComboBox<>(getUnitsForVariable(reqVar));
+                JComboBox<String> unitComboBox = new JComboBox<>(quantities[i].getUnitSymbols());
                 unitComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+                unitComboBox.addActionListener(e -> slotChanged(slot));
                 unitComboBoxes.put(reqVar, unitComboBox);
+                slotUnits[slot] = unitComboBox;
                 
                 fieldPanel.add(textField, BorderLayout.CENTER);
                 fieldPanel.add(unitComboBox, BorderLayout.EAST);
@@ -198,754 +218,391 @@ public class InputOutputPanel extends JPanel {
         
         inputPanel.add(fieldsPanel, BorderLayout.CENTER);
         
-        JButton calculateButton = new JButton("Calculate " + variable);
+        calculateButton = new JButton("Calculate " + variable);
         calculateButton.setFont(new Font("Segoe UI", Font.BOLD, 16));
         calculateButton.setBackground(new Color(100, 200, 100));
         calculateButton.setForeground(Color.WHITE);
         calculateButton.addActionListener(e -> calculateAndShowResult());
         
-        inputPanel.add(calculateButton, BorderLayout.SOUTH);
+        liveCheckBox = new JCheckBox("Live", true);
+        liveCheckBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        liveCheckBox.setBackground(Color.WHITE);
+        liveCheckBox.setToolTipText("Recalculate as you type");
+        liveCheckBox.addActionListener(e -> {
+            staleLabel.setVisible(false);
+            scheduleRecalculation();
+        });
+        liveTimer = new Timer(FRAME_MS, e -> recalculate());
+        liveTimer.setRepeats(false);
+        
+        inputPanel.add(createRunPanel(), BorderLayout.SOUTH);
         
         inputPanel.revalidate();
         inputPanel.repaint();
     }
 
+    // Calculate button, then the progress bar and Cancel while a calculation
+    // runs, and a note when the inputs no longer match the result on show
+    private JPanel createRunPanel() {
+        JPanel runPanel = new JPanel(new BorderLayout(10, 0));
+        runPanel.setBackground(Color.WHITE);
+        
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setVisible(false);
+        
+        cancelButton = new JButton("Cancel");
+        cancelButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        cancelButton.setVisible(false);
+        cancelButton.addActionListener(e -> cancelCalculation());
+        
+        staleLabel = new JLabel("Inputs changed since this result - calculate again", SwingConstants.CENTER);
+        staleLabel.setFont(new Font("Segoe UI", Font.ITALIC, 14));
+        staleLabel.setForeground(new Color(200, 100, 0));
+        staleLabel.setVisible(false);
+        
+        JPanel statusPanel = new JPanel(new BorderLayout(5, 0));
+        statusPanel.setBackground(Color.WHITE);
+        statusPanel.add(progressBar, BorderLayout.CENTER);
+        statusPanel.add(cancelButton, BorderLayout.EAST);
+        statusPanel.add(staleLabel, BorderLayout.SOUTH);
+        
+        runPanel.add(calculateButton, BorderLayout.CENTER);
+        JButton plotButton = new JButton("Plot…");
+        plotButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        plotButton.setToolTipText("Plot " + selectedVariable + " against one of the inputs");
+        plotButton.setEnabled(solver != null && solver.getArity() > 0);
+        plotButton.addActionListener(e -> openPlot());
+        JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        optionsPanel.setBackground(Color.WHITE);
+        optionsPanel.add(liveCheckBox);
+        optionsPanel.add(plotButton);
+        runPanel.add(optionsPanel, BorderLayout.EAST);
+        runPanel.add(statusPanel, BorderLayout.SOUTH);
+        return runPanel;
+    }
+
+    // One per field, so an edit knows which slot it touched
+    private final class SlotListener implements DocumentListener {
+
+        private final int slot;
+
+        SlotListener(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            slotChanged(slot);
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            slotChanged(slot);
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            slotChanged(slot);
+        }
+    }
+
+    private void slotChanged(int slot) {
+        dirty[slot] = true;
+        inputsChanged();
+        scheduleRecalculation();
+    }
+
+    // A result on show (or on its way) was computed from older inputs
+    private void inputsChanged() {
+        inputVersion++;
+        if (!isLive() && (running != null || outputPanel.isVisible())) {
+            staleLabel.setVisible(resultVersion != inputVersion);
+        }
+    }
+
+    // Inputs are read and converted here on the EDT; only the solve runs on
+    // the worker, so a slow numeric solve never freezes the window
     private void calculateAndShowResult() {
+        long start = EdtMonitor.start();
+        double[] inputs;
         try {
-            double result = calculateFormula();
+            inputs = readInputs();
+        } catch (Exception ex) {
+            showError(ex);
+            return;
+        }
+        
+        startCalculation(inputs);
+        EdtMonitor.end("calculation (EDT part)", start);
+    }
+
+    // ========== LIVE ==========
+
+    private boolean isLive() {
+        return liveCheckBox != null && liveCheckBox.isSelected();
+    }
+
+    // The first edit of a burst starts the frame timer; the ones after it
+    // within the frame only mark their slots
+    private void scheduleRecalculation() {
+        if (isLive() && solver != null && !liveTimer.isRunning()) {
+            liveTimer.start();
+        }
+    }
+
+    // Re-read the edited fields and solve. Until every input reads as a
+    // number the result is hidden; half-typed input is not an error here.
+    // A closed form is solved right here, in nanoseconds; a root search goes
+    // to the worker as a Calculate click does, one at a time.
+    private void recalculate() {
+        if (!isLive() || solver == null) {
+            return;
+        }
+        long start = EdtMonitor.start();
+        if (refreshSlots() >= 0) {
+            outputPanel.setVisible(false);
+        } else if (solver.isIterative()) {
+            if (running != null) {
+                livePending = true;
+            } else {
+                startCalculation(slots.clone());
+            }
+        } else {
+            long solveStart = System.nanoTime();
+            double result = solver.solve(slots);
+            metrics.record(System.nanoTime() - solveStart, result);
+            resultVersion = inputVersion;
             showOutput(result);
             refreshButton.setVisible(true);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error in calculation: " + ex.getMessage(), 
-                "Calculation Error", 
-                JOptionPane.ERROR_MESSAGE);
         }
+        EdtMonitor.end("live recalculation", start);
     }
 
-    private double calculateFormula() {
-        Map<String, Double> values = new HashMap<>();
-        
-        // Get and convert all input values to SI units
-        for (String variable : inputFields.keySet()) {
-            JTextField field = inputFields.get(variable);
-            JComboBox<String> unitBox = unitComboBoxes.get(variable);
-            
-            String text = field.getText().trim();
-            if (text.isEmpty()) {
-                throw new IllegalArgumentException("Please enter value for " + variable);
+    // Read every edited slot again; the first slot that holds no number, or -1
+    private int refreshSlots() {
+        int firstBad = -1;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (dirty[slot]) {
+                dirty[slot] = false;
+                slotState[slot] = readSlot(slot);
+            }
+            if (slotState[slot] != VALID && firstBad < 0) {
+                firstBad = slot;
             }
-            
-            double value = Double.parseDouble(text);
-            String unit = (String) unitBox.getSelectedItem();
-            
-            // Convert to SI units
-            double siValue = convertToSI(value, variable, unit);
-            values.put(variable, siValue);
         }
-        
-        // Perform calculation based on formula and selected variable
-        return performCalculation(formulaName, selectedVariable, values);
+        return firstBad;
     }
 
-    private double convertToSI(double value, String variable, String unit) {
-        // Determine the type of variable and convert accordingly
-        if (variable.contains("length") || variable.contains("distance") || variable.contains("height") || 
-            variable.contains("radius") || variable.contains("displacement") || variable.contains("wavelength") ||
-            variable.equals("d") || variable.equals("r") || variable.equals("h") || variable.equals("s") ||
-            variable.equals("x") || variable.equals("L") || variable.equals("λ")) {
-            return value * lengthUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("time") || variable.contains("period") || variable.equals("t") || 
-                   variable.equals("T") || variable.equals("Δt")) {
-            return value * timeUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("mass") || variable.equals("m") || variable.equals("M")) {
-            return value * massUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("force") || variable.equals("F") || variable.equals("f") || 
-                   variable.equals("T") || variable.equals("N")) {
-            return value * forceUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("energy") || variable.equals("E") || variable.equals("U") || 
-                   variable.equals("W") || variable.equals("KE") || variable.equals("PE")) {
-            return value * energyUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("power") || variable.equals("P")) {
-            return value * powerUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("pressure") || variable.equals("p") || variable.equals("P")) {
-            return value * pressureUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("temperature") || variable.equals("T") || variable.equals("θ") || 
-                   variable.equals("ΔT")) {
-            if (unit.equals("°C")) return value + 273.15;
-            if (unit.equals("°F")) return (value - 32) * 5.0/9.0 + 273.15;
-            return value;
-        } else if (variable.contains("angle") || variable.equals("θ") || variable.equals("φ") || 
-                   variable.equals("α") || variable.equals("ω")) {
-            return value * angleUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("charge") || variable.equals("q") || variable.equals("Q")) {
-            return value * chargeUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("voltage") || variable.equals("V") || variable.equals("ε") || 
-                   variable.equals("emf")) {
-            return value * voltageUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("resistance") || variable.equals("R")) {
-            return value * resistanceUnits.getOrDefault(unit, 1.0);
-        } else if (variable.contains("current") || variable.equals("I") || variable.equals("i")) {
-            return value; // Ampere is SI unit
-        } else if (variable.equals("η") || variable.equals("μ")) {
-            return value; // Viscosity and friction coefficients are dimensionless in SI
+    // The field's text is read through a reused Segment and parsed in place,
+    // so a keystroke allocates nothing
+    private byte readSlot(int slot) {
+        Document document = slotFields[slot].getDocument();
+        try {
+            document.getText(0, document.getLength(), segment);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
         }
-        
-        return value; // Default: no conversion
+        int length = segment.length();
+        int first = 0;
+        while (first < length && segment.charAt(first) <= ' ') {
+            first++;
+        }
+        if (first == length) {
+            if (solver.isOptional(slot)) {
+                slots[slot] = solver.getDefault(slot);
+                return VALID;
+            }
+            return EMPTY;
+        }
+
+        double value;
+        try {
+            value = DecimalParser.parse(segment, first, length);
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+        Quantity quantity = quantities[slot];
+        int unit = quantity.getUnit(Math.max(slotUnits[slot].getSelectedIndex(), 0));
+
+        // Convert to the units the engine works in (SI, degrees for angles)
+        slots[slot] = quantity.toBase(value, unit);
+        CalculationMetrics.recordConversions(quantity, 1);
+        return VALID;
     }
 
-    private double performCalculation(String formula, String targetVariable, Map<String, Double> values) {
-        switch (formula) {
-            // ========== MECHANICS ==========
-            case "Velocity":
-                if (targetVariable.equals("v")) return values.get("d") / values.get("t");
-                if (targetVariable.equals("d")) return values.get("v") * values.get("t");
-                return values.get("d") / values.get("v"); // t
-            case "Acceleration":
-                if (targetVariable.equals("a")) return (values.get("v") - values.get("u")) / values.get("t");
-                if (targetVariable.equals("v")) return values.get("u") + values.get("a") * values.get("t");
-                if (targetVariable.equals("u")) return values.get("v") - values.get("a") * values.get("t");
-                return (values.get("v") - values.get("u")) / values.get("a"); // t
-            case "Time":
-                return (values.get("v") - values.get("u")) / values.get("a");
-            case "Force":
-                if (targetVariable.equals("F")) return values.get("m") * values.get("a");
-                if (targetVariable.equals("m")) return values.get("F") / values.get("a");
-                return values.get("F") / values.get("m"); // a
-            case "Mass":
-                return values.get("F") / values.get("a");
-            case "Work":
-                if (targetVariable.equals("W")) return values.get("F") * values.get("d") * Math.cos(Math.toRadians(values.getOrDefault("θ", 0.0)));
-                if (targetVariable.equals("F")) return values.get("W") / (values.get("d") * Math.cos(Math.toRadians(values.getOrDefault("θ", 0.0))));
-                return values.get("W") / (values.get("F") * Math.cos(Math.toRadians(values.getOrDefault("θ", 0.0)))); // d
-            case "Power":
-                if (targetVariable.equals("P")) return values.get("W") / values.get("t");
-                if (targetVariable.equals("W")) return values.get("P") * values.get("t");
-                return values.get("W") / values.get("P"); // t
-            case "Momentum":
-                if (targetVariable.equals("p")) return values.get("m") * values.get("v");
-                if (targetVariable.equals("m")) return values.get("p") / values.get("v");
-                return values.get("p") / values.get("m"); // v
-            case "Impulse":
-                if (targetVariable.equals("J")) return values.get("F") * values.get("t");
-                if (targetVariable.equals("F")) return values.get("J") / values.get("t");
-                return values.get("J") / values.get("F"); // t
-            case "Kinetic Energy":
-                if (targetVariable.equals("KE")) return 0.5 * values.get("m") * Math.pow(values.get("v"), 2);
-                if (targetVariable.equals("m")) return (2 * values.get("KE")) / Math.pow(values.get("v"), 2);
-                return Math.sqrt((2 * values.get("KE")) / values.get("m")); // v
-            case "Potential Energy":
-                if (targetVariable.equals("PE")) return values.get("m") * values.get("g") * values.get("h");
-                if (targetVariable.equals("m")) return values.get("PE") / (values.get("g") * values.get("h"));
-                if (targetVariable.equals("h")) return values.get("PE") / (values.get("m") * values.get("g"));
-                return values.get("PE") / (values.get("m") * values.get("h")); // g
-            case "Mechanical Energy":
-                return values.get("KE") + values.get("PE");
-            case "Centripetal Force":
-                if (targetVariable.equals("Fc")) return (values.get("m") * Math.pow(values.get("v"), 2)) / values.get("r");
-                if (targetVariable.equals("m")) return (values.get("Fc") * values.get("r")) / Math.pow(values.get("v"), 2);
-                if (targetVariable.equals("v")) return Math.sqrt((values.get("Fc") * values.get("r")) / values.get("m"));
-                return (values.get("m") * Math.pow(values.get("v"), 2)) / values.get("Fc"); // r
-            case "Centripetal Acceleration":
-                if (targetVariable.equals("ac")) return Math.pow(values.get("v"), 2) / values.get("r");
-                if (targetVariable.equals("v")) return Math.sqrt(values.get("ac") * values.get("r"));
-                return Math.pow(values.get("v"), 2) / values.get("ac"); // r
-            case "Torque":
-                if (targetVariable.equals("τ")) return values.get("r") * values.get("F") * Math.sin(Math.toRadians(values.getOrDefault("θ", 90.0)));
-                if (targetVariable.equals("F")) return values.get("τ") / (values.get("r") * Math.sin(Math.toRadians(values.getOrDefault("θ", 90.0))));
-                return values.get("τ") / (values.get("F") * Math.sin(Math.toRadians(values.getOrDefault("θ", 90.0)))); // r
-            case "Angular Momentum":
-                if (targetVariable.equals("L")) return values.get("I") * values.get("ω");
-                if (targetVariable.equals("I")) return values.get("L") / values.get("ω");
-                return values.get("L") / values.get("I"); // ω
-            case "Angular Velocity":
-                if (targetVariable.equals("ω")) return values.get("θ") / values.get("t");
-                if (targetVariable.equals("θ")) return values.get("ω") * values.get("t");
-                return values.get("θ") / values.get("ω"); // t
-            case "Angular Acceleration":
-                if (targetVariable.equals("α")) return (values.get("ω") - values.get("ω₀")) / values.get("t");
-                if (targetVariable.equals("ω")) return values.get("ω₀") + values.get("α") * values.get("t");
-                return (values.get("ω") - values.get("ω₀")) / values.get("α"); // t
-            case "Rotational Kinetic Energy":
-                if (targetVariable.equals("KE(rot)")) return 0.5 * values.get("I") * Math.pow(values.get("ω"), 2);
-                if (targetVariable.equals("I")) return (2 * values.get("KE(rot)")) / Math.pow(values.get("ω"), 2);
-                return Math.sqrt((2 * values.get("KE(rot)")) / values.get("I")); // ω
-            case "First Equation of Motion":
-                if (targetVariable.equals("v")) return values.get("u") + values.get("a") * values.get("t");
-                if (targetVariable.equals("u")) return values.get("v") - values.get("a") * values.get("t");
-                if (targetVariable.equals("a")) return (values.get("v") - values.get("u")) / values.get("t");
-                return (values.get("v") - values.get("u")) / values.get("a"); // t
-            case "Second Equation of Motion":
-                if (targetVariable.equals("s")) return values.get("u") * values.get("t") + 0.5 * values.get("a") * Math.pow(values.get("t"), 2);
-                // For other variables, this requires solving quadratic equation
-                return values.get("u") * values.get("t") + 0.5 * values.get("a") * Math.pow(values.get("t"), 2);
-            case "Third Equation of Motion":
-                if (targetVariable.equals("v")) return Math.sqrt(Math.pow(values.get("u"), 2) + 2 * values.get("a") * values.get("s"));
-                if (targetVariable.equals("u")) return Math.sqrt(Math.pow(values.get("v"), 2) - 2 * values.get("a") * values.get("s"));
-                if (targetVariable.equals("a")) return (Math.pow(values.get("v"), 2) - Math.pow(values.get("u"), 2)) / (2 * values.get("s"));
-                return (Math.pow(values.get("v"), 2) - Math.pow(values.get("u"), 2)) / (2 * values.get("a")); // s
-            case "Maximum Height":
-                if (targetVariable.equals("H")) return (Math.pow(values.get("u"), 2) * Math.pow(Math.sin(Math.toRadians(values.get("θ"))), 2)) / (2 * values.get("g"));
-                if (targetVariable.equals("u")) return Math.sqrt((2 * values.get("H") * values.get("g")) / Math.pow(Math.sin(Math.toRadians(values.get("θ"))), 2));
-                return Math.toDegrees(Math.asin(Math.sqrt((2 * values.get("H") * values.get("g")) / Math.pow(values.get("u"), 2)))); // θ
-            case "Time of Flight":
-                if (targetVariable.equals("T")) return (2 * values.get("u") * Math.sin(Math.toRadians(values.get("θ")))) / values.get("g");
-                if (targetVariable.equals("u")) return (values.get("T") * values.get("g")) / (2 * Math.sin(Math.toRadians(values.get("θ"))));
-                return Math.toDegrees(Math.asin((values.get("T") * values.get("g")) / (2 * values.get("u")))); // θ
-            case "Tension":
-                return values.get("m") * (values.get("g") + values.get("a"));
-            case "Friction":
-                if (targetVariable.equals("f")) return values.get("μ") * values.get("N");
-                if (targetVariable.equals("μ")) return values.get("f") / values.get("N");
-                return values.get("f") / values.get("μ"); // N
-            case "Viscosity":
-                return values.get("η") * values.get("A") * (values.get("dv") / values.get("dy"));
-            case "Collision":
-                if (targetVariable.equals("v₁")) {
-                    return (values.get("m₁") * values.get("u₁") + values.get("m₂") * values.get("u₂") - values.get("m₂") * values.get("v₂")) / values.get("m₁");
-                } else {
-                    return (values.get("m₁") * values.get("u₁") + values.get("m₂") * values.get("u₂") - values.get("m₁") * values.get("v₁")) / values.get("m₂");
-                }
+    // ========== CALCULATION ==========
+
+    private void startCalculation(double[] inputs) {
+        cancelCalculation();
+        int version = inputVersion;
+        CalculationWorker worker = new CalculationWorker(solver, inputs, new CalculationWorker.Listener() {
+            @Override
+            public void progress(int percent) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue(percent);
+            }
 
-            // ========== GRAVITATION ==========
-            case "Gravitational Force":
-                if (targetVariable.equals("F")) return (G * values.get("m1") * values.get("m2")) / Math.pow(values.get("r"), 2);
-                if (targetVariable.equals("m1")) return (values.get("F") * Math.pow(values.get("r"), 2)) / (G * values.get("m2"));
-                if (targetVariable.equals("m2")) return (values.get("F") * Math.pow(values.get("r"), 2)) / (G * values.get("m1"));
-                return Math.sqrt((G * values.get("m1") * values.get("m2")) / values.get("F")); // r
-            case "Acceleration due to Gravity":
-                if (targetVariable.equals("g")) return (G * values.get("M")) / Math.pow(values.get("r"), 2);
-                if (targetVariable.equals("M")) return (values.get("g") * Math.pow(values.get("r"), 2)) / G;
-                return Math.sqrt((G * values.get("M")) / values.get("g")); // r
-            case "Gravitational Potential Energy":
-                if (targetVariable.equals("U")) return - (G * values.get("M") * values.get("m")) / values.get("r");
-                if (targetVariable.equals("M")) return - (values.get("U") * values.get("r")) / (G * values.get("m"));
-                return - (G * values.get("M") * values.get("m")) / values.get("U"); // r
-            case "Orbital Velocity":
-                if (targetVariable.equals("v")) return Math.sqrt(G * values.get("M") / values.get("r"));
-                if (targetVariable.equals("M")) return (Math.pow(values.get("v"), 2) * values.get("r")) / G;
-                return (G * values.get("M")) / Math.pow(values.get("v"), 2); // r
-            case "Kepler's Laws":
-                if (targetVariable.equals("T")) return Math.sqrt(values.get("constant") * Math.pow(values.get("r"), 3));
-                if (targetVariable.equals("r")) return Math.cbrt(Math.pow(values.get("T"), 2) / values.get("constant"));
-                return Math.pow(values.get("T"), 2) / Math.pow(values.get("r"), 3); // constant
-            case "Distance-Time Relation":
-                return values.get("u") * values.get("t") + 0.5 * values.get("a") * Math.pow(values.get("t"), 2);
-            case "Velocity-Time Relation":
-                return values.get("u") + values.get("a") * values.get("t");
-            case "Moment of Inertia":
-                return values.get("m") * Math.pow(values.get("r"), 2);
-
-            // ========== FLUID MECHANICS ==========
-            case "Pressure":
-                if (targetVariable.equals("P")) return values.get("F") / values.get("A");
-                if (targetVariable.equals("F")) return values.get("P") * values.get("A");
-                return values.get("F") / values.get("P"); // A
-            case "Density":
-                if (targetVariable.equals("ρ")) return values.get("m") / values.get("V");
-                if (targetVariable.equals("m")) return values.get("ρ") * values.get("V");
-                return values.get("m") / values.get("ρ"); // V
-            case "Bernoulli's Principle":
-                // P + ½ρv² + ρgh = constant
-                return values.get("P") + 0.5 * values.get("ρ") * Math.pow(values.get("v"), 2) + values.get("ρ") * values.get("g") * values.get("h");
-            case "Elasticity":
-                // Stress/Strain = Y = (F/A)/(ΔL/L)
-                if (targetVariable.equals("Y")) return (values.get("F") / values.get("A")) / (values.get("ΔL") / values.get("L"));
-                if (targetVariable.equals("F")) return values.get("Y") * values.get("A") * (values.get("ΔL") / values.get("L"));
-                return (values.get("F") / values.get("A")) / values.get("Y"); // ΔL/L
-            case "Pressure in gases":
-                return (1.0/3.0) * values.get("ρ") * Math.pow(values.get("v"), 2);
-            case "Fluid Pressure":
-                if (targetVariable.equals("P")) return values.get("ρ") * values.get("g") * values.get("h");
-                if (targetVariable.equals("ρ")) return values.get("P") / (values.get("g") * values.get("h"));
-                if (targetVariable.equals("h")) return values.get("P") / (values.get("ρ") * values.get("g"));
-                return values.get("P") / (values.get("ρ") * values.get("h")); // g
-            case "Atmospheric Pressure":
-                return values.get("h") * values.get("ρ") * values.get("g");
-            case "Pascal's Law":
-                if (targetVariable.equals("F1")) return (values.get("F2") * values.get("A1")) / values.get("A2");
-                if (targetVariable.equals("F2")) return (values.get("F1") * values.get("A2")) / values.get("A1");
-                if (targetVariable.equals("A1")) return (values.get("F1") * values.get("A2")) / values.get("F2");
-                return (values.get("F2") * values.get("A1")) / values.get("F1"); // A2
-            case "Pressure due to Depth":
-                return values.get("P0") + values.get("ρ") * values.get("g") * values.get("h");
-            case "Boyle's Law":
-                if (targetVariable.equals("P1")) return (values.get("P2") * values.get("V2")) / values.get("V1");
-                if (targetVariable.equals("V1")) return (values.get("P2") * values.get("V2")) / values.get("P1");
-                return (values.get("P1") * values.get("V1")) / values.get("V2"); // P2
-            case "Charles's Law":
-                if (targetVariable.equals("V1")) return (values.get("V2") * values.get("T1")) / values.get("T2");
-                if (targetVariable.equals("T1")) return (values.get("V1") * values.get("T2")) / values.get("V2");
-                return (values.get("V1") * values.get("T2")) / values.get("T1"); // V2
-            case "Gay-Lussac's Law":
-                if (targetVariable.equals("P1")) return (values.get("P2") * values.get("T1")) / values.get("T2");
-                if (targetVariable.equals("T1")) return (values.get("P1") * values.get("T2")) / values.get("P2");
-                return (values.get("P1") * values.get("T2")) / values.get("T1"); // P2
-            case "Avogadro's Law":
-                if (targetVariable.equals("V1")) return (values.get("V2") * values.get("n1")) / values.get("n2");
-                if (targetVariable.equals("n1")) return (values.get("V1") * values.get("n2")) / values.get("V2");
-                return (values.get("V1") * values.get("n2")) / values.get("n1"); // V2
-            case "Combined Gas Law":
-                if (targetVariable.equals("P1")) return (values.get("P2") * values.get("V2") * values.get("T1")) / (values.get("V1") * values.get("T2"));
-                if (targetVariable.equals("V1")) return (values.get("P2") * values.get("V2") * values.get("T1")) / (values.get("P1") * values.get("T2"));
-                return (values.get("P1") * values.get("V1") * values.get("T2")) / (values.get("P2") * values.get("V2")); // T1
-            case "Ideal Gas Law":
-                if (targetVariable.equals("P")) return (values.get("n") * R * values.get("T")) / values.get("V");
-                if (targetVariable.equals("V")) return (values.get("n") * R * values.get("T")) / values.get("P");
-                if (targetVariable.equals("n")) return (values.get("P") * values.get("V")) / (R * values.get("T"));
-                return (values.get("P") * values.get("V")) / (values.get("n") * R); // T
-            case "Dalton's Law":
-                return values.get("P1") + values.get("P2") + values.get("P3");
-
-            // ========== THERMODYNAMICS ==========
-            case "Temperature Conversion":
-                if (targetVariable.equals("°C")) {
-                    if (values.containsKey("°F")) return (5.0/9.0) * (values.get("°F") - 32);
-                    return values.get("K") - 273.15;
-                } else if (targetVariable.equals("°F")) {
-                    if (values.containsKey("°C")) return (9.0/5.0) * values.get("°C") + 32;
-                    return (9.0/5.0) * (values.get("K") - 273.15) + 32;
-                } else { // K
-                    if (values.containsKey("°C")) return values.get("°C") + 273.15;
-                    return (5.0/9.0) * (values.get("°F") - 32) + 273.15;
+            @Override
+            public void finished(double[] results) {
+                calculationEnded();
+                resultVersion = version;
+                showOutput(results[0]);
+                staleLabel.setVisible(!isLive() && version != inputVersion);
+                refreshButton.setVisible(true);
+                if (livePending) {
+                    livePending = false;
+                    scheduleRecalculation();
                 }
-            case "First Law of Thermodynamics":
-                if (targetVariable.equals("ΔQ")) return values.get("ΔU") + values.get("W");
-                if (targetVariable.equals("ΔU")) return values.get("ΔQ") - values.get("W");
-                return values.get("ΔQ") - values.get("ΔU"); // W
-            case "Efficiency of Heat Engine":
-                if (targetVariable.equals("η")) return values.get("W") / values.get("Qh");
-                if (targetVariable.equals("W")) return values.get("η") * values.get("Qh");
-                return values.get("W") / values.get("η"); // Qh
-            case "Carnot Efficiency":
-                if (targetVariable.equals("η")) return 1 - (values.get("Tc") / values.get("Th"));
-                if (targetVariable.equals("Tc")) return values.get("Th") * (1 - values.get("η"));
-                return values.get("Tc") / (1 - values.get("η")); // Th
-            case "Entropy":
-                return values.get("ΔQ") / values.get("T");
-
-            // ========== WAVES AND OSCILLATIONS ==========
-            case "Wave Speed":
-                if (targetVariable.equals("v")) return values.get("f") * values.get("λ");
-                if (targetVariable.equals("f")) return values.get("v") / values.get("λ");
-                return values.get("v") / values.get("f"); // λ
-            case "Period":
-                if (targetVariable.equals("T")) return 1.0 / values.get("f");
-                return 1.0 / values.get("T"); // f
-            case "Hooke's Law":
-                if (targetVariable.equals("F")) return values.get("k") * values.get("x");
-                if (targetVariable.equals("k")) return values.get("F") / values.get("x");
-                return values.get("F") / values.get("k"); // x
-            case "Energy in Simple Harmonic Oscillator":
-                if (targetVariable.equals("E")) return 0.5 * values.get("k") * Math.pow(values.get("A"), 2);
-                if (targetVariable.equals("k")) return (2 * values.get("E")) / Math.pow(values.get("A"), 2);
-                return Math.sqrt((2 * values.get("E")) / values.get("k")); // A
-            case "Resonance Frequency":
-                return (1.0 / (2 * Math.PI)) * Math.sqrt(values.get("k") / values.get("m"));
-            case "Doppler Effect":
-                // f' = f * (v ± vo) / (v ∓ vs)
-                double f = values.get("f");
-                double v = values.get("v");
-                double vo = values.getOrDefault("vo", 0.0);
-                double vs = values.getOrDefault("vs", 0.0);
-                // Using upper signs (toward each other)
-                return f * (v + vo) / (v - vs);
-            case "Sound Intensity":
-                if (targetVariable.equals("I")) return values.get("P") / values.get("A");
-                if (targetVariable.equals("P")) return values.get("I") * values.get("A");
-                return values.get("P") / values.get("I"); // A
-            case "Decibel Formula":
-                return 10 * Math.log10(values.get("I") / values.get("I0"));
-
-            // ========== OPTICS ==========
-            case "Lens Formula":
-                if (targetVariable.equals("f")) return 1.0 / ((1.0 / values.get("v")) - (1.0 / values.get("u")));
-                if (targetVariable.equals("v")) return 1.0 / ((1.0 / values.get("f")) + (1.0 / values.get("u")));
-                return 1.0 / ((1.0 / values.get("f")) - (1.0 / values.get("v"))); // u
-            case "Mirror Formula":
-                if (targetVariable.equals("f")) return 1.0 / ((1.0 / values.get("u")) + (1.0 / values.get("v")));
-                if (targetVariable.equals("v")) return 1.0 / ((1.0 / values.get("f")) - (1.0 / values.get("u")));
-                return 1.0 / ((1.0 / values.get("f")) - (1.0 / values.get("v"))); // u
-            case "Magnification":
-                if (targetVariable.equals("m")) return -values.get("v") / values.get("u");
-                if (targetVariable.equals("v")) return -values.get("m") * values.get("u");
-                return -values.get("v") / values.get("m"); // u
-            case "Snell's Law":
-                if (targetVariable.equals("n1")) return values.get("n2") * Math.sin(Math.toRadians(values.get("r"))) / Math.sin(Math.toRadians(values.get("i")));
-                if (targetVariable.equals("n2")) return values.get("n1") * Math.sin(Math.toRadians(values.get("i"))) / Math.sin(Math.toRadians(values.get("r")));
-                if (targetVariable.equals("i")) return Math.toDegrees(Math.asin(values.get("n2") * Math.sin(Math.toRadians(values.get("r"))) / values.get("n1")));
-                return Math.toDegrees(Math.asin(values.get("n1") * Math.sin(Math.toRadians(values.get("i"))) / values.get("n2"))); // r
-            case "Critical Angle":
-                return Math.toDegrees(Math.asin(values.get("n2") / values.get("n1")));
-            case "Total Internal Reflection":
-                // Returns 1 if TIR occurs, 0 otherwise
-                double criticalAngle = Math.toDegrees(Math.asin(values.get("n2") / values.get("n1")));
-                return (values.get("i") > criticalAngle) ? 1 : 0;
-
-            // ========== ELECTRICITY AND MAGNETISM ==========
-            case "Electric Potential":
-                if (targetVariable.equals("V")) return k * values.get("Q") / values.get("r");
-                if (targetVariable.equals("Q")) return values.get("V") * values.get("r") / k;
-                return k * values.get("Q") / values.get("V"); // r
-            case "Electric Field":
-                if (targetVariable.equals("E")) return k * values.get("Q") / Math.pow(values.get("r"), 2);
-                if (targetVariable.equals("Q")) return values.get("E") * Math.pow(values.get("r"), 2) / k;
-                return Math.sqrt(k * values.get("Q") / values.get("E")); // r
-            case "Coulomb's Law":
-                if (targetVariable.equals("F")) return k * values.get("q1") * values.get("q2") / Math.pow(values.get("r"), 2);
-                if (targetVariable.equals("q1")) return values.get("F") * Math.pow(values.get("r"), 2) / (k * values.get("q2"));
-                return Math.sqrt(k * values.get("q1") * values.get("q2") / values.get("F")); // r
-            case "Ohm's Law":
-                if (targetVariable.equals("V")) return values.get("I") * values.get("R");
-                if (targetVariable.equals("I")) return values.get("V") / values.get("R");
-                return values.get("V") / values.get("I"); // R
-            case "Electric Power":
-                if (targetVariable.equals("P")) return values.get("V") * values.get("I");
-                if (targetVariable.equals("V")) return values.get("P") / values.get("I");
-                return values.get("P") / values.get("V"); // I
-            case "Series Resistance":
-                return values.get("R1") + values.get("R2") + values.get("R3");
-            case "Parallel Resistance":
-                return 1.0 / ((1.0 / values.get("R1")) + (1.0 / values.get("R2")) + (1.0 / values.get("R3")));
-            case "Magnetic Field":
-                return (4 * Math.PI * 1e-7 * values.get("I")) / (2 * Math.PI * values.get("r"));
-            case "Charge":
-                if (targetVariable.equals("Q")) return values.get("I") * values.get("t");
-                if (targetVariable.equals("I")) return values.get("Q") / values.get("t");
-                return values.get("Q") / values.get("I"); // t
-            case "Inductance":
-                return values.get("L") * (values.get("dI") / values.get("dt"));
-            case "Conductivity":
-                return 1.0 / values.get("ρ");
-            case "Faraday's Law":
-                return -values.get("dΦ") / values.get("dt");
-
-            // ========== MODERN PHYSICS ==========
-            case "Mass-Energy Equivalence":
-                if (targetVariable.equals("E")) return values.get("m") * Math.pow(c, 2);
-                return values.get("E") / Math.pow(c, 2); // m
-            case "Photon Energy":
-                if (targetVariable.equals("E")) return h * values.get("f");
-                if (targetVariable.equals("f")) return values.get("E") / h;
-                return values.get("E") / values.get("f"); // h (but h is constant)
-            case "de Broglie Wavelength":
-                if (targetVariable.equals("λ")) return h / values.get("p");
-                if (targetVariable.equals("p")) return h / values.get("λ");
-                return h / values.get("p"); // λ
-            case "Photoelectric Effect":
-                return h * values.get("f") - values.get("φ");
-            case "Half-Life Formula":
-                if (targetVariable.equals("T½")) return Math.log(2) / values.get("λ");
-                return Math.log(2) / values.get("T½"); // λ
-            case "Radioactive Decay Law":
-                if (targetVariable.equals("N")) return values.get("N0") * Math.exp(-values.get("λ") * values.get("t"));
-                if (targetVariable.equals("N0")) return values.get("N") / Math.exp(-values.get("λ") * values.get("t"));
-                if (targetVariable.equals("λ")) return -Math.log(values.get("N") / values.get("N0")) / values.get("t");
-                return -Math.log(values.get("N") / values.get("N0")) / values.get("λ"); // t
-            case "Electromagnetic Wave":
-                if (targetVariable.equals("c")) return values.get("λ") * values.get("f");
-                if (targetVariable.equals("λ")) return c / values.get("f");
-                return c / values.get("λ"); // f
-
-            // ========== VECTOR ==========
-            // For vector formulas, we'll handle magnitude calculations
-            case "Displacement Vector":
-                return Math.sqrt(Math.pow(values.get("xf") - values.get("xi"), 2) + 
-                                Math.pow(values.get("yf") - values.get("yi"), 2) +
-                                Math.pow(values.get("zf") - values.get("zi"), 2));
-            case "Velocity Vector":
-                return Math.sqrt(Math.pow(values.get("vx"), 2) + Math.pow(values.get("vy"), 2) + Math.pow(values.get("vz"), 2));
-            case "Acceleration Vector":
-                return Math.sqrt(Math.pow(values.get("ax"), 2) + Math.pow(values.get("ay"), 2) + Math.pow(values.get("az"), 2));
-
-            default:
-                throw new IllegalArgumentException("Formula not implemented: " + formula);
-        }
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                calculationEnded();
+                showError(error);
+            }
+        });
+        running = worker;
+        calculateButton.setEnabled(false);
+        cancelButton.setVisible(true);
+        progressBar.setIndeterminate(true);
+        progressBar.setValue(0);
+        // Most calculations finish well before the bar would be noticed
+        progressDelay = new Timer(200, e -> progressBar.setVisible(running == worker));
+        progressDelay.setRepeats(false);
+        progressDelay.start();
+        worker.execute();
     }
 
-    private void showOutput(double resultSI) {
-        outputPanel.removeAll();
-        outputPanel.setLayout(new BoxLayout(outputPanel, BoxLayout.Y_AXIS));
-        outputPanel.setVisible(true);
-        
-        JLabel outputTitle = new JLabel("Calculation Results:");
-        outputTitle.setFont(new Font("Segoe UI", Font.BOLD, 18));
-        outputTitle.setAlignmentX(Component.CENTER_ALIGNMENT);
-        outputPanel.add(outputTitle);
-        outputPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-        
-        // Show result in different unit systems
-        String[] unitSystems = {"SI", "MKS", "FPS"};
-        for (String system : unitSystems) {
-            double convertedResult = convertFromSI(resultSI, selectedVariable, system);
-            String unit = getOutputUnit(selectedVariable, system);
-            
-            JLabel resultLabel = new JLabel(String.format("%s: %.6f %s", system, convertedResult, unit));
-            resultLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-            resultLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            outputPanel.add(resultLabel);
+    private void cancelCalculation() {
+        if (running != null) {
+            running.cancel(true);
+            calculationEnded();
         }
-        
-        outputPanel.revalidate();
-        outputPanel.repaint();
     }
 
-    private double convertFromSI(double value, String variable, String system) {
-        if (system.equals("MKS")) {
-            return value; // MKS is same as SI for most quantities
-        } else if (system.equals("FPS")) {
-            // Basic FPS conversions
-            if (variable.contains("length") || variable.contains("distance") || variable.contains("height") || 
-                variable.contains("radius") || variable.contains("displacement") || variable.equals("d") || 
-                variable.equals("r") || variable.equals("h") || variable.equals("s") || variable.equals("x") || 
-                variable.equals("L") || variable.equals("λ")) {
-                return value / 0.3048; // meters to feet
-            } else if (variable.contains("mass") || variable.equals("m") || variable.equals("M")) {
-                return value / 0.453592; // kg to pounds
-            } else if (variable.contains("force") || variable.equals("F") || variable.equals("f") || 
-                       variable.equals("T") || variable.equals("N")) {
-                return value / 4.44822; // N to lbf
-            } else if (variable.contains("energy") || variable.equals("E") || variable.equals("U") || 
-                       variable.equals("W") || variable.equals("KE") || variable.equals("PE")) {
-                return value / 1.35582; // J to ft·lbf
-            } else if (variable.contains("power") || variable.equals("P")) {
-                return value / 1.35582; // W to ft·lbf/s
-            }
+    private void calculationEnded() {
+        running = null;
+        if (progressDelay != null) {
+            progressDelay.stop();
+            progressDelay = null;
         }
-        return value;
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        calculateButton.setEnabled(true);
     }
 
-    private String getOutputUnit(String variable, String system) {
-        if (system.equals("SI") || system.equals("MKS")) {
-            if (variable.contains("length") || variable.contains("distance") || variable.contains("height") || 
-                variable.contains("radius") || variable.contains("displacement")) return "m";
-            if (variable.contains("time")) return "s";
-            if (variable.contains("mass")) return "kg";
-            if (variable.contains("force")) return "N";
-            if (variable.contains("energy")) return "J";
-            if (variable.contains("power")) return "W";
-            if (variable.contains("velocity") || variable.equals("v") || variable.equals("u")) return "m/s";
-            if (variable.contains("acceleration") || variable.equals("a") || variable.equals("g")) return "m/s²";
-            if (variable.contains("pressure")) return "Pa";
-            if (variable.contains("angle")) return "rad";
-            if (variable.contains("charge")) return "C";
-            if (variable.contains("voltage")) return "V";
-            if (variable.contains("resistance")) return "Ω";
-            if (variable.contains("current")) return "A";
-        } else if (system.equals("FPS")) {
-            if (variable.contains("length") || variable.contains("distance") || variable.contains("height") || 
-                variable.contains("radius") || variable.contains("displacement")) return "ft";
-            if (variable.contains("time")) return "s";
-            if (variable.contains("mass")) return "lb";
-            if (variable.contains("force")) return "lbf";
-            if (variable.contains("energy")) return "ft·lbf";
-            if (variable.contains("power")) return "ft·lbf/s";
-            if (variable.contains("velocity")) return "ft/s";
-            if (variable.contains("acceleration")) return "ft/s²";
-        }
-        return "";
+    private void showError(Throwable error) {
+        JOptionPane.showMessageDialog(this, 
+            "Error in calculation: " + error.getMessage(), 
+            "Calculation Error", 
+            JOptionPane.ERROR_MESSAGE);
     }
 
-    private void refreshCalculator() {
-        // Reset everything
-        outputPanel.setVisible(false);
-        refreshButton.setVisible(false);
-        
-        inputPanel.removeAll();
-        createInputPanel();
-        
-        inputPanel.revalidate();
-        inputPanel.repaint();
+    // A plot against one input, the rest held at what the fields say now. An
+    // input without a value is held as NaN and is the one swept first
+    private void openPlot() {
+        int bad = refreshSlots();
+        double[] held = slots.clone();
+        for (int slot = 0; slot < held.length; slot++) {
+            if (slotState[slot] != VALID) {
+                held[slot] = Double.NaN;
+            }
+        }
+        SweepPanel.open(this, info, solver, held, Math.max(bad, 0));
     }
 
-    // Helper methods for formula data
-    private String getFormulaDisplay(String formula) {
-        Map<String, String> formulaDisplay = new HashMap<>();
-        
-        // Mechanics
-        formulaDisplay.put("Velocity", "v = d / t");
-        formulaDisplay.put("Acceleration", "a = (v - u) / t");
-        formulaDisplay.put("Time", "t = (v - u) / a");
-        formulaDisplay.put("Force", "F = m × a");
-        formulaDisplay.put("Mass", "m = F / a");
-        formulaDisplay.put("Work", "W = F × d × cos(θ)");
-        formulaDisplay.put("Power", "P = W / t");
-        formulaDisplay.put("Momentum", "p = m × v");
-        formulaDisplay.put("Impulse", "J = F × t = Δp");
-        formulaDisplay.put("Kinetic Energy", "KE = ½ × m × v²");
-        formulaDisplay.put("Potential Energy", "PE = m × g × h");
-        formulaDisplay.put("Mechanical Energy", "E = KE + PE");
-        formulaDisplay.put("Centripetal Force", "Fc = (m × v²) / r");
-        formulaDisplay.put("Centripetal Acceleration", "ac = v² / r");
-        formulaDisplay.put("Torque", "τ = r × F × sin(θ)");
-        formulaDisplay.put("Angular Momentum", "L = I × ω");
-        formulaDisplay.put("Angular Velocity", "ω = θ / t");
-        formulaDisplay.put("Angular Acceleration", "α = (ω - ω₀) / t");
-        formulaDisplay.put("Rotational Kinetic Energy", "KE(rot) = ½ × I × ω²");
-        formulaDisplay.put("First Equation of Motion", "v = u + a × t");
-        formulaDisplay.put("Second Equation of Motion", "s = u × t + ½ × a × t²");
-        formulaDisplay.put("Third Equation of Motion", "v² = u² + 2 × a × s");
-        formulaDisplay.put("Maximum Height", "H = (u² × sin²θ) / (2 × g)");
-        formulaDisplay.put("Time of Flight", "T = (2 × u × sinθ) / g");
-        formulaDisplay.put("Tension", "T = m × (g ± a)");
-        formulaDisplay.put("Friction", "f = μ × N");
-        formulaDisplay.put("Viscosity", "F = η × A × (dv/dy)");
-        formulaDisplay.put("Collision", "m₁u₁ + m₂u₂ = m₁v₁ + m₂v₂");
-        
-        // Gravitation
-        formulaDisplay.put("Gravitational Force", "F = G × m₁ × m₂ / r²");
-        formulaDisplay.put("Acceleration due to Gravity", "g = G × M / r²");
-        formulaDisplay.put("Gravitational Potential Energy", "U = -G × M × m / r");
-        formulaDisplay.put("Orbital Velocity", "v = √(G × M / r)");
-        formulaDisplay.put("Kepler's Laws", "T² ∝ r³ or T²/r³ = constant");
-        formulaDisplay.put("Distance-Time Relation", "s = u × t + ½ × a × t²");
-        formulaDisplay.put("Velocity-Time Relation", "v = u + a × t");
-        formulaDisplay.put("Moment of Inertia", "I = m × r²");
-        
-        // Fluid Mechanics
-        formulaDisplay.put("Pressure", "P = F / A");
-        formulaDisplay.put("Density", "ρ = m / V");
-        formulaDisplay.put("Bernoulli's Principle", "P + ½ρv² + ρgh = constant");
-        formulaDisplay.put("Elasticity", "Y = (F/A) / (ΔL/L)");
-        formulaDisplay.put("Pressure in gases", "P = ⅓ × ρ × v²");
-        formulaDisplay.put("Fluid Pressure", "P = ρ × g × h");
-        formulaDisplay.put("Atmospheric Pressure", "P = h × ρ × g");
-        formulaDisplay.put("Pascal's Law", "F₁/A₁ = F₂/A₂");
-        formulaDisplay.put("Pressure due to Depth", "P = P₀ + ρ × g × h");
-        formulaDisplay.put("Boyle's Law", "P₁ × V₁ = P₂ × V₂");
-        formulaDisplay.put("Charles's Law", "V₁/T₁ = V₂/T₂");
-        formulaDisplay.put("Gay-Lussac's Law", "P₁/T₁ = P₂/T₂");
-        formulaDisplay.put("Avogadro's Law", "V₁/n₁ = V₂/n₂");
-        formulaDisplay.put("Combined Gas Law", "P₁ × V₁ / T₁ = P₂ × V₂ / T₂");
-        formulaDisplay.put("Ideal Gas Law", "P × V = n × R × T");
-        formulaDisplay.put("Dalton's Law", "P_total = P₁ + P₂ + P₃ + ...");
+    // The solver's input slots in engine units, as a fresh array the worker owns
+    private double[] readInputs() {
+        if (solver == null) {
+            throw new IllegalArgumentException(formulaName + " cannot be solved for " + selectedVariable);
+        }
         
-        // Add more formulas for other categories...
+        // Only fields edited since the last read are parsed and converted
+        // again; the rest keep their SI values in the solver's slots
+        int bad = refreshSlots();
+        if (bad >= 0) {
+            String variable = solver.getInput(bad);
+            if (slotState[bad] == EMPTY) {
+                metrics.recordError(ErrorKind.MISSING_INPUT);
+                throw new IllegalArgumentException("Please enter value for " + variable);
+            }
+            metrics.recordError(ErrorKind.INVALID_INPUT);
+            throw new NumberFormatException("For input string: \"" + slotFields[bad].getText().trim() + "\"");
+        }
         
-        return formulaDisplay.getOrDefault(formula, "Formula: " + formula);
+        return slots.clone();
     }
 
-    private String[] getVariablesForFormula(String formula) {
-        Map<String, String[]> variables = new HashMap<>();
-        
-        // Mechanics
-        variables.put("Velocity", new String[]{"v", "d", "t"});
-        variables.put("Acceleration", new String[]{"a", "v", "u", "t"});
-        variables.put("Time", new String[]{"t", "v", "u", "a"});
-        variables.put("Force", new String[]{"F", "m", "a"});
-        variables.put("Mass", new String[]{"m", "F", "a"});
-        variables.put("Work", new String[]{"W", "F", "d", "θ"});
-        variables.put("Power", new String[]{"P", "W", "t"});
-        variables.put("Momentum", new String[]{"p", "m", "v"});
-        variables.put("Impulse", new String[]{"J", "F", "t"});
-        variables.put("Kinetic Energy", new String[]{"KE", "m", "v"});
-        variables.put("Potential Energy", new String[]{"PE", "m", "g", "h"});
-        variables.put("Mechanical Energy", new String[]{"E", "KE", "PE"});
-        variables.put("Centripetal Force", new String[]{"Fc", "m", "v", "r"});
-        variables.put("Centripetal Acceleration", new String[]{"ac", "v", "r"});
-        variables.put("Torque", new String[]{"τ", "r", "F", "θ"});
-        variables.put("Angular Momentum", new String[]{"L", "I", "ω"});
-        variables.put("Angular Velocity", new String[]{"ω", "θ", "t"});
-        variables.put("Angular Acceleration", new String[]{"α", "ω", "ω₀", "t"});
-        variables.put("Rotational Kinetic Energy", new String[]{"KE(rot)", "I", "ω"});
-        variables.put("First Equation of Motion", new String[]{"v", "u", "a", "t"});
-        variables.put("Second Equation of Motion", new String[]{"s", "u", "a", "t"});
-        variables.put("Third Equation of Motion", new String[]{"v", "u", "a", "s"});
-        variables.put("Maximum Height", new String[]{"H", "u", "θ", "g"});
-        variables.put("Time of Flight", new String[]{"T", "u", "θ", "g"});
-        variables.put("Tension", new String[]{"T", "m", "g", "a"});
-        variables.put("Friction", new String[]{"f", "μ", "N"});
-        variables.put("Viscosity", new String[]{"F", "η", "A", "dv", "dy"});
-        variables.put("Collision", new String[]{"v₁", "v₂", "m₁", "m₂", "u₁", "u₂"});
-        
-        // Gravitation
-        variables.put("Gravitational Force", new String[]{"F", "m1", "m2", "r"});
-        variables.put("Acceleration due to Gravity", new String[]{"g", "M", "r"});
-        variables.put("Gravitational Potential Energy", new String[]{"U", "M", "m", "r"});
-        variables.put("Orbital Velocity", new String[]{"v", "M", "r"});
-        variables.put("Kepler's Laws", new String[]{"T", "r", "constant"});
-        variables.put("Distance-Time Relation", new String[]{"s", "u", "a", "t"});
-        variables.put("Velocity-Time Relation", new String[]{"v", "u", "a", "t"});
-        variables.put("Moment of Inertia", new String[]{"I", "m", "r"});
-        
-        // Add more variables for other categories...
+    // The labels are built once per target; later results only change their text
+    private void showOutput(double resultSI) {
+        long start = EdtMonitor.start();
+        Quantity quantity = info.getQuantity(selectedVariable);
+        if (resultLabels == null) {
+            outputPanel.removeAll();
+            outputPanel.setLayout(new BoxLayout(outputPanel, BoxLayout.Y_AXIS));
+            
+            JLabel outputTitle = new JLabel("Calculation Results:");
+            outputTitle.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            outputTitle.setAlignmentX(Component.CENTER_ALIGNMENT);
+            outputPanel.add(outputTitle);
+            outputPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            
+            resultLabels = new JLabel[UNIT_SYSTEMS.length];
+            for (int i = 0; i < UNIT_SYSTEMS.length; i++) {
+                resultLabels[i] = new JLabel();
+                resultLabels[i].setFont(new Font("Segoe UI", Font.PLAIN, 16));
+                resultLabels[i].setAlignmentX(Component.CENTER_ALIGNMENT);
+                outputPanel.add(resultLabels[i]);
+            }
+            outputPanel.revalidate();
+        }
+        outputPanel.setVisible(true);
         
-        return variables.get(formula);
+        // A label whose text changed lays itself out and repaints again
+        for (int i = 0; i < UNIT_SYSTEMS.length; i++) {
+            String system = UNIT_SYSTEMS[i];
+            int unit = system.equals("FPS") ? quantity.getFpsUnit() : quantity.getSiUnit();
+            double convertedResult = quantity.fromBase(resultSI, unit);
+            CalculationMetrics.recordConversions(quantity, 1);
+            resultLabels[i].setText(String.format("%s: %.6f %s", system, convertedResult, Unit.getSymbol(unit)));
+        }
+        EdtMonitor.end("show result", start);
     }
 
-    private String[] getRequiredVariables(String formula, String targetVariable) {
-        Map<String, Map<String, String[]>> requirements = new HashMap<>();
-        
-        // Velocity requirements
-        Map<String, String[]> velocityReqs = Map.of(
-            "v", new String[]{"d", "t"},
-            "d", new String[]{"v", "t"},
-            "t", new String[]{"d", "v"}
-        );
-        requirements.put("Velocity", velocityReqs);
-        
-        // Acceleration requirements
-        Map<String, String[]> accelerationReqs = Map.of(
-            "a", new String[]{"v", "u", "t"},
-            "v", new String[]{"u", "a", "t"},
-            "u", new String[]{"v", "a", "t"},
-            "t", new String[]{"v", "u", "a"}
-        );
-        requirements.put("Acceleration", accelerationReqs);
-        
-        // Force requirements
-        Map<String, String[]> forceReqs = Map.of(
-            "F", new String[]{"m", "a"},
-            "m", new String[]{"F", "a"},
-            "a", new String[]{"F", "m"}
-        );
-        requirements.put("Force", forceReqs);
-        
-        // Add similar mappings for other formulas...
-        // For brevity, I'm showing the pattern
-        
-        Map<String, String[]> defaultReqs = requirements.getOrDefault(formula, new HashMap<>());
-        return defaultReqs.get(targetVariable);
+    // Back to the freshly opened state; MainWindow calls this when it shows a
+    // cached panel again
+    void reset() {
+        refreshCalculator();
     }
 
-    private String[] getUnitsForVariable(String variable) {
-        if (variable.contains("length") || variable.contains("distance") || variable.contains("height") || 
-            variable.contains("radius") || variable.contains("displacement") || variable.contains("wavelength") ||
-            variable.equals("d") || variable.equals("r") || variable.equals("h") || variable.equals("s") ||
-            variable.equals("x") || variable.equals("L") || variable.equals("λ")) {
-            return new String[]{"m", "cm", "mm", "km", "ft", "in", "mi"};
-        } else if (variable.contains("time") || variable.contains("period") || variable.equals("t") || 
-                   variable.equals("T") || variable.equals("Δt")) {
-            return new String[]{"s", "min", "h", "ms"};
-        } else if (variable.contains("mass") || variable.equals("m") || variable.equals("M")) {
-            return new String[]{"kg", "g", "lb"};
-        } else if (variable.contains("force") || variable.equals("F") || variable.equals("f") || 
-                   variable.equals("T") || variable.equals("N")) {
-            return new String[]{"N", "dyne", "lbf"};
-        } else if (variable.contains("energy") || variable.equals("E") || variable.equals("U") || 
-                   variable.equals("W") || variable.equals("KE") || variable.equals("PE")) {
-            return new String[]{"J", "erg", "eV", "cal"};
-        } else if (variable.contains("power") || variable.equals("P")) {
-            return new String[]{"W", "kW", "hp"};
-        } else if (variable.contains("pressure") || variable.equals("p") || variable.equals("P")) {
-            return new String[]{"Pa", "kPa", "MPa", "bar", "atm", "psi"};
-        } else if (variable.contains("temperature") || variable.equals("T") || variable.equals("θ") || 
-                   variable.equals("ΔT")) {
-            return new String[]{"K", "°C", "°F"};
-        } else if (variable.contains("angle") || variable.equals("θ") || variable.equals("φ") || 
-                   variable.equals("α") || variable.equals("ω")) {
-            return new String[]{"rad", "deg"};
-        } else if (variable.contains("charge") || variable.equals("q") || variable.equals("Q")) {
-            return new String[]{"C", "μC", "nC"};
-        } else if (variable.contains("voltage") || variable.equals("V") || variable.equals("ε") || 
-                   variable.equals("emf")) {
-            return new String[]{"V", "kV", "mV"};
-        } else if (variable.contains("resistance") || variable.equals("R")) {
-            return new String[]{"Ω", "kΩ", "MΩ"};
-        } else if (variable.contains("current") || variable.equals("I") || variable.equals("i")) {
-            return new String[]{"A", "mA", "μA"};
+    private void refreshCalculator() {
+        // Reset everything
+        if (running != null) {
+            cancelCalculation();
+        }
+        if (liveTimer != null) {
+            liveTimer.stop();
         }
+        livePending = false;
+        outputPanel.removeAll();
+        outputPanel.setVisible(false);
+        refreshButton.setVisible(false);
+        resultLabels = null;
+        selectedVariable = null;
+        solver = null;
+        slots = null;
+        quantities = null;
+        slotFields = null;
+        slotUnits = null;
+        dirty = null;
+        slotState = null;
+        inputFields.clear();
+        unitComboBoxes.clear();
         
-        return new String[]{""}; // Default: no unit
+        inputPanel.removeAll();
+        showVariableButtons();
+        
+        inputPanel.revalidate();
+        inputPanel.repaint();
     }
-}
\ No newline at end of file
+}
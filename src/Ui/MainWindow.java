@@ -10,10 +10,12 @@ public class MainWindow extends JFrame {
     private JPanel mainPanel;
     private WelcomePanel welcomePanel;
     private CategoryPanel categoryPanel;
-    private FormulaListPanel currentFormulaListPanel;
-    private InputOutputPanel currentInputOutputPanel;
+    private WorksheetPanel worksheetPanel;
+    private PanelCache panelCache;
+    private String currentCategory;
 
     public MainWindow() {
+        EdtMonitor.install(); // -Dphysiquist.diagnostics=true চালু থাকলেই কাজ করে
         setTitle("PHYSIQUIST");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1000, 700); // লেআউটের জন্য বড় সাইজ
@@ -23,6 +25,7 @@ public class MainWindow extends JFrame {
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
         mainPanel.setBackground(Color.WHITE);
+        panelCache = new PanelCache(mainPanel);
 
         // প্যানেলগুলো ইনিশিয়ালাইজ করুন
         initializePanels();
@@ -66,55 +69,62 @@ public class MainWindow extends JFrame {
     }
 
     public void showFormulaList(String category) {
-        // পূর্বের ফর্মুলা লিস্ট প্যানেল থাকলে রিমুভ করুন
-        if (currentFormulaListPanel != null) {
-            mainPanel.remove(currentFormulaListPanel);
-        }
-        
-        currentFormulaListPanel = new FormulaListPanel(this, category);
-        mainPanel.add(currentFormulaListPanel, "FormulaListPanel");
-        cardLayout.show(mainPanel, "FormulaListPanel");
+        // ক্যাশে থাকলে আগের প্যানেলই দেখান, না থাকলে নতুন তৈরি করুন
+        currentCategory = category;
+        String key = formulaListKey(category);
+        panelCache.get(key, () -> new FormulaListPanel(this, category));
+        cardLayout.show(mainPanel, key);
     }
 
     public void showInputOutputPanel(String formulaName) {
-        // পূর্বের ইনপুট আউটপুট প্যানেল থাকলে রিমুভ করুন
-        if (currentInputOutputPanel != null) {
-            mainPanel.remove(currentInputOutputPanel);
+        // ক্যাশ করা ক্যালকুলেটর রিসেট করে দেখান, যেন আগের ইনপুট না থাকে
+        String key = inputOutputKey(formulaName);
+        boolean cached = panelCache.peek(key) != null;
+        InputOutputPanel panel = (InputOutputPanel) panelCache.get(key,
+            () -> new InputOutputPanel(this, formulaName));
+        if (cached) {
+            panel.reset();
         }
-        
-        currentInputOutputPanel = new InputOutputPanel(this, formulaName);
-        mainPanel.add(currentInputOutputPanel, "InputOutputPanel");
-        cardLayout.show(mainPanel, "InputOutputPanel");
+        cardLayout.show(mainPanel, key);
     }
 
-    public void backToCategory() {
-        // টেম্পোরারি প্যানেল ক্লিন আপ করুন
-        if (currentFormulaListPanel != null) {
-            mainPanel.remove(currentFormulaListPanel);
-            currentFormulaListPanel = null;
-        }
-        if (currentInputOutputPanel != null) {
-            mainPanel.remove(currentInputOutputPanel);
-            currentInputOutputPanel = null;
+    // সার্চ থেকে খোলা হলে "Back" ফর্মুলার নিজের ক্যাটাগরির লিস্টে যাবে
+    public void showFormula(String category, String formulaName) {
+        currentCategory = category;
+        showInputOutputPanel(formulaName);
+    }
+
+    // ওয়ার্কশিট একবারই তৈরি হয়, তাই নেভিগেশনের পরেও ধাপগুলো থেকে যায়
+    public void showWorksheet() {
+        if (worksheetPanel == null) {
+            worksheetPanel = new WorksheetPanel(this);
+            mainPanel.add(worksheetPanel, "Worksheet");
         }
-        
+        cardLayout.show(mainPanel, "Worksheet");
+    }
+
+    public void backToCategory() {
+        currentCategory = null;
         cardLayout.show(mainPanel, "CategoryPanel");
     }
 
     public void backToFormulaList() {
-        // কারেন্ট ইনপুট আউটপুট প্যানেল রিমুভ করুন কিন্তু ফর্মুলা লিস্ট রাখুন
-        if (currentInputOutputPanel != null) {
-            mainPanel.remove(currentInputOutputPanel);
-            currentInputOutputPanel = null;
-        }
-        
-        if (currentFormulaListPanel != null) {
-            cardLayout.show(mainPanel, "FormulaListPanel");
+        // ফর্মুলা লিস্ট ক্যাশ থেকে বাদ পড়ে গেলে আবার তৈরি হবে
+        if (currentCategory != null) {
+            showFormulaList(currentCategory);
         } else {
             backToCategory();
         }
     }
 
+    private static String formulaListKey(String category) {
+        return "FormulaList:" + category;
+    }
+
+    private static String inputOutputKey(String formulaName) {
+        return "InputOutput:" + formulaName;
+    }
+
     // কম্পোনেন্ট অ্যাডিশনের জন্য মেইন প্যানেল পাওয়ার মেথড
     public JPanel getMainPanel() {
         return mainPanel;
@@ -133,21 +143,18 @@ public class MainWindow extends JFrame {
         if (categoryPanel != null) {
             // ক্যাটাগরি প্যানেলের জন্য প্রয়োজনীয় ক্লিন আপ
         }
-        if (currentFormulaListPanel != null) {
-            mainPanel.remove(currentFormulaListPanel);
-            currentFormulaListPanel = null;
-        }
-        if (currentInputOutputPanel != null) {
-            mainPanel.remove(currentInputOutputPanel);
-            currentInputOutputPanel = null;
-        }
+        // ক্যাশ করা সব লিস্ট ও ক্যালকুলেটর প্যানেল সরিয়ে দিন
+        panelCache.clear();
+        currentCategory = null;
+        mainPanel.revalidate();
+        cardLayout.show(mainPanel, "CategoryPanel");
     }
 
     // অ্যাপ্লিকেশন লঞ্চ করার মেইন মেথড
     public static void main(String[] args) {
         // ভালো এপিয়ারেন্সের জন্য সিস্টেম লুক অ্যান্ড ফিল সেট করুন
         try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeel());
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,130 @@
+package Ui;
+
+import Engine.FormulaRegistry;
+import java.awt.*;
+import java.util.*;
+import java.util.function.Supplier;
+import javax.swing.*;
+
+// Constructed panels kept between navigations, least recently used first out.
+// A panel lives in the card container under its key for as long as it is
+// cached; evicting it removes it from the container so Swing can let it go.
+// The budget is both an entry count and an estimated footprint, counted from
+// the panel's component tree (a rough per-component cost, not a heap measure):
+//
+//     -Dphysiquist.panelCache.size=<entries>       (default 16)
+//     -Dphysiquist.panelCache.memoryKb=<kilobytes> (default 4096)
+//
+// A panel built against an older FormulaRegistry snapshot is rebuilt, so a
+// user formula defined meanwhile shows up in its category list. EDT only.
+class PanelCache {
+
+    private static final int BYTES_PER_COMPONENT = 2048;
+
+    private final JPanel container;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private static final class Entry {
+        final JPanel panel;
+        final FormulaRegistry registry;
+        final long bytes;
+
+        Entry(JPanel panel, FormulaRegistry registry, long bytes) {
+            this.panel = panel;
+            this.registry = registry;
+            this.bytes = bytes;
+        }
+    }
+
+    PanelCache(JPanel container) {
+        this(container,
+            Integer.getInteger("physiquist.panelCache.size", 16),
+            Long.getLong("physiquist.panelCache.memoryKb", 4096) * 1024);
+    }
+
+    PanelCache(JPanel container, int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Panel cache needs room for at least one panel");
+        }
+        this.container = container;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // The cached panel for key (now the most recently used), or a new one from
+    // factory, added to the container under key. The returned panel is never
+    // evicted by this call, even if it alone is over the memory budget.
+    JPanel get(String key, Supplier<? extends JPanel> factory) {
+        FormulaRegistry registry = FormulaRegistry.get();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.registry != registry) {
+            evict(key);
+            entry = null;
+        }
+        if (entry == null) {
+            long start = EdtMonitor.start();
+            JPanel panel = factory.get();
+            EdtMonitor.end("build " + panel.getClass().getSimpleName(), start);
+            entry = new Entry(panel, registry, estimate(panel));
+            entries.put(key, entry);
+            bytes += entry.bytes;
+            container.add(panel, key);
+            trim();
+        }
+        return entry.panel;
+    }
+
+    // The cached panel for key without building one, or null
+    JPanel peek(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.registry == FormulaRegistry.get() ? entry.panel : null;
+    }
+
+    void evict(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.bytes;
+            container.remove(entry.panel);
+        }
+    }
+
+    void clear() {
+        for (Entry entry : entries.values()) {
+            container.remove(entry.panel);
+        }
+        entries.clear();
+        bytes = 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getEstimatedBytes() {
+        return bytes;
+    }
+
+    // Drop least recently used panels until within budget, keeping the newest
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && entries.size() > 1) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            bytes -= eldest.bytes;
+            container.remove(eldest.panel);
+        }
+    }
+
+    private static long estimate(Component component) {
+        long total = BYTES_PER_COMPONENT;
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                total += estimate(child);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,350 @@
+package Ui;
+
+import Engine.Decimator;
+import Engine.Sweep;
+import Units.Quantity;
+import Units.Unit;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import javax.swing.*;
+
+// A sweep's output against its input. The view is a range of point indices,
+// so a log sweep spreads evenly across the axis. Each paint asks the
+// Decimator for one min/max pair per pixel column of the view and draws that
+// envelope, which costs the same for 10^7 points as for 10^3; zoomed in past
+// one point a pixel, the points themselves are joined. Drag pans, the wheel
+// zooms around the pointer, a double-click shows everything again.
+class PlotPanel extends JComponent {
+
+    private static final int LEFT = 80;
+    private static final int RIGHT = 20;
+    private static final int TOP = 30;
+    private static final int BOTTOM = 50;
+    private static final int TICKS = 5;
+    // Narrowest view, in points
+    private static final double MIN_SPAN = 4;
+    private static final Color LINE = new Color(0, 0, 128);
+    private static final Color GRID = new Color(230, 240, 255);
+    private static final Font FONT = new Font("Segoe UI", Font.PLAIN, 12);
+
+    private Sweep sweep;
+    private Decimator data;
+    private String xName;
+    private String yName;
+    private Quantity xQuantity = Quantity.NONE;
+    private Quantity yQuantity = Quantity.NONE;
+    private int xUnit;
+    private int yUnit;
+    // Visible points: [viewFrom, viewTo), point i centred at i + 0.5
+    private double viewFrom;
+    private double viewTo;
+    private double[] columnMin = new double[0];
+    private double[] columnMax = new double[0];
+    private int hoverX = -1;
+    private int dragX;
+    private double dragFrom;
+
+    PlotPanel() {
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(800, 450));
+
+        // ========== EVENTS ==========
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent evt) {
+                dragX = evt.getX();
+                dragFrom = viewFrom;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent evt) {
+                if (data != null) {
+                    double span = viewTo - viewFrom;
+                    setView(dragFrom - (evt.getX() - dragX) * span / plotWidth(), span);
+                }
+                setHover(evt.getX());
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent evt) {
+                setHover(evt.getX());
+            }
+
+            @Override
+            public void mouseExited(MouseEvent evt) {
+                setHover(-1);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                if (evt.getClickCount() == 2 && data != null) {
+                    setView(0, data.size());
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent evt) {
+                if (data == null) {
+                    return;
+                }
+                double span = viewTo - viewFrom;
+                double newSpan = Math.max(MIN_SPAN, Math.min(data.size(),
+                    span * Math.pow(1.25, evt.getPreciseWheelRotation())));
+                // The point under the pointer stays put
+                double anchor = pointAt(evt.getX());
+                setView(anchor - (anchor - viewFrom) * newSpan / span, newSpan);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    // A finished sweep, plotted whole. Values are in engine units and are
+    // shown in xUnit and yUnit of the two quantities
+    void setData(Sweep sweep, Decimator data, String xName, Quantity xQuantity, int xUnit,
+                 String yName, Quantity yQuantity, int yUnit) {
+        this.sweep = sweep;
+        this.data = data;
+        this.xName = xName;
+        this.yName = yName;
+        this.xQuantity = xQuantity;
+        this.yQuantity = yQuantity;
+        this.xUnit = xUnit;
+        this.yUnit = yUnit;
+        setView(0, data.size());
+    }
+
+    void setUnits(int xUnit, int yUnit) {
+        this.xUnit = xUnit;
+        this.yUnit = yUnit;
+        repaint();
+    }
+
+    private void setView(double from, double span) {
+        from = Math.max(0, Math.min(data.size() - span, from));
+        viewFrom = from;
+        viewTo = from + span;
+        repaint();
+    }
+
+    private void setHover(int x) {
+        if (hoverX != x) {
+            hoverX = x;
+            repaint();
+        }
+    }
+
+    private int plotWidth() {
+        return Math.max(1, getWidth() - LEFT - RIGHT);
+    }
+
+    private int plotHeight() {
+        return Math.max(1, getHeight() - TOP - BOTTOM);
+    }
+
+    // The fractional point at a pixel x
+    private double pointAt(int x) {
+        return viewFrom + (x - LEFT) * (viewTo - viewFrom) / plotWidth();
+    }
+
+    private double pixelOf(double point) {
+        return LEFT + (point - viewFrom) * plotWidth() / (viewTo - viewFrom);
+    }
+
+    // ========== PAINTING ==========
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = EdtMonitor.start();
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setFont(FONT);
+            if (data == null) {
+                drawMessage(g2, "Choose an input and a range, then Run");
+            } else {
+                paintPlot(g2);
+            }
+        } finally {
+            g2.dispose();
+        }
+        EdtMonitor.end("paint plot", start);
+    }
+
+    private void paintPlot(Graphics2D g2) {
+        int width = plotWidth();
+        int height = plotHeight();
+        if (columnMin.length != width) {
+            columnMin = new double[width];
+            columnMax = new double[width];
+        }
+        data.decimate(viewFrom, viewTo, width, columnMin, columnMax);
+
+        // Autoscale to what is in view, in the units shown
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < width; c++) {
+            if (!Double.isNaN(columnMin[c])) {
+                double a = yQuantity.fromBase(columnMin[c], yUnit);
+                double b = yQuantity.fromBase(columnMax[c], yUnit);
+                columnMin[c] = Math.min(a, b);
+                columnMax[c] = Math.max(a, b);
+                low = Math.min(low, columnMin[c]);
+                high = Math.max(high, columnMax[c]);
+            }
+        }
+        if (!(low <= high) || !Double.isFinite(high - low)) {
+            drawAxes(g2, 0, 1, false);
+            drawMessage(g2, "No finite values in view");
+            return;
+        }
+        double pad = high > low ? (high - low) * 0.05 : Math.max(Math.abs(low) * 0.1, 1);
+        low -= pad;
+        high += pad;
+        drawAxes(g2, low, high, true);
+
+        double scale = height / (high - low);
+        Shape clip = g2.getClip();
+        g2.clipRect(LEFT, TOP, width, height);
+        g2.setColor(LINE);
+        if (viewTo - viewFrom > width) {
+            // Envelope: each column's min..max, stretched to meet its
+            // neighbour so a steep stretch stays joined
+            double previousMin = Double.NaN;
+            double previousMax = Double.NaN;
+            for (int c = 0; c < width; c++) {
+                double min = columnMin[c];
+                double max = columnMax[c];
+                if (Double.isNaN(min)) {
+                    previousMin = Double.NaN;
+                    continue;
+                }
+                double top = Double.isNaN(previousMin) ? max : Math.max(max, previousMin);
+                double bottom = Double.isNaN(previousMin) ? min : Math.min(min, previousMax);
+                int x = LEFT + c;
+                g2.drawLine(x, (int) (TOP + (high - top) * scale), x, (int) (TOP + (high - bottom) * scale));
+                previousMin = min;
+                previousMax = max;
+            }
+        } else {
+            // Fewer points than pixels: join the points, with gaps where a
+            // value is not finite
+            int first = Math.max(0, (int) Math.floor(viewFrom - 1));
+            int last = Math.min(data.size() - 1, (int) Math.ceil(viewTo + 1));
+            int previousX = 0;
+            int previousY = 0;
+            boolean joined = false;
+            for (int i = first; i <= last; i++) {
+                double y = data.get(i);
+                if (!Double.isFinite(y)) {
+                    joined = false;
+                    continue;
+                }
+                int px = (int) Math.round(pixelOf(i + 0.5));
+                int py = (int) Math.round(TOP + (high - yQuantity.fromBase(y, yUnit)) * scale);
+                if (joined) {
+                    g2.drawLine(previousX, previousY, px, py);
+                }
+                if (viewTo - viewFrom <= width / 8.0) {
+                    g2.fillOval(px - 2, py - 2, 5, 5);
+                }
+                previousX = px;
+                previousY = py;
+                joined = true;
+            }
+        }
+        g2.setClip(clip);
+        drawHover(g2);
+    }
+
+    private void drawAxes(Graphics2D g2, double low, double high, boolean labelY) {
+        int width = plotWidth();
+        int height = plotHeight();
+        FontMetrics fm = g2.getFontMetrics();
+        double[] xs = new double[TICKS];
+        for (int t = 0; t < TICKS; t++) {
+            xs[t] = xAt(t / (double) (TICKS - 1));
+        }
+        for (int t = 0; t < TICKS; t++) {
+            // Vertical grid line and x label
+            int x = LEFT + (int) Math.round(t * (width - 1) / (double) (TICKS - 1));
+            g2.setColor(GRID);
+            g2.drawLine(x, TOP, x, TOP + height);
+            g2.setColor(Color.DARK_GRAY);
+            String label = format(xs[t], Math.abs(xs[Math.max(t, 1)] - xs[Math.max(t, 1) - 1]));
+            g2.drawString(label, Math.max(0, Math.min(getWidth() - fm.stringWidth(label), x - fm.stringWidth(label) / 2)),
+                TOP + height + fm.getAscent() + 4);
+
+            // Horizontal grid line and y label
+            int y = TOP + (int) Math.round(t * (height - 1) / (double) (TICKS - 1));
+            g2.setColor(GRID);
+            g2.drawLine(LEFT, y, LEFT + width, y);
+            if (labelY) {
+                g2.setColor(Color.DARK_GRAY);
+                label = format(high - (high - low) * t / (TICKS - 1), (high - low) / (TICKS - 1));
+                g2.drawString(label, LEFT - 6 - fm.stringWidth(label), y + fm.getAscent() / 2);
+            }
+        }
+        g2.setColor(Color.GRAY);
+        g2.drawRect(LEFT, TOP, width, height);
+
+        g2.setColor(Color.BLACK);
+        String xTitle = xName + " (" + Unit.getSymbol(xUnit) + ")" + (sweep.isLog() ? ", log scale" : "");
+        g2.drawString(xTitle, LEFT + (width - fm.stringWidth(xTitle)) / 2, getHeight() - 8);
+        g2.drawString(yName + " (" + Unit.getSymbol(yUnit) + ")", 8, TOP - 10);
+    }
+
+    // The nearest point under the pointer, as a line and a readout
+    private void drawHover(Graphics2D g2) {
+        if (hoverX < LEFT || hoverX >= LEFT + plotWidth()) {
+            return;
+        }
+        int point = (int) Math.max(0, Math.min(data.size() - 1, Math.floor(pointAt(hoverX))));
+        g2.setColor(Color.LIGHT_GRAY);
+        g2.drawLine(hoverX, TOP, hoverX, TOP + plotHeight());
+        String readout = String.format("%s = %.6g %s    %s = %.6g %s",
+            xName, xQuantity.fromBase(sweep.getX(point), xUnit), Unit.getSymbol(xUnit),
+            yName, yQuantity.fromBase(data.get(point), yUnit), Unit.getSymbol(yUnit));
+        FontMetrics fm = g2.getFontMetrics();
+        int x = LEFT + plotWidth() - fm.stringWidth(readout) - 6;
+        g2.setColor(new Color(255, 255, 255, 220));
+        g2.fillRect(x - 4, TOP + 4, fm.stringWidth(readout) + 8, fm.getHeight() + 4);
+        g2.setColor(Color.BLACK);
+        g2.drawString(readout, x, TOP + 6 + fm.getAscent());
+    }
+
+    // The swept input at a fraction of the way across the view, in the units
+    // shown; the ends of a full view are the ends of the sweep exactly
+    private double xAt(double fraction) {
+        double point = viewFrom + fraction * (viewTo - viewFrom) - 0.5;
+        point = Math.max(0, Math.min(sweep.getPoints() - 1, point));
+        double x = point == (int) point ? sweep.getX((int) point) : sweep.getX(point);
+        return xQuantity.fromBase(x, xUnit);
+    }
+
+    private void drawMessage(Graphics2D g2, String message) {
+        FontMetrics fm = g2.getFontMetrics();
+        g2.setColor(Color.GRAY);
+        g2.drawString(message, (getWidth() - fm.stringWidth(message)) / 2, getHeight() / 2);
+    }
+
+    // Enough significant digits that labels a step apart differ: three, or
+    // more when zoomed in far relative to the values
+    private static String format(double value, double step) {
+        if (!Double.isFinite(value)) {
+            return String.valueOf(value);
+        }
+        int digits = 3;
+        if (step > 0 && value != 0) {
+            digits = Math.max(3, Math.min(15, (int) Math.ceil(Math.log10(Math.abs(value) / step)) + 2));
+        }
+        return String.format("%." + digits + "g", value);
+    }
+}
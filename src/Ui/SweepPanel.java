@@ -0,0 +1,291 @@
+package Ui;
+
+import Engine.DecimalParser;
+import Engine.Decimator;
+import Engine.FormulaInfo;
+import Engine.Solver;
+import Engine.Sweep;
+import Metrics.CalculationMetrics;
+import Metrics.ErrorKind;
+import Metrics.FormulaMetrics;
+import Units.Quantity;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import javax.swing.*;
+
+// Plots a calculator's result against one of its inputs, the others held at
+// the values the calculator had when the plot was opened. The sweep runs on
+// a worker, in blocks so it reports progress and stops on Cancel, and the
+// worker also builds the plot's Decimator, so the EDT only ever draws.
+class SweepPanel extends JPanel {
+
+    private static final int DEFAULT_POINTS = 100_000;
+    private static final String[] SCALES = {"Linear", "Log"};
+
+    private final FormulaInfo info;
+    private final Solver solver;
+    private final double[] held;
+    private final JComboBox<String> inputBox;
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final JComboBox<String> xUnitBox = new JComboBox<>();
+    private final JComboBox<String> yUnitBox;
+    private final JTextField pointsField = new JTextField(String.valueOf(DEFAULT_POINTS), 7);
+    private final JComboBox<String> scaleBox = new JComboBox<>(SCALES);
+    private final JButton runButton = new JButton("Run");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final PlotPanel plot = new PlotPanel();
+    private SwingWorker<Decimator, Void> running;
+    private Sweep plotted;
+
+    // held: every input of solver in engine units, NaN where the calculator
+    // had none; the swept one is ignored. slot is swept first
+    SweepPanel(FormulaInfo info, Solver solver, double[] held, int slot) {
+        this.info = info;
+        this.solver = solver;
+        this.held = held.clone();
+        setLayout(new BorderLayout(0, 10));
+        setBackground(Color.WHITE);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // ========== UI ==========
+        String[] inputs = new String[solver.getArity()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = solver.getInput(i);
+        }
+        inputBox = new JComboBox<>(inputs);
+        inputBox.setSelectedIndex(slot);
+        yUnitBox = new JComboBox<>(outputQuantity().getUnitSymbols());
+        yUnitBox.setSelectedIndex(unitIndex(outputQuantity(), outputQuantity().getSiUnit()));
+        fillRange();
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        controls.setBackground(Color.WHITE);
+        controls.add(label("Sweep"));
+        controls.add(inputBox);
+        controls.add(label("from"));
+        controls.add(fromField);
+        controls.add(label("to"));
+        controls.add(toField);
+        controls.add(xUnitBox);
+        controls.add(label("Points"));
+        controls.add(pointsField);
+        controls.add(scaleBox);
+        controls.add(label(solver.getTarget() + " in"));
+        controls.add(yUnitBox);
+        for (Component component : controls.getComponents()) {
+            component.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        }
+
+        runButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        runButton.setBackground(new Color(100, 200, 100));
+        runButton.setForeground(Color.WHITE);
+        cancelButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        cancelButton.setEnabled(false);
+        progressBar.setVisible(false);
+        JPanel runPanel = new JPanel(new BorderLayout(8, 0));
+        runPanel.setBackground(Color.WHITE);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        buttons.setBackground(Color.WHITE);
+        buttons.add(runButton);
+        buttons.add(cancelButton);
+        runPanel.add(buttons, BorderLayout.WEST);
+        runPanel.add(progressBar, BorderLayout.CENTER);
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.setBackground(Color.WHITE);
+        top.add(controls, BorderLayout.CENTER);
+        top.add(runPanel, BorderLayout.SOUTH);
+        add(top, BorderLayout.NORTH);
+
+        plot.setBorder(BorderFactory.createLineBorder(new Color(180, 200, 255), 1));
+        add(plot, BorderLayout.CENTER);
+
+        // ========== EVENTS ==========
+        inputBox.addActionListener(e -> fillRange());
+        runButton.addActionListener(e -> run());
+        fromField.addActionListener(e -> run());
+        toField.addActionListener(e -> run());
+        pointsField.addActionListener(e -> run());
+        cancelButton.addActionListener(e -> cancel());
+        xUnitBox.addActionListener(e -> unitsChanged());
+        yUnitBox.addActionListener(e -> unitsChanged());
+    }
+
+    private static JLabel label(String text) {
+        return new JLabel(text);
+    }
+
+    private Quantity inputQuantity(int slot) {
+        return info.getQuantity(solver.getInput(slot));
+    }
+
+    private Quantity outputQuantity() {
+        return info.getQuantity(solver.getTarget());
+    }
+
+    private static int unitIndex(Quantity quantity, int unit) {
+        for (int i = 0; i < quantity.getUnitCount(); i++) {
+            if (quantity.getUnit(i) == unit) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // A new input to sweep: its units, and a starting range of a decade
+    // either side of the held value (or 0 to 1 when it has none)
+    private void fillRange() {
+        int slot = inputBox.getSelectedIndex();
+        Quantity quantity = inputQuantity(slot);
+        int unit = quantity.getSiUnit();
+        xUnitBox.setModel(new DefaultComboBoxModel<>(quantity.getUnitSymbols()));
+        xUnitBox.setSelectedIndex(unitIndex(quantity, unit));
+        double value = quantity.fromBase(held[slot], unit);
+        boolean spread = Double.isFinite(value) && value > 0;
+        fromField.setText(spread ? String.valueOf(value / 10) : "0");
+        toField.setText(spread ? String.valueOf(value * 10) : "1");
+        scaleBox.setSelectedIndex(spread ? 1 : 0);
+    }
+
+    private void unitsChanged() {
+        if (plotted != null && inputBox.getSelectedIndex() == plotted.getSlot()) {
+            plot.setUnits(selectedUnit(inputQuantity(plotted.getSlot()), xUnitBox),
+                selectedUnit(outputQuantity(), yUnitBox));
+        }
+    }
+
+    private static int selectedUnit(Quantity quantity, JComboBox<String> box) {
+        return quantity.getUnit(Math.max(box.getSelectedIndex(), 0));
+    }
+
+    // ========== SWEEP ==========
+
+    private void run() {
+        cancel();
+        int slot = inputBox.getSelectedIndex();
+        Quantity quantity = inputQuantity(slot);
+        int unit = selectedUnit(quantity, xUnitBox);
+        Sweep sweep;
+        try {
+            for (int other = 0; other < held.length; other++) {
+                if (other != slot && Double.isNaN(held[other])) {
+                    throw new IllegalArgumentException("Please enter value for " + solver.getInput(other)
+                        + " in the calculator first");
+                }
+            }
+            double from = quantity.toBase(parse(fromField, "From"), unit);
+            double to = quantity.toBase(parse(toField, "To"), unit);
+            int points = (int) Math.min(Integer.MAX_VALUE, Math.round(parse(pointsField, "Points")));
+            sweep = new Sweep(solver, held, slot, from, to, points, scaleBox.getSelectedIndex() == 1);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Sweep", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String xName = solver.getInput(slot);
+        int xUnit = unit;
+        int yUnit = selectedUnit(outputQuantity(), yUnitBox);
+
+        SwingWorker<Decimator, Void> worker = new SwingWorker<Decimator, Void>() {
+            @Override
+            protected Decimator doInBackground() {
+                FormulaMetrics metrics = CalculationMetrics.of(info.getName());
+                ForkJoinPool pool = ForkJoinPool.commonPool();
+                try {
+                    int points = sweep.getPoints();
+                    double[] ys = sweep.newOutputs();
+                    int block = Math.max(1 << 14, points / 100);
+                    for (int from = 0; from < points; from += block) {
+                        if (isCancelled()) {
+                            return null;
+                        }
+                        int to = Math.min(points, from + block);
+                        long start = System.nanoTime();
+                        sweep.evaluate(ys, from, to, pool);
+                        metrics.record(System.nanoTime() - start, ys, from, to);
+                        setProgress((int) (100L * to / points));
+                    }
+                    return new Decimator(ys);
+                } catch (RuntimeException e) {
+                    metrics.recordError(ErrorKind.FAILURE);
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (running != this) {
+                    return;
+                }
+                sweepEnded();
+                try {
+                    plotted = sweep;
+                    plot.setData(sweep, get(), xName, quantity, xUnit, solver.getTarget(), outputQuantity(), yUnit);
+                } catch (CancellationException e) {
+                    // Cancel pressed; the last plot stays
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(SweepPanel.this, "Error in sweep: " + e.getCause().getMessage(),
+                        "Sweep", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+        running = worker;
+        runButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        worker.execute();
+    }
+
+    private static double parse(JTextField field, String name) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Please enter a value for " + name);
+        }
+        return DecimalParser.parse(text, 0, text.length());
+    }
+
+    void cancel() {
+        if (running != null) {
+            running.cancel(false);
+            sweepEnded();
+        }
+    }
+
+    private void sweepEnded() {
+        running = null;
+        runButton.setEnabled(true);
+        cancelButton.setEnabled(false);
+        progressBar.setVisible(false);
+    }
+
+    // A window of its own, so the calculator stays usable beside it
+    static void open(Component parent, FormulaInfo info, Solver solver, double[] held, int slot) {
+        SweepPanel panel = new SweepPanel(info, solver, held, slot);
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent),
+            "Plot " + solver.getTarget() + " - " + info.getName(), Dialog.ModalityType.MODELESS);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                panel.cancel();
+            }
+        });
+        dialog.setContentPane(panel);
+        dialog.pack();
+        dialog.setLocationRelativeTo(parent);
+        dialog.setVisible(true);
+    }
+}
@@ -1,31 +1,50 @@
 package Ui;
 
 import java.awt.*;
+import java.awt.font.FontRenderContext;
 import java.awt.image.*;
-import java.net.URL;
-import javax.imageio.ImageIO;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.swing.*;
 
 public class WelcomePanel extends JPanel {
 
+    private static final String BACKGROUND_URL =
+        "https://static.vecteezy.com/system/resources/thumbnails/029/722/402/small/physics-science-theory-law-and-mathematical-formul-image-vector.jpg";
+    private static final int NETWORK_TIMEOUT_MS = 5000;
+
+    private static final String TITLE = "PHYSIQUIST";
+    private static final Font TITLE_FONT = new Font("Segoe UI Black", Font.BOLD, 120);
+    private static final int TITLE_GLOW = 6;
+
     private MainWindow mainWindow;
-    private BufferedImage backgroundImage;
+    private AsyncImage backgroundImage;
+
+    // The background and title composited at the panel's size, so a paint
+    // is one blit. Redrawn on resize, when the background arrives and when a
+    // volatile frame loses its contents; the title layer is drawn only once.
+    private Image frame;
+    private boolean frameStale = true;
+    private BufferedImage titleLayer;
+    private double titleScale;
+    private Rectangle titleBounds;
+    private int titleAdvance;
 
     public WelcomePanel(MainWindow mainWindow) {
+        this(mainWindow, defaultBackground());
+    }
+
+    public WelcomePanel(MainWindow mainWindow, ImageSource background) {
         this.mainWindow = mainWindow;
 
         setLayout(null); // Absolute positioning
 
-        // ===== Load background image safely =====
-        try {
-            URL imageUrl = new URL(
-                "https://static.vecteezy.com/system/resources/thumbnails/029/722/402/small/physics-science-theory-law-and-mathematical-formul-image-vector.jpg"
-            );
-            backgroundImage = ImageIO.read(imageUrl);
-        } catch (Exception e) {
-            System.out.println("Background image load failed. Using fallback color.");
-            backgroundImage = null; // fallback
-        }
+        // ===== Load background image off the EDT; paint the fallback until it arrives =====
+        backgroundImage = new AsyncImage(background, () -> {
+            frameStale = true;
+            repaint();
+        });
+        backgroundImage.load();
 
         // ===== "Let's Start" Button =====
         JButton startButton = new JButton("Let's Start");
@@ -38,50 +57,135 @@ public class WelcomePanel extends JPanel {
         add(startButton);
     }
 
+    // -Dphysiquist.background=<file>, then a bundled image, then the web
+    // image through a disk cache so it is downloaded at most once
+    private static ImageSource defaultBackground() {
+        Path cache = Paths.get(System.getProperty("user.home"), ".physiquist", "cache", "welcome-background.png");
+        ImageSource remote = ImageSource.cached(cache, ImageSource.url(BACKGROUND_URL, NETWORK_TIMEOUT_MS));
+        String override = System.getProperty("physiquist.background");
+        if (override != null) {
+            return ImageSource.firstOf(ImageSource.file(Paths.get(override)), remote);
+        }
+        return ImageSource.firstOf(ImageSource.resource("/Ui/welcome-background.jpg"), remote);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        long start = EdtMonitor.start();
 
+        // The frame covers every pixel, so the panel's own fill is skipped
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (frame == null || frame.getWidth(null) != width || frame.getHeight(null) != height) {
+            frame = createFrame(width, height);
+            frameStale = true;
+        }
+        if (frame instanceof VolatileImage) {
+            // A volatile frame can lose its contents (display change, remote
+            // session reconnect); redraw it then and blit again
+            VolatileImage volatileFrame = (VolatileImage) frame;
+            do {
+                int status = volatileFrame.validate(getGraphicsConfiguration());
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    frame = volatileFrame = (VolatileImage) createFrame(width, height);
+                    frameStale = true;
+                }
+                if (frameStale || status != VolatileImage.IMAGE_OK) {
+                    renderFrame(volatileFrame, width, height);
+                }
+                g2.drawImage(volatileFrame, 0, 0, null);
+            } while (volatileFrame.contentsLost());
+        } else {
+            if (frameStale) {
+                renderFrame(frame, width, height);
+            }
+            g2.drawImage(frame, 0, 0, null);
+        }
+        EdtMonitor.end("paint WelcomePanel", start);
+    }
 
-        int width = getWidth();
-        int height = getHeight();
+    // Video memory if the toolkit offers it (a plain compatible image when
+    // headless or not yet on screen)
+    private Image createFrame(int width, int height) {
+        Image image = createVolatileImage(width, height);
+        if (image != null) {
+            return image;
+        }
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        return gc != null ? gc.createCompatibleImage(width, height)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void renderFrame(Image target, int width, int height) {
+        long start = EdtMonitor.start();
+        Graphics2D g2 = (Graphics2D) target.getGraphics();
 
         // ===== Draw background =====
-        if (backgroundImage != null) {
-            g2.drawImage(backgroundImage, 0, 0, width, height, this);
+        BufferedImage background = backgroundImage.getScaled(width, height);
+        if (background != null) {
+            g2.drawImage(background, 0, 0, null);
         } else {
             // fallback color
             g2.setColor(new Color(135, 206, 250)); // light sky blue
             g2.fillRect(0, 0, width, height);
         }
 
-        // ===== Draw PHYSIQUIST title =====
-        String title = "PHYSIQUIST";
-        Font titleFont = new Font("Segoe UI Black", Font.BOLD, 120);
-        g2.setFont(titleFont);
+        // ===== Draw PHYSIQUIST title, centered on its baseline =====
+        double scale = g2.getTransform().getScaleX();
+        if (titleLayer == null || titleScale != scale) {
+            titleLayer = renderTitle(g2, scale);
+            titleScale = scale;
+        }
+        int x = (width - titleAdvance) / 2 + titleBounds.x;
+        int y = height / 2 + titleBounds.y;
+        g2.drawImage(titleLayer, x, y, titleBounds.width, titleBounds.height, null);
+
+        g2.dispose();
+        frameStale = false;
+        EdtMonitor.end("render WelcomePanel", start);
+    }
 
-        // Center position
-        FontMetrics fm = g2.getFontMetrics();
-        int titleWidth = fm.stringWidth(title);
-        int titleHeight = fm.getAscent();
-        int x = (width - titleWidth) / 2;
-        int y = height / 2;
+    // The title with its shadow and glow, drawn once into a translucent image
+    // at the device scale of the frame, so it stays sharp on HiDPI screens.
+    // titleBounds is where the image goes relative to the text's origin.
+    private BufferedImage renderTitle(Graphics2D frameGraphics, double scale) {
+        frameGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        FontRenderContext frc = frameGraphics.getFontRenderContext();
+        FontMetrics fm = frameGraphics.getFontMetrics(TITLE_FONT);
+        titleAdvance = fm.stringWidth(TITLE);
+        titleBounds = TITLE_FONT.createGlyphVector(frc, TITLE).getVisualBounds().getBounds();
+        // Room for the shadow, the glow and antialiased edges around the glyphs
+        titleBounds.grow(TITLE_GLOW + 1, TITLE_GLOW + 1);
+
+        BufferedImage layer = new BufferedImage((int) Math.ceil(titleBounds.width * scale),
+            (int) Math.ceil(titleBounds.height * scale), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = layer.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.scale(scale, scale);
+        g2.setFont(TITLE_FONT);
+        int x = -titleBounds.x;
+        int y = -titleBounds.y;
 
         // Shadow
         g2.setColor(new Color(0, 0, 0, 100));
-        g2.drawString(title, x + 5, y + 5);
+        g2.drawString(TITLE, x + 5, y + 5);
 
         // Glow effect
-        for(int i = 1; i <= 6; i++) {
-            g2.setColor(new Color(255, 255, 255, 20));
-            g2.drawString(title, x - i, y - i);
-            g2.drawString(title, x + i, y + i);
+        g2.setColor(new Color(255, 255, 255, 20));
+        for(int i = 1; i <= TITLE_GLOW; i++) {
+            g2.drawString(TITLE, x - i, y - i);
+            g2.drawString(TITLE, x + i, y + i);
         }
 
         // Main text in Navy Blue
         g2.setColor(new Color(0, 0, 128)); // Navy Blue
-        g2.drawString(title, x, y);
+        g2.drawString(TITLE, x, y);
+        g2.dispose();
+        return layer;
     }
 }
@@ -0,0 +1,373 @@
+package Ui;
+
+import Engine.DecimalParser;
+import Engine.FormulaInfo;
+import Engine.FormulaRegistry;
+import Engine.Solver;
+import Engine.Worksheet;
+import Units.Quantity;
+import Units.Unit;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+// Calculators chained on one sheet: every step is a formula solved for one
+// variable, and each of its inputs is typed in or taken from another step's
+// result. The sheet is a Worksheet; an edit marks what it touched and, once a
+// frame, only the steps downstream of the edits are solved again and shown.
+// The panel lives as long as the window, so the sheet survives navigation.
+class WorksheetPanel extends JPanel {
+
+    private static final int FRAME_MS = 16;
+    private static final String VALUE = "Value";
+
+    private final Worksheet worksheet = new Worksheet();
+    private final Map<Integer, StepPanel> stepPanels = new HashMap<>();
+    private final JPanel stepsPanel;
+    private final JComboBox<String> formulaBox;
+    private final JComboBox<String> targetBox;
+    private final Timer recalculateTimer;
+
+    WorksheetPanel(MainWindow mainWindow) {
+        setLayout(new BorderLayout());
+        setBackground(Color.WHITE);
+
+        // ========== UI ==========
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.setBackground(Color.WHITE);
+        JLabel title = new JLabel("Worksheet", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        title.setForeground(new Color(0, 0, 128)); // Navy blue color
+        title.setBorder(BorderFactory.createEmptyBorder(20, 0, 10, 0));
+        topPanel.add(title, BorderLayout.NORTH);
+
+        JPanel addPanel = new JPanel(new FlowLayout());
+        addPanel.setBackground(Color.WHITE);
+        formulaBox = new JComboBox<>();
+        formulaBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        for (FormulaInfo info : FormulaRegistry.get().getFormulas()) {
+            if (info.getVariableCount() > 0) {
+                formulaBox.addItem(info.getName());
+            }
+        }
+        targetBox = new JComboBox<>();
+        targetBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        formulaBox.addActionListener(e -> updateTargets());
+        updateTargets();
+        JButton addButton = new JButton("Add Step");
+        addButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        addButton.setBackground(new Color(100, 200, 100));
+        addButton.setForeground(Color.WHITE);
+        addButton.addActionListener(e -> addStep());
+        addPanel.add(new JLabel("Formula:"));
+        addPanel.add(formulaBox);
+        addPanel.add(new JLabel("Solve for:"));
+        addPanel.add(targetBox);
+        addPanel.add(addButton);
+        topPanel.add(addPanel, BorderLayout.CENTER);
+        add(topPanel, BorderLayout.NORTH);
+
+        stepsPanel = new JPanel();
+        stepsPanel.setLayout(new BoxLayout(stepsPanel, BoxLayout.Y_AXIS));
+        stepsPanel.setBackground(Color.WHITE);
+        JPanel stepsHolder = new JPanel(new BorderLayout());
+        stepsHolder.setBackground(Color.WHITE);
+        stepsHolder.add(stepsPanel, BorderLayout.NORTH);
+        JScrollPane scrollPane = new JScrollPane(stepsHolder);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 30));
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16); // Smooth scrolling
+        add(scrollPane, BorderLayout.CENTER);
+
+        JButton backBtn = new JButton("← Back to Categories");
+        backBtn.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        backBtn.setBackground(new Color(255, 230, 230));
+        backBtn.addActionListener(e -> mainWindow.backToCategory());
+        JPanel bottomPanel = new JPanel(new FlowLayout());
+        bottomPanel.setBackground(Color.WHITE);
+        bottomPanel.add(backBtn);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // Edits within one frame are solved together
+        recalculateTimer = new Timer(FRAME_MS, e -> recalculate());
+        recalculateTimer.setRepeats(false);
+    }
+
+    private void updateTargets() {
+        targetBox.removeAllItems();
+        FormulaInfo info = FormulaRegistry.get().byName((String) formulaBox.getSelectedItem());
+        if (info != null) {
+            for (String variable : info.getVariables()) {
+                if (info.canSolve(variable)) {
+                    targetBox.addItem(variable);
+                }
+            }
+        }
+    }
+
+    private void addStep() {
+        String formula = (String) formulaBox.getSelectedItem();
+        String target = (String) targetBox.getSelectedItem();
+        if (formula == null || target == null) {
+            return;
+        }
+        int id;
+        try {
+            id = worksheet.add(formula, target);
+        } catch (IllegalArgumentException e) {
+            showError(e);
+            return;
+        }
+        StepPanel panel = new StepPanel(id);
+        stepPanels.put(id, panel);
+        stepsPanel.add(panel);
+        refreshSources();
+        stepsPanel.revalidate();
+        stepsPanel.repaint();
+        scheduleRecalculation();
+    }
+
+    private void removeStep(int id) {
+        worksheet.remove(id);
+        stepsPanel.remove(stepPanels.remove(id));
+        refreshSources();
+        stepsPanel.revalidate();
+        stepsPanel.repaint();
+        scheduleRecalculation();
+    }
+
+    // Every input's choice of sources lists the other steps there are now
+    private void refreshSources() {
+        for (StepPanel panel : stepPanels.values()) {
+            panel.refreshSources();
+        }
+    }
+
+    void scheduleRecalculation() {
+        if (!recalculateTimer.isRunning()) {
+            recalculateTimer.start();
+        }
+    }
+
+    private void recalculate() {
+        long start = EdtMonitor.start();
+        for (int id : worksheet.recalculate()) {
+            stepPanels.get(id).showResult();
+        }
+        EdtMonitor.end("worksheet recalculation", start);
+    }
+
+    private void showError(Exception error) {
+        JOptionPane.showMessageDialog(this, error.getMessage(), "Worksheet", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private String describe(int id) {
+        Solver solver = worksheet.getSolver(id);
+        return "#" + (id + 1) + " " + solver.getFormula() + " (" + solver.getTarget() + ")";
+    }
+
+    // ========== STEP ==========
+
+    // One input of a step: where its value comes from, and the typed value
+    private static final class InputRow {
+
+        final JComboBox<String> sourceBox = new JComboBox<>();
+        final JTextField valueField = new JTextField(10);
+        final JComboBox<String> unitBox;
+        // The step each source entry after Value stands for
+        int[] sourceIds = new int[0];
+        boolean linked;
+
+        InputRow(Quantity quantity) {
+            unitBox = new JComboBox<>(quantity.getUnitSymbols());
+        }
+
+        void setLinked(boolean linked) {
+            this.linked = linked;
+            valueField.setEnabled(!linked);
+            unitBox.setEnabled(!linked);
+        }
+    }
+
+    private final class StepPanel extends JPanel {
+
+        private final int id;
+        private final Solver solver;
+        private final InputRow[] rows;
+        private final JLabel resultLabel;
+        private boolean refreshing;
+
+        StepPanel(int id) {
+            this.id = id;
+            this.solver = worksheet.getSolver(id);
+            rows = new InputRow[solver.getArity()];
+
+            setLayout(new BorderLayout(10, 5));
+            setBackground(Color.WHITE);
+            setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(0, 0, 10, 0),
+                BorderFactory.createTitledBorder(describe(id))));
+            setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            JPanel inputsPanel = new JPanel(new GridLayout(0, 1, 5, 5));
+            inputsPanel.setBackground(Color.WHITE);
+            for (int i = 0; i < rows.length; i++) {
+                int slot = i;
+                InputRow input = new InputRow(worksheet.getInputQuantity(id, slot));
+                rows[slot] = input;
+                JPanel row = new JPanel(new BorderLayout(5, 0));
+                row.setBackground(Color.WHITE);
+                JLabel label = new JLabel(solver.getInput(slot) + (solver.isOptional(slot) ? " (optional):" : ":"));
+                label.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+                label.setPreferredSize(new Dimension(140, 28));
+
+                input.sourceBox.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                input.sourceBox.addActionListener(e -> sourceChanged(slot));
+
+                input.valueField.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+                input.valueField.getDocument().addDocumentListener(new DocumentListener() {
+                    @Override
+                    public void insertUpdate(DocumentEvent e) {
+                        valueChanged(slot);
+                    }
+
+                    @Override
+                    public void removeUpdate(DocumentEvent e) {
+                        valueChanged(slot);
+                    }
+
+                    @Override
+                    public void changedUpdate(DocumentEvent e) {
+                        valueChanged(slot);
+                    }
+                });
+
+                input.unitBox.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                input.unitBox.addActionListener(e -> valueChanged(slot));
+
+                JPanel valuePanel = new JPanel(new BorderLayout(5, 0));
+                valuePanel.setBackground(Color.WHITE);
+                valuePanel.add(input.valueField, BorderLayout.CENTER);
+                valuePanel.add(input.unitBox, BorderLayout.EAST);
+
+                row.add(label, BorderLayout.WEST);
+                row.add(input.sourceBox, BorderLayout.CENTER);
+                row.add(valuePanel, BorderLayout.EAST);
+                inputsPanel.add(row);
+            }
+            add(inputsPanel, BorderLayout.CENTER);
+
+            JPanel resultPanel = new JPanel(new BorderLayout(10, 0));
+            resultPanel.setBackground(Color.WHITE);
+            resultLabel = new JLabel();
+            resultLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+            resultLabel.setForeground(new Color(0, 0, 128));
+            JButton removeButton = new JButton("Remove");
+            removeButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+            removeButton.setBackground(new Color(255, 230, 230));
+            removeButton.addActionListener(e -> removeStep(id));
+            resultPanel.add(resultLabel, BorderLayout.CENTER);
+            resultPanel.add(removeButton, BorderLayout.EAST);
+            add(resultPanel, BorderLayout.SOUTH);
+            showResult();
+        }
+
+        // Value, then every other step there is; keeps the current choice. An
+        // input whose step was removed is back on Value, so the value still in
+        // its field is read again
+        void refreshSources() {
+            int[] others = worksheet.getSteps();
+            refreshing = true;
+            for (int slot = 0; slot < rows.length; slot++) {
+                InputRow input = rows[slot];
+                int current = worksheet.getSource(id, slot);
+                JComboBox<String> box = input.sourceBox;
+                box.removeAllItems();
+                box.addItem(VALUE);
+                int[] ids = new int[others.length];
+                int count = 0;
+                for (int other : others) {
+                    if (other != id) {
+                        ids[count++] = other;
+                        box.addItem("← " + describe(other));
+                        if (other == current) {
+                            box.setSelectedIndex(count);
+                        }
+                    }
+                }
+                input.sourceIds = Arrays.copyOf(ids, count);
+                boolean dropped = input.linked && current < 0;
+                input.setLinked(current >= 0);
+                if (dropped) {
+                    valueChanged(slot);
+                }
+            }
+            refreshing = false;
+        }
+
+        private void sourceChanged(int slot) {
+            if (refreshing) {
+                return;
+            }
+            InputRow input = rows[slot];
+            int index = input.sourceBox.getSelectedIndex();
+            if (index > 0) {
+                try {
+                    worksheet.link(id, slot, input.sourceIds[index - 1]);
+                } catch (IllegalArgumentException e) {
+                    showError(e);
+                    refreshing = true;
+                    input.sourceBox.setSelectedIndex(0);
+                    refreshing = false;
+                    index = 0;
+                }
+            }
+            input.setLinked(index > 0);
+            if (index <= 0) {
+                valueChanged(slot);
+            }
+            showResult();
+            scheduleRecalculation();
+        }
+
+        // The typed value in engine units, or none if it is blank or not a number
+        private void valueChanged(int slot) {
+            if (worksheet.getSource(id, slot) >= 0) {
+                return;
+            }
+            InputRow input = rows[slot];
+            String text = input.valueField.getText();
+            double value;
+            try {
+                value = DecimalParser.parse(text, 0, text.length());
+            } catch (NumberFormatException e) {
+                worksheet.clear(id, slot);
+                scheduleRecalculation();
+                return;
+            }
+            Quantity quantity = worksheet.getInputQuantity(id, slot);
+            int unit = quantity.getUnit(Math.max(input.unitBox.getSelectedIndex(), 0));
+            worksheet.setValue(id, slot, quantity.toBase(value, unit));
+            scheduleRecalculation();
+        }
+
+        // In the SI unit of the result's quantity
+        void showResult() {
+            if (worksheet.isDirty(id)) {
+                resultLabel.setText(solver.getTarget() + " = …");
+            } else if (!worksheet.isReady(id)) {
+                resultLabel.setText(solver.getTarget() + " = ? (inputs missing)");
+            } else {
+                Quantity quantity = worksheet.getResultQuantity(id);
+                int unit = quantity.getSiUnit();
+                resultLabel.setText(String.format("%s = %.6g %s", solver.getTarget(),
+                    quantity.fromBase(worksheet.getResult(id), unit), Unit.getSymbol(unit)));
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Units;
+
+// Physical dimensions packed into one int: a signed 4-bit exponent for each of
+// the base quantities below, so comparing two dimensions is an int compare and
+// multiplying them is adding exponent vectors. Angle is kept as its own base so
+// radians never silently mix with plain ratios.
+public final class Dimension {
+
+    public static final int LENGTH = 0;
+    public static final int MASS = 1;
+    public static final int TIME = 2;
+    public static final int CURRENT = 3;
+    public static final int TEMPERATURE = 4;
+    public static final int AMOUNT = 5;
+    public static final int ANGLE = 6;
+
+    public static final int NONE = 0;
+
+    private static final int BASES = 7;
+    private static final int BITS = 4;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MIN_EXPONENT = -(1 << (BITS - 1));
+    private static final int MAX_EXPONENT = (1 << (BITS - 1)) - 1;
+    private static final String[] SYMBOLS = {"L", "M", "T", "I", "Θ", "N", "A"};
+
+    private Dimension() {
+    }
+
+    public static int of(int length, int mass, int time, int current, int temperature, int amount, int angle) {
+        int[] exponents = {length, mass, time, current, temperature, amount, angle};
+        int packed = 0;
+        for (int base = 0; base < BASES; base++) {
+            packed = with(packed, base, exponents[base]);
+        }
+        return packed;
+    }
+
+    public static int base(int base) {
+        return with(NONE, base, 1);
+    }
+
+    public static int exponent(int dimension, int base) {
+        int nibble = (dimension >>> (base * BITS)) & MASK;
+        return nibble > MAX_EXPONENT ? nibble - (1 << BITS) : nibble;
+    }
+
+    public static int multiply(int a, int b) {
+        int packed = NONE;
+        for (int base = 0; base < BASES; base++) {
+            packed = with(packed, base, exponent(a, base) + exponent(b, base));
+        }
+        return packed;
+    }
+
+    public static int divide(int a, int b) {
+        return multiply(a, power(b, -1));
+    }
+
+    public static int power(int dimension, int n) {
+        int packed = NONE;
+        for (int base = 0; base < BASES; base++) {
+            packed = with(packed, base, exponent(dimension, base) * n);
+        }
+        return packed;
+    }
+
+    // e.g. "L·M·T^-2"; "1" for dimensionless
+    public static String toString(int dimension) {
+        StringBuilder text = new StringBuilder();
+        for (int base = 0; base < BASES; base++) {
+            int exponent = exponent(dimension, base);
+            if (exponent == 0) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append('·');
+            }
+            text.append(SYMBOLS[base]);
+            if (exponent != 1) {
+                text.append('^').append(exponent);
+            }
+        }
+        return text.length() == 0 ? "1" : text.toString();
+    }
+
+    private static int with(int packed, int base, int exponent) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Exponent out of range for " + SYMBOLS[base] + ": " + exponent);
+        }
+        int shift = base * BITS;
+        return (packed & ~(MASK << shift)) | ((exponent & MASK) << shift);
+    }
+}
@@ -0,0 +1,132 @@
+package Units;
+
+import static Units.Quantity.*;
+
+import java.util.*;
+
+// Which quantity each formula variable is. Symbols get a default meaning
+// (T is time, P is pressure, ...) and formulas where a symbol means something
+// else override it: T is a temperature in the gas laws and a force in Tension,
+// P is a power in Power and Electric Power, I is an intensity in Sound
+// Intensity. Look-ups happen when a solver is picked, never per calculation.
+public final class Quantities {
+
+    private static final Map<String, Quantity> DEFAULTS = new HashMap<>();
+    private static final Map<String, Map<String, Quantity>> OVERRIDES = new HashMap<>();
+
+    static {
+        // ========== DEFAULT MEANINGS ==========
+        symbols(LENGTH, "d", "r", "h", "s", "x", "L", "λ", "H", "dy", "ΔL",
+            "xf", "xi", "yf", "yi", "zf", "zi", "|d|");
+        symbols(TIME, "t", "T", "Δt", "dt", "T½");
+        symbols(MASS, "m", "M", "m1", "m2", "m₁", "m₂");
+        symbols(VELOCITY, "v", "u", "vo", "vs", "dv", "vx", "vy", "vz", "|v|", "c",
+            "u₁", "u₂", "v₁", "v₂");
+        symbols(ACCELERATION, "a", "g", "ac", "ax", "ay", "az", "|a|");
+        symbols(FORCE, "F", "F1", "F2", "Fc", "N");
+        symbols(ENERGY, "E", "U", "W", "KE", "PE", "KE(rot)", "ΔQ", "ΔU", "Qh", "φ");
+        symbols(PRESSURE, "P", "P0", "P1", "P2", "P3", "P_total", "Y");
+        symbols(MOMENTUM, "p", "J");
+        symbols(AREA, "A", "A1", "A2");
+        symbols(VOLUME, "V1", "V2");
+        symbols(ANGLE, "θ", "θc", "i");
+        symbols(ANGULAR_VELOCITY, "ω", "ω₀");
+        symbols(ANGULAR_ACCELERATION, "α");
+        symbols(TORQUE, "τ");
+        symbols(FREQUENCY, "f", "f'");
+        symbols(SPRING_CONSTANT, "k");
+        symbols(DENSITY, "ρ");
+        symbols(TEMPERATURE, "Tc", "Th");
+        symbols(ENTROPY, "ΔS");
+        symbols(AMOUNT, "n");
+        symbols(RATIO, "μ", "η", "n1", "n2", "ΔL/L", "TIR", "N0");
+        symbols(SOUND_LEVEL, "β");
+        symbols(CHARGE, "Q", "q", "q1", "q2");
+        symbols(CURRENT, "I", "dI");
+        symbols(VOLTAGE, "V", "ε");
+        symbols(RESISTANCE, "R", "R1", "R2", "R3");
+        symbols(MAGNETIC_FIELD, "B");
+        symbols(MAGNETIC_FLUX, "dΦ");
+        symbols(CONDUCTIVITY, "σ");
+        symbols(INTENSITY, "I0");
+
+        // ========== PER-FORMULA MEANINGS ==========
+        override("Power", POWER, "P");
+        override("Electric Power", POWER, "P");
+        override("Sound Intensity", POWER, "P");
+        override("Sound Intensity", INTENSITY, "I");
+        override("Decibel Formula", INTENSITY, "I");
+        override("Tension", FORCE, "T");
+        override("Ideal Gas Law", TEMPERATURE, "T");
+        override("Ideal Gas Law", VOLUME, "V");
+        override("Entropy", TEMPERATURE, "T");
+        override("Charles's Law", TEMPERATURE, "T1", "T2");
+        override("Gay-Lussac's Law", TEMPERATURE, "T1", "T2");
+        override("Combined Gas Law", TEMPERATURE, "T1", "T2");
+        override("Density", VOLUME, "V");
+        override("Avogadro's Law", AMOUNT, "n1", "n2");
+        override("Snell's Law", ANGLE, "r");
+        override("Angular Velocity", ROTATION, "θ");
+        override("Angular Momentum", ANGULAR_MOMENTUM, "L");
+        override("Angular Momentum", MOMENT_OF_INERTIA, "I");
+        override("Rotational Kinetic Energy", MOMENT_OF_INERTIA, "I");
+        override("Moment of Inertia", MOMENT_OF_INERTIA, "I");
+        override("Inductance", INDUCTANCE, "L");
+        override("Friction", FORCE, "f");
+        override("Lens Formula", LENGTH, "f", "u", "v");
+        override("Mirror Formula", LENGTH, "f", "u", "v");
+        override("Magnification", RATIO, "m");
+        override("Magnification", LENGTH, "u", "v");
+        override("Energy in Simple Harmonic Oscillator", LENGTH, "A");
+        override("Electric Field", ELECTRIC_FIELD, "E");
+        override("Viscosity", VISCOSITY, "η");
+        override("Conductivity", RESISTIVITY, "ρ");
+        override("Half-Life Formula", DECAY_CONSTANT, "λ");
+        override("Radioactive Decay Law", DECAY_CONSTANT, "λ");
+        override("Radioactive Decay Law", RATIO, "N");
+        override("Photon Energy", ACTION, "h");
+        override("Bernoulli's Principle", PRESSURE, "constant");
+        override("Kepler's Laws", KEPLER_CONSTANT, "constant");
+        // Each input is already on its own scale; the formula does the conversion
+        override("Temperature Conversion", NONE, "°C", "°F", "K");
+    }
+
+    private Quantities() {
+    }
+
+    // Quantity of a variable in a formula; NONE when nothing is known about it
+    // (e.g. a variable of a user-defined formula), which means no conversion
+    public static Quantity of(String formula, String variable) {
+        Map<String, Quantity> overrides = OVERRIDES.get(formula);
+        if (overrides != null) {
+            Quantity quantity = overrides.get(variable);
+            if (quantity != null) {
+                return quantity;
+            }
+        }
+        return DEFAULTS.getOrDefault(variable, NONE);
+    }
+
+    public static Quantity[] of(String formula, String[] variables) {
+        Quantity[] quantities = new Quantity[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            quantities[i] = of(formula, variables[i]);
+        }
+        return quantities;
+    }
+
+    private static void symbols(Quantity quantity, String... symbols) {
+        for (String symbol : symbols) {
+            if (DEFAULTS.put(symbol, quantity) != null) {
+                throw new IllegalStateException("Duplicate default for " + symbol);
+            }
+        }
+    }
+
+    private static void override(String formula, Quantity quantity, String... symbols) {
+        Map<String, Quantity> overrides = OVERRIDES.computeIfAbsent(formula, f -> new HashMap<>());
+        for (String symbol : symbols) {
+            overrides.put(symbol, quantity);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package Units;
+
+import static Units.Unit.*;
+
+// What a formula variable measures. Each quantity knows the unit its values are
+// stored in (the engine's slots), the SI and FPS units to report results in,
+// and the units offered for input, first one being the default.
+public enum Quantity {
+
+    NONE(ONE, ONE, ONE),
+    RATIO(ONE, ONE, ONE),
+    SOUND_LEVEL(DECIBEL, DECIBEL, DECIBEL),
+
+    LENGTH(METRE, FOOT, METRE, CENTIMETRE, MILLIMETRE, KILOMETRE, FOOT, INCH, MILE),
+    AREA(SQUARE_METRE, SQUARE_FOOT, SQUARE_METRE, SQUARE_CENTIMETRE, SQUARE_MILLIMETRE, SQUARE_FOOT, SQUARE_INCH),
+    VOLUME(CUBIC_METRE, CUBIC_FOOT, CUBIC_METRE, LITRE, MILLILITRE, CUBIC_CENTIMETRE, CUBIC_FOOT),
+    TIME(SECOND, SECOND, SECOND, MILLISECOND, MINUTE, HOUR),
+    MASS(KILOGRAM, POUND, KILOGRAM, GRAM, POUND),
+
+    VELOCITY(METRE_PER_SECOND, FOOT_PER_SECOND, METRE_PER_SECOND, KILOMETRE_PER_HOUR, FOOT_PER_SECOND, MILE_PER_HOUR),
+    ACCELERATION(METRE_PER_SECOND_SQUARED, FOOT_PER_SECOND_SQUARED,
+        METRE_PER_SECOND_SQUARED, CENTIMETRE_PER_SECOND_SQUARED, FOOT_PER_SECOND_SQUARED),
+    MOMENTUM(KILOGRAM_METRE_PER_SECOND, POUND_FOOT_PER_SECOND,
+        KILOGRAM_METRE_PER_SECOND, NEWTON_SECOND, POUND_FOOT_PER_SECOND),
+    FORCE(NEWTON, POUND_FORCE, NEWTON, KILONEWTON, DYNE, POUND_FORCE),
+    ENERGY(JOULE, FOOT_POUND_FORCE, JOULE, KILOJOULE, ERG, ELECTRONVOLT, CALORIE, KILOWATT_HOUR, FOOT_POUND_FORCE),
+    POWER(WATT, FOOT_POUND_FORCE_PER_SECOND, WATT, KILOWATT, HORSEPOWER, FOOT_POUND_FORCE_PER_SECOND),
+    PRESSURE(PASCAL, PSI, PASCAL, KILOPASCAL, MEGAPASCAL, BAR, ATMOSPHERE, PSI, MILLIMETRE_OF_MERCURY),
+
+    // Angles fed to trig functions. The engine takes these in degrees (see
+    // FormulaEngine), so that is the stored unit even though SI reports radians.
+    ANGLE(RADIAN, DEGREE, DEGREE, RADIAN) {
+        @Override
+        public int getBaseUnit() {
+            return DEGREE;
+        }
+    },
+    // Amounts of rotation (θ in ω = θ/t); stored in radians like ω and α
+    ROTATION(RADIAN, RADIAN, RADIAN, DEGREE, REVOLUTION),
+    ANGULAR_VELOCITY(RADIAN_PER_SECOND, RADIAN_PER_SECOND, RADIAN_PER_SECOND, DEGREE_PER_SECOND, RPM),
+    ANGULAR_ACCELERATION(RADIAN_PER_SECOND_SQUARED, RADIAN_PER_SECOND_SQUARED,
+        RADIAN_PER_SECOND_SQUARED, DEGREE_PER_SECOND_SQUARED),
+    TORQUE(NEWTON_METRE, POUND_FORCE_FOOT, NEWTON_METRE, POUND_FORCE_FOOT),
+    MOMENT_OF_INERTIA(KILOGRAM_SQUARE_METRE, POUND_SQUARE_FOOT, KILOGRAM_SQUARE_METRE, POUND_SQUARE_FOOT),
+    ANGULAR_MOMENTUM(KILOGRAM_SQUARE_METRE_PER_SECOND, KILOGRAM_SQUARE_METRE_PER_SECOND,
+        KILOGRAM_SQUARE_METRE_PER_SECOND),
+
+    FREQUENCY(HERTZ, HERTZ, HERTZ, KILOHERTZ, MEGAHERTZ, GIGAHERTZ),
+    DECAY_CONSTANT(PER_SECOND, PER_SECOND, PER_SECOND, PER_MINUTE, PER_HOUR, PER_DAY),
+    SPRING_CONSTANT(NEWTON_PER_METRE, POUND_FORCE_PER_INCH, NEWTON_PER_METRE, POUND_FORCE_PER_INCH),
+    INTENSITY(WATT_PER_SQUARE_METRE, WATT_PER_SQUARE_METRE, WATT_PER_SQUARE_METRE, MILLIWATT_PER_SQUARE_METRE),
+    KEPLER_CONSTANT(SECOND_SQUARED_PER_CUBIC_METRE, SECOND_SQUARED_PER_CUBIC_METRE, SECOND_SQUARED_PER_CUBIC_METRE),
+
+    DENSITY(KILOGRAM_PER_CUBIC_METRE, POUND_PER_CUBIC_FOOT,
+        KILOGRAM_PER_CUBIC_METRE, GRAM_PER_CUBIC_CENTIMETRE, POUND_PER_CUBIC_FOOT),
+    VISCOSITY(PASCAL_SECOND, PASCAL_SECOND, PASCAL_SECOND, POISE, CENTIPOISE),
+    TEMPERATURE(KELVIN, FAHRENHEIT, KELVIN, CELSIUS, FAHRENHEIT),
+    ENTROPY(JOULE_PER_KELVIN, JOULE_PER_KELVIN, JOULE_PER_KELVIN),
+    AMOUNT(MOLE, MOLE, MOLE, MILLIMOLE),
+
+    CHARGE(COULOMB, COULOMB, COULOMB, MILLICOULOMB, MICROCOULOMB, NANOCOULOMB),
+    CURRENT(AMPERE, AMPERE, AMPERE, MILLIAMPERE, MICROAMPERE),
+    VOLTAGE(VOLT, VOLT, VOLT, KILOVOLT, MILLIVOLT),
+    ELECTRIC_FIELD(VOLT_PER_METRE, VOLT_PER_METRE, VOLT_PER_METRE, KILOVOLT_PER_METRE, NEWTON_PER_COULOMB),
+    RESISTANCE(OHM, OHM, OHM, KILOOHM, MEGAOHM),
+    RESISTIVITY(OHM_METRE, OHM_METRE, OHM_METRE, OHM_CENTIMETRE),
+    CONDUCTIVITY(SIEMENS_PER_METRE, SIEMENS_PER_METRE, SIEMENS_PER_METRE),
+    MAGNETIC_FIELD(TESLA, TESLA, TESLA, MILLITESLA, MICROTESLA, GAUSS),
+    MAGNETIC_FLUX(WEBER, WEBER, WEBER),
+    INDUCTANCE(HENRY, HENRY, HENRY, MILLIHENRY, MICROHENRY),
+    ACTION(JOULE_SECOND, JOULE_SECOND, JOULE_SECOND, ELECTRONVOLT_SECOND);
+
+    private final int siUnit;
+    private final int fpsUnit;
+    private final int[] units;
+    private final String[] symbols;
+
+    Quantity(int siUnit, int fpsUnit, int... units) {
+        this.siUnit = siUnit;
+        this.fpsUnit = fpsUnit;
+        this.units = units;
+        this.symbols = new String[units.length];
+        for (int i = 0; i < units.length; i++) {
+            if (!Unit.isCompatible(units[i], siUnit)) {
+                throw new IllegalStateException(name() + " cannot use " + Unit.getSymbol(units[i]));
+            }
+            symbols[i] = Unit.getSymbol(units[i]);
+        }
+    }
+
+    // Unit the engine's slots hold values of this quantity in
+    public int getBaseUnit() {
+        return siUnit;
+    }
+
+    public int getSiUnit() {
+        return siUnit;
+    }
+
+    public int getFpsUnit() {
+        return fpsUnit;
+    }
+
+    public int getDimension() {
+        return Unit.getDimension(siUnit);
+    }
+
+    public int getUnitCount() {
+        return units.length;
+    }
+
+    // Input unit by its position in getUnitSymbols()
+    public int getUnit(int index) {
+        return units[index];
+    }
+
+    public String[] getUnitSymbols() {
+        return symbols.clone();
+    }
+
+    public double toBase(double value, int unit) {
+        return Unit.convert(value, unit, getBaseUnit());
+    }
+
+    public double fromBase(double value, int unit) {
+        return Unit.convert(value, getBaseUnit(), unit);
+    }
+}
@@ -0,0 +1,257 @@
+package Units;
+
+import java.util.*;
+
+// Units interned to small int IDs. Each unit is a dimension plus an affine map
+// to SI (value * scale + offset; the offset is only non-zero for °C and °F).
+// Every pair of units gets its factor and shift precomputed into a dense
+// table, so converting a value is one array index and one multiply-add.
+// Incompatible pairs hold NaN.
+public final class Unit {
+
+    private static final List<String> SYMBOLS = new ArrayList<>();
+    private static final List<Integer> DIMENSIONS = new ArrayList<>();
+    private static final List<Double> SCALES = new ArrayList<>();
+    private static final List<Double> OFFSETS = new ArrayList<>();
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    private static final int L = Dimension.base(Dimension.LENGTH);
+    private static final int M = Dimension.base(Dimension.MASS);
+    private static final int T = Dimension.base(Dimension.TIME);
+    private static final int I = Dimension.base(Dimension.CURRENT);
+    private static final int K = Dimension.base(Dimension.TEMPERATURE);
+    private static final int N = Dimension.base(Dimension.AMOUNT);
+    private static final int A = Dimension.base(Dimension.ANGLE);
+
+    private static final int AREA = Dimension.power(L, 2);
+    private static final int VOLUME = Dimension.power(L, 3);
+    private static final int VELOCITY = Dimension.divide(L, T);
+    private static final int ACCELERATION = Dimension.divide(VELOCITY, T);
+    private static final int FORCE = Dimension.multiply(M, ACCELERATION);
+    private static final int ENERGY = Dimension.multiply(FORCE, L);
+    private static final int POWER = Dimension.divide(ENERGY, T);
+    private static final int PRESSURE = Dimension.divide(FORCE, AREA);
+    private static final int MOMENTUM = Dimension.multiply(M, VELOCITY);
+    private static final int FREQUENCY = Dimension.power(T, -1);
+    private static final int CHARGE = Dimension.multiply(I, T);
+    private static final int VOLTAGE = Dimension.divide(POWER, I);
+    private static final int RESISTANCE = Dimension.divide(VOLTAGE, I);
+    private static final int FLUX = Dimension.multiply(VOLTAGE, T);
+
+    // ========== DIMENSIONLESS ==========
+    public static final int ONE = define("", Dimension.NONE, 1);
+    public static final int DECIBEL = define("dB", Dimension.NONE, 1);
+
+    // ========== LENGTH, AREA, VOLUME ==========
+    public static final int METRE = define("m", L, 1);
+    public static final int CENTIMETRE = define("cm", L, 0.01);
+    public static final int MILLIMETRE = define("mm", L, 0.001);
+    public static final int KILOMETRE = define("km", L, 1000);
+    public static final int FOOT = define("ft", L, 0.3048);
+    public static final int INCH = define("in", L, 0.0254);
+    public static final int MILE = define("mi", L, 1609.344);
+    public static final int SQUARE_METRE = define("m²", AREA, 1);
+    public static final int SQUARE_CENTIMETRE = define("cm²", AREA, 1e-4);
+    public static final int SQUARE_MILLIMETRE = define("mm²", AREA, 1e-6);
+    public static final int SQUARE_FOOT = define("ft²", AREA, 0.09290304);
+    public static final int SQUARE_INCH = define("in²", AREA, 6.4516e-4);
+    public static final int CUBIC_METRE = define("m³", VOLUME, 1);
+    public static final int LITRE = define("L", VOLUME, 1e-3);
+    public static final int MILLILITRE = define("mL", VOLUME, 1e-6);
+    public static final int CUBIC_CENTIMETRE = define("cm³", VOLUME, 1e-6);
+    public static final int CUBIC_FOOT = define("ft³", VOLUME, 0.028316846592);
+
+    // ========== TIME, MASS ==========
+    public static final int SECOND = define("s", T, 1);
+    public static final int MILLISECOND = define("ms", T, 0.001);
+    public static final int MINUTE = define("min", T, 60);
+    public static final int HOUR = define("h", T, 3600);
+    public static final int KILOGRAM = define("kg", M, 1);
+    public static final int GRAM = define("g", M, 0.001);
+    public static final int POUND = define("lb", M, 0.45359237);
+
+    // ========== MOTION ==========
+    public static final int METRE_PER_SECOND = define("m/s", VELOCITY, 1);
+    public static final int KILOMETRE_PER_HOUR = define("km/h", VELOCITY, 1 / 3.6);
+    public static final int FOOT_PER_SECOND = define("ft/s", VELOCITY, 0.3048);
+    public static final int MILE_PER_HOUR = define("mph", VELOCITY, 0.44704);
+    public static final int METRE_PER_SECOND_SQUARED = define("m/s²", ACCELERATION, 1);
+    public static final int CENTIMETRE_PER_SECOND_SQUARED = define("cm/s²", ACCELERATION, 0.01);
+    public static final int FOOT_PER_SECOND_SQUARED = define("ft/s²", ACCELERATION, 0.3048);
+    public static final int KILOGRAM_METRE_PER_SECOND = define("kg·m/s", MOMENTUM, 1);
+    public static final int NEWTON_SECOND = define("N·s", MOMENTUM, 1);
+    public static final int POUND_FOOT_PER_SECOND = define("lb·ft/s", MOMENTUM, 0.45359237 * 0.3048);
+
+    // ========== FORCE, ENERGY, POWER, PRESSURE ==========
+    public static final int NEWTON = define("N", FORCE, 1);
+    public static final int KILONEWTON = define("kN", FORCE, 1000);
+    public static final int DYNE = define("dyne", FORCE, 1e-5);
+    public static final int POUND_FORCE = define("lbf", FORCE, 4.4482216152605);
+    public static final int JOULE = define("J", ENERGY, 1);
+    public static final int KILOJOULE = define("kJ", ENERGY, 1000);
+    public static final int ERG = define("erg", ENERGY, 1e-7);
+    public static final int ELECTRONVOLT = define("eV", ENERGY, 1.602176634e-19);
+    public static final int CALORIE = define("cal", ENERGY, 4.184);
+    public static final int KILOWATT_HOUR = define("kWh", ENERGY, 3.6e6);
+    public static final int FOOT_POUND_FORCE = define("ft·lbf", ENERGY, 1.3558179483314004);
+    public static final int WATT = define("W", POWER, 1);
+    public static final int KILOWATT = define("kW", POWER, 1000);
+    public static final int HORSEPOWER = define("hp", POWER, 745.6998715822702);
+    public static final int FOOT_POUND_FORCE_PER_SECOND = define("ft·lbf/s", POWER, 1.3558179483314004);
+    public static final int PASCAL = define("Pa", PRESSURE, 1);
+    public static final int KILOPASCAL = define("kPa", PRESSURE, 1e3);
+    public static final int MEGAPASCAL = define("MPa", PRESSURE, 1e6);
+    public static final int BAR = define("bar", PRESSURE, 1e5);
+    public static final int ATMOSPHERE = define("atm", PRESSURE, 101325);
+    public static final int PSI = define("psi", PRESSURE, 6894.757293168361);
+    public static final int MILLIMETRE_OF_MERCURY = define("mmHg", PRESSURE, 133.322387415);
+
+    // ========== ROTATION ==========
+    public static final int RADIAN = define("rad", A, 1);
+    public static final int DEGREE = define("deg", A, Math.PI / 180);
+    public static final int REVOLUTION = define("rev", A, 2 * Math.PI);
+    public static final int RADIAN_PER_SECOND = define("rad/s", Dimension.divide(A, T), 1);
+    public static final int DEGREE_PER_SECOND = define("deg/s", Dimension.divide(A, T), Math.PI / 180);
+    public static final int RPM = define("rpm", Dimension.divide(A, T), 2 * Math.PI / 60);
+    public static final int RADIAN_PER_SECOND_SQUARED = define("rad/s²", Dimension.divide(A, Dimension.power(T, 2)), 1);
+    public static final int DEGREE_PER_SECOND_SQUARED = define("deg/s²", Dimension.divide(A, Dimension.power(T, 2)),
+        Math.PI / 180);
+    public static final int NEWTON_METRE = define("N·m", ENERGY, 1);
+    public static final int POUND_FORCE_FOOT = define("lbf·ft", ENERGY, 1.3558179483314004);
+    public static final int KILOGRAM_SQUARE_METRE = define("kg·m²", Dimension.multiply(M, AREA), 1);
+    public static final int POUND_SQUARE_FOOT = define("lb·ft²", Dimension.multiply(M, AREA), 0.45359237 * 0.09290304);
+    public static final int KILOGRAM_SQUARE_METRE_PER_SECOND = define("kg·m²/s", Dimension.multiply(MOMENTUM, L), 1);
+
+    // ========== OSCILLATION, DECAY ==========
+    public static final int HERTZ = define("Hz", FREQUENCY, 1);
+    public static final int KILOHERTZ = define("kHz", FREQUENCY, 1e3);
+    public static final int MEGAHERTZ = define("MHz", FREQUENCY, 1e6);
+    public static final int GIGAHERTZ = define("GHz", FREQUENCY, 1e9);
+    public static final int PER_SECOND = define("1/s", FREQUENCY, 1);
+    public static final int PER_MINUTE = define("1/min", FREQUENCY, 1 / 60.0);
+    public static final int PER_HOUR = define("1/h", FREQUENCY, 1 / 3600.0);
+    public static final int PER_DAY = define("1/d", FREQUENCY, 1 / 86400.0);
+    public static final int NEWTON_PER_METRE = define("N/m", Dimension.divide(FORCE, L), 1);
+    public static final int POUND_FORCE_PER_INCH = define("lbf/in", Dimension.divide(FORCE, L), 4.4482216152605 / 0.0254);
+    public static final int WATT_PER_SQUARE_METRE = define("W/m²", Dimension.divide(POWER, AREA), 1);
+    public static final int MILLIWATT_PER_SQUARE_METRE = define("mW/m²", Dimension.divide(POWER, AREA), 1e-3);
+    public static final int SECOND_SQUARED_PER_CUBIC_METRE = define("s²/m³",
+        Dimension.divide(Dimension.power(T, 2), VOLUME), 1);
+
+    // ========== MATTER, HEAT ==========
+    public static final int KILOGRAM_PER_CUBIC_METRE = define("kg/m³", Dimension.divide(M, VOLUME), 1);
+    public static final int GRAM_PER_CUBIC_CENTIMETRE = define("g/cm³", Dimension.divide(M, VOLUME), 1000);
+    public static final int POUND_PER_CUBIC_FOOT = define("lb/ft³", Dimension.divide(M, VOLUME), 0.45359237 / 0.028316846592);
+    public static final int PASCAL_SECOND = define("Pa·s", Dimension.multiply(PRESSURE, T), 1);
+    public static final int POISE = define("P", Dimension.multiply(PRESSURE, T), 0.1);
+    public static final int CENTIPOISE = define("cP", Dimension.multiply(PRESSURE, T), 1e-3);
+    public static final int KELVIN = define("K", K, 1);
+    public static final int CELSIUS = define("°C", K, 1, 273.15);
+    public static final int FAHRENHEIT = define("°F", K, 5.0 / 9.0, 273.15 - 32 * 5.0 / 9.0);
+    public static final int JOULE_PER_KELVIN = define("J/K", Dimension.divide(ENERGY, K), 1);
+    public static final int MOLE = define("mol", N, 1);
+    public static final int MILLIMOLE = define("mmol", N, 1e-3);
+
+    // ========== ELECTRICITY AND MAGNETISM ==========
+    public static final int COULOMB = define("C", CHARGE, 1);
+    public static final int MILLICOULOMB = define("mC", CHARGE, 1e-3);
+    public static final int MICROCOULOMB = define("μC", CHARGE, 1e-6);
+    public static final int NANOCOULOMB = define("nC", CHARGE, 1e-9);
+    public static final int AMPERE = define("A", I, 1);
+    public static final int MILLIAMPERE = define("mA", I, 1e-3);
+    public static final int MICROAMPERE = define("μA", I, 1e-6);
+    public static final int VOLT = define("V", VOLTAGE, 1);
+    public static final int KILOVOLT = define("kV", VOLTAGE, 1e3);
+    public static final int MILLIVOLT = define("mV", VOLTAGE, 1e-3);
+    public static final int VOLT_PER_METRE = define("V/m", Dimension.divide(VOLTAGE, L), 1);
+    public static final int KILOVOLT_PER_METRE = define("kV/m", Dimension.divide(VOLTAGE, L), 1e3);
+    public static final int NEWTON_PER_COULOMB = define("N/C", Dimension.divide(FORCE, CHARGE), 1);
+    public static final int OHM = define("Ω", RESISTANCE, 1);
+    public static final int KILOOHM = define("kΩ", RESISTANCE, 1e3);
+    public static final int MEGAOHM = define("MΩ", RESISTANCE, 1e6);
+    public static final int OHM_METRE = define("Ω·m", Dimension.multiply(RESISTANCE, L), 1);
+    public static final int OHM_CENTIMETRE = define("Ω·cm", Dimension.multiply(RESISTANCE, L), 0.01);
+    public static final int SIEMENS_PER_METRE = define("S/m", Dimension.divide(Dimension.power(RESISTANCE, -1), L), 1);
+    public static final int TESLA = define("T", Dimension.divide(FLUX, AREA), 1);
+    public static final int MILLITESLA = define("mT", Dimension.divide(FLUX, AREA), 1e-3);
+    public static final int MICROTESLA = define("μT", Dimension.divide(FLUX, AREA), 1e-6);
+    public static final int GAUSS = define("G", Dimension.divide(FLUX, AREA), 1e-4);
+    public static final int WEBER = define("Wb", FLUX, 1);
+    public static final int HENRY = define("H", Dimension.divide(FLUX, I), 1);
+    public static final int MILLIHENRY = define("mH", Dimension.divide(FLUX, I), 1e-3);
+    public static final int MICROHENRY = define("μH", Dimension.divide(FLUX, I), 1e-6);
+
+    // ========== QUANTUM ==========
+    public static final int JOULE_SECOND = define("J·s", Dimension.multiply(ENERGY, T), 1);
+    public static final int ELECTRONVOLT_SECOND = define("eV·s", Dimension.multiply(ENERGY, T), 1.602176634e-19);
+
+    private static final int COUNT = SYMBOLS.size();
+    private static final int[] DIMENSION = new int[COUNT];
+    private static final double[] FACTOR = new double[COUNT * COUNT];
+    private static final double[] SHIFT = new double[COUNT * COUNT];
+
+    static {
+        for (int from = 0; from < COUNT; from++) {
+            DIMENSION[from] = DIMENSIONS.get(from);
+            double scale = SCALES.get(from);
+            double offset = OFFSETS.get(from);
+            for (int to = 0; to < COUNT; to++) {
+                int index = from * COUNT + to;
+                if (DIMENSIONS.get(from).intValue() != DIMENSIONS.get(to).intValue()) {
+                    FACTOR[index] = Double.NaN;
+                    SHIFT[index] = Double.NaN;
+                } else {
+                    // SI = v*scale + offset, so v' = (SI - offset') / scale'
+                    FACTOR[index] = from == to ? 1 : scale / SCALES.get(to);
+                    SHIFT[index] = from == to ? 0 : (offset - OFFSETS.get(to)) / SCALES.get(to);
+                }
+            }
+        }
+    }
+
+    private Unit() {
+    }
+
+    public static double convert(double value, int from, int to) {
+        int index = from * COUNT + to;
+        return value * FACTOR[index] + SHIFT[index];
+    }
+
+    public static boolean isCompatible(int a, int b) {
+        return DIMENSION[a] == DIMENSION[b];
+    }
+
+    public static int count() {
+        return COUNT;
+    }
+
+    public static String getSymbol(int unit) {
+        return SYMBOLS.get(unit);
+    }
+
+    public static int getDimension(int unit) {
+        return DIMENSION[unit];
+    }
+
+    // Unit ID for a symbol such as "km/h", or -1 if unknown
+    public static int byName(String symbol) {
+        return IDS.getOrDefault(symbol, -1);
+    }
+
+    private static int define(String symbol, int dimension, double scale) {
+        return define(symbol, dimension, scale, 0);
+    }
+
+    private static int define(String symbol, int dimension, double scale, double offset) {
+        if (IDS.containsKey(symbol)) {
+            throw new IllegalStateException("Duplicate unit: " + symbol);
+        }
+        int id = SYMBOLS.size();
+        SYMBOLS.add(symbol);
+        DIMENSIONS.add(dimension);
+        SCALES.add(scale);
+        OFFSETS.add(offset);
+        IDS.put(symbol, id);
+        return id;
+    }
+}
@@ -0,0 +1,101 @@
+package VectorMath;
+
+// Plain loops; the reference results and the fallback when the Vector API
+// module is not available.
+final class ScalarVec3Kernels implements Vec3Kernels {
+
+    @Override
+    public void magnitude(Vec3Array a, double[] out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        for (int i = from; i < to; i++) {
+            out[i] = Math.sqrt(ax[i] * ax[i] + ay[i] * ay[i] + az[i] * az[i]);
+        }
+    }
+
+    @Override
+    public void dot(Vec3Array a, Vec3Array b, double[] out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        for (int i = from; i < to; i++) {
+            out[i] = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i];
+        }
+    }
+
+    @Override
+    public void cross(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            ox[i] = ay[i] * bz[i] - az[i] * by[i];
+            oy[i] = az[i] * bx[i] - ax[i] * bz[i];
+            oz[i] = ax[i] * by[i] - ay[i] * bx[i];
+        }
+    }
+
+    @Override
+    public void normalize(Vec3Array a, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            double x = ax[i], y = ay[i], z = az[i];
+            double length = Math.sqrt(x * x + y * y + z * z);
+            double inverse = length > 0 ? 1.0 / length : 0.0;
+            ox[i] = x * inverse;
+            oy[i] = y * inverse;
+            oz[i] = z * inverse;
+        }
+    }
+
+    @Override
+    public void add(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            ox[i] = ax[i] + bx[i];
+            oy[i] = ay[i] + by[i];
+            oz[i] = az[i] + bz[i];
+        }
+    }
+
+    @Override
+    public void subtract(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            ox[i] = ax[i] - bx[i];
+            oy[i] = ay[i] - by[i];
+            oz[i] = az[i] - bz[i];
+        }
+    }
+
+    @Override
+    public void scale(Vec3Array a, double s, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            ox[i] = s * ax[i];
+            oy[i] = s * ay[i];
+            oz[i] = s * az[i];
+        }
+    }
+
+    @Override
+    public void multiply(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        double[] ox = out.x, oy = out.y, oz = out.z;
+        for (int i = from; i < to; i++) {
+            ox[i] = ax[i] * bx[i];
+            oy[i] = ay[i] * by[i];
+            oz[i] = az[i] * bz[i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,140 @@
+package VectorMath;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API kernels. Each loop handles SPECIES.length() vectors per step and
+// leaves the remainder to the scalar kernels. Operations are done in the same
+// order as the scalar code (no FMA), so both paths give identical bits.
+// Loaded reflectively by Vec3Math: it needs --add-modules jdk.incubator.vector.
+final class SimdVec3Kernels implements Vec3Kernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final Vec3Kernels TAIL = new ScalarVec3Kernels();
+
+    @Override
+    public void magnitude(Vec3Array a, double[] out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, ax, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, ay, i);
+            DoubleVector z = DoubleVector.fromArray(SPECIES, az, i);
+            x.mul(x).add(y.mul(y)).add(z.mul(z)).sqrt().intoArray(out, i);
+        }
+        TAIL.magnitude(a, out, i, to);
+    }
+
+    @Override
+    public void dot(Vec3Array a, Vec3Array b, double[] out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector xx = DoubleVector.fromArray(SPECIES, ax, i).mul(DoubleVector.fromArray(SPECIES, bx, i));
+            DoubleVector yy = DoubleVector.fromArray(SPECIES, ay, i).mul(DoubleVector.fromArray(SPECIES, by, i));
+            DoubleVector zz = DoubleVector.fromArray(SPECIES, az, i).mul(DoubleVector.fromArray(SPECIES, bz, i));
+            xx.add(yy).add(zz).intoArray(out, i);
+        }
+        TAIL.dot(a, b, out, i, to);
+    }
+
+    @Override
+    public void cross(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        double[] bx = b.x, by = b.y, bz = b.z;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, ax, i);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, ay, i);
+            DoubleVector z1 = DoubleVector.fromArray(SPECIES, az, i);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, bx, i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, by, i);
+            DoubleVector z2 = DoubleVector.fromArray(SPECIES, bz, i);
+            y1.mul(z2).sub(z1.mul(y2)).intoArray(out.x, i);
+            z1.mul(x2).sub(x1.mul(z2)).intoArray(out.y, i);
+            x1.mul(y2).sub(y1.mul(x2)).intoArray(out.z, i);
+        }
+        TAIL.cross(a, b, out, i, to);
+    }
+
+    @Override
+    public void normalize(Vec3Array a, Vec3Array out, int from, int to) {
+        double[] ax = a.x, ay = a.y, az = a.z;
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, ax, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, ay, i);
+            DoubleVector z = DoubleVector.fromArray(SPECIES, az, i);
+            DoubleVector length = x.mul(x).add(y.mul(y)).add(z.mul(z)).sqrt();
+            VectorMask<Double> nonZero = length.compare(VectorOperators.GT, 0.0);
+            DoubleVector inverse = zero.blend(one.div(length), nonZero);
+            x.mul(inverse).intoArray(out.x, i);
+            y.mul(inverse).intoArray(out.y, i);
+            z.mul(inverse).intoArray(out.z, i);
+        }
+        TAIL.normalize(a, out, i, to);
+    }
+
+    @Override
+    public void add(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a.x, i).add(DoubleVector.fromArray(SPECIES, b.x, i)).intoArray(out.x, i);
+            DoubleVector.fromArray(SPECIES, a.y, i).add(DoubleVector.fromArray(SPECIES, b.y, i)).intoArray(out.y, i);
+            DoubleVector.fromArray(SPECIES, a.z, i).add(DoubleVector.fromArray(SPECIES, b.z, i)).intoArray(out.z, i);
+        }
+        TAIL.add(a, b, out, i, to);
+    }
+
+    @Override
+    public void subtract(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a.x, i).sub(DoubleVector.fromArray(SPECIES, b.x, i)).intoArray(out.x, i);
+            DoubleVector.fromArray(SPECIES, a.y, i).sub(DoubleVector.fromArray(SPECIES, b.y, i)).intoArray(out.y, i);
+            DoubleVector.fromArray(SPECIES, a.z, i).sub(DoubleVector.fromArray(SPECIES, b.z, i)).intoArray(out.z, i);
+        }
+        TAIL.subtract(a, b, out, i, to);
+    }
+
+    @Override
+    public void scale(Vec3Array a, double s, Vec3Array out, int from, int to) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, s);
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            factor.mul(DoubleVector.fromArray(SPECIES, a.x, i)).intoArray(out.x, i);
+            factor.mul(DoubleVector.fromArray(SPECIES, a.y, i)).intoArray(out.y, i);
+            factor.mul(DoubleVector.fromArray(SPECIES, a.z, i)).intoArray(out.z, i);
+        }
+        TAIL.scale(a, s, out, i, to);
+    }
+
+    @Override
+    public void multiply(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a.x, i).mul(DoubleVector.fromArray(SPECIES, b.x, i)).intoArray(out.x, i);
+            DoubleVector.fromArray(SPECIES, a.y, i).mul(DoubleVector.fromArray(SPECIES, b.y, i)).intoArray(out.y, i);
+            DoubleVector.fromArray(SPECIES, a.z, i).mul(DoubleVector.fromArray(SPECIES, b.z, i)).intoArray(out.z, i);
+        }
+        TAIL.multiply(a, b, out, i, to);
+    }
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize();
+    }
+}
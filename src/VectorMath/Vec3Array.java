@@ -0,0 +1,65 @@
+package VectorMath;
+
+// Structure-of-arrays storage for many 3D vectors: vector i is (x[i], y[i], z[i]).
+// Keeping each component contiguous is what lets the kernels load a full SIMD
+// register of x's, y's and z's at a time.
+public final class Vec3Array {
+
+    final double[] x;
+    final double[] y;
+    final double[] z;
+
+    public Vec3Array(int size) {
+        this(new double[size], new double[size], new double[size]);
+    }
+
+    private Vec3Array(double[] x, double[] y, double[] z) {
+        if (x.length != y.length || x.length != z.length) {
+            throw new IllegalArgumentException("Component arrays differ in length: "
+                + x.length + ", " + y.length + ", " + z.length);
+        }
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    // View over existing component arrays, no copy
+    public static Vec3Array wrap(double[] x, double[] y, double[] z) {
+        return new Vec3Array(x, y, z);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getZ(int i) {
+        return z[i];
+    }
+
+    public void set(int i, double vx, double vy, double vz) {
+        x[i] = vx;
+        y[i] = vy;
+        z[i] = vz;
+    }
+
+    // The backing arrays, for callers that fill or read components in bulk
+    public double[] xs() {
+        return x;
+    }
+
+    public double[] ys() {
+        return y;
+    }
+
+    public double[] zs() {
+        return z;
+    }
+}
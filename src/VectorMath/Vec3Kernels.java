@@ -0,0 +1,68 @@
+package VectorMath;
+
+// Bulk operations over vectors [from, to) of Vec3Arrays. Outputs are written at
+// the same indices as the inputs and may alias them (e.g. normalize in place).
+// Every implementation must give bit-identical results to ScalarVec3Kernels.
+public interface Vec3Kernels {
+
+    // out[i] = |a[i]|
+    void magnitude(Vec3Array a, double[] out, int from, int to);
+
+    // out[i] = a[i] · b[i]
+    void dot(Vec3Array a, Vec3Array b, double[] out, int from, int to);
+
+    // out[i] = a[i] × b[i]; out must not alias a or b
+    void cross(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to);
+
+    // out[i] = a[i] / |a[i]|, zero vectors stay zero
+    void normalize(Vec3Array a, Vec3Array out, int from, int to);
+
+    // out[i] = a[i] + b[i]
+    void add(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to);
+
+    // out[i] = a[i] - b[i]
+    void subtract(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to);
+
+    // out[i] = s * a[i]
+    void scale(Vec3Array a, double s, Vec3Array out, int from, int to);
+
+    // out[i] = a[i] * b[i] component by component
+    void multiply(Vec3Array a, Vec3Array b, Vec3Array out, int from, int to);
+
+    // Short name for logs and diagnostics, e.g. "scalar" or "simd-256"
+    String name();
+
+    // ========== WHOLE-ARRAY FORMS ==========
+
+    default void magnitude(Vec3Array a, double[] out) {
+        magnitude(a, out, 0, a.size());
+    }
+
+    default void dot(Vec3Array a, Vec3Array b, double[] out) {
+        dot(a, b, out, 0, a.size());
+    }
+
+    default void cross(Vec3Array a, Vec3Array b, Vec3Array out) {
+        cross(a, b, out, 0, a.size());
+    }
+
+    default void normalize(Vec3Array a, Vec3Array out) {
+        normalize(a, out, 0, a.size());
+    }
+
+    default void add(Vec3Array a, Vec3Array b, Vec3Array out) {
+        add(a, b, out, 0, a.size());
+    }
+
+    default void subtract(Vec3Array a, Vec3Array b, Vec3Array out) {
+        subtract(a, b, out, 0, a.size());
+    }
+
+    default void scale(Vec3Array a, double s, Vec3Array out) {
+        scale(a, s, out, 0, a.size());
+    }
+
+    default void multiply(Vec3Array a, Vec3Array b, Vec3Array out) {
+        multiply(a, b, out, 0, a.size());
+    }
+}
@@ -0,0 +1,40 @@
+package VectorMath;
+
+// Entry point for the vector kernels. Picks the SIMD implementation when the
+// JVM was started with --add-modules jdk.incubator.vector and falls back to
+// plain loops otherwise. -Dphysiquist.vector.scalar=true forces the fallback.
+public final class Vec3Math {
+
+    private static final Vec3Kernels SCALAR = new ScalarVec3Kernels();
+    private static final Vec3Kernels KERNELS = load();
+
+    private Vec3Math() {
+    }
+
+    public static Vec3Kernels kernels() {
+        return KERNELS;
+    }
+
+    public static Vec3Kernels scalar() {
+        return SCALAR;
+    }
+
+    public static boolean isSimd() {
+        return KERNELS != SCALAR;
+    }
+
+    private static Vec3Kernels load() {
+        if (Boolean.getBoolean("physiquist.vector.scalar")) {
+            return SCALAR;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return (Vec3Kernels) Class.forName("VectorMath.SimdVec3Kernels")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
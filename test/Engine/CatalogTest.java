@@ -0,0 +1,45 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A catalog file is only trusted when it was written from the sources and
+// quantities this build has; anything else is rebuilt in memory.
+class CatalogTest {
+
+    private static byte[] stale() {
+        byte[] bytes = CatalogWriter.write();
+        ByteBuffer.wrap(bytes).putLong(40, CatalogWriter.fingerprint() + 1);
+        return bytes;
+    }
+
+    @Test
+    void staleCatalogIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Catalog.wrap(ByteBuffer.wrap(stale())));
+    }
+
+    @Test
+    void staleCatalogFileIsRebuilt(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        Files.write(file, stale());
+        Catalog fresh = Catalog.wrap(ByteBuffer.wrap(CatalogWriter.write()));
+        System.setProperty("physiquist.catalog", file.toString());
+        try {
+            Catalog opened = Catalog.open();
+            assertEquals(fresh.size(), opened.size());
+            for (int id = 0; id < fresh.size(); id++) {
+                assertEquals(fresh.get(id).getName(), opened.get(id).getName());
+                assertEquals(fresh.get(id).getQuantity(0), opened.get(id).getQuantity(0));
+            }
+        } finally {
+            System.clearProperty("physiquist.catalog");
+        }
+    }
+}
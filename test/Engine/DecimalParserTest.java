@@ -0,0 +1,75 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Both overloads against Double.parseDouble, bit for bit: on the fast path,
+// on every way off it, and on text that is no number at all.
+class DecimalParserTest {
+
+    private static final String[] TEXTS = {
+        "0", "-0", "+0.000", "1", "-1", "9.80665", ".5", "5.", "007", "1e3", "1E-3", "-2.5e+10",
+        "6.02214076e23", "1.602176634e-19", "123456789012345678", "1234567890123456789",
+        "9007199254740993", "0.1e-22", "1e22", "1e23", "1e-400", "1e400", "NaN", "-Infinity",
+        "0x1p3", "4.9e-324", "1.7976931348623157e308"
+    };
+    private static final int CALLS = 100_000;
+
+    private static void assertParsed(String text) {
+        double expected = Double.parseDouble(text);
+        assertEquals(expected, DecimalParser.parse(text, 0, text.length()), text);
+        ByteBuffer bytes = ByteBuffer.wrap((" \"" + text + "\" ").getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, DecimalParser.parse(bytes, 0, bytes.limit()), text);
+    }
+
+    @Test
+    void matchesParseDouble() {
+        for (String text : TEXTS) {
+            assertParsed(text);
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(60) - 30);
+            assertParsed(String.valueOf(random.nextBoolean() ? value : -value));
+            assertParsed(String.format(Locale.ROOT, "%." + random.nextInt(17) + "f", value));
+        }
+    }
+
+    @Test
+    void rejectsWhatParseDoubleRejects() {
+        for (String text : new String[]{"", "  ", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1,5", "12a", "é"}) {
+            assertThrows(NumberFormatException.class, () -> DecimalParser.parse(text, 0, text.length()), text);
+            ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            assertThrows(NumberFormatException.class, () -> DecimalParser.parse(bytes, 0, bytes.limit()), text);
+        }
+    }
+
+    // The fast path is what CsvBatch runs per cell and the calculator per
+    // keystroke; it must not allocate, whichever overload
+    @Test
+    void fastPathAllocatesNothing() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ByteBuffer bytes = ByteBuffer.wrap("-6.02214076e23".getBytes(StandardCharsets.US_ASCII));
+        StringBuilder chars = new StringBuilder("9.80665");
+        double sum = 0;
+        long allocated = Long.MAX_VALUE;
+        // Best of a few rounds, so the JIT compiling mid-round does not count
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                sum += DecimalParser.parse(bytes, 0, bytes.limit()) + DecimalParser.parse(chars, 0, chars.length());
+            }
+            allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        assertTrue(allocated < CALLS, allocated + " bytes over " + CALLS + " calls of each (" + sum + ")");
+    }
+}
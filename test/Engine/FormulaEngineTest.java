@@ -0,0 +1,32 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+// User formulas: a redefinition replaces the derived solvers, removal drops
+// them, and each publishes a registry snapshot.
+class FormulaEngineTest {
+
+    @Test
+    void redefineAndUndefineReplaceDerivedSolvers() {
+        String name = "Test Linear Law";
+        FormulaEngine.define(name, "y = 2 * x");
+        Solver first = FormulaEngine.compile(name, "x");
+        assertEquals(3.0, first.solve(new double[]{6.0}));
+        assertNotNull(FormulaRegistry.get().byName(name));
+
+        FormulaEngine.define(name, "y = 3 * x");
+        Solver second = FormulaEngine.compile(name, "x");
+        assertNotSame(first, second);
+        assertEquals(2.0, second.solve(new double[]{6.0}));
+
+        FormulaEngine.undefine(name);
+        assertThrows(IllegalArgumentException.class, () -> FormulaEngine.compile(name, "x"));
+        assertNull(FormulaRegistry.get().byName(name));
+    }
+}
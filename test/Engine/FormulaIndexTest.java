@@ -0,0 +1,31 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Searches share a thread's score arrays, so one must leave nothing behind
+// for the next: the same query gives the same answer whatever ran before it.
+class FormulaIndexTest {
+
+    private static final String[] QUERIES = {"v", "veloc", "momentm", "kinetic energy", "e", "ohm", "x"};
+
+    @Test
+    void searchesDoNotLeakIntoEachOther() {
+        FormulaIndex index = new FormulaIndex(FormulaRegistry.get().getFormulas());
+        List<FormulaInfo> first = index.search("veloc", 20);
+        assertFalse(first.isEmpty());
+        for (int round = 0; round < 3; round++) {
+            for (String query : QUERIES) {
+                index.search(query, 50);
+            }
+            assertEquals(first, index.search("veloc", 20));
+        }
+        FormulaIndex fresh = new FormulaIndex(FormulaRegistry.get().getFormulas());
+        for (String query : QUERIES) {
+            assertEquals(fresh.search(query, 50), index.search(query, 50), query);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Numeric solvers are shared process-wide, so an answer must depend only on
+// the inputs: not on earlier solves, and not on how a batch is split.
+class InverterTest {
+
+    private static final String MOTION = "Second Equation of Motion";
+
+    private static double solveForTime(Solver solver, double s, double u, double a) {
+        double[] in = solver.newInputs();
+        in[solver.slotOf("s")] = s;
+        in[solver.slotOf("u")] = u;
+        in[solver.slotOf("a")] = a;
+        return solver.solve(in);
+    }
+
+    @Test
+    void earlierSolvesDoNotChangeTheRoot() {
+        Solver solver = FormulaEngine.compile(MOTION, "t");
+        double first = solveForTime(solver, 10, 0, 2);
+        solveForTime(solver, 10, 0, -2);
+        solveForTime(solver, -50, 3, 9.81);
+        assertEquals(first, solveForTime(solver, 10, 0, 2));
+        assertEquals(Math.sqrt(10), first, 1e-12);
+    }
+
+    @Test
+    void nonNegativeRootIsPreferred() {
+        Solver solver = FormulaEngine.compile(MOTION, "t");
+        // t² - 20t - 10 = 0: 20.488 s, not -0.488 s
+        assertEquals(10 + Math.sqrt(110), solveForTime(solver, 10, -20, 2), 1e-9);
+    }
+
+    @Test
+    void batchesMatchSingleSolvesWhateverTheSplit() {
+        Solver solver = FormulaEngine.compile(MOTION, "t");
+        int rows = 1000;
+        Random random = new Random(3);
+        double[][] columns = new double[solver.getArity()][rows];
+        for (int i = 0; i < rows; i++) {
+            columns[solver.slotOf("s")][i] = random.nextDouble() * 200 - 50;
+            columns[solver.slotOf("u")][i] = random.nextDouble() * 40 - 20;
+            columns[solver.slotOf("a")][i] = random.nextDouble() * 20 - 10;
+        }
+        double[] expected = new double[rows];
+        double[] in = solver.newInputs();
+        for (int i = 0; i < rows; i++) {
+            for (int slot = 0; slot < in.length; slot++) {
+                in[slot] = columns[slot][i];
+            }
+            expected[i] = solver.solve(in);
+        }
+        assertArrayEquals(expected, solver.solveColumns(columns));
+        assertArrayEquals(expected, new ParallelBatch(97).solveColumns(solver, columns));
+    }
+}
@@ -0,0 +1,85 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// The bytecode kernels against the closure tree they replace, bit for bit, on
+// random inputs: every built-in equation, and generated ones wide enough to
+// need every way of pushing a slot index (iconst, bipush, sipush).
+class KernelCompilerTest {
+
+    private static final int ROWS = 64;
+
+    @Test
+    void builtInEquationsMatchInterpreter() {
+        Random random = new Random(42);
+        int checked = 0;
+        for (String formula : FormulaEngine.getFormulas()) {
+            Equation equation = FormulaEngine.getEquation(formula);
+            if (equation == null) {
+                continue;
+            }
+            String[] slots = equation.getVariables().toArray(new String[0]);
+            assertSame(formula, Expr.subtract(equation.getLeft(), equation.getRight()), slots, random);
+            checked++;
+        }
+        assertTrue(checked > 0, "no equations found");
+    }
+
+    @Test
+    void wideKernelsMatchInterpreter() {
+        Random random = new Random(7);
+        for (int arity : new int[]{1, 5, 6, 127, 128, 129, 150, 200}) {
+            String[] slots = new String[arity];
+            Expr sum = Expr.constant(0.5);
+            for (int slot = 0; slot < arity; slot++) {
+                slots[slot] = "x" + slot;
+                Expr term = Expr.multiply(Expr.constant(slot + 1), Expr.variable(slots[slot]));
+                if (slot % 3 == 1) {
+                    term = Expr.call(Expr.Fn.SIND, term);
+                } else if (slot % 3 == 2) {
+                    term = Expr.power(term, Expr.constant(2));
+                }
+                sum = Expr.add(sum, term);
+            }
+            assertSame(arity + " slots", sum, slots, random);
+        }
+    }
+
+    private static void assertSame(String name, Expr expr, String[] slots, Random random) {
+        Kernel compiled = KernelCompiler.compile(expr, slots);
+        Kernel interpreted = KernelCompiler.interpret(expr, slots);
+        // A kernel the JVM refused falls back to the interpreter, which would pass
+        assertTrue(compiled.getClass().isHidden(), name + " was not compiled");
+
+        double[][] columns = new double[slots.length][ROWS];
+        for (double[] column : columns) {
+            for (int i = 0; i < ROWS; i++) {
+                column[i] = (random.nextDouble() - 0.25) * Math.pow(10, random.nextInt(7) - 3);
+            }
+        }
+        double[] expected = new double[ROWS];
+        double[] actual = new double[ROWS];
+        interpreted.evalColumns(columns, expected, 0, ROWS);
+        compiled.evalColumns(columns, actual, 0, ROWS);
+
+        List<String> mismatches = new ArrayList<>();
+        double[] row = new double[slots.length];
+        for (int i = 0; i < ROWS; i++) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                row[slot] = columns[slot][i];
+            }
+            double single = compiled.eval(row);
+            if (Double.doubleToLongBits(single) != Double.doubleToLongBits(expected[i])
+                    || Double.doubleToLongBits(actual[i]) != Double.doubleToLongBits(expected[i])) {
+                mismatches.add("row " + i + ": " + expected[i] + " vs eval " + single + ", columns " + actual[i]);
+            }
+        }
+        assertEquals(List.of(), mismatches, name);
+    }
+}
@@ -0,0 +1,41 @@
+package Engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+// A row with no root has to fail about as cheaply as one with a root
+// succeeds, without giving up on roots that only the restarts find.
+class RootFinderTest {
+
+    private static int evaluations;
+
+    private static double solve(DoubleUnaryOperator f) {
+        evaluations = 0;
+        return RootFinder.solve(x -> {
+            evaluations++;
+            return f.applyAsDouble(x);
+        }, 1.0);
+    }
+
+    @Test
+    void noRootIsCheap() {
+        assertTrue(Double.isNaN(solve(x -> x * x + x + 1)));
+        assertTrue(evaluations <= 300, evaluations + " evaluations");
+    }
+
+    @Test
+    void everySearchIsBounded() {
+        // A pole and no root: the restarts run, but only to the budget
+        assertTrue(Double.isNaN(solve(x -> 1 / (x - 2))));
+        assertTrue(evaluations <= 2000, evaluations + " evaluations");
+    }
+
+    @Test
+    void rootBehindAPoleIsStillFound() {
+        // No sample of the scan changes sign; a restart finds 2.2
+        assertEquals(2.2, solve(x -> 1 / (x - 2) - 5), 1e-12);
+    }
+}
@@ -0,0 +1,58 @@
+package Server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Hostile bodies get an answer, not a dropped connection: JSON nested past
+// the parser's limit is a 400, and the server stays up for the next request.
+class CalculationServerTest {
+
+    @Test
+    void deepNestingIsAnError() {
+        String deep = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertTrue(Json.parse(deep) instanceof List);
+        String deeper = "[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(deeper));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":".repeat(200_000)));
+    }
+
+    @Test
+    void deepRequestGetsBadRequest() throws IOException {
+        CalculationServer server = new CalculationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        try {
+            URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/calculate");
+            assertEquals(400, post(url, "[".repeat(200_000)));
+            assertEquals(200, post(url, "{\"formula\":\"Ohm's Law\",\"target\":\"V\",\"inputs\":{\"I\":2,\"R\":3}}"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static int post(URL url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            in.readAllBytes();
+        }
+        return status;
+    }
+}